@@ -0,0 +1,13 @@
+@echo off
+rem Runs the compiler from the jar beside this script, with the class data
+rem archive made by "ant cds" when there is one. An archive made from another
+rem jar, or by another JVM, is quietly ignored.
+setlocal
+set home=%~dp0
+set java=java
+if defined JAVA_HOME set java="%JAVA_HOME%\bin\java"
+if exist "%home%Cherry.jsa" (
+    %java% -Xshare:auto -XX:SharedArchiveFile="%home%Cherry.jsa" %CHERRY_OPTS% -cp "%home%Cherry.jar" cherry.Cherry %*
+) else (
+    %java% %CHERRY_OPTS% -cp "%home%Cherry.jar" cherry.Cherry %*
+)
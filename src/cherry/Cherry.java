@@ -23,22 +23,8 @@
  */
 package cherry;
 
-import cherry.frontend.parser.Parser;
-import cherry.utils.SearchTree;
-import cherry.utils.exceptions.FailureToRaiseException;
-import cherry.utils.exceptions.FileNotProperException;
-import cherry.utils.exceptions.UnknownFlagException;
-import cherry.utils.handlers.*;
-import java.io.File;
-import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
-import java.util.logging.Level;
-import java.util.logging.Logger;
 
 /**
  * This is the Main class of the Cherry compiler. It is responsible for
@@ -48,15 +34,16 @@ import java.util.logging.Logger;
  * the flag handler altogether, then after the handlers are done, the compiler
  * will return with a success or an error. The process of the handlers include
  * sending each file off to be parsed.
+ * <p>
+ * The compilation itself is a {@code CompilationSession}, which holds all of
+ * its state, so that other ways of running the compiler can hold many.
+ * </p>
  * 
  * @author SoraKatadzuma
  * @version Alpha 0.0.1
  * @since 11/20/2017
  */
 public class Cherry {
-    private static final ExecutorService PARSER_EXECUTOR =
-            Executors.newCachedThreadPool();
-    
     /**
      * @param args The command line arguments.
      */
@@ -68,73 +55,22 @@ public class Cherry {
         
         // Iterate over all arguments and find the flags and files.
         for (String arg : args) {
-            if (arg.charAt(0) == '-') { flagsList.add(arg); }
+            if (arg.startsWith("-")) { flagsList.add(arg); }
             else { filesList.add(arg); }
         }
         
-        // Finalized versions of the Lists in array form for the handlers.
+        // Finalized versions of the Lists in array form for the session. Being
+        // given no files is reported by the session, as any other usage error.
         final String[] files = filesList.toArray(new String[0]);
         final String[] flags = flagsList.toArray(new String[0]);
+        final boolean compiled;
         
-        Thread flagThread = new Thread (() -> {
-            if (!flagsList.isEmpty()) {
-                try {
-                    FlagHandler flagHandler = new FlagHandler(flags);
-                } catch (UnknownFlagException | FailureToRaiseException ex) {
-                    Logger.getLogger(Cherry.class.getName()).log(Level.SEVERE, null, ex);
-                }
-            }
-        }, "FlagHandler-Thread");
-        
-        flagThread.start();
-        
-        Thread fileThread = new Thread (() -> {
-            if (!filesList.isEmpty()) {
-                try {
-                    FileHandler fileHandler = new FileHandler(files);
-                } catch (FileNotProperException ex) {
-                    Logger.getLogger(Cherry.class.getName()).log(Level.SEVERE, null, ex);
-                }
-            } else {
-                throw new NullPointerException("Compiler did not receive files to parse.");
-            }
-        }, "FileHandler-Thread");
-        
-        fileThread.start();
-        
-        // Join the handler threads before continuing to work.
-        try {
-            fileThread.join();
-            flagThread.join();
-        } catch (InterruptedException ie) {
-            Logger.getLogger(Cherry.class.getName()).log(Level.SEVERE, null, ie);
+        try (CompilationSession session = new CompilationSession(files, flags)) {
+            // Closing the session waits for everything printed to be written.
+            compiled = session.compile();
         }
         
-        // Our officially registered files.
-        final File[] registeredFiles = FileHandler.getRegisteredFiles();
-        final Collection<Callable<SearchTree>> tasks = new LinkedList<>();
-        
-        for (File file : registeredFiles) {
-            tasks.add((Callable) () -> {
-                File fileToParse = file;
-                Parser parser = new Parser(file);
-                parser.parse();
-                return parser.parseTree();
-            });
-        }
-        
-        List<Future<SearchTree>> parseTrees;
-        
-        try {
-            parseTrees = PARSER_EXECUTOR.invokeAll(tasks);
-        } catch (InterruptedException ex) {
-            Logger.getLogger(Cherry.class.getName()).log(Level.SEVERE, null, ex);
-        }
-        
-        PARSER_EXECUTOR.shutdown();
-        
-        // Generate code with the following trees.
-        // Generator.generateCodeFor(parseTrees);
-        // Finish.
+        // Build tools tell a failed compilation by its status.
+        if (!compiled) { System.exit(1); }
     }
 }
@@ -0,0 +1,543 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 SoraKatadzuma.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package cherry;
+
+import cherry.frontend.grammar.Token;
+import cherry.frontend.semantics.Analysis;
+import cherry.frontend.semantics.Attributes;
+import cherry.frontend.semantics.Builtins;
+import cherry.frontend.semantics.Member;
+import cherry.frontend.semantics.SemanticAnalyzer;
+import cherry.frontend.semantics.Type;
+import cherry.server.Document;
+import cherry.server.Json;
+import cherry.utils.Diagnostic;
+import cherry.utils.Diagnostics;
+import cherry.utils.SearchTree;
+import cherry.utils.SearchTree.Kind;
+import cherry.utils.SymbolPool;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The {@code CherryLanguageServer} is the other way of running the compiler:
+ * rather than compiling files once, it keeps the files open in an editor in
+ * memory and answers questions about them as they are edited, speaking the
+ * Language Server Protocol over the standard input and output.
+ * <p>
+ * Each open file is a {@code Document}, which lexes again only the tokens
+ * around an edit, and the trees of every open document are analyzed again
+ * together after every change, so that errors in one file caused by another
+ * are found. From those cached trees and the last {@code Analysis} the server
+ * publishes diagnostics, and answers for the symbols of a document and the
+ * definition of a name.
+ * </p>
+ * 
+ * @author SoraKatadzuma
+ * @version Alpha 0.0.1
+ * @since 10/18/2026
+ */
+public class CherryLanguageServer {
+    /** The code of an error answering a request the server does not know. */
+    private static final int METHOD_NOT_FOUND = -32601;
+    /** The code of an error answering a request that failed. */
+    private static final int INTERNAL_ERROR = -32603;
+    /** Incremental synchronization of documents, in the protocol. */
+    private static final int INCREMENTAL = 2;
+    
+    /** Where messages are read from. */
+    private final InputStream in;
+    /** Where messages are written to. */
+    private final OutputStream out;
+    /** The open documents, by their identifier. */
+    private final Map<String, Document> documents = new LinkedHashMap<>();
+    /** The pool documents are analyzed on. */
+    private final ExecutorService pool = Executors.newWorkStealingPool();
+    /** The pool the names of every document are placed in, while the server runs. */
+    private final SymbolPool names = Builtins.pool();
+    /** The last analysis of the open documents. */
+    private Analysis analysis;
+    /** The semantic errors of the last analysis, by file. */
+    private Map<String, List<Diagnostic>> semanticErrors = Collections.emptyMap();
+    /** Whether a shutdown was requested. */
+    private boolean shutdown;
+    
+    /**
+     * Constructs a new CherryLanguageServer.
+     * 
+     * @param in Where messages are read from.
+     * @param out Where messages are written to.
+     */
+    public CherryLanguageServer (InputStream in, OutputStream out) {
+        this.in = new BufferedInputStream(in);
+        this.out = new BufferedOutputStream(out);
+    }
+    
+    /**
+     * @param args The command line arguments, none of which are used.
+     */
+    public static void main (String[] args) {
+        System.exit(new CherryLanguageServer(System.in, System.out).run());
+    }
+    
+    /**
+     * Reads and answers messages until told to exit, or until the input ends.
+     * 
+     * @return The exit code: zero if a shutdown was requested before the exit.
+     */
+    public int run () {
+        try {
+            String message;
+            
+            while ((message = read()) != null) {
+                Object parsed;
+                
+                try {
+                    parsed = Json.parse(message);
+                } catch (IllegalArgumentException ex) {
+                    Logger.getLogger(CherryLanguageServer.class.getName()).log(Level.WARNING, ex.getMessage());
+                    continue;
+                }
+                
+                if ("exit".equals(Json.get(parsed, "method"))) { break; }
+                
+                handle(parsed);
+            }
+        } catch (IOException ex) {
+            Logger.getLogger(CherryLanguageServer.class.getName()).log(Level.SEVERE, null, ex);
+        }
+        
+        pool.shutdown();
+        return shutdown ? 0 : 1;
+    }
+    
+    /**
+     * Reads the content of the next message.
+     * 
+     * @return The content, or {@code null} if the input ended.
+     * @throws IOException If the input could not be read.
+     */
+    private String read () throws IOException {
+        int length = -1;
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        int ch;
+        
+        // Headers are lines ending in CRLF, and end with an empty line.
+        while ((ch = in.read()) != -1) {
+            if (ch == '\r') { continue; }
+            if (ch != '\n') { header.write(ch); continue; }
+            
+            String line = header.toString("US-ASCII");
+            header.reset();
+            
+            if (line.isEmpty()) {
+                if (length >= 0) { break; }
+                continue;
+            }
+            
+            if (line.regionMatches(true, 0, "Content-Length:", 0, 15)) {
+                length = Integer.parseInt(line.substring(15).trim());
+            }
+        }
+        
+        if (ch == -1) { return null; }
+        
+        byte[] content = new byte[length];
+        
+        for (int read = 0; read < length; ) {
+            int count = in.read(content, read, length - read);
+            
+            if (count < 0) { return null; }
+            
+            read += count;
+        }
+        
+        return new String(content, StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * Writes a message.
+     * 
+     * @param message The message.
+     * @throws IOException If the output could not be written.
+     */
+    private void send (Map<String, Object> message) throws IOException {
+        message.put("jsonrpc", "2.0");
+        
+        byte[] content = Json.write(message).getBytes(StandardCharsets.UTF_8);
+        
+        out.write(("Content-Length: " + content.length + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.write(content);
+        out.flush();
+    }
+    
+    /**
+     * Answers a request, or acts on a notification.
+     * 
+     * @param message The message.
+     * @throws IOException If the output could not be written.
+     */
+    private void handle (Object message) throws IOException {
+        String method = (String) Json.get(message, "method");
+        Object id = Json.get(message, "id");
+        Object params = Json.get(message, "params");
+        Object result = null;
+        
+        if (method == null) { return; }
+        
+        try {
+            switch (method) {
+                case "initialize":                  result = initialize(); break;
+                case "shutdown":                    shutdown = true; break;
+                case "textDocument/didOpen":        didOpen(params); break;
+                case "textDocument/didChange":      didChange(params); break;
+                case "textDocument/didClose":       didClose(params); break;
+                case "textDocument/documentSymbol": result = documentSymbol(params); break;
+                case "textDocument/definition":     result = definition(params); break;
+                default:
+                    if (id != null) {
+                        send(Json.object("id", id, "error", Json.object("code", METHOD_NOT_FOUND,
+                                "message", "The method \"" + method + "\" is not supported.")));
+                    }
+                    return;
+            }
+        } catch (RuntimeException ex) {
+            Logger.getLogger(CherryLanguageServer.class.getName()).log(Level.SEVERE, method, ex);
+            
+            if (id != null) {
+                send(Json.object("id", id, "error", Json.object("code", INTERNAL_ERROR,
+                        "message", String.valueOf(ex))));
+            }
+            return;
+        }
+        
+        // Notifications are not answered.
+        if (id != null) { send(Json.object("id", id, "result", result)); }
+    }
+    
+    /**
+     * @return What the server can do.
+     */
+    private Object initialize () {
+        return Json.object(
+                "capabilities", Json.object(
+                        "textDocumentSync", Json.object("openClose", true, "change", INCREMENTAL),
+                        "documentSymbolProvider", true,
+                        "definitionProvider", true),
+                "serverInfo", Json.object("name", "cherry", "version", "Alpha 0.0.1"));
+    }
+    
+    private void didOpen (Object params) throws IOException {
+        String uri = (String) Json.get(params, "textDocument", "uri");
+        String text = (String) Json.get(params, "textDocument", "text");
+        
+        documents.put(uri, new Document(uri, fileOf(uri), text, names, Json.getInt(params, "textDocument", "version")));
+        analyze();
+    }
+    
+    private void didChange (Object params) throws IOException {
+        Document document = documents.get((String) Json.get(params, "textDocument", "uri"));
+        int version = Json.getInt(params, "textDocument", "version");
+        
+        if (document == null) { return; }
+        
+        // Changes are applied one after the other, each to the outcome of the last.
+        for (Object change : (List<?>) Json.get(params, "contentChanges")) {
+            String text = (String) Json.get(change, "text");
+            Object range = Json.get(change, "range");
+            
+            if (range == null) {
+                document.replace(text, version);
+            } else {
+                long start = document.offsetOf(Json.getInt(range, "start", "line"), Json.getInt(range, "start", "character"));
+                long end = document.offsetOf(Json.getInt(range, "end", "line"), Json.getInt(range, "end", "character"));
+                
+                document.edit(start, end, text, version);
+            }
+        }
+        
+        analyze();
+    }
+    
+    private void didClose (Object params) throws IOException {
+        String uri = (String) Json.get(params, "textDocument", "uri");
+        
+        if (documents.remove(uri) == null) { return; }
+        
+        send(Json.object("method", "textDocument/publishDiagnostics",
+                "params", Json.object("uri", uri, "diagnostics", new ArrayList<>())));
+        analyze();
+    }
+    
+    /**
+     * Analyzes every open document again, then publishes the diagnostics of
+     * each.
+     * 
+     * @throws IOException If the output could not be written.
+     */
+    private void analyze () throws IOException {
+        List<SearchTree> trees = new ArrayList<>(documents.size());
+        Diagnostics errors = new Diagnostics();
+        
+        for (Document document : documents.values()) { trees.add(document.tree()); }
+        
+        try {
+            analysis = new SemanticAnalyzer(pool, names, errors).analyze(trees);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        
+        semanticErrors = new HashMap<>();
+        
+        for (Diagnostic error : errors.all()) {
+            semanticErrors.computeIfAbsent(error.fileName(), name -> new ArrayList<>()).add(error);
+        }
+        
+        for (Document document : documents.values()) {
+            List<Object> published = new ArrayList<>();
+            
+            for (Diagnostic error : document.syntaxErrors()) { published.add(diagnostic(document, error)); }
+            
+            for (Diagnostic error : semanticErrors.getOrDefault(document.file().getPath(),
+                    Collections.<Diagnostic>emptyList())) {
+                published.add(diagnostic(document, error));
+            }
+            
+            send(Json.object("method", "textDocument/publishDiagnostics",
+                    "params", Json.object("uri", document.uri(), "version", document.version(),
+                            "diagnostics", published)));
+        }
+    }
+    
+    /**
+     * @return A diagnostic of a document, as the protocol has it.
+     */
+    private static Object diagnostic (Document document, Diagnostic error) {
+        long end = error.offset();
+        Token[] tokens = document.tokens();
+        
+        // The diagnostic covers the token it is at.
+        for (int low = 0, high = tokens.length - 1; low <= high; ) {
+            int middle = (low + high) >>> 1;
+            
+            if (tokens[middle].offset() < error.offset()) { low = middle + 1; }
+            else if (tokens[middle].offset() > error.offset()) { high = middle - 1; }
+            else { end = document.endOf(tokens[middle]); break; }
+        }
+        
+        return Json.object(
+                "range", range(document, Math.max(0, error.offset()), Math.max(0, end)),
+                "severity", error.severity() == Diagnostic.Severity.ERROR ? 1 : 2,
+                "code", error.code().getCode(),
+                "source", "cherry",
+                "message", error.message());
+    }
+    
+    /**
+     * @return The symbols declared in a document, nested as they are declared.
+     */
+    private Object documentSymbol (Object params) {
+        Document document = documents.get((String) Json.get(params, "textDocument", "uri"));
+        
+        if (document == null) { return new ArrayList<>(); }
+        
+        return symbols(document, document.tree().root());
+    }
+    
+    /**
+     * @return The symbols declared among the children of a node.
+     */
+    private static List<Object> symbols (Document document, int node) {
+        SearchTree tree = document.tree();
+        List<Object> symbols = new ArrayList<>();
+        
+        for (int child = tree.firstChild(node); child != SearchTree.NONE; child = tree.nextSibling(child)) {
+            int kind = symbolKind(tree.kind(child));
+            
+            if (kind == 0 || tree.name(child) == Token.NO_SYMBOL) { continue; }
+            
+            Map<String, Object> symbol = Json.object(
+                    "name", tree.names().name(tree.name(child)),
+                    "kind", kind,
+                    "range", range(document, tree.tokens()[tree.first(child)].offset(),
+                            document.endOf(tree.tokens()[tree.last(child)])),
+                    "selectionRange", nameRange(document, child));
+            
+            if (tree.kind(child).isType()) { symbol.put("children", symbols(document, child)); }
+            
+            symbols.add(symbol);
+        }
+        
+        return symbols;
+    }
+    
+    /**
+     * @return The kind of symbol a kind of node declares, in the protocol, or
+     *      zero if it declares none worth listing.
+     */
+    private static int symbolKind (Kind kind) {
+        switch (kind) {
+            case NAMESPACE: return 3;
+            case CLASS:     return 5;
+            case METHOD:    return 6;
+            case FIELD:     return 8;
+            case ENUM:      return 10;
+            case INTERFACE: return 11;
+            case CONSTANT:  return 14;
+            case STRUCT:    return 23;
+            default:        return 0;
+        }
+    }
+    
+    /**
+     * Finds the declaration of the name at a position: the local or parameter
+     * it refers to, the member it refers to, or the type it names.
+     * 
+     * @return The location of the declaration, or {@code null}.
+     */
+    private Object definition (Object params) {
+        Document document = documents.get((String) Json.get(params, "textDocument", "uri"));
+        
+        if (document == null || analysis == null) { return null; }
+        
+        SearchTree tree = document.tree();
+        long offset = document.offsetOf(Json.getInt(params, "position", "line"),
+                Json.getInt(params, "position", "character"));
+        int node = tree.nodeAt(offset);
+        Attributes attributes = attributesOf(tree);
+        Kind kind = tree.kind(node);
+        
+        if (kind.compareTo(Kind.NAMESPACE) >= 0 && kind.compareTo(Kind.LOCAL) <= 0) {
+            return location(document, node);
+        }
+        
+        if (attributes == null) { return null; }
+        
+        if (attributes.local(node) != SearchTree.NONE) { return location(document, attributes.local(node)); }
+        
+        Member member = attributes.member(node);
+        
+        if (member != null && member.tree() != null) { return location(member.tree(), member.node()); }
+        
+        Type type = attributes.type(node);
+        boolean namesType = kind == Kind.TYPE || kind == Kind.NEW || (type != null && type.kind() == Type.Kind.TYPE);
+        
+        if (namesType && type != null && type.declaration() != null) {
+            return location(type.declaration().tree(), type.declaration().node());
+        }
+        
+        return null;
+    }
+    
+    /**
+     * @return The attributes of a tree in the last analysis, or {@code null}.
+     */
+    private Attributes attributesOf (SearchTree tree) {
+        List<SearchTree> trees = analysis.trees();
+        
+        for (int i = 0; i < trees.size(); i++) {
+            if (trees.get(i) == tree) { return analysis.attributes().get(i); }
+        }
+        
+        return null;
+    }
+    
+    /**
+     * @return The location of the name of a declaration in any open document,
+     *      or {@code null} if its tree is not of one.
+     */
+    private Object location (SearchTree tree, int node) {
+        for (Document document : documents.values()) {
+            if (document.tree() == tree) { return location(document, node); }
+        }
+        
+        return null;
+    }
+    
+    /**
+     * @return The location of the name of a node of a document.
+     */
+    private static Object location (Document document, int node) {
+        return Json.object("uri", document.uri(), "range", nameRange(document, node));
+    }
+    
+    /**
+     * @return The range of the token a node stands for.
+     */
+    private static Object nameRange (Document document, int node) {
+        Token name = document.tree().tokenOf(node);
+        
+        return range(document, name.offset(), document.endOf(name));
+    }
+    
+    /**
+     * @return The range between two offsets of a document, as the protocol has it.
+     */
+    private static Object range (Document document, long start, long end) {
+        return Json.object("start", position(document, start), "end", position(document, end));
+    }
+    
+    /**
+     * @return A position of a document, as the protocol has it.
+     */
+    private static Object position (Document document, long offset) {
+        int[] position = document.positionOf(offset);
+        
+        return Json.object("line", position[0], "character", position[1]);
+    }
+    
+    /**
+     * @return The file a document identifier names, or one named after it if
+     *      it is not a file.
+     */
+    private static File fileOf (String uri) {
+        try {
+            URI parsed = URI.create(uri);
+            
+            if ("file".equals(parsed.getScheme())) { return new File(parsed); }
+        } catch (IllegalArgumentException ex) {
+            // Not a file, so it is named by the identifier itself.
+        }
+        
+        return new File(uri);
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 SoraKatadzuma.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package cherry;
+
+import cherry.distributed.Worker;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The {@code CherryWorker} is the process files are lexed and parsed by when
+ * the compiler is given workers. It listens on a port for compilers to connect
+ * to it, and prints the port once it does, so that a worker given no port, and
+ * so any port free, can still be found.
+ * <p>
+ * A worker started by a compiler for itself is attached to it: it only
+ * listens on the loopback address, and stops once its standard input ends,
+ * which it does when the compiler ends, however it ends.
+ * </p>
+ * 
+ * @author SoraKatadzuma
+ * @version Alpha 0.0.1
+ * @since 10/18/2026
+ */
+public class CherryWorker {
+    /**
+     * @param args The port to listen on, none or zero for any port free, and
+     * "--attached" when started by a compiler for itself.
+     */
+    public static void main (String[] args) {
+        int port = 0;
+        boolean attached = false;
+        
+        for (String arg : args) {
+            if ("--attached".equals(arg)) { attached = true; }
+            else { port = Integer.parseInt(arg); }
+        }
+        
+        try {
+            ServerSocket server = attached
+                    ? new ServerSocket(port, 50, InetAddress.getLoopbackAddress())
+                    : new ServerSocket(port);
+            
+            if (attached) { stopWithParent(); }
+            
+            System.out.println(Worker.READY + server.getLocalPort());
+            System.out.flush();
+            
+            new Worker(server).serve();
+        } catch (IOException ex) {
+            Logger.getLogger(CherryWorker.class.getName()).log(Level.SEVERE, null, ex);
+            System.exit(1);
+        }
+    }
+    
+    /**
+     * Ends the process once its standard input ends.
+     */
+    private static void stopWithParent () {
+        Thread watch = new Thread(() -> {
+            try {
+                while (System.in.read() != -1) { }
+            } catch (IOException ex) {
+                // Ended either way.
+            }
+            
+            System.exit(0);
+        }, "CherryWorker-Parent");
+        
+        watch.setDaemon(true);
+        watch.start();
+    }
+}
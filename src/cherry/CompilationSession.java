@@ -0,0 +1,393 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 SoraKatadzuma.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package cherry;
+
+import cherry.backend.Generator;
+import cherry.distributed.Coordinator;
+import cherry.frontend.ImportGraph;
+import cherry.frontend.parser.Parser;
+import cherry.frontend.semantics.Analysis;
+import cherry.frontend.semantics.Builtins;
+import cherry.frontend.semantics.InterfaceSummary;
+import cherry.frontend.semantics.SemanticAnalyzer;
+import cherry.interpreter.Interpreter;
+import cherry.middleend.PassManager;
+import cherry.utils.Diagnostic;
+import cherry.utils.Diagnostics;
+import cherry.utils.MemoryGovernor;
+import cherry.utils.OutputSink;
+import cherry.utils.SearchTree;
+import cherry.utils.SymbolPool;
+import cherry.utils.handlers.FileHandler;
+import cherry.utils.handlers.FlagHandler;
+import cherry.utils.handlers.FlagHandler.RuntimeFlag;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The {@code CompilationSession} is one compilation: the files and flags it
+ * was given, the pool it works on, the problems it found, and what it made of
+ * the files. Nothing of a compilation is kept anywhere else, so a process can
+ * hold many sessions, one after another or side by side, as a daemon, an
+ * editor or a test harness would.
+ * <p>
+ * What sessions do share is what never changes once made: the tables of the
+ * lexer and parser. Each session places the names of its files in a
+ * {@code SymbolPool} of its own, which is let go of along with it. A session
+ * can also be given a pool shared with others, which it then leaves running
+ * once closed; a session given none makes its own, and shuts it down once
+ * closed.
+ * </p>
+ * <p>
+ * Everything a session prints goes through an {@code OutputSink}, which keeps
+ * the lines of each thread together. It is that of the diagnostics the
+ * session is given, so sessions side by side can print through one and still
+ * print whole lines; a session given diagnostics printing nowhere makes a sink
+ * of its own for what it is asked to print, and stops it once closed.
+ * </p>
+ * 
+ * @author SoraKatadzuma
+ * @version Alpha 0.0.1
+ * @since 10/18/2026
+ */
+public final class CompilationSession implements Closeable {
+    /** The flags of the session. */
+    private final FlagHandler options;
+    /** The files of the session. */
+    private final FileHandler files;
+    /** Where the problems of the session are reported. */
+    private final Diagnostics diagnostics;
+    /** Where everything the session prints goes. */
+    private final OutputSink sink;
+    /** Whether the sink was made by the session, and is stopped with it. */
+    private final boolean ownsSink;
+    /** The pool the names of the files of the session are placed in. */
+    private final SymbolPool names = Builtins.pool();
+    /** The pool files are parsed, analyzed and generated on. */
+    private final ExecutorService pool;
+    /** Whether the pool was made by the session, and is shut down with it. */
+    private final boolean ownsPool;
+    /** The passes every function is optimized with. */
+    private final PassManager passes = new PassManager();
+    /** The trees of the files compiled, in the order they were analyzed. */
+    private List<SearchTree> trees = Collections.emptyList();
+    /** The analysis of the files, once they are analyzed. */
+    private Analysis analysis;
+    /** Whether the session has compiled. */
+    private boolean compiled;
+    
+    /**
+     * Constructs a new CompilationSession working on a pool of its own, and
+     * reporting problems as they are found.
+     * 
+     * @param files The files, directories and argument files to compile.
+     * @param flags The flags of the compilation.
+     */
+    public CompilationSession (String[] files, String[] flags) {
+        this(files, flags, Executors.newWorkStealingPool(), true, new Diagnostics(new OutputSink()), true);
+    }
+    
+    /**
+     * Constructs a new CompilationSession working on a pool shared with others.
+     * 
+     * @param files The files, directories and argument files to compile.
+     * @param flags The flags of the compilation.
+     * @param pool The pool to work on, ideally a work-stealing one.
+     * @param diagnostics Where the problems of the session are reported.
+     */
+    public CompilationSession (String[] files, String[] flags, ExecutorService pool, Diagnostics diagnostics) {
+        this(files, flags, pool, false, diagnostics, diagnostics.sink() == null);
+    }
+    
+    private CompilationSession (String[] files, String[] flags, ExecutorService pool, boolean ownsPool,
+            Diagnostics diagnostics, boolean ownsSink) {
+        this.pool = pool;
+        this.ownsPool = ownsPool;
+        this.diagnostics = diagnostics;
+        this.sink = diagnostics.sink() == null ? new OutputSink() : diagnostics.sink();
+        this.ownsSink = ownsSink;
+        
+        // The flags come first, as the files may be read differently by them.
+        this.options = new FlagHandler(flags, diagnostics);
+        this.files = new FileHandler(files, diagnostics);
+    }
+    
+    /**
+     * Compiles the files of the session: orders them by what they use, parses
+     * them, analyzes them together and, if nothing is wrong, runs the program
+     * or writes its class files, as the flags tell.
+     * 
+     * @return {@code true} if no errors were found.
+     * @throws IllegalStateException If the session has already compiled.
+     */
+    public boolean compile () {
+        if (compiled) { throw new IllegalStateException("A session only compiles once."); }
+        
+        compiled = true;
+        
+        try {
+            // Whatever was wrong with the files and flags comes first.
+            sink.drain();
+            compileFiles();
+        } catch (InterruptedException ex) {
+            Logger.getLogger(CompilationSession.class.getName()).log(Level.SEVERE, null, ex);
+            Thread.currentThread().interrupt();
+        }
+        
+        // Every problem of every file was reported in this one session.
+        if (diagnostics.errors() + diagnostics.warnings() > 0) {
+            sink.print(sink.err(), diagnostics.errors() + " error(s), " + diagnostics.warnings() + " warning(s).");
+            sink.flush();
+        }
+        
+        return diagnostics.errors() == 0;
+    }
+    
+    private void compileFiles () throws InterruptedException {
+        // Our officially registered files.
+        final File[] registeredFiles = files.getRegisteredFiles();
+        // The declarations of the libraries used, read from their summaries.
+        List<SearchTree> libraries = Collections.emptyList();
+        final String summaries = options.getValue(RuntimeFlag.SUMMARIES);
+        String entry = options.getValue(RuntimeFlag.ENTRY);
+        List<String> entries = entry == null ? Collections.<String>emptyList() : Arrays.asList(entry.split(","));
+        ImportGraph graph = ImportGraph.of(registeredFiles, pool, names, diagnostics);
+        // The files the entry points need, those used by others first.
+        List<List<File>> waves = graph.waves(entries);
+        
+        if (summaries != null) {
+            libraries = InterfaceSummary.loadAll(new File(summaries), graph.undeclaredUses(), graph::declares, names, diagnostics);
+        }
+        
+        // Whatever was found wrong with the graph comes before the files.
+        sink.flush();
+        
+        final List<File> filesToCompile = new ArrayList<>();
+        
+        for (List<File> wave : waves) { filesToCompile.addAll(wave); }
+        
+        // The optimizations not wanted are known before anything is compiled.
+        final String disabled = options.getValue(RuntimeFlag.DISABLE_PASSES);
+        
+        if (disabled != null) {
+            for (String unknown : passes.disable(disabled)) {
+                diagnostics.error(Diagnostic.Code.IMPROPER_FLAG_VALUE, null,
+                        "There is no pass \"" + unknown + "\" to disable.");
+            }
+        }
+        
+        trees = parse(filesToCompile);
+        
+        // Check the meaning of every tree on the same pool. The trees are
+        // in the order of their waves, so the files others use are
+        // resolved first.
+        analysis = new SemanticAnalyzer(pool, names, diagnostics).analyze(trees, libraries);
+        
+        // Only a program without errors is run, or turned into class
+        // files, one class per task on the same pool again.
+        if (diagnostics.errors() == 0) {
+            if (options.isRaised(RuntimeFlag.RUN)) {
+                // Whatever the compiler printed comes before what the program prints.
+                sink.drain();
+                
+                PrintStream out = new PrintStream(new BufferedOutputStream(
+                        new FileOutputStream(FileDescriptor.out), OutputSink.BATCH), false);
+                new Interpreter(analysis, diagnostics, passes, out).run();
+            } else {
+                String output = options.getValue(RuntimeFlag.OUTPUT);
+                new Generator(analysis, pool, diagnostics, passes).writeAll(new File(output == null ? "." : output));
+            }
+            
+            if (options.isRaised(RuntimeFlag.TIME_PASSES)) { passes.report(sink); }
+        }
+        
+        // Summarize what each compiled namespace exports, for whoever uses
+        // it, unless there were errors, so no summary is of a broken namespace.
+        if (summaries != null && diagnostics.errors() == 0) { InterfaceSummary.writeAll(new File(summaries), analysis, diagnostics); }
+    }
+    
+    /**
+     * Lexes and parses files, on the workers asked for, or on the pool.
+     * 
+     * @param filesToCompile The files, in the order they are analyzed.
+     * @return The tree of each file, in the same order.
+     */
+    private List<SearchTree> parse (List<File> filesToCompile) throws InterruptedException {
+        final boolean dumpTokens = options.isRaised(RuntimeFlag.DUMP_TOKENS);
+        final Coordinator coordinator = coordinator();
+        
+        if (coordinator != null) {
+            // The workers lex and parse the files, and this process the rest.
+            try (Coordinator connected = coordinator) {
+                return connected.parseAll(filesToCompile, dumpTokens);
+            }
+        }
+        
+        // Bound the memory of the files being lexed and parsed at once.
+        final String budget = options.getValue(RuntimeFlag.MEMORY_BUDGET);
+        MemoryGovernor chosen = MemoryGovernor.ofHeap();
+        
+        try {
+            if (budget != null) { chosen = new MemoryGovernor(MemoryGovernor.parseSize(budget)); }
+        } catch (IllegalArgumentException ex) {
+            diagnostics.error(Diagnostic.Code.IMPROPER_FLAG_VALUE, null,
+                    "The memory budget \"" + budget + "\" is not a positive size, such as 512m.");
+        }
+        
+        final MemoryGovernor governor = chosen;
+        final List<Callable<SearchTree>> tasks = new ArrayList<>(filesToCompile.size());
+        
+        for (File file : filesToCompile) {
+            tasks.add(() -> {
+                long share = MemoryGovernor.estimate(file);
+                
+                governor.acquire(share);
+                
+                try {
+                    Parser parser = new Parser(file, names, diagnostics, sink, dumpTokens);
+                    parser.parse();
+                    return parser.parseTree();
+                } finally {
+                    governor.release(share);
+                }
+            });
+        }
+        
+        final List<SearchTree> parseTrees = new ArrayList<>(filesToCompile.size());
+        
+        for (Future<SearchTree> parseTree : pool.invokeAll(tasks)) {
+            try {
+                parseTrees.add(parseTree.get());
+            } catch (ExecutionException ex) {
+                Logger.getLogger(CompilationSession.class.getName()).log(Level.SEVERE, null, ex.getCause());
+            }
+        }
+        
+        return parseTrees;
+    }
+    
+    /**
+     * Makes a coordinator of the workers asked for by the flags, either
+     * already running or started here. Workers that cannot be had are
+     * reported, and the files parsed here instead.
+     * 
+     * @return The coordinator, or {@code null} if files are parsed here.
+     */
+    private Coordinator coordinator () {
+        final String workers = options.getValue(RuntimeFlag.WORKERS);
+        final String spawned = options.getValue(RuntimeFlag.SPAWN_WORKERS);
+        Coordinator coordinator = null;
+        
+        try {
+            if (workers != null) {
+                coordinator = new Coordinator(Coordinator.addresses(workers), names, diagnostics, sink);
+            } else if (spawned != null) {
+                int count = Integer.parseInt(spawned);
+                
+                if (count <= 0) { throw new NumberFormatException(spawned); }
+                
+                coordinator = Coordinator.start(count, names, diagnostics, sink);
+            }
+        } catch (IllegalArgumentException ex) {
+            diagnostics.error(Diagnostic.Code.IMPROPER_FLAG_VALUE, null, workers != null
+                    ? "The workers \"" + workers + "\" are not hosts and ports, such as build1:7000,build2:7000."
+                    : "The number of workers \"" + spawned + "\" is not a number above zero.");
+        } catch (IOException ex) {
+            diagnostics.warning(Diagnostic.Code.UNAVAILABLE_WORKER, null,
+                    "The workers could not be started, so the files are parsed here: " + ex.getMessage());
+        }
+        
+        sink.flush();
+        return coordinator;
+    }
+    
+    /**
+     * @return The flags of the session.
+     */
+    public FlagHandler options () { return options; }
+    
+    /**
+     * @return The files registered with the session.
+     */
+    public File[] files () { return files.getRegisteredFiles().clone(); }
+    
+    /**
+     * @return Where the problems of the session are reported.
+     */
+    public Diagnostics diagnostics () { return diagnostics; }
+    
+    /**
+     * @return The pool the session works on.
+     */
+    public ExecutorService pool () { return pool; }
+    
+    /**
+     * @return The trees of the files compiled, none before the session compiles.
+     */
+    public List<SearchTree> trees () { return Collections.unmodifiableList(trees); }
+    
+    /**
+     * @return The analysis of the files, or {@code null} before the session compiles.
+     */
+    public Analysis analysis () { return analysis; }
+    
+    /**
+     * @return The pool the names of the files of the session are placed in.
+     */
+    public SymbolPool names () { return names; }
+    
+    /**
+     * Shuts down the pool of the session, if it made its own, and stops its
+     * sink once everything printed is written, if it made that too.
+     */
+    @Override
+    public void close () {
+        if (ownsPool) { pool.shutdown(); }
+        
+        if (ownsSink) {
+            try {
+                sink.shutdown();
+            } catch (InterruptedException ex) {
+                Logger.getLogger(CompilationSession.class.getName()).log(Level.SEVERE, null, ex);
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,393 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 SoraKatadzuma.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package cherry.backend;
+
+import static cherry.backend.Opcodes.*;
+
+import cherry.frontend.grammar.Token;
+import cherry.frontend.semantics.Attributes;
+import cherry.frontend.semantics.Builtins;
+import cherry.frontend.semantics.Declaration;
+import cherry.frontend.semantics.Member;
+import cherry.frontend.semantics.Type;
+import cherry.middleend.Function;
+import cherry.middleend.Lowering;
+import cherry.utils.Diagnostic;
+import cherry.utils.Diagnostics;
+import cherry.utils.SearchTree;
+import cherry.utils.SearchTree.Kind;
+import cherry.utils.SymbolPool;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@code ClassGenerator} generates the class file of one type. It walks the
+ * type's part of its tree once, writing each member as it comes to it. The
+ * body of each method, and the field initializers of the constructor and
+ * static initializer, are lowered to SSA form, optimized by the passes of the
+ * compilation, and then emitted as code.
+ * <p>
+ * The small static methods of the type may be inlined into its other methods.
+ * Each is lowered once, the first time a call of it is looked at.
+ * </p>
+ * 
+ * @author SoraKatadzuma
+ * @version Alpha 0.0.1
+ * @since 10/18/2026
+ */
+final class ClassGenerator {
+    /** The generator of the compilation. */
+    private final Generator generator;
+    /** Where problems are reported. */
+    private final Diagnostics diagnostics;
+    /** The type being generated. */
+    private final Declaration declaration;
+    /** The tree of the type. */
+    private final SearchTree tree;
+    /** The attributes of the tree. */
+    private final Attributes attributes;
+    /** The pool of names of the compilation. */
+    private final SymbolPool names;
+    /** The internal name of the class. */
+    private final String name;
+    /** The descriptor of the class. */
+    private final String self;
+    /** Whether the type is an interface. */
+    private final boolean isInterface;
+    /** Lowers the functions of the type. */
+    private final Lowering lowering;
+    /** The functions of the methods calls may be inlined from, {@code null} where they may not. */
+    private final Map<Member, Function> callees = new HashMap<>();
+    
+    /** The class being written. */
+    private ClassWriter writer;
+    /** The code of the method being generated. */
+    private Code code;
+    /** Whether something could not be generated. */
+    private boolean failed;
+    
+    /**
+     * Constructs a new ClassGenerator.
+     * 
+     * @param generator The generator of the compilation.
+     * @param declaration The type to generate.
+     * @param diagnostics Where problems are reported.
+     */
+    ClassGenerator (Generator generator, Declaration declaration, Diagnostics diagnostics) {
+        this.generator = generator;
+        this.diagnostics = diagnostics;
+        this.declaration = declaration;
+        this.tree = declaration.tree();
+        this.attributes = generator.analysis().attributesOf(tree);
+        this.names = generator.analysis().names();
+        this.name = Generator.internalName(declaration);
+        this.self = "L" + name + ";";
+        this.isInterface = declaration.kind() == Kind.INTERFACE;
+        this.lowering = new Lowering(generator.analysis(), declaration, diagnostics);
+    }
+    
+    /**
+     * @return The class file, or {@code null} if it could not be generated.
+     */
+    byte[] generate () {
+        try {
+            return generateClass();
+        } catch (IllegalStateException ex) {
+            // One of the limits of a class file was reached.
+            error(declaration.node(), ex.getMessage());
+            return null;
+        }
+    }
+    
+    private byte[] generateClass () {
+        int node = declaration.node();
+        Kind kind = declaration.kind();
+        String superName = kind == Kind.ENUM ? "java/lang/Enum" : "java/lang/Object";
+        List<String> interfaces = new ArrayList<>();
+        
+        for (int child = tree.firstChild(node); child != SearchTree.NONE; child = tree.nextSibling(child)) {
+            if (tree.kind(child) != Kind.TYPE) { continue; }
+            
+            Declaration supertype = attributes.type(child).declaration();
+            
+            if (supertype.kind() == Kind.INTERFACE) {
+                interfaces.add(Generator.internalName(supertype));
+            } else if (kind == Kind.INTERFACE || kind == Kind.ENUM) {
+                error(child, "an " + kind.name().toLowerCase() + " can only inherit from interfaces");
+            } else if (supertype.kind() == Kind.ENUM) {
+                error(child, "\"" + supertype.qualifiedName() + "\" is an enum, and cannot be inherited");
+            } else if (!superName.equals("java/lang/Object")) {
+                error(child, "\"" + declaration.qualifiedName() + "\" can only inherit from one class");
+            } else {
+                superName = Generator.internalName(supertype);
+            }
+        }
+        
+        writer = new ClassWriter(classAccess(), name, superName, interfaces.toArray(new String[0]));
+        writer.sourceFile(tree.file().getName());
+        
+        for (int child = tree.firstChild(node); child != SearchTree.NONE; child = tree.nextSibling(child)) {
+            switch (tree.kind(child)) {
+                case FIELD:     field(child);   break;
+                case METHOD:    method(child);  break;
+                case CONSTANT: {
+                    writer.field(ACC_PUBLIC | ACC_STATIC | ACC_FINAL | ACC_ENUM, names.name(tree.name(child)), self);
+                    break;
+                }
+                default:        break;
+            }
+        }
+        
+        if (!isInterface) { constructor(superName); }
+        
+        staticInitializer();
+        entryPoint();
+        
+        return failed ? null : writer.toByteArray();
+    }
+    
+    /* ---------------------------------------------------------------------- */
+    /* Members.                                                               */
+    /* ---------------------------------------------------------------------- */
+    
+    private int classAccess () {
+        int node = declaration.node();
+        int access = tree.hasModifier(node, Token.Type.INTERNAL) || tree.hasModifier(node, Token.Type.PRIVATE) ? 0 : ACC_PUBLIC;
+        
+        switch (declaration.kind()) {
+            case INTERFACE: return access | ACC_INTERFACE | ACC_ABSTRACT;
+            case ENUM:      return access | ACC_SUPER | ACC_FINAL | ACC_ENUM;
+            default:        break;
+        }
+        
+        access |= ACC_SUPER;
+        
+        if (tree.hasModifier(node, Token.Type.FINAL)) { access |= ACC_FINAL; }
+        if (declaration.isAbstract()) { access |= ACC_ABSTRACT; }
+        
+        return access;
+    }
+    
+    /**
+     * @return The access flags of a member. A private member is left to the
+     *      package, since the nested types that may use it are classes of
+     *      their own, which Java 8 class files have no other way to let in.
+     */
+    private int memberAccess (int node) {
+        if (isInterface) { return ACC_PUBLIC; }
+        if (tree.hasModifier(node, Token.Type.PROTECTED)) { return ACC_PROTECTED; }
+        if (tree.hasModifier(node, Token.Type.PRIVATE) || tree.hasModifier(node, Token.Type.INTERNAL)) { return 0; }
+        
+        return ACC_PUBLIC;
+    }
+    
+    private void field (int node) {
+        int access = memberAccess(node);
+        
+        if (isInterface) {
+            access |= ACC_STATIC | ACC_FINAL;
+        } else {
+            if (tree.hasModifier(node, Token.Type.STATIC)) { access |= ACC_STATIC; }
+            if (tree.hasModifier(node, Token.Type.FINAL) || tree.hasModifier(node, Token.Type.IMMUTABLE)) { access |= ACC_FINAL; }
+            if (tree.hasModifier(node, Token.Type.VOLATILE)) { access |= ACC_VOLATILE; }
+        }
+        
+        writer.field(access, names.name(tree.name(node)), descriptor(node));
+    }
+    
+    private void method (int node) {
+        String methodName = names.name(tree.name(node));
+        String descriptor = Generator.descriptorOf(tree, attributes, node);
+        boolean isStatic = tree.hasModifier(node, Token.Type.STATIC);
+        int body = bodyOf(tree, node);
+        int access = memberAccess(node) | (isStatic ? ACC_STATIC : 0);
+        
+        if (tree.hasModifier(node, Token.Type.FINAL) && !isInterface) { access |= ACC_FINAL; }
+        
+        if (body == SearchTree.NONE) {
+            access |= tree.hasModifier(node, Token.Type.EXTERNAL) ? ACC_NATIVE : ACC_ABSTRACT;
+            writer.method(access, methodName, descriptor, null);
+            return;
+        }
+        
+        Function function = lowering.method(node);
+        
+        if (function == null) {
+            failed = true;
+            return;
+        }
+        
+        code = new Code(writer.pool(), name, isStatic, false, descriptor);
+        emit(function);
+        writer.method(access, methodName, descriptor, code);
+    }
+    
+    /**
+     * Optimizes a function, and emits it into the code of the method being
+     * generated, after whatever that code already starts with.
+     */
+    private void emit (Function function) {
+        generator.passes().optimize(function, this::callee);
+        new Emitter(generator, code).emit(function);
+    }
+    
+    /**
+     * @return The function of a method calls may be inlined from: a static
+     *      method of this type with a body. Problems with it are reported
+     *      when it is generated itself, rather than here.
+     */
+    private Function callee (Member method) {
+        if (method.owner() != declaration || method.kind() != Member.Kind.METHOD || !method.isStatic()
+                || bodyOf(tree, method.node()) == SearchTree.NONE) {
+            return null;
+        }
+        
+        if (!callees.containsKey(method)) {
+            Lowering quiet = new Lowering(generator.analysis(), declaration, new Diagnostics());
+            
+            callees.put(method, quiet.method(method.node()));
+        }
+        
+        return callees.get(method);
+    }
+    
+    /**
+     * @return The block of a method, or {@code NONE} if it has none.
+     */
+    private static int bodyOf (SearchTree owner, int method) {
+        int body = SearchTree.NONE;
+        
+        for (int child = owner.firstChild(method); child != SearchTree.NONE; child = owner.nextSibling(child)) {
+            if (owner.kind(child) == Kind.BLOCK) { body = child; }
+        }
+        
+        return body;
+    }
+    
+    /**
+     * Generates the constructor, which calls that of the superclass and then
+     * sets the instance fields that have values. Cherry has no constructors
+     * of its own yet, so every class has this one.
+     */
+    private void constructor (String superName) {
+        boolean isEnum = declaration.kind() == Kind.ENUM;
+        String descriptor = isEnum ? "(Ljava/lang/String;I)V" : "()V";
+        Function function = lowering.initializers(false);
+        
+        if (function == null) {
+            failed = true;
+            return;
+        }
+        
+        code = new Code(writer.pool(), name, false, true, descriptor);
+        code.load(self, 0);
+        
+        if (isEnum) {
+            // The name and ordinal only go to the constructor of Enum.
+            function.parameter(Type.STRING);
+            function.parameter(Type.INT);
+            code.load("Ljava/lang/String;", 1);
+            code.load("I", 2);
+        }
+        
+        code.invoke(INVOKESPECIAL, superName, "<init>", descriptor, false);
+        emit(function);
+        writer.method(isEnum ? ACC_PRIVATE : ACC_PUBLIC, "<init>", descriptor, code);
+    }
+    
+    /**
+     * Generates the static initializer, which makes the constants of an enum
+     * and sets the static fields that have values, if there are any.
+     */
+    private void staticInitializer () {
+        Function function = lowering.initializers(true);
+        int ordinal = 0;
+        
+        if (function == null) {
+            failed = true;
+            return;
+        }
+        
+        code = new Code(writer.pool(), name, true, false, "()V");
+        
+        for (int child = tree.firstChild(declaration.node()); child != SearchTree.NONE; child = tree.nextSibling(child)) {
+            if (tree.kind(child) != Kind.CONSTANT) { continue; }
+            
+            String fieldName = names.name(tree.name(child));
+            
+            code.line(tree.tokenOf(child).line());
+            code.newObject(name);
+            code.op(DUP);
+            code.pushString(fieldName);
+            code.pushInt(ordinal++);
+            code.invoke(INVOKESPECIAL, name, "<init>", "(Ljava/lang/String;I)V", false);
+            code.field(PUTSTATIC, name, fieldName, self);
+        }
+        
+        generator.passes().optimize(function, this::callee);
+        
+        // A function that only returns sets nothing.
+        if (ordinal == 0 && function.size() == 1) { return; }
+        
+        new Emitter(generator, code).emit(function);
+        writer.method(ACC_STATIC, "<clinit>", "()V", code);
+    }
+    
+    /**
+     * Gives a type with a static main taking nothing the main the JVM starts
+     * a program from, unless it has one already.
+     */
+    private void entryPoint () {
+        Member[] mains = declaration.members(Builtins.MAIN);
+        boolean plain = false;
+        
+        if (mains == null) { return; }
+        
+        for (Member main : mains) {
+            if (main.kind() != Member.Kind.METHOD || !main.isStatic()) { continue; }
+            
+            String descriptor = generator.descriptorOf(main);
+            
+            if (descriptor.equals("([Ljava/lang/String;)V")) { return; }
+            
+            plain |= descriptor.equals("()V") && bodyOf(tree, main.node()) != SearchTree.NONE;
+        }
+        
+        if (!plain) { return; }
+        
+        code = new Code(writer.pool(), name, true, false, "([Ljava/lang/String;)V");
+        code.invoke(INVOKESTATIC, name, "main", "()V", isInterface);
+        code.op(RETURN);
+        writer.method(ACC_PUBLIC | ACC_STATIC | ACC_SYNTHETIC, "main", "([Ljava/lang/String;)V", code);
+    }
+    
+    private String descriptor (int node) { return Generator.descriptorOf(attributes.type(node)); }
+    
+    private void error (int node, String message) {
+        failed = true;
+        diagnostics.errorAt(Diagnostic.Code.GENERATION, tree.tokenOf(node), message + ".");
+    }
+}
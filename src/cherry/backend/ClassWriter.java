@@ -0,0 +1,203 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 SoraKatadzuma.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package cherry.backend;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * A {@code ClassWriter} writes one class file. Its fields and methods are
+ * written as they are added, each adding what it needs to the
+ * {@code ConstantPool} of the class, and the whole file is put together once
+ * the class is done, with the pool in front.
+ * <p>
+ * Classes are written for version 52 of the class file format, that of Java
+ * 8, which is the oldest that can have default methods in interfaces and the
+ * first whose methods must carry a StackMapTable.
+ * </p>
+ * 
+ * @author SoraKatadzuma
+ * @version Alpha 0.0.1
+ * @since 10/18/2026
+ */
+public final class ClassWriter {
+    /** The number every class file starts with. */
+    private static final int MAGIC = 0xcafebabe;
+    /** The version of the class file format. */
+    private static final int VERSION = 52;
+    /**
+     * The buffer each thread puts its class files together in. A class is
+     * only ever written by one thread, so the buffer is kept from one class to
+     * the next rather than grown anew for each.
+     */
+    private static final ThreadLocal<ByteArrayOutputStream> ASSEMBLY =
+            ThreadLocal.withInitial(() -> new ByteArrayOutputStream(4096));
+    
+    /** The constants of the class. */
+    private final ConstantPool pool = new ConstantPool();
+    /** The internal name of the class. */
+    private final String name;
+    /** The access flags of the class. */
+    private final int access;
+    /** The index of the class. */
+    private final int thisClass;
+    /** The index of the superclass. */
+    private final int superClass;
+    /** The indices of the interfaces. */
+    private final int[] interfaces;
+    
+    /** The fields written so far. */
+    private final ByteArrayOutputStream fieldBytes = new ByteArrayOutputStream();
+    /** The methods written so far. */
+    private final ByteArrayOutputStream methodBytes = new ByteArrayOutputStream(1024);
+    /** Where the fields are written. */
+    private final DataOutputStream fields = new DataOutputStream(fieldBytes);
+    /** Where the methods are written. */
+    private final DataOutputStream methods = new DataOutputStream(methodBytes);
+    /** The number of fields. */
+    private int fieldCount;
+    /** The number of methods. */
+    private int methodCount;
+    /** The index of the name of the source file, or zero. */
+    private int sourceFile;
+    
+    /**
+     * Constructs a new ClassWriter.
+     * 
+     * @param access The access flags of the class.
+     * @param name The internal name of the class.
+     * @param superName The internal name of the superclass.
+     * @param interfaceNames The internal names of the interfaces.
+     */
+    public ClassWriter (int access, String name, String superName, String... interfaceNames) {
+        this.name = name;
+        this.access = access;
+        this.thisClass = pool.type(name);
+        this.superClass = pool.type(superName);
+        this.interfaces = new int[interfaceNames.length];
+        
+        for (int i = 0; i < interfaceNames.length; i++) { interfaces[i] = pool.type(interfaceNames[i]); }
+    }
+    
+    /**
+     * @return The constants of the class.
+     */
+    public ConstantPool pool () { return pool; }
+    
+    /**
+     * @return The internal name of the class.
+     */
+    public String name () { return name; }
+    
+    /**
+     * @param fileName The name of the source file the class was compiled from.
+     */
+    public void sourceFile (String fileName) { sourceFile = pool.utf8(fileName); }
+    
+    /**
+     * Adds a field.
+     * 
+     * @param fieldAccess The access flags of the field.
+     * @param fieldName The name of the field.
+     * @param descriptor The descriptor of the field.
+     */
+    public void field (int fieldAccess, String fieldName, String descriptor) {
+        try {
+            fields.writeShort(fieldAccess);
+            fields.writeShort(pool.utf8(fieldName));
+            fields.writeShort(pool.utf8(descriptor));
+            fields.writeShort(0);
+            fieldCount++;
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+    
+    /**
+     * Adds a method.
+     * 
+     * @param methodAccess The access flags of the method.
+     * @param methodName The name of the method.
+     * @param descriptor The descriptor of the method.
+     * @param code The code of the method, {@code null} if it is abstract or native.
+     */
+    public void method (int methodAccess, String methodName, String descriptor, Code code) {
+        try {
+            methods.writeShort(methodAccess);
+            methods.writeShort(pool.utf8(methodName));
+            methods.writeShort(pool.utf8(descriptor));
+            methods.writeShort(code == null ? 0 : 1);
+            
+            if (code != null) { code.writeTo(methods); }
+            
+            methodCount++;
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+    
+    /**
+     * @return The class file.
+     */
+    public byte[] toByteArray () {
+        int sourceFileName = sourceFile == 0 ? 0 : pool.utf8("SourceFile");
+        ByteArrayOutputStream bytes = ASSEMBLY.get();
+        DataOutputStream out = new DataOutputStream(bytes);
+        
+        bytes.reset();
+        
+        try {
+            out.writeInt(MAGIC);
+            out.writeShort(0);
+            out.writeShort(VERSION);
+            out.writeShort(pool.count());
+            pool.writeTo(out);
+            out.writeShort(access);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(interfaces.length);
+            
+            for (int index : interfaces) { out.writeShort(index); }
+            
+            out.writeShort(fieldCount);
+            fieldBytes.writeTo(out);
+            out.writeShort(methodCount);
+            methodBytes.writeTo(out);
+            
+            if (sourceFile == 0) {
+                out.writeShort(0);
+            } else {
+                out.writeShort(1);
+                out.writeShort(sourceFileName);
+                out.writeInt(2);
+                out.writeShort(sourceFile);
+            }
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+        
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,971 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 SoraKatadzuma.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package cherry.backend;
+
+import static cherry.backend.Opcodes.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The {@code Code} of a method being written: its instructions, and what the
+ * JVM needs to verify them. As each instruction is added, the types on the
+ * operand stack and in the local variables are followed along, so that the
+ * largest stack and number of locals are known, and so that the frame of
+ * every instruction jumped to can be written into the StackMapTable without
+ * a second pass over the code.
+ * <p>
+ * Frames are only right if code is made in the shape the generator makes it:
+ * every local is given a value where it is declared, a local keeps its
+ * declared type for as long as it is in scope, and a jump never leaves a
+ * scope that its target is in. Instructions that cannot be reached are left
+ * out rather than written, since the verifier would need a frame for them
+ * that nothing could give; whatever is added after a jump or return, up to
+ * the next label jumped to, is dropped.
+ * </p>
+ * 
+ * @author SoraKatadzuma
+ * @version Alpha 0.0.1
+ * @since 10/18/2026
+ */
+public final class Code {
+    /* The tags of verification types, kept in the low byte of a type, with
+     * the constant or offset of an object or new below it. */
+    private static final int TOP = 0;
+    private static final int INTEGER = 1;
+    private static final int FLOAT = 2;
+    private static final int DOUBLE = 3;
+    private static final int LONG = 4;
+    private static final int NULL = 5;
+    private static final int UNINITIALIZED_THIS = 6;
+    private static final int OBJECT = 7;
+    private static final int UNINITIALIZED = 8;
+    
+    /** The largest a method's code may be. */
+    private static final int LIMIT = 0xffff;
+    
+    /**
+     * A {@code Label} is a place in the code that may be jumped to, before or
+     * after it is placed.
+     */
+    public static final class Label {
+        /** Where the label was placed, or -1 before then. */
+        private int offset = -1;
+        /** Whether anything jumps to the label. */
+        private boolean jumped;
+        /** The stack at the first jump to the label, or where it was placed. */
+        private int[] stack;
+        /** The locals in scope where the label was placed. */
+        private int[] locals;
+        /** Where the jumps to the label are, before it is placed. */
+        private int[] jumps = new int[2];
+        /** The number of those jumps. */
+        private int jumpCount;
+    }
+    
+    /** The constants of the class. */
+    private final ConstantPool pool;
+    /** The internal name of the class. */
+    private final String owner;
+    /** The locals the method starts with: the receiver and parameters. */
+    private final int[] initialLocals;
+    
+    /** The instructions. */
+    private byte[] bytes = new byte[64];
+    /** The length of the instructions. */
+    private int length;
+    /** The types on the operand stack, one per value. */
+    private int[] stack = new int[8];
+    /** The number of values on the stack. */
+    private int depth;
+    /** The number of slots the values on the stack take. */
+    private int stackSlots;
+    /** The most slots the stack ever takes. */
+    private int maxStack;
+    /** The types of the locals in scope, one per slot. */
+    private int[] locals;
+    /** The number of slots of the locals in scope. */
+    private int localSlots;
+    /** The most slots the locals ever take. */
+    private int maxLocals;
+    /** Whether the next instruction can be reached. */
+    private boolean reachable = true;
+    /** The locals and stack of every offset jumped to. */
+    private final TreeMap<Integer, int[][]> frames = new TreeMap<>();
+    /** The offsets at which lines start, each followed by its line. */
+    private int[] lines = new int[16];
+    /** The number of entries of {@code lines}. */
+    private int lineCount;
+    
+    /**
+     * Constructs the code of a method.
+     * 
+     * @param pool The constants of the class.
+     * @param owner The internal name of the class.
+     * @param isStatic Whether the method is static.
+     * @param constructor Whether the method is a constructor.
+     * @param descriptor The descriptor of the method.
+     */
+    public Code (ConstantPool pool, String owner, boolean isStatic, boolean constructor, String descriptor) {
+        this.pool = pool;
+        this.owner = owner;
+        this.locals = new int[16];
+        
+        if (!isStatic) { setLocal(0, constructor ? UNINITIALIZED_THIS : object(owner)); }
+        
+        for (String parameter : parameters(descriptor)) { setLocal(localSlots, typeOf(parameter)); }
+        
+        this.initialLocals = Arrays.copyOf(locals, localSlots);
+    }
+    
+    /* ---------------------------------------------------------------------- */
+    /* Descriptors.                                                           */
+    /* ---------------------------------------------------------------------- */
+    
+    /**
+     * @param descriptor The descriptor of a method.
+     * @return The descriptors of its parameters.
+     */
+    public static String[] parameters (String descriptor) {
+        String[] found = new String[4];
+        int count = 0;
+        
+        for (int at = 1; descriptor.charAt(at) != ')'; ) {
+            int start = at;
+            
+            while (descriptor.charAt(at) == '[') { at++; }
+            
+            at = descriptor.charAt(at) == 'L' ? descriptor.indexOf(';', at) + 1 : at + 1;
+            
+            if (count == found.length) { found = Arrays.copyOf(found, count << 1); }
+            
+            found[count++] = descriptor.substring(start, at);
+        }
+        
+        return Arrays.copyOf(found, count);
+    }
+    
+    /**
+     * @param descriptor The descriptor of a method.
+     * @return The descriptor of what it returns.
+     */
+    public static String returned (String descriptor) {
+        return descriptor.substring(descriptor.indexOf(')') + 1);
+    }
+    
+    /**
+     * @param descriptor The descriptor of a type.
+     * @return The slots a value of the type takes, zero for void.
+     */
+    public static int size (String descriptor) {
+        switch (descriptor.charAt(0)) {
+            case 'J': case 'D': return 2;
+            case 'V':           return 0;
+            default:            return 1;
+        }
+    }
+    
+    /**
+     * @param descriptor The descriptor of a type.
+     * @return The verification type of a value of the type.
+     */
+    private int typeOf (String descriptor) {
+        switch (descriptor.charAt(0)) {
+            case 'F':   return FLOAT;
+            case 'J':   return LONG;
+            case 'D':   return DOUBLE;
+            case 'L':   return object(descriptor.substring(1, descriptor.length() - 1));
+            case '[':   return object(descriptor);
+            default:    return INTEGER;
+        }
+    }
+    
+    private int object (String internalName) {
+        return OBJECT | pool.type(internalName) << 8;
+    }
+    
+    private static int slotsOf (int type) {
+        int tag = type & 0xff;
+        
+        return tag == LONG || tag == DOUBLE ? 2 : 1;
+    }
+    
+    /* ---------------------------------------------------------------------- */
+    /* Instructions.                                                          */
+    /* ---------------------------------------------------------------------- */
+    
+    /**
+     * Adds an instruction without operands, other than the loads and stores
+     * of arrays of objects, whose types are not known from the instruction.
+     * 
+     * @param opcode The instruction.
+     */
+    public void op (int opcode) {
+        if (!reachable) { return; }
+        
+        emit(opcode);
+        
+        if (opcode == NOP) { return; }
+        if (opcode == ACONST_NULL) { push(NULL); return; }
+        if (opcode <= ICONST_5) { push(INTEGER); return; }
+        if (opcode <= LCONST_1) { push(LONG); return; }
+        if (opcode <= FCONST_2) { push(FLOAT); return; }
+        if (opcode <= DCONST_1) { push(DOUBLE); return; }
+        if (opcode >= IALOAD && opcode <= SALOAD) { pop(2); push(ARRAY_LOADS[opcode - IALOAD]); return; }
+        if (opcode >= IASTORE && opcode <= SASTORE) { pop(3); return; }
+        if (opcode >= POP && opcode <= SWAP) { shuffle(opcode); return; }
+        
+        if (opcode >= IADD && opcode < INEG) {
+            pop(2);
+            push(ARITHMETIC[(opcode - IADD) & 3]);
+            return;
+        }
+        
+        if (opcode >= INEG && opcode < ISHL) { return; }
+        
+        if (opcode >= ISHL && opcode < IINC) {
+            pop(2);
+            push((opcode & 1) == 0 ? INTEGER : LONG);
+            return;
+        }
+        
+        if (opcode >= I2L && opcode <= I2S) { pop(1); push(CONVERSIONS[opcode - I2L]); return; }
+        if (opcode >= LCMP && opcode <= DCMPG) { pop(2); push(INTEGER); return; }
+        if (opcode == ARRAYLENGTH) { pop(1); push(INTEGER); return; }
+        
+        if (opcode >= IRETURN && opcode <= RETURN || opcode == ATHROW) {
+            pop(depth);
+            reachable = false;
+            return;
+        }
+        
+        throw new IllegalArgumentException("The instruction " + opcode + " takes operands.");
+    }
+    
+    /** What the loads of arrays push, by instruction. */
+    private static final int[] ARRAY_LOADS = { INTEGER, LONG, FLOAT, DOUBLE, NULL, INTEGER, INTEGER, INTEGER };
+    /** What arithmetic pushes, for int, long, float and double. */
+    private static final int[] ARITHMETIC = { INTEGER, LONG, FLOAT, DOUBLE };
+    /** What conversions push, by instruction. */
+    private static final int[] CONVERSIONS = {
+        LONG, FLOAT, DOUBLE, INTEGER, FLOAT, DOUBLE, INTEGER, LONG, DOUBLE, INTEGER, LONG, FLOAT,
+        INTEGER, INTEGER, INTEGER
+    };
+    
+    /**
+     * Loads an element of an array.
+     * 
+     * @param element The descriptor of the type of the elements.
+     */
+    public void arrayLoad (String element) {
+        if (!reachable) { return; }
+        
+        emit(arrayOpcode(IALOAD, element));
+        pop(2);
+        push(typeOf(element));
+    }
+    
+    /**
+     * Stores an element of an array.
+     * 
+     * @param element The descriptor of the type of the elements.
+     */
+    public void arrayStore (String element) {
+        if (!reachable) { return; }
+        
+        emit(arrayOpcode(IASTORE, element));
+        pop(3);
+    }
+    
+    private static int arrayOpcode (int base, String element) {
+        switch (element.charAt(0)) {
+            case 'J':           return base + 1;
+            case 'F':           return base + 2;
+            case 'D':           return base + 3;
+            case 'L': case '[': return base + 4;
+            case 'Z': case 'B': return base + 5;
+            case 'C':           return base + 6;
+            case 'S':           return base + 7;
+            default:            return base;
+        }
+    }
+    
+    /**
+     * Loads a local.
+     * 
+     * @param descriptor The descriptor of the type of the local.
+     * @param slot The slot of the local.
+     */
+    public void load (String descriptor, int slot) {
+        if (!reachable) { return; }
+        
+        local(ILOAD + family(descriptor), slot);
+        push(locals[slot]);
+    }
+    
+    /**
+     * Stores a local, which takes its declared type from then on.
+     * 
+     * @param descriptor The descriptor of the declared type of the local.
+     * @param slot The slot of the local.
+     */
+    public void store (String descriptor, int slot) {
+        if (!reachable) { return; }
+        
+        local(ISTORE + family(descriptor), slot);
+        pop(1);
+        setLocal(slot, typeOf(descriptor));
+    }
+    
+    /**
+     * Adds a constant to an int local.
+     * 
+     * @param slot The slot of the local.
+     * @param amount The constant.
+     */
+    public void iinc (int slot, int amount) {
+        if (!reachable) { return; }
+        
+        if (slot > 0xff || amount != (byte) amount) {
+            emit(0xc4);
+            emit(IINC);
+            emit2(slot);
+            emit2(amount);
+        } else {
+            emit(IINC);
+            emit(slot);
+            emit(amount);
+        }
+    }
+    
+    private static int family (String descriptor) {
+        switch (descriptor.charAt(0)) {
+            case 'J':           return 1;
+            case 'F':           return 2;
+            case 'D':           return 3;
+            case 'L': case '[': return 4;
+            default:            return 0;
+        }
+    }
+    
+    private void local (int opcode, int slot) {
+        if (slot <= 3) {
+            // The short forms come in groups of four after the loads and stores.
+            int first = opcode < ISTORE ? 0x1a : 0x3b;
+            emit(first + (opcode - (opcode < ISTORE ? ILOAD : ISTORE)) * 4 + slot);
+        } else if (slot <= 0xff) {
+            emit(opcode);
+            emit(slot);
+        } else {
+            emit(0xc4);
+            emit(opcode);
+            emit2(slot);
+        }
+    }
+    
+    /**
+     * Pushes an int constant, in the shortest instruction that holds it.
+     * 
+     * @param value The constant.
+     */
+    public void pushInt (int value) {
+        if (!reachable) { return; }
+        
+        if (value >= -1 && value <= 5) {
+            emit(ICONST_0 + value);
+        } else if (value == (byte) value) {
+            emit(BIPUSH);
+            emit(value);
+        } else if (value == (short) value) {
+            emit(SIPUSH);
+            emit2(value);
+        } else {
+            constant(pool.integer(value));
+        }
+        
+        push(INTEGER);
+    }
+    
+    /**
+     * @param value A long constant to push.
+     */
+    public void pushLong (long value) {
+        if (!reachable) { return; }
+        
+        if (value == 0 || value == 1) {
+            emit(LCONST_0 + (int) value);
+        } else {
+            emit(LDC2_W);
+            emit2(pool.longInteger(value));
+        }
+        
+        push(LONG);
+    }
+    
+    /**
+     * @param value A float constant to push.
+     */
+    public void pushFloat (float value) {
+        if (!reachable) { return; }
+        
+        if ((value == 0 || value == 1 || value == 2) && Float.floatToRawIntBits(value) != 0x80000000) {
+            emit(FCONST_0 + (int) value);
+        } else {
+            constant(pool.floating(value));
+        }
+        
+        push(FLOAT);
+    }
+    
+    /**
+     * @param value A double constant to push.
+     */
+    public void pushDouble (double value) {
+        if (!reachable) { return; }
+        
+        if ((value == 0 || value == 1) && Double.doubleToRawLongBits(value) != 0x8000000000000000L) {
+            emit(DCONST_0 + (int) value);
+        } else {
+            emit(LDC2_W);
+            emit2(pool.doubleFloat(value));
+        }
+        
+        push(DOUBLE);
+    }
+    
+    /**
+     * @param value A string constant to push.
+     */
+    public void pushString (String value) {
+        if (!reachable) { return; }
+        
+        constant(pool.string(value));
+        push(object("java/lang/String"));
+    }
+    
+    private void constant (int index) {
+        if (index <= 0xff) {
+            emit(LDC);
+            emit(index);
+        } else {
+            emit(LDC_W);
+            emit2(index);
+        }
+    }
+    
+    /**
+     * Gets or puts a field.
+     * 
+     * @param opcode GETSTATIC, PUTSTATIC, GETFIELD or PUTFIELD.
+     * @param owner The internal name of the class of the field.
+     * @param name The name of the field.
+     * @param descriptor The descriptor of the field.
+     */
+    public void field (int opcode, String owner, String name, String descriptor) {
+        if (!reachable) { return; }
+        
+        emit(opcode);
+        emit2(pool.field(owner, name, descriptor));
+        
+        switch (opcode) {
+            case GETSTATIC: push(typeOf(descriptor));           break;
+            case PUTSTATIC: pop(1);                             break;
+            case GETFIELD:  pop(1); push(typeOf(descriptor));   break;
+            default:        pop(2);                             break;
+        }
+    }
+    
+    /**
+     * Invokes a method.
+     * 
+     * @param opcode INVOKEVIRTUAL, INVOKESPECIAL, INVOKESTATIC or INVOKEINTERFACE.
+     * @param owner The internal name of the class of the method.
+     * @param name The name of the method.
+     * @param descriptor The descriptor of the method.
+     * @param isInterface Whether the class is an interface.
+     */
+    public void invoke (int opcode, String owner, String name, String descriptor, boolean isInterface) {
+        if (!reachable) { return; }
+        
+        String[] parameters = parameters(descriptor);
+        int argumentSlots = 0;
+        
+        for (String parameter : parameters) { argumentSlots += size(parameter); }
+        
+        emit(opcode);
+        emit2(pool.method(owner, name, descriptor, isInterface));
+        
+        if (opcode == INVOKEINTERFACE) {
+            emit(argumentSlots + 1);
+            emit(0);
+        }
+        
+        pop(parameters.length);
+        
+        if (opcode != INVOKESTATIC) {
+            int receiver = stack[depth - 1];
+            pop(1);
+            
+            // A constructor makes what it was called on into an object.
+            if (name.equals("<init>")) {
+                int made = (receiver & 0xff) == UNINITIALIZED_THIS ? object(this.owner) : object(owner);
+                
+                for (int i = 0; i < depth; i++) { if (stack[i] == receiver) { stack[i] = made; } }
+                for (int i = 0; i < localSlots; i++) { if (locals[i] == receiver) { locals[i] = made; } }
+            }
+        }
+        
+        String returned = returned(descriptor);
+        
+        if (!returned.equals("V")) { push(typeOf(returned)); }
+    }
+    
+    /**
+     * Creates an object, which must be made by a constructor before use.
+     * 
+     * @param internalName The internal name of its class.
+     */
+    public void newObject (String internalName) {
+        if (!reachable) { return; }
+        
+        int at = length;
+        
+        emit(NEW);
+        emit2(pool.type(internalName));
+        push(UNINITIALIZED | at << 8);
+    }
+    
+    /**
+     * Creates an array of the length on the stack.
+     * 
+     * @param element The descriptor of the type of the elements.
+     */
+    public void newArray (String element) {
+        if (!reachable) { return; }
+        
+        switch (element.charAt(0)) {
+            case 'L': emit(ANEWARRAY); emit2(pool.type(element.substring(1, element.length() - 1))); break;
+            case '[': emit(ANEWARRAY); emit2(pool.type(element));     break;
+            case 'Z': emit(NEWARRAY); emit(T_BOOLEAN);                  break;
+            case 'C': emit(NEWARRAY); emit(T_CHAR);                     break;
+            case 'F': emit(NEWARRAY); emit(T_FLOAT);                    break;
+            case 'D': emit(NEWARRAY); emit(T_DOUBLE);                   break;
+            case 'B': emit(NEWARRAY); emit(T_BYTE);                     break;
+            case 'S': emit(NEWARRAY); emit(T_SHORT);                    break;
+            case 'J': emit(NEWARRAY); emit(T_LONG);                     break;
+            default:  emit(NEWARRAY); emit(T_INT);                      break;
+        }
+        
+        pop(1);
+        push(object("[" + element));
+    }
+    
+    /**
+     * Gives the value on top of the stack a type it is assignable to, so that
+     * the values that meet where branches join agree.
+     * 
+     * @param descriptor The descriptor of the type.
+     */
+    public void retype (String descriptor) {
+        if (reachable) { stack[depth - 1] = typeOf(descriptor); }
+    }
+    
+    /* ---------------------------------------------------------------------- */
+    /* Jumps.                                                                 */
+    /* ---------------------------------------------------------------------- */
+    
+    /**
+     * Jumps to a label, on a condition or always.
+     * 
+     * @param opcode A conditional jump, or GOTO.
+     * @param label Where to jump to.
+     */
+    public void jump (int opcode, Label label) {
+        if (!reachable) { return; }
+        
+        if (opcode >= IF_ICMPEQ && opcode <= IF_ACMPNE) { pop(2); }
+        else if (opcode != GOTO) { pop(1); }
+        
+        if (label.stack == null) { label.stack = Arrays.copyOf(stack, depth); }
+        
+        label.jumped = true;
+        
+        if (label.offset >= 0) {
+            frame(label.offset, label.locals, label.stack);
+            emit(opcode);
+            emit2(branch(length - 1, label.offset));
+        } else {
+            if (label.jumpCount == label.jumps.length) { label.jumps = Arrays.copyOf(label.jumps, label.jumpCount << 1); }
+            
+            label.jumps[label.jumpCount++] = length;
+            emit(opcode);
+            emit2(0);
+        }
+        
+        if (opcode == GOTO) { reachable = false; }
+    }
+    
+    /**
+     * Places a label at the next instruction. If the code before cannot be
+     * reached, what follows can be only if something jumps to the label.
+     * 
+     * @param label The label.
+     */
+    public void mark (Label label) {
+        label.offset = length;
+        
+        for (int i = 0; i < label.jumpCount; i++) {
+            int at = label.jumps[i];
+            int offset = branch(at, length);
+            
+            bytes[at + 1] = (byte) (offset >> 8);
+            bytes[at + 2] = (byte) offset;
+        }
+        
+        if (!reachable && label.jumped) {
+            depth = 0;
+            stackSlots = 0;
+            
+            for (int type : label.stack) { push(type); }
+        }
+        
+        reachable |= label.jumped;
+        
+        if (!reachable) { return; }
+        
+        label.locals = Arrays.copyOf(locals, localSlots);
+        
+        if (label.stack == null) { label.stack = Arrays.copyOf(stack, depth); }
+        if (label.jumped) { frame(length, label.locals, label.stack); }
+    }
+    
+    private static int branch (int from, int to) {
+        int offset = to - from;
+        
+        if (offset != (short) offset) {
+            throw new IllegalStateException("A jump of " + offset + " bytes is too far.");
+        }
+        
+        return offset;
+    }
+    
+    private void frame (int offset, int[] frameLocals, int[] frameStack) {
+        if (!frames.containsKey(offset)) { frames.put(offset, new int[][] { frameLocals, frameStack }); }
+    }
+    
+    /**
+     * @return true if the next instruction can be reached.
+     */
+    public boolean isReachable () { return reachable; }
+    
+    /* ---------------------------------------------------------------------- */
+    /* Locals.                                                                */
+    /* ---------------------------------------------------------------------- */
+    
+    /**
+     * Makes room for a local, which has no type until it is stored.
+     * 
+     * @param descriptor The descriptor of the type of the local.
+     * @return The slot of the local.
+     */
+    public int newLocal (String descriptor) {
+        int slot = localSlots;
+        
+        setLocal(slot, TOP);
+        
+        if (size(descriptor) == 2) { setLocal(localSlots, TOP); }
+        
+        return slot;
+    }
+    
+    /**
+     * @return A mark of the locals in scope, to end a scope at.
+     */
+    public int scope () { return localSlots; }
+    
+    /**
+     * Ends the scope of every local made since a mark.
+     * 
+     * @param mark A mark from {@code scope()}.
+     */
+    public void endScope (int mark) { localSlots = mark; }
+    
+    /**
+     * Sets the locals from a slot on to what they hold where paths join, so
+     * that the next label placed takes only what every path to it stored.
+     * 
+     * @param first The first slot set; those below keep their types.
+     * @param descriptors The descriptor of the local in each slot from the
+     *      first, or {@code null} for a slot nothing is known to be in.
+     */
+    public void declare (int first, String[] descriptors) {
+        int end = first;
+        
+        localSlots = first;
+        
+        for (int i = 0; i < descriptors.length; i++) {
+            if (descriptors[i] == null) { continue; }
+            
+            for (int slot = end; slot < first + i; slot++) { setLocal(slot, TOP); }
+            
+            setLocal(first + i, typeOf(descriptors[i]));
+            end = first + i + size(descriptors[i]);
+        }
+        
+        localSlots = end;
+    }
+    
+    private void setLocal (int slot, int type) {
+        int end = slot + slotsOf(type);
+        
+        if (end > locals.length) { locals = Arrays.copyOf(locals, Math.max(end, locals.length << 1)); }
+        
+        locals[slot] = type;
+        
+        if (end == slot + 2) { locals[slot + 1] = TOP; }
+        
+        localSlots = Math.max(localSlots, end);
+        maxLocals = Math.max(maxLocals, localSlots);
+    }
+    
+    /**
+     * Starts a line of the source at the next instruction.
+     * 
+     * @param line The line.
+     */
+    public void line (int line) {
+        if (!reachable) { return; }
+        
+        if (lineCount > 0 && lines[lineCount - 2] == length) {
+            lines[lineCount - 1] = line;
+            return;
+        }
+        
+        if (lineCount > 0 && lines[lineCount - 1] == line) { return; }
+        
+        if (lineCount == lines.length) { lines = Arrays.copyOf(lines, lineCount << 1); }
+        
+        lines[lineCount++] = length;
+        lines[lineCount++] = line;
+    }
+    
+    /* ---------------------------------------------------------------------- */
+    /* The stack.                                                             */
+    /* ---------------------------------------------------------------------- */
+    
+    private void push (int type) {
+        if (depth == stack.length) { stack = Arrays.copyOf(stack, depth << 1); }
+        
+        stack[depth++] = type;
+        stackSlots += slotsOf(type);
+        maxStack = Math.max(maxStack, stackSlots);
+    }
+    
+    private void pop (int count) {
+        for (; count > 0; count--) { stackSlots -= slotsOf(stack[--depth]); }
+    }
+    
+    /**
+     * Follows the instructions that pop, duplicate and swap values, whose
+     * effect depends on how many slots the values take.
+     */
+    private void shuffle (int opcode) {
+        if (opcode == POP) { pop(1); return; }
+        if (opcode == POP2) { pop(values(2, 0)); return; }
+        
+        if (opcode == SWAP) {
+            int top = stack[depth - 1];
+            stack[depth - 1] = stack[depth - 2];
+            stack[depth - 2] = top;
+            return;
+        }
+        
+        // The DUP forms copy one or two slots, and put the copy one or two
+        // slots further down.
+        int copied = opcode >= DUP2 ? 2 : 1;
+        int under = opcode - (opcode >= DUP2 ? DUP2 : DUP);
+        int top = values(copied, 0);
+        int skipped = values(under, top);
+        int[] copy = Arrays.copyOfRange(stack, depth - top, depth);
+        int at = depth - top - skipped;
+        int[] moved = Arrays.copyOfRange(stack, at, depth);
+        
+        pop(top + skipped);
+        
+        for (int type : copy) { push(type); }
+        for (int type : moved) { push(type); }
+    }
+    
+    /**
+     * @return The number of values, below the top {@code above} values, that
+     *      take up some number of slots.
+     */
+    private int values (int slots, int above) {
+        int count = 0;
+        
+        for (int at = depth - above - 1; slots > 0; at--, count++) { slots -= slotsOf(stack[at]); }
+        
+        return count;
+    }
+    
+    /* ---------------------------------------------------------------------- */
+    /* Writing.                                                               */
+    /* ---------------------------------------------------------------------- */
+    
+    private void emit (int b) {
+        if (length == bytes.length) { bytes = Arrays.copyOf(bytes, length << 1); }
+        
+        bytes[length++] = (byte) b;
+    }
+    
+    private void emit2 (int value) {
+        emit(value >> 8);
+        emit(value);
+    }
+    
+    /**
+     * @return The length of the instructions so far.
+     */
+    public int length () { return length; }
+    
+    /**
+     * Writes the Code attribute of the method.
+     * 
+     * @param out Where the attribute is written.
+     * @throws IOException If it could not be written.
+     */
+    public void writeTo (DataOutputStream out) throws IOException {
+        if (length > LIMIT) {
+            throw new IllegalStateException("A method cannot be larger than " + LIMIT + " bytes.");
+        }
+        
+        ByteArrayOutputStream body = new ByteArrayOutputStream(length + 64);
+        DataOutputStream data = new DataOutputStream(body);
+        int attributes = (frames.isEmpty() ? 0 : 1) + (lineCount == 0 ? 0 : 1);
+        
+        data.writeShort(maxStack);
+        data.writeShort(Math.max(maxLocals, initialLocals.length));
+        data.writeInt(length);
+        data.write(bytes, 0, length);
+        data.writeShort(0);
+        data.writeShort(attributes);
+        
+        if (!frames.isEmpty()) { writeFrames(data); }
+        if (lineCount > 0) { writeLines(data); }
+        
+        out.writeShort(pool.utf8("Code"));
+        out.writeInt(body.size());
+        body.writeTo(out);
+    }
+    
+    private void writeFrames (DataOutputStream out) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        DataOutputStream data = new DataOutputStream(body);
+        int[] previous = compress(initialLocals);
+        int last = -1;
+        
+        data.writeShort(frames.size());
+        
+        for (Map.Entry<Integer, int[][]> frame : frames.entrySet()) {
+            int offset = frame.getKey();
+            int delta = last < 0 ? offset : offset - last - 1;
+            int[] frameLocals = compress(frame.getValue()[0]);
+            int[] frameStack = frame.getValue()[1];
+            boolean same = Arrays.equals(frameLocals, previous);
+            
+            if (same && frameStack.length == 0) {
+                if (delta < 64) { data.writeByte(delta); }
+                else { data.writeByte(251); data.writeShort(delta); }
+            } else if (same && frameStack.length == 1) {
+                if (delta < 64) { data.writeByte(64 + delta); }
+                else { data.writeByte(247); data.writeShort(delta); }
+                
+                writeType(data, frameStack[0]);
+            } else {
+                data.writeByte(255);
+                data.writeShort(delta);
+                data.writeShort(frameLocals.length);
+                
+                for (int type : frameLocals) { writeType(data, type); }
+                
+                data.writeShort(frameStack.length);
+                
+                for (int type : frameStack) { writeType(data, type); }
+            }
+            
+            previous = frameLocals;
+            last = offset;
+        }
+        
+        out.writeShort(pool.utf8("StackMapTable"));
+        out.writeInt(body.size());
+        body.writeTo(out);
+    }
+    
+    /**
+     * @return Locals as a frame has them: one entry for a long or double, and
+     *      without the unused slots at the end.
+     */
+    private static int[] compress (int[] slots) {
+        int[] compressed = new int[slots.length];
+        int count = 0;
+        int used = 0;
+        
+        for (int slot = 0; slot < slots.length; slot += slotsOf(slots[slot])) {
+            compressed[count++] = slots[slot];
+            
+            if (slots[slot] != TOP) { used = count; }
+        }
+        
+        return Arrays.copyOf(compressed, used);
+    }
+    
+    private static void writeType (DataOutputStream out, int type) throws IOException {
+        out.writeByte(type & 0xff);
+        
+        if ((type & 0xff) >= OBJECT) { out.writeShort(type >>> 8); }
+    }
+    
+    private void writeLines (DataOutputStream out) throws IOException {
+        int count = 0;
+        
+        // A line that starts where the code ends has no instructions.
+        for (int i = 0; i < lineCount; i += 2) { if (lines[i] < length) { count++; } }
+        
+        out.writeShort(pool.utf8("LineNumberTable"));
+        out.writeInt(2 + count * 4);
+        out.writeShort(count);
+        
+        for (int i = 0; i < lineCount; i += 2) {
+            if (lines[i] < length) {
+                out.writeShort(lines[i]);
+                out.writeShort(lines[i + 1]);
+            }
+        }
+    }
+}
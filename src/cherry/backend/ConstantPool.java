@@ -0,0 +1,236 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 SoraKatadzuma.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package cherry.backend;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The {@code ConstantPool} of a class file being written. Every constant is
+ * added once: asking for one already in the pool answers the index it was
+ * given the first time. Entries are written out as they are added, so the
+ * pool is ready to be copied into the class file once the class is done.
+ * <p>
+ * A pool belongs to the one class being written, and so to one thread; it is
+ * not safe to share.
+ * </p>
+ * 
+ * @author SoraKatadzuma
+ * @version Alpha 0.0.1
+ * @since 10/18/2026
+ */
+public final class ConstantPool {
+    /* The tags of the entries. */
+    private static final int UTF8 = 1;
+    private static final int INTEGER = 3;
+    private static final int FLOAT = 4;
+    private static final int LONG = 5;
+    private static final int DOUBLE = 6;
+    private static final int CLASS = 7;
+    private static final int STRING = 8;
+    private static final int FIELD = 9;
+    private static final int METHOD = 10;
+    private static final int INTERFACE_METHOD = 11;
+    private static final int NAME_AND_TYPE = 12;
+    
+    /** The largest index a pool may have. */
+    private static final int LIMIT = 0xffff;
+    
+    /** The entries written so far. */
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream(1024);
+    /** Where the entries are written. */
+    private final DataOutputStream out = new DataOutputStream(bytes);
+    /** The index of every entry, by its tag and contents. */
+    private final Map<String, Integer> indices = new HashMap<>();
+    /** The index the next entry is given. */
+    private int next = 1;
+    
+    /**
+     * @param value Some text.
+     * @return The index of the text.
+     */
+    public int utf8 (String value) {
+        String key = UTF8 + "#" + value;
+        Integer index = indices.get(key);
+        
+        if (index != null) { return index; }
+        
+        try {
+            out.writeByte(UTF8);
+            out.writeUTF(value);
+        } catch (IOException ex) {
+            throw new IllegalStateException("A constant longer than 65535 bytes cannot be written.", ex);
+        }
+        
+        return add(key, 1);
+    }
+    
+    /**
+     * @param value A whole number.
+     * @return The index of the number.
+     */
+    public int integer (int value) {
+        return number(INTEGER, value, 1);
+    }
+    
+    /**
+     * @param value A real number.
+     * @return The index of the number.
+     */
+    public int floating (float value) {
+        return number(FLOAT, Float.floatToRawIntBits(value), 1);
+    }
+    
+    /**
+     * @param value A long whole number.
+     * @return The index of the number, which takes two indices.
+     */
+    public int longInteger (long value) {
+        return number(LONG, value, 2);
+    }
+    
+    /**
+     * @param value A double real number.
+     * @return The index of the number, which takes two indices.
+     */
+    public int doubleFloat (double value) {
+        return number(DOUBLE, Double.doubleToRawLongBits(value), 2);
+    }
+    
+    /**
+     * @param internalName The internal name of a class, or the descriptor of
+     *      an array type.
+     * @return The index of the class.
+     */
+    public int type (String internalName) {
+        return reference(CLASS, utf8(internalName));
+    }
+    
+    /**
+     * @param value A string.
+     * @return The index of the string.
+     */
+    public int string (String value) {
+        return reference(STRING, utf8(value));
+    }
+    
+    /**
+     * @param owner The internal name of the class of the field.
+     * @param name The name of the field.
+     * @param descriptor The descriptor of the field.
+     * @return The index of the field.
+     */
+    public int field (String owner, String name, String descriptor) {
+        return reference(FIELD, type(owner), nameAndType(name, descriptor));
+    }
+    
+    /**
+     * @param owner The internal name of the class of the method.
+     * @param name The name of the method.
+     * @param descriptor The descriptor of the method.
+     * @param isInterface Whether the class is an interface.
+     * @return The index of the method.
+     */
+    public int method (String owner, String name, String descriptor, boolean isInterface) {
+        return reference(isInterface ? INTERFACE_METHOD : METHOD, type(owner), nameAndType(name, descriptor));
+    }
+    
+    /**
+     * @param name The name of a field or method.
+     * @param descriptor Its descriptor.
+     * @return The index of the pair.
+     */
+    public int nameAndType (String name, String descriptor) {
+        return reference(NAME_AND_TYPE, utf8(name), utf8(descriptor));
+    }
+    
+    /**
+     * @return The number of the constant pool count item, one more than the
+     *      last index.
+     */
+    public int count () { return next; }
+    
+    /**
+     * Writes the entries of the pool, without their count.
+     * 
+     * @param to Where the entries are written.
+     * @throws IOException If they could not be written.
+     */
+    public void writeTo (DataOutputStream to) throws IOException {
+        bytes.writeTo(to);
+    }
+    
+    private int number (int tag, long bits, int size) {
+        String key = tag + ":" + bits;
+        Integer index = indices.get(key);
+        
+        if (index != null) { return index; }
+        
+        try {
+            out.writeByte(tag);
+            
+            if (size == 1) { out.writeInt((int) bits); }
+            else { out.writeLong(bits); }
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+        
+        return add(key, size);
+    }
+    
+    private int reference (int tag, int... entries) {
+        StringBuilder key = new StringBuilder().append(tag);
+        
+        for (int entry : entries) { key.append(':').append(entry); }
+        
+        Integer index = indices.get(key.toString());
+        
+        if (index != null) { return index; }
+        
+        try {
+            out.writeByte(tag);
+            
+            for (int entry : entries) { out.writeShort(entry); }
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+        
+        return add(key.toString(), 1);
+    }
+    
+    private int add (String key, int size) {
+        int index = next;
+        
+        if (index + size > LIMIT + 1) {
+            throw new IllegalStateException("A class cannot have more than " + LIMIT + " constants.");
+        }
+        
+        next += size;
+        indices.put(key, index);
+        return index;
+    }
+}
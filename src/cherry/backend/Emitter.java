@@ -0,0 +1,957 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 SoraKatadzuma.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package cherry.backend;
+
+import static cherry.backend.Opcodes.*;
+
+import cherry.frontend.semantics.Declaration;
+import cherry.frontend.semantics.Member;
+import cherry.frontend.semantics.Type;
+import cherry.middleend.Block;
+import cherry.middleend.Function;
+import cherry.middleend.Instruction;
+import cherry.middleend.Instruction.Op;
+import cherry.middleend.Intrinsic;
+import cherry.utils.SearchTree;
+import cherry.utils.SymbolPool;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * The {@code Emitter} writes a {@code Function} in SSA form as the code of a
+ * method. The JVM has an operand stack rather than registers, so a value
+ * used once, by an instruction of the same block that comes right after it,
+ * is left on the stack for that instruction, and its whole tree of operands
+ * is emitted where it is used. Every other value is stored in a local, and
+ * values that are never needed at the same time share one, where a phi and
+ * the values it picks sharing one makes the moves between them disappear.
+ * <p>
+ * Constants are pushed again wherever they are used. A comparison used by
+ * a branch becomes the jump that tests it, and a block that comes right after
+ * the one jumping to it is fallen into.
+ * </p>
+ * 
+ * @author SoraKatadzuma
+ * @version Alpha 0.0.1
+ * @since 10/18/2026
+ */
+final class Emitter {
+    /** The internal name of the builder strings are joined with. */
+    private static final String BUILDER = "java/lang/StringBuilder";
+    /** Where a value has no local. */
+    private static final int NO_SLOT = -1;
+    
+    /** The generator of the compilation. */
+    private final Generator generator;
+    /** The code the function is written into. */
+    private final Code code;
+    /** The pool of names of the compilation. */
+    private final SymbolPool names;
+    
+    /** The function being written. */
+    private Function function;
+    /** The instructions, by number. */
+    private Instruction[] byId;
+    /** The values left on the stack for their user. */
+    private BitSet folded;
+    /** The local of each value, by number, {@code NO_SLOT} for none. */
+    private int[] slots;
+    /** The first local not taken by a parameter. */
+    private int firstSlot;
+    /** The values with a local live where each block starts, by block number. */
+    private BitSet[] liveIn;
+    /** The values with a local live where each block ends, by block number. */
+    private BitSet[] liveOut;
+    /** The label of each block, by block number. */
+    private Code.Label[] labels;
+    
+    /**
+     * Constructs a new Emitter.
+     * 
+     * @param generator The generator of the compilation.
+     * @param code The code the function is written into, where it is to start.
+     */
+    Emitter (Generator generator, Code code) {
+        this.generator = generator;
+        this.code = code;
+        this.names = generator.analysis().names();
+    }
+    
+    /**
+     * Writes a function. Its parameters must be the locals the code starts
+     * with, the receiver first.
+     * 
+     * @param function The function, whose critical edges are split.
+     */
+    void emit (Function function) {
+        this.function = function;
+        
+        // Moves into phis need a place on every edge of their own.
+        function.splitCriticalEdges();
+        
+        List<Block> order = function.reversePostorder();
+        int blockLimit = 0;
+        
+        for (Block block : function.blocks()) { blockLimit = Math.max(blockLimit, block.id() + 1); }
+        
+        byId = new Instruction[function.instructionLimit()];
+        folded = new BitSet(byId.length);
+        slots = new int[byId.length];
+        labels = new Code.Label[blockLimit];
+        liveIn = new BitSet[blockLimit];
+        liveOut = new BitSet[blockLimit];
+        
+        Arrays.fill(slots, NO_SLOT);
+        
+        for (Block block : order) {
+            labels[block.id()] = new Code.Label();
+            
+            for (Instruction phi : block.phis()) { byId[phi.id()] = phi; }
+            for (Instruction instruction : block.instructions()) { byId[instruction.id()] = instruction; }
+            
+            fold(block);
+        }
+        
+        for (Instruction parameter : function.parameters()) {
+            slots[parameter.id()] = firstSlot;
+            firstSlot += Code.size(descriptor(parameter.type()));
+        }
+        
+        liveness(order);
+        allocate(order);
+        
+        for (int i = 0; i < order.size(); i++) {
+            Block block = order.get(i);
+            
+            if (i > 0) {
+                code.declare(firstSlot, frame(block));
+                code.mark(labels[block.id()]);
+            }
+            
+            if (movesAtStart(block)) { moves(block.predecessors().get(0), block); }
+            
+            for (Instruction instruction : block.instructions()) {
+                Op op = instruction.op();
+                
+                if (op == Op.PARAMETER || op == Op.CONSTANT || folded.get(instruction.id())) { continue; }
+                
+                if (instruction.line() > 0) { code.line(instruction.line()); }
+                
+                if (op.isTerminator()) { terminator(instruction, i + 1 < order.size() ? order.get(i + 1) : null); }
+                else { statement(instruction); }
+            }
+        }
+        
+        this.function = null;
+    }
+    
+    /* ---------------------------------------------------------------------- */
+    /* The stack.                                                             */
+    /* ---------------------------------------------------------------------- */
+    
+    /**
+     * Finds the values of a block that can be left on the stack for their
+     * user, by following the stack as the block would use it: a value is
+     * pushed if it may be left for its user, and an instruction takes the
+     * values it uses off the top, last operand first. Values that are not
+     * on top when they are needed, or that something with an effect comes
+     * before, are stored instead.
+     */
+    private void fold (Block block) {
+        Deque<Instruction> stack = new ArrayDeque<>();
+        
+        for (Instruction instruction : block.instructions()) {
+            List<Instruction> operands = instruction.operands();
+            
+            for (int i = operands.size() - 1; i >= 0; i--) {
+                Instruction operand = operands.get(i);
+                
+                // What is stored, or pushed as a constant, can be used in any order.
+                if (!stack.contains(operand)) { continue; }
+                if (stack.peek() != operand) { break; }
+                
+                folded.set(operand.id());
+                stack.pop();
+            }
+            
+            stack.removeAll(operands);
+            
+            if (isFoldable(instruction)) { stack.push(instruction); }
+            else { stack.clear(); }
+        }
+    }
+    
+    private static boolean isFoldable (Instruction instruction) {
+        Op op = instruction.op();
+        
+        if (!instruction.hasValue() || op == Op.PHI || op == Op.PARAMETER || op == Op.CONSTANT) { return false; }
+        if (instruction.users().size() != 1) { return false; }
+        
+        Instruction user = instruction.users().get(0);
+        
+        return user.op() != Op.PHI && user.block() == instruction.block();
+    }
+    
+    /* ---------------------------------------------------------------------- */
+    /* Locals.                                                                */
+    /* ---------------------------------------------------------------------- */
+    
+    /**
+     * @return true if a value is kept in a local of its own: it is used, and
+     *      neither a parameter, a constant nor left on the stack.
+     */
+    private boolean isStored (Instruction value) {
+        Op op = value.op();
+        
+        return value.hasValue() && !value.users().isEmpty() && op != Op.PARAMETER && op != Op.CONSTANT
+                && !folded.get(value.id());
+    }
+    
+    /**
+     * @return true if the phis of a block are moved into at its start rather
+     *      than at the end of its predecessor, as they are when the
+     *      predecessor goes elsewhere too.
+     */
+    private static boolean movesAtStart (Block block) {
+        return !block.phis().isEmpty() && block.predecessors().size() == 1
+                && block.predecessors().get(0).successors().size() > 1;
+    }
+    
+    /**
+     * Finds which stored values are live where each block starts and ends,
+     * going backwards over the blocks until nothing changes.
+     */
+    private void liveness (List<Block> order) {
+        for (Block block : order) {
+            liveIn[block.id()] = new BitSet();
+            liveOut[block.id()] = new BitSet();
+        }
+        
+        boolean changed = true;
+        
+        while (changed) {
+            changed = false;
+            
+            for (int i = order.size() - 1; i >= 0; i--) {
+                Block block = order.get(i);
+                BitSet out = liveOut[block.id()];
+                
+                for (Block successor : block.successors()) {
+                    out.or(liveIn[successor.id()]);
+                    
+                    int index = successor.predecessors().indexOf(block);
+                    
+                    for (Instruction phi : successor.phis()) { use(phi.operand(index), out); }
+                }
+                
+                BitSet in = scan(block, null);
+                
+                if (!in.equals(liveIn[block.id()])) {
+                    liveIn[block.id()] = in;
+                    changed = true;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Goes backwards over a block from the values live where it ends.
+     * 
+     * @param across Where to add, for each stored value, the values live
+     *      where it is stored, or {@code null}.
+     * @return The values live where the block starts.
+     */
+    private BitSet scan (Block block, List<int[]> across) {
+        BitSet live = (BitSet) liveOut[block.id()].clone();
+        List<Instruction> instructions = block.instructions();
+        
+        for (int i = instructions.size() - 1; i >= 0; i--) {
+            Instruction instruction = instructions.get(i);
+            
+            // What is left on the stack is used where its user is.
+            if (folded.get(instruction.id())) { continue; }
+            
+            if (isStored(instruction)) {
+                live.clear(instruction.id());
+                
+                if (across != null) { across.set(instruction.id(), live.stream().toArray()); }
+            }
+            
+            uses(instruction, live);
+        }
+        
+        for (Instruction phi : block.phis()) { live.clear(phi.id()); }
+        
+        // The phis are stored at once, while everything live after them is.
+        for (Instruction phi : block.phis()) {
+            if (across == null || !isStored(phi)) { continue; }
+            
+            BitSet at = (BitSet) live.clone();
+            
+            for (Instruction other : block.phis()) { if (other != phi && isStored(other)) { at.set(other.id()); } }
+            
+            across.set(phi.id(), at.stream().toArray());
+        }
+        
+        return live;
+    }
+    
+    private void uses (Instruction instruction, BitSet live) {
+        for (Instruction operand : instruction.operands()) {
+            if (folded.get(operand.id())) { uses(operand, live); }
+            else { use(operand, live); }
+        }
+    }
+    
+    private void use (Instruction value, BitSet live) {
+        if (isStored(value)) { live.set(value.id()); }
+    }
+    
+    /**
+     * Gives every stored value a local. A phi shares one with the values it
+     * picks wherever none of them is live where another is stored, and then
+     * each group of values takes the first locals that none of the groups it
+     * meets has taken.
+     */
+    private void allocate (List<Block> order) {
+        List<int[]> across = new ArrayList<>(Collections.nCopies(byId.length, (int[]) null));
+        List<List<Instruction>> meets = new ArrayList<>(Collections.nCopies(byId.length, (List<Instruction>) null));
+        List<List<Instruction>> members = new ArrayList<>(Collections.nCopies(byId.length, (List<Instruction>) null));
+        List<Instruction> stored = new ArrayList<>();
+        int[] group = new int[byId.length];
+        
+        for (Block block : order) { scan(block, across); }
+        
+        for (int id = 0; id < byId.length; id++) {
+            group[id] = id;
+            
+            if (byId[id] == null || !isStored(byId[id])) { continue; }
+            
+            stored.add(byId[id]);
+            members.set(id, new ArrayList<>(Collections.singletonList(byId[id])));
+            meets.set(id, new ArrayList<>());
+        }
+        
+        // Two values meet if either is live where the other is stored.
+        for (Instruction value : stored) {
+            for (int other : across.get(value.id())) {
+                meets.get(value.id()).add(byId[other]);
+                meets.get(other).add(value);
+            }
+        }
+        
+        for (Instruction value : stored) {
+            if (value.op() != Op.PHI) { continue; }
+            
+            for (Instruction operand : value.operands()) {
+                if (!isStored(operand) || !sameSize(value, operand)) { continue; }
+                
+                int a = find(group, value.id());
+                int b = find(group, operand.id());
+                
+                if (a == b || meet(members.get(a), b, meets, group)) { continue; }
+                
+                group[b] = a;
+                members.get(a).addAll(members.get(b));
+                members.set(b, null);
+            }
+        }
+        
+        for (Instruction value : stored) {
+            int own = find(group, value.id());
+            
+            if (slots[own] == NO_SLOT) {
+                BitSet taken = new BitSet();
+                int size = Code.size(descriptor(value.type()));
+                int slot = firstSlot;
+                
+                for (Instruction member : members.get(own)) {
+                    for (Instruction other : meets.get(member.id())) {
+                        int at = slots[find(group, other.id())];
+                        
+                        if (at != NO_SLOT) { taken.set(at, at + Code.size(descriptor(other.type()))); }
+                    }
+                }
+                
+                while (taken.get(slot, slot + size).cardinality() > 0) { slot++; }
+                
+                slots[own] = slot;
+            }
+            
+            slots[value.id()] = slots[own];
+        }
+    }
+    
+    private static int find (int[] group, int id) {
+        while (group[id] != id) {
+            group[id] = group[group[id]];
+            id = group[id];
+        }
+        
+        return id;
+    }
+    
+    private static boolean sameSize (Instruction a, Instruction b) {
+        return Code.size(descriptor(a.type())) == Code.size(descriptor(b.type()));
+    }
+    
+    /**
+     * @return true if one of some values meets a value of a group.
+     */
+    private static boolean meet (List<Instruction> values, int b, List<List<Instruction>> meets, int[] group) {
+        for (Instruction value : values) {
+            for (Instruction other : meets.get(value.id())) { if (find(group, other.id()) == b) { return true; } }
+        }
+        
+        return false;
+    }
+    
+    /**
+     * @return The descriptor of what is in each local from the first not
+     *      taken by a parameter, where a block starts.
+     */
+    private String[] frame (Block block) {
+        BitSet live = (BitSet) liveIn[block.id()].clone();
+        
+        // The values moved into phis at the start of a block are still where they were.
+        if (movesAtStart(block)) {
+            for (Instruction phi : block.phis()) { use(phi.operand(0), live); }
+        } else {
+            for (Instruction phi : block.phis()) { if (isStored(phi)) { live.set(phi.id()); } }
+        }
+        
+        int end = firstSlot;
+        
+        for (int id = live.nextSetBit(0); id >= 0; id = live.nextSetBit(id + 1)) {
+            end = Math.max(end, slots[id] + Code.size(descriptor(byId[id].type())));
+        }
+        
+        String[] descriptors = new String[end - firstSlot];
+        
+        for (int id = live.nextSetBit(0); id >= 0; id = live.nextSetBit(id + 1)) {
+            descriptors[slots[id] - firstSlot] = descriptor(byId[id].type());
+        }
+        
+        return descriptors;
+    }
+    
+    /**
+     * Moves the values the phis of a block pick on the edge from one of its
+     * predecessors into the phis, all at once: every value is pushed before
+     * any is stored, so that one phi may pick what another held.
+     */
+    private void moves (Block from, Block to) {
+        int index = to.predecessors().indexOf(from);
+        List<Instruction> targets = new ArrayList<>();
+        
+        for (Instruction phi : to.phis()) {
+            Instruction source = phi.operand(index);
+            
+            if (!isStored(phi) || slots[source.id()] == slots[phi.id()] && isStored(source)) { continue; }
+            
+            operand(source);
+            targets.add(phi);
+        }
+        
+        for (int i = targets.size() - 1; i >= 0; i--) {
+            code.store(descriptor(targets.get(i).type()), slots[targets.get(i).id()]);
+        }
+    }
+    
+    /* ---------------------------------------------------------------------- */
+    /* Instructions.                                                          */
+    /* ---------------------------------------------------------------------- */
+    
+    /**
+     * Writes an instruction whose value, if it has one, is stored or dropped.
+     */
+    private void statement (Instruction instruction) {
+        if (increment(instruction)) { return; }
+        
+        value(instruction);
+        
+        if (!instruction.hasValue()) { return; }
+        
+        String descriptor = descriptor(instruction.type());
+        
+        if (isStored(instruction)) { code.store(descriptor, slots[instruction.id()]); }
+        else { code.op(Code.size(descriptor) == 2 ? POP2 : POP); }
+    }
+    
+    /**
+     * Writes the addition of a small constant to an int stored in the same
+     * local as the result as an increment of the local.
+     * 
+     * @return true if it was.
+     */
+    private boolean increment (Instruction instruction) {
+        Op op = instruction.op();
+        
+        if (op != Op.ADD && op != Op.SUB || instruction.type().kind() != Type.Kind.INT || !isStored(instruction)) {
+            return false;
+        }
+        
+        Instruction value = instruction.operand(0);
+        Instruction amount = instruction.operand(1);
+        
+        if (!amount.isConstant() || !isStored(value) || slots[value.id()] != slots[instruction.id()]) { return false; }
+        
+        int by = op == Op.ADD ? amount.intValue() : -amount.intValue();
+        
+        if (by != (short) by) { return false; }
+        
+        code.iinc(slots[instruction.id()], by);
+        return true;
+    }
+    
+    /**
+     * Pushes a value, wherever it is.
+     */
+    private void operand (Instruction value) {
+        switch (value.op()) {
+            case CONSTANT: {
+                constant(value);
+                return;
+            }
+            default: {
+                if (folded.get(value.id())) { value(value); }
+                else { code.load(descriptor(value.type()), slots[value.id()]); }
+            }
+        }
+    }
+    
+    private void constant (Instruction constant) {
+        Object value = constant.value();
+        
+        switch (constant.type().kind()) {
+            case LONG:      code.pushLong((Long) value);        break;
+            case FLOAT:     code.pushFloat((Float) value);      break;
+            case DOUBLE:    code.pushDouble((Double) value);    break;
+            case STRING: {
+                if (value == null) { code.op(ACONST_NULL); }
+                else { code.pushString((String) value); }
+                break;
+            }
+            case OBJECT:
+            case ARRAY:     code.op(ACONST_NULL);               break;
+            default:        code.pushInt(constant.intValue());  break;
+        }
+    }
+    
+    /**
+     * Writes an instruction, leaving its value on the stack.
+     */
+    private void value (Instruction instruction) {
+        Op op = instruction.op();
+        
+        if (op.isArithmetic()) {
+            operand(instruction.operand(0));
+            operand(instruction.operand(1));
+            code.op(arithmetic(op, instruction.type()));
+            return;
+        }
+        
+        if (op.isComparison()) {
+            // A comparison made into a bool jumps to where each is pushed.
+            Code.Label yes = new Code.Label();
+            Code.Label done = new Code.Label();
+            
+            jumpIf(instruction, true, yes);
+            code.pushInt(0);
+            code.jump(GOTO, done);
+            code.mark(yes);
+            code.pushInt(1);
+            code.mark(done);
+            return;
+        }
+        
+        switch (op) {
+            case NEG: {
+                operand(instruction.operand(0));
+                code.op(INEG + family(instruction.type()));
+                break;
+            }
+            case NOT: {
+                operand(instruction.operand(0));
+                code.pushInt(1);
+                code.op(IXOR);
+                break;
+            }
+            case CONVERT: {
+                operand(instruction.operand(0));
+                convert(instruction.operand(0).type(), instruction.type());
+                break;
+            }
+            case CONCAT: {
+                code.newObject(BUILDER);
+                code.op(DUP);
+                code.invoke(INVOKESPECIAL, BUILDER, "<init>", "()V", false);
+                
+                for (Instruction part : instruction.operands()) {
+                    operand(part);
+                    code.invoke(INVOKEVIRTUAL, BUILDER, "append", "(" + printable(part.type()) + ")L" + BUILDER + ";", false);
+                }
+                
+                code.invoke(INVOKEVIRTUAL, BUILDER, "toString", "()Ljava/lang/String;", false);
+                break;
+            }
+            case LOAD:
+            case STORE: {
+                Member member = instruction.member();
+                boolean isStatic = op == Op.LOAD ? instruction.operands().isEmpty() : instruction.operands().size() == 1;
+                
+                for (Instruction operand : instruction.operands()) { operand(operand); }
+                
+                code.field(op == Op.LOAD ? isStatic ? GETSTATIC : GETFIELD : isStatic ? PUTSTATIC : PUTFIELD,
+                        Generator.internalName(member.owner()), names.name(member.name()),
+                        descriptor(generator.analysis().typeOf(member)));
+                break;
+            }
+            case ELEMENT: {
+                operand(instruction.operand(0));
+                operand(instruction.operand(1));
+                code.arrayLoad(descriptor(instruction.type()));
+                break;
+            }
+            case PUT: {
+                for (Instruction operand : instruction.operands()) { operand(operand); }
+                
+                code.arrayStore(descriptor(instruction.operand(0).type().element()));
+                break;
+            }
+            case LENGTH: {
+                operand(instruction.operand(0));
+                code.op(ARRAYLENGTH);
+                break;
+            }
+            case NEW: {
+                String internalName = Generator.internalName(instruction.type().declaration());
+                
+                code.newObject(internalName);
+                code.op(DUP);
+                code.invoke(INVOKESPECIAL, internalName, "<init>", "()V", false);
+                break;
+            }
+            case NEW_ARRAY: {
+                operand(instruction.operand(0));
+                code.newArray(descriptor(instruction.type().element()));
+                break;
+            }
+            case CALL: {
+                Member member = instruction.member();
+                Declaration owner = member.owner();
+                boolean ofInterface = owner.kind() == SearchTree.Kind.INTERFACE;
+                int opcode = member.isStatic() ? INVOKESTATIC : ofInterface ? INVOKEINTERFACE : INVOKEVIRTUAL;
+                
+                for (Instruction operand : instruction.operands()) { operand(operand); }
+                
+                code.invoke(opcode, Generator.internalName(owner), names.name(member.name()),
+                        generator.descriptorOf(member), ofInterface);
+                break;
+            }
+            case PRINT: {
+                String parameter = "";
+                
+                code.field(GETSTATIC, "java/lang/System", "out", "Ljava/io/PrintStream;");
+                
+                if (!instruction.operands().isEmpty()) {
+                    operand(instruction.operand(0));
+                    parameter = printable(instruction.operand(0).type());
+                }
+                
+                code.invoke(INVOKEVIRTUAL, "java/io/PrintStream", names.name(instruction.member().name()),
+                        "(" + parameter + ")V", false);
+                break;
+            }
+            case INTRINSIC: {
+                intrinsic((Intrinsic) instruction.value(), instruction.operand(0));
+                break;
+            }
+            default: {
+                throw new IllegalStateException("A " + op.name().toLowerCase() + " cannot be written as a value.");
+            }
+        }
+    }
+    
+    private void intrinsic (Intrinsic function, Instruction argument) {
+        if (function.isReciprocal()) { code.op(DCONST_1); }
+        
+        operand(argument);
+        code.invoke(INVOKESTATIC, "java/lang/Math", function.method(), "(D)D", false);
+        
+        if (function.isReciprocal()) { code.op(IDIV + 3); }
+    }
+    
+    private void terminator (Instruction terminator, Block next) {
+        switch (terminator.op()) {
+            case JUMP: {
+                Block target = terminator.target(0);
+                
+                if (!movesAtStart(target)) { moves(terminator.block(), target); }
+                if (target != next) { code.jump(GOTO, labels[target.id()]); }
+                break;
+            }
+            case BRANCH: {
+                Instruction condition = terminator.operand(0);
+                Block then = terminator.target(0);
+                Block otherwise = terminator.target(1);
+                
+                if (otherwise == next) {
+                    jumpIf(condition, true, labels[then.id()]);
+                } else if (then == next) {
+                    jumpIf(condition, false, labels[otherwise.id()]);
+                } else {
+                    jumpIf(condition, true, labels[then.id()]);
+                    code.jump(GOTO, labels[otherwise.id()]);
+                }
+                break;
+            }
+            default: {
+                if (terminator.operands().isEmpty()) {
+                    code.op(RETURN);
+                } else {
+                    operand(terminator.operand(0));
+                    code.op(returnOf(function.returnType()));
+                }
+                break;
+            }
+        }
+    }
+    
+    /**
+     * Jumps to a label if a bool is, or is not, true, testing a comparison
+     * left on the stack for it directly.
+     * 
+     * @param when Whether to jump if the bool is true or if it is false.
+     */
+    private void jumpIf (Instruction condition, boolean when, Code.Label target) {
+        boolean direct = folded.get(condition.id());
+        
+        if (direct && condition.op() == Op.NOT) {
+            jumpIf(condition.operand(0), !when, target);
+            return;
+        }
+        
+        if (direct && condition.op().isComparison()) {
+            compare(condition, when, target);
+            return;
+        }
+        
+        operand(condition);
+        code.jump(when ? IFNE : IFEQ, target);
+    }
+    
+    /**
+     * Jumps to a label if a comparison holds, or does not.
+     */
+    private void compare (Instruction comparison, boolean when, Code.Label target) {
+        Op op = comparison.op();
+        Op test = when ? op : op.negated();
+        Instruction a = comparison.operand(0);
+        Instruction b = comparison.operand(1);
+        Type type = a.type();
+        int offset = test.ordinal() - Op.EQ.ordinal();
+        
+        switch (type.kind()) {
+            case LONG: {
+                operand(a);
+                operand(b);
+                code.op(LCMP);
+                code.jump(IFEQ + offset, target);
+                return;
+            }
+            case FLOAT:
+            case DOUBLE: {
+                // Every comparison with NaN is false but that of not being
+                // equal, so NaN must compare as whatever makes the jump do
+                // what that means: FCMPG makes it 1, and FCMPL -1.
+                boolean jumpOnNaN = when == (op == Op.NE);
+                boolean greater = holds(test, 1) == jumpOnNaN;
+                
+                operand(a);
+                operand(b);
+                code.op((type.kind() == Type.Kind.FLOAT ? FCMPL : DCMPL) + (greater ? 1 : 0));
+                code.jump(IFEQ + offset, target);
+                return;
+            }
+            case STRING:
+            case OBJECT:
+            case ARRAY: {
+                boolean equal = test == Op.EQ;
+                
+                // Strings are equal when their text is.
+                if (type.kind() == Type.Kind.STRING && b.type().kind() == Type.Kind.STRING) {
+                    operand(a);
+                    operand(b);
+                    code.invoke(INVOKESTATIC, "java/util/Objects", "equals", "(Ljava/lang/Object;Ljava/lang/Object;)Z", false);
+                    code.jump(equal ? IFNE : IFEQ, target);
+                } else if (b.isConstant()) {
+                    operand(a);
+                    code.jump(equal ? IFNULL : IFNONNULL, target);
+                } else {
+                    operand(a);
+                    operand(b);
+                    code.jump(equal ? IF_ACMPEQ : IF_ACMPNE, target);
+                }
+                return;
+            }
+            default: {
+                if (isZero(b)) {
+                    operand(a);
+                    code.jump(IFEQ + offset, target);
+                } else if (isZero(a)) {
+                    operand(b);
+                    code.jump(IFEQ + test.swapped().ordinal() - Op.EQ.ordinal(), target);
+                } else {
+                    operand(a);
+                    operand(b);
+                    code.jump(IF_ICMPEQ + offset, target);
+                }
+            }
+        }
+    }
+    
+    private static boolean holds (Op test, int order) {
+        switch (test) {
+            case EQ:    return order == 0;
+            case NE:    return order != 0;
+            case LT:    return order < 0;
+            case GE:    return order >= 0;
+            case GT:    return order > 0;
+            default:    return order <= 0;
+        }
+    }
+    
+    private static boolean isZero (Instruction value) {
+        return value.isConstant() && value.intValue() == 0;
+    }
+    
+    /* ---------------------------------------------------------------------- */
+    /* Types.                                                                 */
+    /* ---------------------------------------------------------------------- */
+    
+    private static String descriptor (Type type) { return Generator.descriptorOf(type); }
+    
+    private static int returnOf (Type type) {
+        switch (type.kind()) {
+            case VOID:      return RETURN;
+            case LONG:      return LRETURN;
+            case FLOAT:     return FRETURN;
+            case DOUBLE:    return DRETURN;
+            case STRING:
+            case OBJECT:
+            case ARRAY:     return ARETURN;
+            default:        return IRETURN;
+        }
+    }
+    
+    /**
+     * @return 0 for the types held as ints, then 1, 2 and 3 for long, float
+     *      and double, the order typed instructions come in.
+     */
+    private static int family (Type type) {
+        switch (type.kind()) {
+            case LONG:      return 1;
+            case FLOAT:     return 2;
+            case DOUBLE:    return 3;
+            default:        return 0;
+        }
+    }
+    
+    private static int arithmetic (Op op, Type type) {
+        int family = family(type);
+        
+        switch (op) {
+            case ADD:   return IADD + family;
+            case SUB:   return ISUB + family;
+            case MUL:   return IMUL + family;
+            case DIV:   return IDIV + family;
+            case REM:   return IREM + family;
+            // The bitwise instructions only come for int and long.
+            case AND:   return IAND + family;
+            case OR:    return IOR + family;
+            case XOR:   return IXOR + family;
+            case SHL:   return ISHL + family;
+            case SHR:   return ISHR + family;
+            default:    return IUSHR + family;
+        }
+    }
+    
+    /**
+     * @return The descriptor of the overload of print or append a type is
+     *      printed through.
+     */
+    private static String printable (Type type) {
+        switch (type.kind()) {
+            case BOOL:      return "Z";
+            case CHAR:      return "C";
+            case BYTE:
+            case SHORT:
+            case INT:       return "I";
+            case LONG:      return "J";
+            case FLOAT:     return "F";
+            case DOUBLE:    return "D";
+            case STRING:    return "Ljava/lang/String;";
+            default:        return "Ljava/lang/Object;";
+        }
+    }
+    
+    /**
+     * Converts the number on the stack from one type to another, widening or,
+     * for a compound assignment, narrowing it.
+     */
+    private void convert (Type from, Type to) {
+        int source = family(from);
+        int result = family(to);
+        
+        if (source != result) {
+            // Conversions come in threes, from int, long, float and double,
+            // to each of the other three in order.
+            code.op(I2L + source * 3 + (result > source ? result - 1 : result));
+        }
+        
+        switch (to.kind()) {
+            case BYTE: {
+                if (from.kind() != Type.Kind.BYTE) { code.op(I2B); }
+                break;
+            }
+            case SHORT: {
+                if (from.kind() != Type.Kind.BYTE && from.kind() != Type.Kind.SHORT) { code.op(I2S); }
+                break;
+            }
+            case CHAR: {
+                if (from.kind() != Type.Kind.CHAR) { code.op(I2C); }
+                break;
+            }
+            default: {
+                break;
+            }
+        }
+    }
+}
@@ -0,0 +1,283 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 SoraKatadzuma.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package cherry.backend;
+
+import cherry.frontend.semantics.Analysis;
+import cherry.frontend.semantics.Attributes;
+import cherry.frontend.semantics.Declaration;
+import cherry.frontend.semantics.Member;
+import cherry.frontend.semantics.Type;
+import cherry.middleend.PassManager;
+import cherry.utils.Diagnostic;
+import cherry.utils.Diagnostics;
+import cherry.utils.SearchTree;
+import cherry.utils.SymbolPool;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The {@code Generator} turns the analyzed trees of a compilation into JVM
+ * class files, one for every class, enum, interface and struct, written
+ * directly with the {@code ClassWriter} rather than through any library.
+ * <p>
+ * A namespace becomes a package, and a nested type a class of its own named
+ * after its outer types, as in {@code Outer$Inner}. Enums extend
+ * {@code java.lang.Enum}, and interfaces keep their method bodies as default
+ * methods. A class with a static {@code main} taking nothing is given a
+ * {@code main(String[])} to start it from, so that the class can be run with
+ * {@code java}. The builtin {@code System.print} and {@code System.println}
+ * print through {@code System.out}.
+ * </p>
+ * <p>
+ * Only an analysis without errors can be generated. What has no equivalent on
+ * the JVM, such as a class inheriting from two classes, is reported as it is
+ * found, and the class it is in is not written.
+ * </p>
+ * <p>
+ * Each class is generated by a task of its own on the pool the files were
+ * parsed on, with a constant pool and buffers that no other task sees, and its
+ * class file is written by the same task. The problems each task finds are
+ * kept apart and only reported once every task is done, in the order of the
+ * types, so that the messages and class files of the same sources are the
+ * same whatever the number of threads.
+ * </p>
+ * <p>
+ * Every function is optimized by the same {@code PassManager}, which adds up
+ * the time of its passes over every class.
+ * </p>
+ * 
+ * @author SoraKatadzuma
+ * @version Alpha 0.0.1
+ * @since 10/18/2026
+ */
+public final class Generator {
+    /** The analysis of the compilation. */
+    private final Analysis analysis;
+    /** The pool classes are generated on. */
+    private final ExecutorService pool;
+    /** Where problems are reported. */
+    private final Diagnostics diagnostics;
+    /** The passes every function is optimized with. */
+    private final PassManager passes;
+    /** The trees of the files compiled, as opposed to those of libraries. */
+    private final Set<SearchTree> compiled = Collections.newSetFromMap(new IdentityHashMap<>());
+    
+    /**
+     * Constructs a new Generator.
+     * 
+     * @param analysis The analysis of the compilation.
+     * @param pool The pool classes are generated on, ideally a work-stealing one.
+     * @param diagnostics Where problems are reported.
+     * @param passes The passes every function is optimized with.
+     */
+    public Generator (Analysis analysis, ExecutorService pool, Diagnostics diagnostics, PassManager passes) {
+        this.analysis = analysis;
+        this.pool = pool;
+        this.diagnostics = diagnostics;
+        this.passes = passes;
+        this.compiled.addAll(analysis.trees());
+    }
+    
+    /**
+     * @return The types declared by the files compiled, ordered by namespace
+     *      and then by name.
+     */
+    public List<Declaration> types () {
+        List<Declaration> types = new ArrayList<>();
+        
+        for (Declaration declaration : analysis.symbols().declarations()) {
+            if (declaration.kind().isType() && compiled.contains(declaration.tree())
+                    && analysis.attributesOf(declaration.tree()) != null) {
+                types.add(declaration);
+            }
+        }
+        
+        return types;
+    }
+    
+    /**
+     * Generates the class file of a type.
+     * 
+     * @param type A type declared by a file compiled.
+     * @return The class file, or {@code null} if it could not be generated,
+     *      in which case why was reported.
+     */
+    public byte[] generate (Declaration type) {
+        return new ClassGenerator(this, type, diagnostics).generate();
+    }
+    
+    /**
+     * Generates the class file of every type, and writes each into a
+     * directory, under the directories of its package.
+     * 
+     * @param directory Where the class files are written.
+     * @return The number of class files written.
+     * @throws InterruptedException If interrupted while waiting for the classes.
+     */
+    public int writeAll (File directory) throws InterruptedException {
+        List<Declaration> types = types();
+        List<Callable<Diagnostics>> tasks = new ArrayList<>(types.size());
+        
+        for (Declaration type : types) {
+            tasks.add(() -> {
+                Diagnostics found = new Diagnostics();
+                byte[] bytes = new ClassGenerator(this, type, found).generate();
+                
+                if (bytes != null) { write(directory, type, bytes, found); }
+                
+                return found;
+            });
+        }
+        
+        int written = 0;
+        
+        // Reported in the order of the types rather than as they finish.
+        for (Future<Diagnostics> task : pool.invokeAll(tasks)) {
+            Diagnostics found = join(task);
+            
+            if (found == null) { continue; }
+            if (found.errors() == 0) { written++; }
+            
+            for (Diagnostic diagnostic : found.all()) { diagnostics.report(diagnostic); }
+        }
+        
+        diagnostics.flush();
+        return written;
+    }
+    
+    /**
+     * @return The result of a finished task, or {@code null} if it failed.
+     */
+    private static <T> T join (Future<T> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException ex) {
+            Logger.getLogger(Generator.class.getName()).log(Level.SEVERE, null, ex.getCause());
+            return null;
+        }
+    }
+    
+    /**
+     * Writes a class file.
+     * 
+     * @param found Where a failure to write it is reported.
+     * @return true if it was written, or else it was reported.
+     */
+    private static boolean write (File directory, Declaration type, byte[] bytes, Diagnostics found) {
+        File file = new File(directory, internalName(type) + ".class");
+        
+        try {
+            Files.createDirectories(file.getAbsoluteFile().getParentFile().toPath());
+            Files.write(file.toPath(), bytes);
+            return true;
+        } catch (IOException ex) {
+            found.error(Diagnostic.Code.UNWRITABLE_CLASS, file.getPath(),
+                    "The class file could not be written: " + ex.getMessage() + ".");
+            return false;
+        }
+    }
+    
+    /**
+     * @return The analysis of the compilation.
+     */
+    Analysis analysis () { return analysis; }
+    
+    /**
+     * @return The passes every function is optimized with.
+     */
+    PassManager passes () { return passes; }
+    
+    /* ---------------------------------------------------------------------- */
+    /* Names and descriptors.                                                 */
+    /* ---------------------------------------------------------------------- */
+    
+    /**
+     * @param declaration The declaration of a type.
+     * @return The internal name of its class, as in {@code Test/Outer$Inner}.
+     */
+    public static String internalName (Declaration declaration) {
+        SymbolPool names = declaration.names();
+        String simple = names.name(declaration.name()).replace('.', '$');
+        
+        return declaration.scope() < 0 ? simple : names.name(declaration.scope()).replace('.', '/') + '/' + simple;
+    }
+    
+    /**
+     * @param type A type that may be held or returned.
+     * @return The descriptor of the type.
+     */
+    public static String descriptorOf (Type type) {
+        switch (type.kind()) {
+            case VOID:      return "V";
+            case BOOL:      return "Z";
+            case BYTE:      return "B";
+            case SHORT:     return "S";
+            case CHAR:      return "C";
+            case INT:       return "I";
+            case LONG:      return "J";
+            case FLOAT:     return "F";
+            case DOUBLE:    return "D";
+            case STRING:    return "Ljava/lang/String;";
+            case OBJECT:    return "L" + internalName(type.declaration()) + ";";
+            case ARRAY:     return "[" + descriptorOf(type.element());
+            default:        return "Ljava/lang/Object;";
+        }
+    }
+    
+    /**
+     * @param tree The tree of a method.
+     * @param attributes The attributes of the tree.
+     * @param method The node of the method.
+     * @return The descriptor of the method.
+     */
+    static String descriptorOf (SearchTree tree, Attributes attributes, int method) {
+        StringBuilder descriptor = new StringBuilder().append('(');
+        
+        for (int child = tree.firstChild(method); child != SearchTree.NONE; child = tree.nextSibling(child)) {
+            if (tree.kind(child) == SearchTree.Kind.PARAMETER) { descriptor.append(descriptorOf(attributes.type(child))); }
+        }
+        
+        return descriptor.append(')').append(descriptorOf(attributes.type(method))).toString();
+    }
+    
+    /**
+     * @param method A method of any file or library.
+     * @return The descriptor of the method.
+     */
+    String descriptorOf (Member method) {
+        return descriptorOf(method.tree(), analysis.attributesOf(method.tree()), method.node());
+    }
+}
@@ -0,0 +1,389 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 SoraKatadzuma.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package cherry.distributed;
+
+import cherry.frontend.grammar.LineIndex;
+import cherry.frontend.parser.Parser;
+import cherry.utils.Diagnostic;
+import cherry.utils.Diagnostics;
+import cherry.utils.OutputSink;
+import cherry.utils.SearchTree;
+import cherry.utils.SymbolPool;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+/**
+ * The {@code Coordinator} has the files of a compilation lexed and parsed by
+ * worker processes, on this machine or others, instead of by the threads of
+ * this one. Each worker is served by a thread of the coordinator, which takes
+ * the next file not yet parsed whenever its worker is done with the last, so
+ * that a worker given large files is given fewer of them.
+ * <p>
+ * A worker that cannot be reached, or stops answering, is connected to again
+ * a few times, and the file it was parsing is given back for any worker to
+ * take. A file tried on too many workers, and any file left once every worker
+ * is gone, is parsed here instead, so the compilation goes on regardless.
+ * </p>
+ * <p>
+ * The trees come back with the problems found in them, which are reported
+ * here as if the files had been parsed here, and the tokens are dumped here
+ * too when they are asked to be, as the compiler would have.
+ * </p>
+ * 
+ * @author SoraKatadzuma
+ * @version Alpha 0.0.1
+ * @since 10/18/2026
+ */
+public final class Coordinator implements Closeable {
+    /** The times a file is tried, and a worker connected to, before giving up on it. */
+    static final int ATTEMPTS = 3;
+    /** How long a worker is waited on to connect, in milliseconds. */
+    private static final int CONNECT_TIMEOUT = 5_000;
+    /** How long a worker is waited on to answer, in milliseconds. */
+    private static final int ANSWER_TIMEOUT = 120_000;
+    
+    /** The workers. */
+    private final List<InetSocketAddress> workers;
+    /** The pool of the compilation, where the names of the files are placed. */
+    private final SymbolPool names;
+    /** Where the problems found in the files are reported. */
+    private final Diagnostics diagnostics;
+    /** Where the tokens of the files are dumped. */
+    private final OutputSink sink;
+    /** The worker processes started by the coordinator, stopped when it is closed. */
+    private final List<Process> started = new ArrayList<>();
+    
+    /**
+     * Constructs a new Coordinator of workers already running.
+     * 
+     * @param workers The workers.
+     * @param names The pool of the compilation, where the names of the files
+     *      are placed.
+     * @param diagnostics Where the problems found in the files are reported.
+     * @param sink Where the tokens of the files are dumped.
+     */
+    public Coordinator (List<InetSocketAddress> workers, SymbolPool names, Diagnostics diagnostics, OutputSink sink) {
+        this.workers = new ArrayList<>(workers);
+        this.names = names;
+        this.diagnostics = diagnostics;
+        this.sink = sink;
+    }
+    
+    /**
+     * Starts worker processes on this machine, running on the class path of
+     * this one, and makes a coordinator of them. The workers only listen on
+     * the loopback address, and stop once the coordinator is closed, or its
+     * process ends.
+     * 
+     * @param count The number of workers.
+     * @param names The pool of the compilation, where the names of the files
+     *      are placed.
+     * @param diagnostics Where the problems found in the files are reported.
+     * @param sink Where the tokens of the files are dumped.
+     * @return The coordinator.
+     * @throws IOException If a worker could not be started.
+     */
+    public static Coordinator start (int count, SymbolPool names, Diagnostics diagnostics, OutputSink sink) throws IOException {
+        Coordinator coordinator = new Coordinator(Collections.<InetSocketAddress>emptyList(), names, diagnostics, sink);
+        String java = new File(new File(System.getProperty("java.home"), "bin"), "java").getPath();
+        
+        try {
+            for (int i = 0; i < count; i++) {
+                Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                        "cherry.CherryWorker", "0", "--attached")
+                        .redirectError(ProcessBuilder.Redirect.INHERIT)
+                        .start();
+                
+                coordinator.started.add(process);
+            }
+            
+            // The workers start side by side, and are only waited on here.
+            for (Process process : coordinator.started) {
+                BufferedReader out = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+                String line = out.readLine();
+                
+                if (line == null || !line.startsWith(Worker.READY)) {
+                    throw new IOException("A worker did not start: it printed \"" + line + "\".");
+                }
+                
+                int port = Integer.parseInt(line.substring(Worker.READY.length()).trim());
+                
+                coordinator.workers.add(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+            }
+        } catch (IOException | RuntimeException ex) {
+            coordinator.close();
+            throw ex instanceof IOException ? (IOException) ex : new IOException(ex);
+        }
+        
+        return coordinator;
+    }
+    
+    /**
+     * @param list Addresses separated by commas, as in "build1:7000,build2:7000".
+     * @return The addresses.
+     * @throws IllegalArgumentException If one is not a host and port.
+     */
+    public static List<InetSocketAddress> addresses (String list) {
+        List<InetSocketAddress> addresses = new ArrayList<>();
+        
+        for (String address : list.split(",")) {
+            int colon = address.lastIndexOf(':');
+            
+            if (colon <= 0) { throw new IllegalArgumentException(address); }
+            
+            try {
+                addresses.add(InetSocketAddress.createUnresolved(address.substring(0, colon).trim(),
+                        Integer.parseInt(address.substring(colon + 1).trim())));
+            } catch (IllegalArgumentException ex) {
+                // Including a port that is not a number, or out of range.
+                throw new IllegalArgumentException(address, ex);
+            }
+        }
+        
+        return addresses;
+    }
+    
+    /**
+     * @return The workers.
+     */
+    public List<InetSocketAddress> workers () { return Collections.unmodifiableList(workers); }
+    
+    /**
+     * Has files lexed and parsed by the workers.
+     * 
+     * @param files The files.
+     * @param dumpTokens Whether the tokens are dumped into files beside the
+     *      sources.
+     * @return The tree of each file, in the order of the files.
+     * @throws InterruptedException If interrupted while waiting on a worker.
+     */
+    public List<SearchTree> parseAll (List<File> files, boolean dumpTokens) throws InterruptedException {
+        SearchTree[] trees = new SearchTree[files.size()];
+        Deque<Job> pending = new ConcurrentLinkedDeque<>();
+        Deque<Job> local = new ConcurrentLinkedDeque<>();
+        List<Thread> threads = new ArrayList<>();
+        
+        for (int i = 0; i < trees.length; i++) { pending.add(new Job(i, files.get(i))); }
+        
+        for (InetSocketAddress worker : workers) {
+            Thread thread = new Thread(() -> serve(worker, pending, local, trees, dumpTokens), "Coordinator-" + nameOf(worker));
+            
+            threads.add(thread);
+            thread.start();
+        }
+        
+        for (Thread thread : threads) { thread.join(); }
+        
+        // What no worker could parse is parsed here.
+        local.addAll(pending);
+        
+        for (Job job : local) {
+            Parser parser = new Parser(job.file, names, diagnostics, sink, dumpTokens);
+            
+            parser.parse();
+            trees[job.index] = parser.parseTree();
+        }
+        
+        return Arrays.asList(trees);
+    }
+    
+    /**
+     * Gives a worker files until there are none left, or the worker is gone.
+     */
+    private void serve (InetSocketAddress worker, Deque<Job> pending, Deque<Job> local, SearchTree[] trees,
+            boolean dumpTokens) {
+        int failures = 0;
+        
+        while (failures < ATTEMPTS && !pending.isEmpty()) {
+            try (Socket socket = connect(worker);
+                    DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+                if (in.readInt() != Protocol.MAGIC || in.readShort() != Protocol.VERSION) {
+                    warn(null, nameOf(worker) + " is not a worker of this version.");
+                    return;
+                }
+                
+                for (Job job = pending.poll(); job != null; job = pending.poll()) {
+                    try {
+                        trees[job.index] = exchange(job.file, in, out, dumpTokens);
+                        failures = 0;
+                    } catch (IOException ex) {
+                        // Whether the worker or its connection failed, the file goes back.
+                        if (++job.attempts < ATTEMPTS) { pending.addFirst(job); }
+                        else { local.add(job); }
+                        
+                        throw ex;
+                    } catch (Rejected ex) {
+                        local.add(job);
+                    }
+                }
+                
+                out.writeByte(Protocol.QUIT);
+                out.flush();
+            } catch (IOException ex) {
+                failures++;
+                String why = ex instanceof EOFException ? "the connection was closed" : String.valueOf(ex.getMessage());
+                
+                warn(null, nameOf(worker) + " failed" + (failures < ATTEMPTS ? ", and is connected to again" : ", and is given up on")
+                        + ": " + why + ".");
+                
+                try {
+                    Thread.sleep(100L << failures);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+    
+    private static String nameOf (InetSocketAddress worker) { return worker.getHostString() + ":" + worker.getPort(); }
+    
+    private static Socket connect (InetSocketAddress worker) throws IOException {
+        Socket socket = new Socket();
+        
+        try {
+            InetSocketAddress resolved = worker.isUnresolved()
+                    ? new InetSocketAddress(worker.getHostString(), worker.getPort()) : worker;
+            
+            socket.connect(resolved, CONNECT_TIMEOUT);
+            socket.setSoTimeout(ANSWER_TIMEOUT);
+            socket.setTcpNoDelay(true);
+            return socket;
+        } catch (IOException ex) {
+            socket.close();
+            throw ex;
+        }
+    }
+    
+    /**
+     * Has a worker parse a file.
+     * 
+     * @return The tree of the file.
+     * @throws IOException If the worker failed.
+     * @throws Rejected If the file cannot be parsed by a worker.
+     */
+    private SearchTree exchange (File file, DataInputStream in, DataOutputStream out, boolean dumpTokens)
+            throws IOException, Rejected {
+        byte[] source;
+        
+        try {
+            source = Files.readAllBytes(file.toPath());
+        } catch (IOException | OutOfMemoryError ex) {
+            // Parsed here, whatever the problem is is reported as it would be.
+            throw new Rejected();
+        }
+        
+        out.writeByte(Protocol.PARSE);
+        out.writeUTF(file.getPath());
+        out.write(Protocol.keyOf(source));
+        out.flush();
+        
+        byte answer = in.readByte();
+        
+        if (answer == Protocol.MISS) {
+            out.writeInt(source.length);
+            out.write(source);
+            out.flush();
+            answer = in.readByte();
+        }
+        
+        if (answer == Protocol.FAILED) {
+            warn(file.getPath(), "The file could not be parsed by a worker: " + in.readUTF() + ".");
+            throw new Rejected();
+        }
+        
+        if (answer != Protocol.HIT && answer != Protocol.TREE) { throw new IOException("An answer of " + answer + " was sent."); }
+        
+        LineIndex lines = new LineIndex(file.getPath(), source, source.length);
+        SearchTree tree = TreeCodec.decode(Protocol.readBytes(in), file, lines, names, diagnostics);
+        
+        if (dumpTokens) { Parser.dump(file, tree.tokens(), sink, diagnostics); }
+        
+        // Hand over everything printed about this file in one piece.
+        sink.flush();
+        diagnostics.flush();
+        return tree;
+    }
+    
+    private void warn (String fileName, String message) {
+        diagnostics.warning(Diagnostic.Code.UNAVAILABLE_WORKER, fileName, message);
+        diagnostics.flush();
+    }
+    
+    /**
+     * Stops the workers the coordinator started.
+     */
+    @Override
+    public void close () {
+        for (Process process : started) { process.destroy(); }
+        
+        started.clear();
+    }
+    
+    /**
+     * A file to parse, and the number of times it has been tried.
+     */
+    private static final class Job {
+        /** The index of the file among those parsed. */
+        final int index;
+        /** The file. */
+        final File file;
+        /** The number of times the file was tried. */
+        int attempts;
+        
+        Job (int index, File file) {
+            this.index = index;
+            this.file = file;
+        }
+    }
+    
+    /**
+     * A file that is parsed here instead of by a worker.
+     */
+    private static final class Rejected extends Exception {
+        private static final long serialVersionUID = 1L;
+        
+        Rejected () { super(null, null, false, false); }
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 SoraKatadzuma.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package cherry.distributed;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * The {@code Protocol} is how a coordinator and a worker talk over a socket,
+ * big-endian throughout. The worker speaks first, with its magic and version.
+ * Then, for each file, the coordinator asks for its tree by the SHA-256 hash of
+ * its source, which is all it sends if the worker has the tree already:
+ * <pre>
+ * coordinator  PARSE u1, path UTF, key 32 bytes
+ * worker       HIT u1, u4 length, tree        if it has the tree of the key
+ *              MISS u1                        if it does not, and then
+ * coordinator  u4 length, source
+ * worker       TREE u1, u4 length, tree       or FAILED u1, message UTF
+ * </pre>
+ * The coordinator ends with QUIT u1, and the worker closes the connection.
+ * Trees are written by the {@code TreeCodec}.
+ * 
+ * @author SoraKatadzuma
+ * @version Alpha 0.0.1
+ * @since 10/18/2026
+ */
+final class Protocol {
+    /** The first four bytes a worker sends, "CHWK". */
+    static final int MAGIC = 0x4348574B;
+    /** The version of the protocol. */
+    static final short VERSION = 1;
+    /** The number of bytes of a key. */
+    static final int KEY_BYTES = 32;
+    /** The most bytes a source or tree may have. */
+    static final int LIMIT = Integer.MAX_VALUE - 8;
+    
+    /** Asks for the tree of a file. */
+    static final byte PARSE = 1;
+    /** Ends the conversation. */
+    static final byte QUIT = 2;
+    /** The tree of a key was kept. */
+    static final byte HIT = 3;
+    /** The tree of a key was not kept, and its source is wanted. */
+    static final byte MISS = 4;
+    /** The tree of a source follows. */
+    static final byte TREE = 5;
+    /** The source could not be parsed, for a reason that follows. */
+    static final byte FAILED = 6;
+    
+    private Protocol () {}
+    
+    /**
+     * @param source The source of a file.
+     * @return The key the tree of the source is kept under.
+     */
+    static byte[] keyOf (byte[] source) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(source);
+        } catch (NoSuchAlgorithmException ex) {
+            // Every Java platform has SHA-256.
+            throw new IllegalStateException(ex);
+        }
+    }
+    
+    /**
+     * Reads bytes written after their length.
+     * 
+     * @param in Where to read from.
+     * @return The bytes.
+     * @throws IOException If they cannot be read, or are too many.
+     */
+    static byte[] readBytes (DataInputStream in) throws IOException {
+        int length = in.readInt();
+        
+        if (length < 0 || length > LIMIT) { throw new IOException("A length of " + length + " bytes was sent."); }
+        
+        byte[] bytes = new byte[length];
+        
+        in.readFully(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,257 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 SoraKatadzuma.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package cherry.distributed;
+
+import cherry.frontend.grammar.LineIndex;
+import cherry.frontend.grammar.Token;
+import cherry.utils.Diagnostic;
+import cherry.utils.Diagnostics;
+import cherry.utils.SearchTree;
+import cherry.utils.SymbolPool;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@code TreeCodec} writes the {@code SearchTree} of a file, with its
+ * tokens and the problems found parsing it, into bytes another process can
+ * read it back from. Names are pooled by id in each process, so every name
+ * and lexeme goes through a table of strings, and is pooled again by the
+ * reader. Positions are kept as offsets, which the reader turns into lines
+ * through an index of its own copy of the source.
+ * <p>
+ * A tree is laid out as follows, big-endian:
+ * </p>
+ * <pre>
+ * magic "CHST", version u2
+ * strings     u4 count, then for each: u4 length, UTF-8 bytes
+ * tokens      u4 count, then for each: u2 type, u4 lexeme string or -1,
+ *             u1 whether it is a pooled name, u8 offset
+ * nodes       u4 count, then by id: u1 kind, u4 token, u4 first, u4 last,
+ *             u4 name string or -1, u4 flags
+ * children    for each node by id: u4 count, then u4 ids in order
+ * diagnostics u4 count, then for each: u1 code, u1 severity, u8 offset,
+ *             u4 message string
+ * </pre>
+ * 
+ * @author SoraKatadzuma
+ * @version Alpha 0.0.1
+ * @since 10/18/2026
+ */
+public final class TreeCodec {
+    /** The first four bytes of every tree. */
+    private static final int MAGIC = 0x43485354;
+    /** The version of the layout. */
+    private static final short VERSION = 1;
+    
+    private TreeCodec () {}
+    
+    /**
+     * Writes a tree.
+     * 
+     * @param tree The tree.
+     * @param found The problems found lexing and parsing its file.
+     * @return The bytes of the tree.
+     */
+    public static byte[] encode (SearchTree tree, List<Diagnostic> found) {
+        SymbolPool names = tree.names();
+        Token[] tokens = tree.tokens();
+        List<String> strings = new ArrayList<>();
+        Map<String, Integer> indices = new HashMap<>();
+        ByteArrayOutputStream body = new ByteArrayOutputStream(tokens.length * 16 + tree.size() * 24);
+        
+        try (DataOutputStream out = new DataOutputStream(body)) {
+            out.writeInt(tokens.length);
+            
+            for (Token token : tokens) {
+                out.writeShort(token.type().index());
+                out.writeInt(token.lexeme() == null ? -1 : index(token.lexeme().toString(), strings, indices));
+                out.writeByte(token.symbol() == Token.NO_SYMBOL ? 0 : 1);
+                out.writeLong(token.offset());
+            }
+            
+            out.writeInt(tree.size());
+            
+            for (int node = 0; node < tree.size(); node++) {
+                out.writeByte(tree.kind(node).ordinal());
+                out.writeInt(tree.token(node));
+                out.writeInt(tree.first(node));
+                out.writeInt(tree.last(node));
+                out.writeInt(tree.name(node) == Token.NO_SYMBOL ? -1 : index(names.name(tree.name(node)), strings, indices));
+                out.writeInt(tree.flags(node));
+            }
+            
+            for (int node = 0; node < tree.size(); node++) {
+                out.writeInt(tree.childCount(node));
+                
+                for (int child = tree.firstChild(node); child != SearchTree.NONE; child = tree.nextSibling(child)) {
+                    out.writeInt(child);
+                }
+            }
+            
+            out.writeInt(found.size());
+            
+            for (Diagnostic diagnostic : found) {
+                out.writeByte(diagnostic.code().ordinal());
+                out.writeByte(diagnostic.severity().ordinal());
+                out.writeLong(diagnostic.offset());
+                out.writeInt(index(diagnostic.message(), strings, indices));
+            }
+        } catch (IOException ex) {
+            // Nothing is written anywhere but into memory.
+            throw new IllegalStateException(ex);
+        }
+        
+        ByteArrayOutputStream whole = new ByteArrayOutputStream(body.size() + strings.size() * 16 + 16);
+        
+        try (DataOutputStream out = new DataOutputStream(whole)) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeInt(strings.size());
+            
+            for (String string : strings) {
+                byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+                
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+            
+            body.writeTo(out);
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+        
+        return whole.toByteArray();
+    }
+    
+    private static int index (String string, List<String> strings, Map<String, Integer> indices) {
+        Integer index = indices.get(string);
+        
+        if (index == null) {
+            index = strings.size();
+            strings.add(string);
+            indices.put(string, index);
+        }
+        
+        return index;
+    }
+    
+    /**
+     * Reads a tree back, reporting the problems found parsing its file.
+     * 
+     * @param bytes The bytes of the tree.
+     * @param file The file the tree is of.
+     * @param lines The index of the lines of the file.
+     * @param names The pool the names of the tree are interned into.
+     * @param diagnostics Where the problems found are reported.
+     * @return The tree.
+     * @throws IOException If the bytes are not a tree of this version.
+     */
+    public static SearchTree decode (byte[] bytes, File file, LineIndex lines, SymbolPool names, Diagnostics diagnostics) throws IOException {
+        ByteBuffer in = ByteBuffer.wrap(bytes);
+        
+        try {
+            if (in.getInt() != MAGIC || in.getShort() != VERSION) {
+                throw new IOException("The tree of " + file.getPath() + " is not of this version.");
+            }
+            
+            String[] strings = new String[in.getInt()];
+            
+            for (int i = 0; i < strings.length; i++) {
+                byte[] string = new byte[in.getInt()];
+                
+                in.get(string);
+                strings[i] = new String(string, StandardCharsets.UTF_8);
+            }
+            
+            Token.Type[] types = Token.Type.values();
+            Token[] tokens = new Token[in.getInt()];
+            
+            for (int i = 0; i < tokens.length; i++) {
+                Token.Type type = types[in.getShort()];
+                int lexeme = in.getInt();
+                boolean pooled = in.get() != 0;
+                long offset = in.getLong();
+                
+                if (pooled) {
+                    tokens[i] = new Token(type, strings[lexeme], names.intern(strings[lexeme]), lines, offset);
+                } else {
+                    tokens[i] = new Token(type, lexeme < 0 ? null : strings[lexeme], lines, offset);
+                }
+            }
+            
+            SearchTree.Kind[] kinds = SearchTree.Kind.values();
+            SearchTree tree = new SearchTree(file, names, tokens);
+            int size = in.getInt();
+            
+            for (int node = 0; node < size; node++) {
+                SearchTree.Kind kind = kinds[in.get()];
+                int token = in.getInt();
+                
+                // The root is made with the tree.
+                if (node > 0) { tree.add(kind, token); }
+                
+                tree.setFirst(node, in.getInt());
+                tree.setLast(node, in.getInt());
+                
+                int name = in.getInt();
+                
+                tree.setName(node, name < 0 ? Token.NO_SYMBOL : names.intern(strings[name]));
+                tree.setFlags(node, in.getInt());
+            }
+            
+            for (int node = 0; node < size; node++) {
+                for (int count = in.getInt(); count > 0; count--) { tree.attach(node, in.getInt()); }
+            }
+            
+            Diagnostic.Code[] codes = Diagnostic.Code.values();
+            Diagnostic.Severity[] severities = Diagnostic.Severity.values();
+            List<Diagnostic> found = new ArrayList<>();
+            
+            for (int count = in.getInt(); count > 0; count--) {
+                Diagnostic.Code code = codes[in.get()];
+                Diagnostic.Severity severity = severities[in.get()];
+                long offset = in.getLong();
+                
+                found.add(new Diagnostic(code, severity, file.getPath(),
+                        offset == Diagnostic.NO_OFFSET ? null : lines, offset, strings[in.getInt()]));
+            }
+            
+            // Only a tree read whole has its problems reported.
+            for (Diagnostic diagnostic : found) { diagnostics.report(diagnostic); }
+            
+            return tree;
+        } catch (RuntimeException ex) {
+            // Cut short, or indexing past what it holds.
+            throw new IOException("The tree of " + file.getPath() + " is malformed.", ex);
+        }
+    }
+}
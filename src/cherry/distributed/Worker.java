@@ -0,0 +1,184 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 SoraKatadzuma.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package cherry.distributed;
+
+import cherry.frontend.grammar.Token;
+import cherry.frontend.lexer.Lexer;
+import cherry.frontend.parser.StemParser;
+import cherry.frontend.semantics.Builtins;
+import cherry.utils.Diagnostics;
+import cherry.utils.SearchTree;
+import cherry.utils.SymbolPool;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A {@code Worker} lexes and parses files for coordinators, over the
+ * {@code Protocol}, and sends their trees back. Each connection is served by
+ * a thread of its own, so a worker serves as many coordinators, or as many
+ * threads of one, as connect to it.
+ * <p>
+ * The trees sent are kept by the hash of their source, up to a number of
+ * bytes, the least recently sent dropped first; a source a worker has parsed
+ * before is then not sent to it again, only its hash.
+ * </p>
+ * 
+ * @author SoraKatadzuma
+ * @version Alpha 0.0.1
+ * @since 10/18/2026
+ */
+public final class Worker {
+    /** What a worker prints before its port once listening, for whoever started it. */
+    public static final String READY = "Listening on port ";
+    /** The most bytes of trees kept. */
+    private static final long KEPT_BYTES = 256L << 20;
+    
+    /** Where coordinators connect. */
+    private final ServerSocket server;
+    /** The trees sent, by the hash of their source, least recently sent first. */
+    private final Map<ByteBuffer, byte[]> kept = new LinkedHashMap<>(64, 0.75f, true);
+    /** The bytes of the trees kept. */
+    private long keptBytes;
+    
+    /**
+     * Constructs a new Worker.
+     * 
+     * @param server Where coordinators connect.
+     */
+    public Worker (ServerSocket server) {
+        this.server = server;
+    }
+    
+    /**
+     * Serves every coordinator that connects, until the socket is closed.
+     */
+    public void serve () {
+        while (!server.isClosed()) {
+            try {
+                Socket socket = server.accept();
+                Thread connection = new Thread(() -> converse(socket), "Worker-" + socket.getRemoteSocketAddress());
+                
+                connection.setDaemon(true);
+                connection.start();
+            } catch (IOException ex) {
+                if (!server.isClosed()) { Logger.getLogger(Worker.class.getName()).log(Level.WARNING, null, ex); }
+            }
+        }
+    }
+    
+    private void converse (Socket socket) {
+        // Closing the socket closes its streams, and every answer is flushed.
+        try (Socket connection = socket) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(connection.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(connection.getOutputStream()));
+            
+            out.writeInt(Protocol.MAGIC);
+            out.writeShort(Protocol.VERSION);
+            out.flush();
+            
+            // The names of a connection's files are pooled together, as they
+            // would be by the compilation they are parsed for.
+            SymbolPool names = Builtins.pool();
+            
+            for (byte request = in.readByte(); request == Protocol.PARSE; request = in.readByte()) {
+                String path = in.readUTF();
+                byte[] key = new byte[Protocol.KEY_BYTES];
+                
+                in.readFully(key);
+                
+                byte[] tree = kept(key);
+                
+                if (tree != null) {
+                    out.writeByte(Protocol.HIT);
+                } else {
+                    out.writeByte(Protocol.MISS);
+                    out.flush();
+                    
+                    try {
+                        tree = parse(new File(path), Protocol.readBytes(in), names);
+                        keep(key, tree);
+                        out.writeByte(Protocol.TREE);
+                    } catch (RuntimeException ex) {
+                        out.writeByte(Protocol.FAILED);
+                        out.writeUTF(String.valueOf(ex));
+                        out.flush();
+                        continue;
+                    }
+                }
+                
+                out.writeInt(tree.length);
+                out.write(tree);
+                out.flush();
+            }
+        } catch (EOFException ex) {
+            // The coordinator went away without saying so.
+        } catch (IOException ex) {
+            Logger.getLogger(Worker.class.getName()).log(Level.WARNING, null, ex);
+        }
+    }
+    
+    /**
+     * Lexes and parses a source, as the compiler would a file.
+     * 
+     * @param file The file the source is of.
+     * @param source The source.
+     * @param names The pool the names of the file are placed in.
+     * @return The tree of the file, with the problems found, as bytes.
+     */
+    static byte[] parse (File file, byte[] source, SymbolPool names) {
+        Diagnostics found = new Diagnostics();
+        Lexer lexer = new Lexer(file, source, source.length, names, found);
+        
+        lexer.lex();
+        
+        Token[] tokens = lexer.getTokens();
+        SearchTree tree = new StemParser(names, found).parse(file, tokens);
+        
+        return TreeCodec.encode(tree, found.all());
+    }
+    
+    private synchronized byte[] kept (byte[] key) { return kept.get(ByteBuffer.wrap(key)); }
+    
+    private synchronized void keep (byte[] key, byte[] tree) {
+        if (kept.put(ByteBuffer.wrap(key), tree) == null) { keptBytes += tree.length; }
+        
+        for (Iterator<byte[]> oldest = kept.values().iterator(); keptBytes > KEPT_BYTES && oldest.hasNext(); ) {
+            keptBytes -= oldest.next().length;
+            oldest.remove();
+        }
+    }
+}
@@ -0,0 +1,497 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 SoraKatadzuma.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package cherry.frontend;
+
+import cherry.frontend.grammar.Token;
+import cherry.frontend.lexer.Lexer;
+import cherry.frontend.semantics.SymbolTable;
+import cherry.utils.Diagnostic;
+import cherry.utils.Diagnostics;
+import cherry.utils.IntMap;
+import cherry.utils.SymbolPool;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The {@code ImportGraph} tells which namespaces use which, from the
+ * {@code use} and {@code namespace} directives at the head of every file. It
+ * is built before anything is parsed, by lexing only those directives, and
+ * decides what gets compiled and in which order.
+ * <p>
+ * The nodes of the graph are namespaces, each standing for every file that
+ * declares it, since the files of a namespace see each other's types without
+ * using anything. Files declaring no namespace are the global namespace, which
+ * every other namespace sees, and so depends on, save for the namespaces the
+ * global files use themselves, which are taken to need nothing of them.
+ * Namespaces that use each other, directly or not, form a cycle; a cycle is
+ * reported and then treated as a single node, so that the graph can always be
+ * ordered.
+ * </p>
+ * <p>
+ * Ordered, the graph is a list of waves: the first holds the namespaces that
+ * use nothing, and every later one holds the namespaces whose uses are all in
+ * earlier waves. The files of a wave depend on nothing in the same wave, so
+ * they can be worked on side by side.
+ * </p>
+ * 
+ * @author SoraKatadzuma
+ * @version Alpha 0.0.1
+ * @since 10/18/2026
+ */
+public final class ImportGraph {
+    /** The files of the graph, in the order they were given. */
+    private final File[] files;
+    /** The node of each file. */
+    private final int[] nodeOfFile;
+    /** The name id of the namespace of each node. */
+    private final int[] namespaces;
+    /** The nodes each node uses. */
+    private final int[][] uses;
+    /** The name ids of the namespaces used that no file declares. */
+    private final int[] undeclared;
+    /** The pool of the compilation, where the names of the namespaces are. */
+    private final SymbolPool names;
+    /** Where the entry points that are not found, and the cycles, are reported. */
+    private final Diagnostics diagnostics;
+    
+    private ImportGraph (File[] files, int[] nodeOfFile, int[] namespaces, int[][] uses, int[] undeclared,
+            SymbolPool names, Diagnostics diagnostics) {
+        this.names = names;
+        this.diagnostics = diagnostics;
+        this.files = files;
+        this.nodeOfFile = nodeOfFile;
+        this.namespaces = namespaces;
+        this.uses = uses;
+        this.undeclared = undeclared;
+    }
+    
+    /**
+     * Builds the graph of some files, lexing the heads of the files side by
+     * side on a pool.
+     * 
+     * @param files The files of the compilation.
+     * @param pool The pool to lex on.
+     * @param names The pool of the compilation, where the names are placed.
+     * @param diagnostics Where the problems of the graph are reported.
+     * @return The graph of the files.
+     * @throws InterruptedException If interrupted while waiting for the pool.
+     */
+    public static ImportGraph of (File[] files, ExecutorService pool, SymbolPool names, Diagnostics diagnostics)
+            throws InterruptedException {
+        List<Callable<int[]>> tasks = new ArrayList<>(files.length);
+        
+        for (File file : files) { tasks.add(() -> directivesOf(file, names, diagnostics)); }
+        
+        List<Future<int[]>> results = pool.invokeAll(tasks);
+        int[][] directives = new int[files.length][];
+        
+        for (int i = 0; i < files.length; i++) {
+            try {
+                directives[i] = results.get(i).get();
+            } catch (ExecutionException ex) {
+                Logger.getLogger(ImportGraph.class.getName()).log(Level.SEVERE, null, ex.getCause());
+                directives[i] = new int[] { SymbolTable.GLOBAL };
+            }
+        }
+        
+        return build(files, directives, names, diagnostics);
+    }
+    
+    /**
+     * Lexes the head of a file.
+     * 
+     * @return The namespace of the file, followed by the namespaces it uses.
+     */
+    private static int[] directivesOf (File file, SymbolPool names, Diagnostics diagnostics) {
+        Lexer lexer = new Lexer(file, names, diagnostics);
+        lexer.lexHeader();
+        
+        Token[] tokens = lexer.getTokens();
+        int[] found = new int[] { SymbolTable.GLOBAL };
+        
+        for (int at = 0; at < tokens.length; at++) {
+            Token.Type type = tokens[at].type();
+            
+            if (type != Token.Type.USE && type != Token.Type.NAMESPACE) { continue; }
+            
+            StringBuilder name = new StringBuilder();
+            
+            for (at++; at < tokens.length && tokens[at].type() != Token.Type.SEMCO; at++) {
+                if (tokens[at].type() == Token.Type.DOT) { name.append('.'); }
+                else if (tokens[at].symbol() != Token.NO_SYMBOL) { name.append(names.name(tokens[at].symbol())); }
+                else { break; }
+            }
+            
+            if (name.length() == 0) { continue; }
+            
+            int id = names.intern(name.toString());
+            
+            if (type == Token.Type.NAMESPACE) {
+                found[0] = id;
+            } else {
+                found = Arrays.copyOf(found, found.length + 1);
+                found[found.length - 1] = id;
+            }
+        }
+        
+        return found;
+    }
+    
+    /**
+     * Builds the graph from the directives of every file.
+     */
+    private static ImportGraph build (File[] files, int[][] directives, SymbolPool names, Diagnostics diagnostics) {
+        IntMap<Integer> nodeOfNamespace = new IntMap<>();
+        List<Integer> namespaces = new ArrayList<>();
+        int[] nodeOfFile = new int[files.length];
+        
+        for (int i = 0; i < files.length; i++) {
+            Integer node = nodeOfNamespace.get(directives[i][0]);
+            
+            if (node == null) {
+                node = namespaces.size();
+                nodeOfNamespace.put(directives[i][0], node);
+                namespaces.add(directives[i][0]);
+            }
+            
+            nodeOfFile[i] = node;
+        }
+        
+        int count = namespaces.size();
+        Integer global = nodeOfNamespace.get(SymbolTable.GLOBAL);
+        boolean[][] edges = new boolean[count][count];
+        IntMap<Boolean> undeclared = new IntMap<>();
+        
+        for (int i = 0; i < files.length; i++) {
+            int node = nodeOfFile[i];
+            
+            // Namespaces no file declares, such as the builtin ones or those
+            // of libraries, are not part of the graph.
+            for (int u = 1; u < directives[i].length; u++) {
+                Integer used = nodeOfNamespace.get(directives[i][u]);
+                
+                if (used == null) { undeclared.put(directives[i][u], Boolean.TRUE); }
+                else if (used != node) { edges[node][used] = true; }
+            }
+        }
+        
+        // Every namespace sees the global one, but one the global files use,
+        // even through others, is taken to need nothing of them; otherwise a
+        // file without a namespace could not use a library without a cycle.
+        if (global != null) {
+            boolean[] usedByGlobal = reachable(edges, global);
+            
+            for (int node = 0; node < count; node++) {
+                if (!usedByGlobal[node]) { edges[node][global] = true; }
+            }
+        }
+        
+        int[][] uses = new int[count][];
+        
+        for (int node = 0; node < count; node++) {
+            int[] list = new int[count];
+            int size = 0;
+            
+            for (int used = 0; used < count; used++) {
+                if (edges[node][used]) { list[size++] = used; }
+            }
+            
+            uses[node] = Arrays.copyOf(list, size);
+        }
+        
+        int[] ids = new int[count];
+        
+        for (int node = 0; node < count; node++) { ids[node] = namespaces.get(node); }
+        
+        return new ImportGraph(files, nodeOfFile, ids, uses, undeclared.keys(), names, diagnostics);
+    }
+    
+    /**
+     * @return The nodes reachable from a node through the edges, not counting
+     *      the node itself unless it is on a cycle.
+     */
+    private static boolean[] reachable (boolean[][] edges, int from) {
+        boolean[] reached = new boolean[edges.length];
+        int[] pending = new int[edges.length + 1];
+        int size = 0;
+        
+        pending[size++] = from;
+        
+        while (size > 0) {
+            int node = pending[--size];
+            
+            for (int used = 0; used < edges.length; used++) {
+                if (edges[node][used] && !reached[used]) {
+                    reached[used] = true;
+                    pending[size++] = used;
+                }
+            }
+        }
+        
+        return reached;
+    }
+    
+    /**
+     * Orders the files needed to compile some entry points into waves. Every
+     * file of a wave depends only on files of earlier waves, or on files of
+     * its own namespace or cycle. Files nothing reachable from the entry
+     * points depends on are left out.
+     * 
+     * @param entries Paths of files, or names of namespaces, to compile; when
+     *      empty every file is compiled.
+     * @return The waves of files, those used by others first.
+     */
+    public List<List<File>> waves (Collection<String> entries) {
+        boolean[] reachable = reachableFrom(entries);
+        int count = namespaces.length;
+        
+        // Tarjan's algorithm, which finds the strongly connected components
+        // of the graph in an order where every component comes after those it
+        // uses.
+        int[] index = new int[count];
+        int[] low = new int[count];
+        int[] component = new int[count];
+        boolean[] onStack = new boolean[count];
+        int[] stack = new int[count];
+        int[] path = new int[count];
+        int[] next = new int[count];
+        int[] counters = new int[3];
+        List<int[]> components = new ArrayList<>();
+        
+        Arrays.fill(index, -1);
+        
+        for (int node = 0; node < count; node++) {
+            if (reachable[node] && index[node] < 0) {
+                connect(node, index, low, component, onStack, stack, path, next, counters, components);
+            }
+        }
+        
+        // A component's wave is one past the latest wave of what it uses.
+        int[] waveOf = new int[components.size()];
+        List<List<File>> waves = new ArrayList<>();
+        
+        for (int c = 0; c < components.size(); c++) {
+            int wave = 0;
+            
+            for (int node : components.get(c)) {
+                for (int used : uses[node]) {
+                    if (component[used] != c) { wave = Math.max(wave, waveOf[component[used]] + 1); }
+                }
+            }
+            
+            waveOf[c] = wave;
+            
+            while (waves.size() <= wave) { waves.add(new ArrayList<>()); }
+            
+            if (components.get(c).length > 1) { reportCycle(components.get(c)); }
+        }
+        
+        // Files keep the order they were given in within their wave.
+        for (int i = 0; i < files.length; i++) {
+            if (reachable[nodeOfFile[i]]) { waves.get(waveOf[component[nodeOfFile[i]]]).add(files[i]); }
+        }
+        
+        return waves;
+    }
+    
+    /**
+     * Tarjan's algorithm from one node, numbering the components it reaches.
+     * Rather than recursing, it keeps the path of nodes being visited, and the
+     * next use each of them has to follow, so that a long chain of namespaces
+     * cannot overflow the thread's stack. Counters hold the next index, the
+     * stack size and the next component.
+     */
+    private void connect (int root, int[] index, int[] low, int[] component, boolean[] onStack,
+            int[] stack, int[] path, int[] next, int[] counters, List<int[]> components) {
+        int depth = 0;
+        
+        index[root] = low[root] = counters[0]++;
+        stack[counters[1]++] = root;
+        onStack[root] = true;
+        path[depth] = root;
+        next[depth++] = 0;
+        
+        while (depth > 0) {
+            int node = path[depth - 1];
+            
+            if (next[depth - 1] < uses[node].length) {
+                int used = uses[node][next[depth - 1]++];
+                
+                if (index[used] < 0) {
+                    index[used] = low[used] = counters[0]++;
+                    stack[counters[1]++] = used;
+                    onStack[used] = true;
+                    path[depth] = used;
+                    next[depth++] = 0;
+                } else if (onStack[used]) {
+                    low[node] = Math.min(low[node], index[used]);
+                }
+                
+                continue;
+            }
+            
+            // Every use of the node is followed, so it hands its low link back
+            // to the node it was reached from, and closes its component if it
+            // is the first node of one.
+            depth--;
+            
+            if (depth > 0) { low[path[depth - 1]] = Math.min(low[path[depth - 1]], low[node]); }
+            
+            if (low[node] == index[node]) { close(node, component, onStack, stack, counters, components); }
+        }
+    }
+    
+    /**
+     * Pops the members of a component off the stack, down to its first node.
+     */
+    private static void close (int node, int[] component, boolean[] onStack, int[] stack,
+            int[] counters, List<int[]> components) {
+        List<Integer> members = new ArrayList<>();
+        int member;
+        
+        do {
+            member = stack[--counters[1]];
+            onStack[member] = false;
+            component[member] = counters[2];
+            members.add(member);
+        } while (member != node);
+        
+        int[] nodes = new int[members.size()];
+        
+        for (int i = 0; i < nodes.length; i++) { nodes[i] = members.get(i); }
+        
+        components.add(nodes);
+        counters[2]++;
+    }
+    
+    /**
+     * Marks the nodes the entry points need, which is every node if there are
+     * no entry points.
+     */
+    private boolean[] reachableFrom (Collection<String> entries) {
+        boolean[] reachable = new boolean[namespaces.length];
+        
+        if (entries.isEmpty()) {
+            Arrays.fill(reachable, true);
+            return reachable;
+        }
+        
+        int[] pending = new int[namespaces.length];
+        int size = 0;
+        
+        for (String entry : entries) {
+            int node = nodeOfEntry(entry);
+            
+            if (node < 0) {
+                diagnostics.warning(Diagnostic.Code.UNKNOWN_ENTRY, null,
+                        "The entry point \"" + entry + "\" is neither a registered file nor a declared namespace.");
+            } else if (!reachable[node]) {
+                reachable[node] = true;
+                pending[size++] = node;
+            }
+        }
+        
+        while (size > 0) {
+            for (int used : uses[pending[--size]]) {
+                if (!reachable[used]) {
+                    reachable[used] = true;
+                    pending[size++] = used;
+                }
+            }
+        }
+        
+        return reachable;
+    }
+    
+    private int nodeOfEntry (String entry) {
+        File entryFile = new File(entry);
+        
+        for (int i = 0; i < files.length; i++) {
+            if (files[i].equals(entryFile) || canonical(files[i]).equals(canonical(entryFile))) {
+                return nodeOfFile[i];
+            }
+        }
+        
+        for (int node = 0; node < namespaces.length; node++) {
+            if (namespaces[node] != SymbolTable.GLOBAL && names.name(namespaces[node]).equals(entry)) {
+                return node;
+            }
+        }
+        
+        return -1;
+    }
+    
+    private static String canonical (File file) {
+        try {
+            return file.getCanonicalPath();
+        } catch (IOException ex) {
+            return file.getAbsolutePath();
+        }
+    }
+    
+    private void reportCycle (int[] nodes) {
+        StringBuilder cycle = new StringBuilder();
+        
+        for (int node : nodes) {
+            if (cycle.length() > 0) { cycle.append(", "); }
+            
+            cycle.append(namespaces[node] == SymbolTable.GLOBAL ? "<global>" : names.name(namespaces[node]));
+        }
+        
+        diagnostics.warning(Diagnostic.Code.CYCLIC_USE, null,
+                "The namespaces " + cycle + " use each other, and are compiled as one.");
+    }
+    
+    /**
+     * @param namespace The name id of a namespace.
+     * @return true if some file of the graph declares the namespace.
+     */
+    public boolean declares (int namespace) {
+        for (int declared : namespaces) {
+            if (declared == namespace) { return true; }
+        }
+        
+        return false;
+    }
+    
+    /**
+     * @return The name ids of the namespaces some file uses but none declares.
+     */
+    public int[] undeclaredUses () { return undeclared.clone(); }
+    
+    /**
+     * @return The number of namespaces in the graph, the global one included.
+     */
+    public int size () { return namespaces.length; }
+}
@@ -0,0 +1,126 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 SoraKatadzuma.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package cherry.frontend.grammar;
+
+import cherry.utils.Utf8;
+
+/**
+ * A {@code Lexeme} is a view of the characters of a token inside of the buffer
+ * the {@code LexicalReader} read its file into. It is nothing more than the
+ * buffer, an offset into it, and a length; so creating one copies nothing.
+ * <p>
+ * The buffer holds UTF-8. A lexeme that is all ASCII, which is nearly every
+ * lexeme, answers {@code charAt()} and {@code length()} straight from its
+ * bytes. Any other lexeme answers them from its decoded string.
+ * </p>
+ * <p>
+ * A string is only made when one is asked for through {@code toString()}, and
+ * it is kept afterwards so it is never made twice. Since the view keeps the
+ * whole buffer reachable, anything that outlives the file it came from should
+ * hold on to that string rather than the view.
+ * </p>
+ * 
+ * @author SoraKatadzuma
+ * @version Alpha 0.0.1
+ * @since 10/18/2026
+ */
+public final class Lexeme implements CharSequence {
+    /** The buffer this lexeme is a view of. */
+    private final byte[] buffer;
+    /** The position of the first character of this lexeme in the buffer. */
+    private final int offset;
+    /** The number of bytes in this lexeme. */
+    private final int length;
+    /** Whether every byte of this lexeme is ASCII, checked on first use. */
+    private Boolean ascii;
+    /** The string form of this lexeme, made the first time it is needed. */
+    private String string;
+    
+    /**
+     * Constructs a new view of a buffer.
+     * 
+     * @param buffer The buffer to view.
+     * @param offset The position of the first byte in the buffer.
+     * @param length The number of bytes to view.
+     */
+    public Lexeme (byte[] buffer, int offset, int length) {
+        this.buffer = buffer;   this.offset = offset;   this.length = length;
+    }
+    
+    /**
+     * @return The buffer this lexeme is a view of.
+     */
+    public byte[] buffer () { return buffer; }
+    
+    /**
+     * @return The position of the first byte of this lexeme in the buffer.
+     */
+    public int offset () { return offset; }
+    
+    /**
+     * @return The number of bytes in this lexeme.
+     */
+    public int byteLength () { return length; }
+    
+    /**
+     * @return true if every byte of this lexeme is ASCII.
+     */
+    public boolean isAscii () {
+        if (ascii == null) { ascii = Utf8.isAscii(buffer, offset, length); }
+        
+        return ascii;
+    }
+    
+    @Override
+    public int length () { return isAscii() ? length : toString().length(); }
+    
+    @Override
+    public char charAt (int index) {
+        if (!isAscii()) { return toString().charAt(index); }
+        
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Length: " + length);
+        }
+        
+        return (char) buffer[offset + index];
+    }
+    
+    @Override
+    public CharSequence subSequence (int start, int end) {
+        if (!isAscii()) { return toString().subSequence(start, end); }
+        
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException("Start: " + start + ", End: " + end);
+        }
+        
+        return new Lexeme(buffer, offset + start, end - start);
+    }
+    
+    @Override
+    public String toString () {
+        if (string == null) { string = Utf8.decode(buffer, offset, length); }
+        
+        return string;
+    }
+}
@@ -0,0 +1,385 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 SoraKatadzuma.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package cherry.frontend.grammar;
+
+import cherry.utils.Utf8;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * A {@code LineIndex} turns the byte offset of a token in its file into the
+ * line and column that offset is at. Tokens only keep their offset, since
+ * lines and columns are wanted for nothing but diagnostics and debugging
+ * information, and most tokens are never asked for them.
+ * <p>
+ * The index is a table of the offset every line starts at. It is filled by a
+ * single scan for line feeds, eight bytes at a time, the first time any
+ * position in the file is asked for, and every question after that is a
+ * binary search of the table. Columns count characters rather than bytes.
+ * </p>
+ * <p>
+ * A file streamed through a window is never whole in memory to be scanned,
+ * and a table of every line would grow with it. Its reader records the line
+ * feeds of every window as it first reads it instead, keeping only the count
+ * of lines and a table of checkpoints: lines that start at least so many bytes
+ * apart, with their offset and number. The table has a fixed size; when it is
+ * full every other checkpoint is dropped and they are spaced twice as far from
+ * then on. A line or column is found by reading the file back from the
+ * checkpoint before it. Since positions are mostly asked for in the order of
+ * the file, the place of the last one asked for is kept, and the next one
+ * reads on from there when it can.
+ * </p>
+ * 
+ * @author SoraKatadzuma
+ * @version Alpha 0.0.1
+ * @since 10/18/2026
+ */
+public final class LineIndex {
+    /** A word of line feeds. */
+    private static final long NEWLINES = '\n' * Utf8.ONES;
+    
+    /** The name of the file this index is of. */
+    private final String fileName;
+    /** The contents of the file. */
+    private final byte[] buffer;
+    /** The number of bytes in the file. */
+    private final int limit;
+    /** The offset each line starts at, filled on first use. */
+    private volatile int[] starts;
+    /** The most checkpoints a streamed index keeps. */
+    private static final int CHECKPOINTS = 1 << 12;
+    /** The fewest bytes between the checkpoints of a streamed index, at first. */
+    private static final long FIRST_SPACING = 1 << 12;
+    /** The size of the chunks a streamed file is read back in. */
+    private static final int CHUNK = 1 << 16;
+    
+    /** The file a streamed index is of, or {@code null}. */
+    private final File file;
+    /** The offsets of the lines a streamed index checkpoints. */
+    private long[] checkpoints;
+    /** The numbers of the lines a streamed index checkpoints. */
+    private int[] checkpointLines;
+    /** The number of checkpoints of a streamed index. */
+    private int checkpointCount;
+    /** The fewest bytes between checkpoints of a streamed index, now. */
+    private long spacing;
+    /** The number of lines of a streamed file recorded. */
+    private int count;
+    /** The offset just past what has been recorded of a streamed file. */
+    private long recorded;
+    /** The offset, line and column of the position last asked for. */
+    private long lastOffset;
+    private int lastLine, lastColumn;
+    
+    /**
+     * Constructs a new index of a file's contents.
+     * 
+     * @param fileName The name of the file.
+     * @param buffer The contents of the file.
+     * @param limit The number of bytes in the file.
+     */
+    public LineIndex (String fileName, byte[] buffer, int limit) {
+        this.fileName = fileName;   this.buffer = buffer;   this.limit = limit;
+        this.file = null;
+    }
+    
+    /**
+     * Constructs a new index of a streamed file, to be filled by its reader
+     * through {@code record()}.
+     * 
+     * @param fileName The name of the file.
+     * @param file The file itself.
+     */
+    public LineIndex (String fileName, File file) {
+        this.fileName = fileName;   this.buffer = null;   this.limit = 0;
+        this.file = file;
+        this.checkpoints = new long[CHECKPOINTS];
+        this.checkpointLines = new int[CHECKPOINTS];
+        this.spacing = FIRST_SPACING;
+        this.count = 1;
+        
+        // The first line starts the file, and the first position is on it.
+        checkpointLines[checkpointCount++] = 1;
+        lastLine = lastColumn = 1;
+    }
+    
+    /**
+     * Records the line feeds of a window onto a streamed file, a word at a
+     * time. Windows must be recorded in the order of the file, each from where
+     * the last left off.
+     * 
+     * @param window The window.
+     * @param from The index in the window to record from.
+     * @param to The index in the window just past the last byte to record.
+     * @param base The offset in the file of the first byte of the window.
+     */
+    public synchronized void record (byte[] window, int from, int to, long base) {
+        ByteBuffer words = Utf8.words(window);
+        int at = from;
+        
+        for (; at + Long.BYTES <= to; at += Long.BYTES) {
+            long found = Utf8.matches(words.getLong(at), NEWLINES);
+            
+            while (found != 0) {
+                add(base + at + (Long.numberOfTrailingZeros(found) >>> 3) + 1);
+                found &= found - 1;
+            }
+        }
+        
+        for (; at < to; at++) {
+            if (window[at] == '\n') { add(base + at + 1); }
+        }
+        
+        recorded = Math.max(recorded, base + to);
+    }
+    
+    /**
+     * Counts the start of a line of a streamed file, and checkpoints it when
+     * it is far enough from the last checkpoint.
+     * 
+     * @param start The offset the line starts at.
+     */
+    private void add (long start) {
+        count++;
+        
+        if (start - checkpoints[checkpointCount - 1] < spacing) { return; }
+        
+        if (checkpointCount == CHECKPOINTS) {
+            for (int i = 1; i < CHECKPOINTS / 2; i++) {
+                checkpoints[i] = checkpoints[i * 2];
+                checkpointLines[i] = checkpointLines[i * 2];
+            }
+            
+            checkpointCount = CHECKPOINTS / 2;
+            spacing <<= 1;
+        }
+        
+        checkpoints[checkpointCount] = start;
+        checkpointLines[checkpointCount++] = count;
+    }
+    
+    /**
+     * @return The name of the file this index is of.
+     */
+    public String fileName () { return fileName; }
+    
+    /**
+     * @param offset An offset in the file.
+     * @return The line of that offset, starting from one.
+     */
+    public int lineOf (long offset) {
+        if (file != null) { return (int) locate(offset); }
+        
+        int[] table = starts();
+        int found = Arrays.binarySearch(table, (int) offset);
+        
+        // A miss answers with minus the insertion point, minus one; the line
+        // is the one starting just before that point.
+        return found >= 0 ? found + 1 : -found - 1;
+    }
+    
+    /**
+     * @param offset An offset in the file.
+     * @return The column of that offset in its line, starting from one.
+     */
+    public int columnOf (long offset) {
+        if (file != null) { return (int) (locate(offset) >>> 32); }
+        
+        int column = 1;
+        
+        // Count every byte that is not the continuation of a character.
+        for (int i = starts()[lineOf(offset) - 1]; i < offset && i < limit; i++) {
+            if ((buffer[i] & 0xC0) != 0x80) { column++; }
+        }
+        
+        return column;
+    }
+    
+    /**
+     * @param line A line of the file, starting from one.
+     * @return The offset the line starts at, or the end of the file for a
+     *      line past the last one.
+     */
+    public long startOf (int line) {
+        if (file != null) { return streamedStartOf(line); }
+        
+        int[] table = starts();
+        
+        return line > table.length ? limit : table[Math.max(0, line - 1)];
+    }
+    
+    /**
+     * @return The number of lines in the file.
+     */
+    public int lines () {
+        if (file == null) { return starts().length; }
+        
+        synchronized (this) { return count; }
+    }
+    
+    /**
+     * Finds the line and column of an offset in a streamed file, reading the
+     * file back from the checkpoint before it, or from the position last asked
+     * for when that is nearer.
+     * 
+     * @param offset An offset in a streamed file, within what was recorded.
+     * @return The column in the high half, and the line in the low half.
+     */
+    private synchronized long locate (long offset) {
+        long target = Math.max(0, Math.min(offset, recorded));
+        int found = Arrays.binarySearch(checkpoints, 0, checkpointCount, target);
+        int checkpoint = found >= 0 ? found : -found - 2;
+        long at = checkpoints[checkpoint];
+        int line = checkpointLines[checkpoint];
+        int column = 1;
+        
+        if (lastOffset >= at && lastOffset <= target) {
+            at = lastOffset;
+            line = lastLine;
+            column = lastColumn;
+        }
+        
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer chunk = ByteBuffer.allocate((int) Math.min(CHUNK, Math.max(1, target - at)));
+            
+            while (at < target) {
+                chunk.clear();
+                chunk.limit((int) Math.min(chunk.capacity(), target - at));
+                
+                int read = channel.read(chunk, at);
+                
+                if (read <= 0) { break; }
+                
+                // A line feed starts a new line; every other byte that is not
+                // the continuation of a character is a column.
+                for (int i = 0; i < read; i++) {
+                    byte b = chunk.get(i);
+                    
+                    if (b == '\n') { line++; column = 1; }
+                    else if ((b & 0xC0) != 0x80) { column++; }
+                }
+                
+                at += read;
+            }
+        } catch (IOException ex) {
+            return ((long) column << 32) | line;
+        }
+        
+        lastOffset = at;
+        lastLine = line;
+        lastColumn = column;
+        
+        return ((long) column << 32) | line;
+    }
+    
+    /**
+     * Finds where a line of a streamed file starts, reading the file back
+     * from the checkpoint before it.
+     * 
+     * @param line A line of the file, starting from one.
+     * @return The offset the line starts at, or the end of what was recorded
+     *      for a line past the last one.
+     */
+    private synchronized long streamedStartOf (int line) {
+        if (line > count) { return recorded; }
+        
+        int found = Arrays.binarySearch(checkpointLines, 0, checkpointCount, Math.max(1, line));
+        int checkpoint = found >= 0 ? found : -found - 2;
+        long at = checkpoints[checkpoint];
+        int current = checkpointLines[checkpoint];
+        
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer chunk = ByteBuffer.allocate(CHUNK);
+            
+            while (current < line && at < recorded) {
+                chunk.clear();
+                chunk.limit((int) Math.min(CHUNK, recorded - at));
+                
+                int read = channel.read(chunk, at);
+                
+                if (read <= 0) { break; }
+                
+                int i = 0;
+                
+                for (; i < read && current < line; i++) {
+                    if (chunk.get(i) == '\n') { current++; }
+                }
+                
+                at += i;
+            }
+        } catch (IOException ex) {
+            return at;
+        }
+        
+        return at;
+    }
+    
+    /**
+     * Gets the table of line starts, filling it if this is the first use. Two
+     * threads may both fill it, but both arrive at the same table.
+     */
+    private int[] starts () {
+        int[] table = starts;
+        
+        if (table == null) { starts = table = scan(); }
+        
+        return table;
+    }
+    
+    /**
+     * Scans the file for line feeds, a word at a time.
+     * 
+     * @return The offset each line starts at.
+     */
+    private int[] scan () {
+        ByteBuffer words = Utf8.words(buffer);
+        int[] table = new int[Math.max(16, limit >>> 5)];
+        int count = 1;
+        int at = 0;
+        
+        for (; at + Long.BYTES <= limit; at += Long.BYTES) {
+            long found = Utf8.matches(words.getLong(at), NEWLINES);
+            
+            while (found != 0) {
+                if (count == table.length) { table = Arrays.copyOf(table, count << 1); }
+                
+                table[count++] = at + (Long.numberOfTrailingZeros(found) >>> 3) + 1;
+                found &= found - 1;
+            }
+        }
+        
+        for (; at < limit; at++) {
+            if (buffer[at] != '\n') { continue; }
+            if (count == table.length) { table = Arrays.copyOf(table, count << 1); }
+            
+            table[count++] = at + 1;
+        }
+        
+        return Arrays.copyOf(table, count);
+    }
+}
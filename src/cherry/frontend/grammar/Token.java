@@ -30,9 +30,10 @@ import java.util.EnumSet;
  * {@code Lexer} is built to return an array of tokens to the {@code Parser}.
  * <p>
  * A {@code Token} is comprised of: a type, a value (the lexeme found by the
- * {@code Lexer}), a line position in the file from which the value was read,
- * and a column position in the line from which this was read (usually refers to
- * the first character of the lexeme; its column position).
+ * {@code Lexer}, when the type does not already imply it), and the offset in
+ * the file from which the value was read (the offset of the first byte of the
+ * lexeme). The line and column of a token are found from its offset through
+ * the {@code LineIndex} of its file, only when they are asked for.
  * </p>
  * 
  * @author SoraKatadzuma
@@ -42,8 +43,8 @@ import java.util.EnumSet;
 public class Token {
     /**
      * The type of a token is found using the methods of the {@code Type} enum
-     * found here. Each type is composed of a number value which will be used to
-     * fill in the transition table of the {@code Lexer}.
+     * found here. Each type is composed of a number value, its index, which is
+     * the bit that stands for it in a {@code TokenTypeSet}.
      */
     public enum Type {
         /* Parser dependent types. */
@@ -60,8 +61,8 @@ public class Token {
         
         /* Other Keywords. */
         BREAK, CASE, CATCH, CONTINUE, DO, DEFAULT, ELSE, FINALLY, FOR,
-        FOREACH, GET, IF, IN, INHERITS, LAMBDA, OPERATOR, NEW, PARAMS, RETURN,
-        SET, SIZEOF, SKIP, SUPER, SWITCH, THIS, TRY, USE, VALUES, WHILE,
+        FOREACH, GET, IF, IN, INHERITS, LAMBDA, NAMESPACE, OPERATOR, NEW, PARAMS,
+        RETURN, SET, SIZEOF, SKIP, SUPER, SWITCH, THIS, TRY, USE, VALUES, WHILE,
         
         /* Math keywords. */
         EXP, SQRT, LOG, LN, COS, SIN, TAN, CSC, SEC, COT,
@@ -77,37 +78,34 @@ public class Token {
         SEMCO(";"), LBRACE("{"), RBRACE("}"), LBRACK("["), RBRACK("]"), LPAREN("("),
         RPAREN(")"), ANNO("@"), INCRE("++"), DECRE("--"), ESCAPE("\\");
         
-        /** The number of this type. */
-        private final int index;
         /** The name of this type. */
         private final String name;
         
         /**
-         * Constructs each value with a number representing their index and a
-         * string representing their lowercase form.
+         * Constructs each value with a string representing their lowercase
+         * form.
          */
         Type () {
-            this.index = 1 << this.ordinal();
             this.name = this.name().toLowerCase();
         }
         
         /**
-         * Constructs each value with a number representing their index and a
-         * string representing their name.
+         * Constructs each value with a string representing their name.
          * 
          * @param name The name of this type.
          */
         Type (String name) {
-            this.index = 1 << this.ordinal();
             this.name = name;
         }
         
         /**
-         * Gets the number of this type.
+         * Gets the number of this type. There are far more types than the bits
+         * of any one primitive, so this is a position rather than a bit mask;
+         * sets of types are kept in a {@code TokenTypeSet}.
          * 
          * @return The number of this type.
          */
-        public int index () { return index; }
+        public int index () { return ordinal(); }
         
         /**
          * Gets the name of this type.
@@ -117,32 +115,50 @@ public class Token {
         public String getName () { return name; }
     }
     
-    /** A bit field like structure to hold all of our types. */
-    private static final EnumSet<Type> types = EnumSet.allOf(Type.class);
-    
     /** The type of this token. */
     private Type type;
-    /** The value of this token in terms of a string (lexeme). */
-    private String value;
-    /** The name of the file this token was found in. */
-    private String fileName;
-    /** The line in the file this token was found. */
-    private int line;
-    /** The column of the line this token was found. */
-    private int column;
+    /**
+     * The lexeme of this token. Identifiers hold the pooled name of their
+     * symbol, other literal tokens hold a {@code Lexeme} view into the source
+     * they were read from, and symbols and keywords hold nothing at all since
+     * their text is already implied by their type.
+     */
+    private CharSequence lexeme;
+    /** The pooled name id of an identifier, or {@code NO_SYMBOL}. */
+    private int symbol = NO_SYMBOL;
+    /** The index of the lines of the file this token was found in. */
+    private LineIndex lines;
+    /** The offset in the file this token was found. */
+    private long offset;
+    
+    /** The symbol id of every token that is not an identifier. */
+    public static final int NO_SYMBOL = -1;
     
     /**
      * Constructs a new Token with all necessary information.
      * 
      * @param type The type of this token.
-     * @param value The value of this token.
-     * @param fileName The name of the file this token was found in.
-     * @param line The line in the file this token was found.
-     * @param column The column in the line this token was found.
-     */
-    public Token (Type type, String value, String fileName, int line, int column) {
-        this.type = type;   this.value = value;     this.fileName = fileName;
-        this.line = line;   this.column = column;
+     * @param lexeme The lexeme of this token, {@code null} if the type implies it.
+     * @param lines The index of the lines of the file this token was found in.
+     * @param offset The offset in the file this token was found.
+     */
+    public Token (Type type, CharSequence lexeme, LineIndex lines, long offset) {
+        this.type = type;   this.lexeme = lexeme;
+        this.lines = lines; this.offset = offset;
+    }
+    
+    /**
+     * Constructs a new identifier Token from a pooled symbol.
+     * 
+     * @param type The type of this token.
+     * @param name The pooled name of the symbol.
+     * @param symbol The id of the symbol in its pool.
+     * @param lines The index of the lines of the file this token was found in.
+     * @param offset The offset in the file this token was found.
+     */
+    public Token (Type type, String name, int symbol, LineIndex lines, long offset) {
+        this(type, name, lines, offset);
+        this.symbol = symbol;
     }
     
     /**
@@ -156,29 +172,27 @@ public class Token {
     public void setType (Type type) { this.type = type; }
     
     /**
-     * @param value The value of this token.
-     */
-    public void setValue (String value) { this.value = value; }
-    
-    /**
-     * @param fileName The name of the file this token was found in.
+     * @param lexeme The lexeme of this token.
      */
-    public void setFileName (String fileName) { this.fileName = fileName; }
+    public void setLexeme (CharSequence lexeme) { this.lexeme = lexeme; }
     
     /**
-     * @param line The line in the file this token was found.
+     * @param symbol The pooled name id of this identifier.
      */
-    public void setLine (int line) { this.line = line; }
+    public void setSymbol (int symbol) { this.symbol = symbol; }
     
     /**
-     * @param column The column in the line this token was found.
+     * @param lines The index of the lines of the file this token was found in.
+     * @param offset The offset in the file this token was found.
      */
-    public void setColumn (int column) { this.column = column; }
+    public void setPosition (LineIndex lines, long offset) {
+        this.lines = lines; this.offset = offset;
+    }
     
     /**
      * @return The types of tokens available.
      */
-    public static EnumSet<Type> types () { return types; }
+    public static EnumSet<Type> types () { return Types.ALL; }
     
     /**
      * @return The type of this token.
@@ -186,22 +200,55 @@ public class Token {
     public Type type () { return type; }
     
     /**
+     * Gets the value of this token as a string. The string of a lexeme is only
+     * created when it is asked for here, and tokens without a lexeme answer
+     * with the name of their type, which is a constant.
+     * 
      * @return The value of this token.
      */
-    public String value () { return value; }
+    public String value () { return lexeme == null ? type.getName() : lexeme.toString(); }
+    
+    /**
+     * @return The lexeme of this token, or {@code null} if its type implies it.
+     */
+    public CharSequence lexeme () { return lexeme; }
+    
+    /**
+     * @return The pooled name id of this identifier, or {@code NO_SYMBOL}.
+     */
+    public int symbol () { return symbol; }
     
     /**
      * @return The name of the file this token was found in. 
      */
-    public String fileName () { return fileName; }
+    public String fileName () { return lines.fileName(); }
+    
+    /**
+     * @return The offset in the file this token was found.
+     */
+    public long offset () { return offset; }
+    
+    /**
+     * @return The index of the lines of the file this token was found in.
+     */
+    public LineIndex lines () { return lines; }
     
     /**
      * @return The line in the file this token was found.
      */
-    public int line () { return line; }
+    public int line () { return lines.lineOf(offset); }
     
     /**
      * @return The column in the line this token was found.
      */
-    public int column () { return column; }
+    public int column () { return lines.columnOf(offset); }
+    
+    /**
+     * Holds every type of token, made only once it is first asked for, since
+     * a compilation that does not ask pays nothing for it at startup.
+     */
+    private static final class Types {
+        /** A bit field like structure to hold all of our types. */
+        static final EnumSet<Type> ALL = EnumSet.allOf(Type.class);
+    }
 }
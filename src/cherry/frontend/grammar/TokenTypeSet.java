@@ -0,0 +1,242 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 SoraKatadzuma.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package cherry.frontend.grammar;
+
+import java.util.Arrays;
+
+/**
+ * A {@code TokenTypeSet} is a set of {@code Token.Type}s kept as a bit field,
+ * one bit for each type at the bit of its index, spread across as many longs
+ * as it takes to hold every type. It is what the {@code Parser} uses for its
+ * FIRST and FOLLOW sets, where asking whether a token may start or follow a
+ * rule has to be as cheap as it can be.
+ * <p>
+ * Asking whether a type is in a set, and adding or keeping the types of
+ * another set, never allocate. A set may be frozen, after which it refuses to
+ * change; the constant sets found here are all frozen, so they can be shared
+ * between every parser thread.
+ * </p>
+ * 
+ * @author SoraKatadzuma
+ * @version Alpha 0.0.1
+ * @since 10/18/2026
+ */
+public final class TokenTypeSet {
+    /** The number of longs it takes to hold a bit for every type. */
+    private static final int WORDS = (Token.Type.values().length + Long.SIZE - 1) / Long.SIZE;
+    
+    /** The modifier types. */
+    public static final TokenTypeSet MODIFIERS =
+            range(Token.Type.PUBLIC, Token.Type.VOLATILE).freeze();
+    /** The types a value may have, leaving out the keywords that declare types. */
+    public static final TokenTypeSet VALUE_TYPES =
+            range(Token.Type.BOOL, Token.Type.VOID).freeze();
+    /** The math keywords. */
+    public static final TokenTypeSet MATH_KEYWORDS =
+            range(Token.Type.EXP, Token.Type.COT).freeze();
+    /** The operator symbols, leaving out punctuation. */
+    public static final TokenTypeSet OPERATORS =
+            range(Token.Type.ADD, Token.Type.OR)
+            .add(Token.Type.TERN).add(Token.Type.INCRE).add(Token.Type.DECRE).freeze();
+    /** The literal types. */
+    public static final TokenTypeSet LITERALS =
+            range(Token.Type.NUMBER, Token.Type.FALSE).freeze();
+    
+    /** The bits of this set. */
+    private final long[] words;
+    /** Whether this set refuses to change. */
+    private boolean frozen;
+    
+    /**
+     * Constructs a new empty set.
+     */
+    public TokenTypeSet () { this.words = new long[WORDS]; }
+    
+    /**
+     * @param types The types to put in the new set.
+     * @return A new set holding the given types.
+     */
+    public static TokenTypeSet of (Token.Type... types) {
+        TokenTypeSet set = new TokenTypeSet();
+        
+        for (Token.Type type : types) { set.add(type); }
+        
+        return set;
+    }
+    
+    /**
+     * @param first The first type of the range.
+     * @param last The last type of the range.
+     * @return A new set holding every type declared from first to last.
+     */
+    public static TokenTypeSet range (Token.Type first, Token.Type last) {
+        TokenTypeSet set = new TokenTypeSet();
+        Token.Type[] types = Token.Type.values();
+        
+        for (int i = first.index(); i <= last.index(); i++) { set.add(types[i]); }
+        
+        return set;
+    }
+    
+    /**
+     * @param type The type to look for.
+     * @return true if the type is in this set.
+     */
+    public boolean contains (Token.Type type) {
+        int index = type.index();
+        
+        return (words[index >>> 6] & (1L << index)) != 0;
+    }
+    
+    /**
+     * @param token The token whose type to look for.
+     * @return true if the type of the token is in this set.
+     */
+    public boolean contains (Token token) { return contains(token.type()); }
+    
+    /**
+     * @param other Another set.
+     * @return true if the two sets have any type in common.
+     */
+    public boolean intersects (TokenTypeSet other) {
+        for (int i = 0; i < WORDS; i++) {
+            if ((words[i] & other.words[i]) != 0) { return true; }
+        }
+        
+        return false;
+    }
+    
+    /**
+     * @return true if this set holds no types.
+     */
+    public boolean isEmpty () {
+        for (long word : words) {
+            if (word != 0) { return false; }
+        }
+        
+        return true;
+    }
+    
+    /**
+     * @param type The type to add.
+     * @return This set.
+     */
+    public TokenTypeSet add (Token.Type type) {
+        checkNotFrozen();
+        
+        int index = type.index();
+        words[index >>> 6] |= 1L << index;
+        
+        return this;
+    }
+    
+    /**
+     * @param type The type to remove.
+     * @return This set.
+     */
+    public TokenTypeSet remove (Token.Type type) {
+        checkNotFrozen();
+        
+        int index = type.index();
+        words[index >>> 6] &= ~(1L << index);
+        
+        return this;
+    }
+    
+    /**
+     * Adds every type of another set to this one, making this set the union
+     * of the two.
+     * 
+     * @param other The set whose types to add.
+     * @return This set.
+     */
+    public TokenTypeSet union (TokenTypeSet other) {
+        checkNotFrozen();
+        
+        for (int i = 0; i < WORDS; i++) { words[i] |= other.words[i]; }
+        
+        return this;
+    }
+    
+    /**
+     * Keeps only the types of this set that are also in another, making this
+     * set the intersection of the two.
+     * 
+     * @param other The set whose types to keep.
+     * @return This set.
+     */
+    public TokenTypeSet intersect (TokenTypeSet other) {
+        checkNotFrozen();
+        
+        for (int i = 0; i < WORDS; i++) { words[i] &= other.words[i]; }
+        
+        return this;
+    }
+    
+    /**
+     * @return A new set holding the types of this set, that is not frozen.
+     */
+    public TokenTypeSet copy () {
+        TokenTypeSet copy = new TokenTypeSet();
+        System.arraycopy(words, 0, copy.words, 0, WORDS);
+        
+        return copy;
+    }
+    
+    /**
+     * Makes this set refuse any further change.
+     * 
+     * @return This set.
+     */
+    public TokenTypeSet freeze () {
+        frozen = true;
+        return this;
+    }
+    
+    private void checkNotFrozen () {
+        if (frozen) { throw new UnsupportedOperationException("This set is frozen."); }
+    }
+    
+    @Override
+    public boolean equals (Object other) {
+        return other instanceof TokenTypeSet && Arrays.equals(words, ((TokenTypeSet) other).words);
+    }
+    
+    @Override
+    public int hashCode () { return Arrays.hashCode(words); }
+    
+    @Override
+    public String toString () {
+        StringBuilder sb = new StringBuilder("[");
+        
+        for (Token.Type type : Token.Type.values()) {
+            if (!contains(type)) { continue; }
+            if (sb.length() > 1) { sb.append(", "); }
+            
+            sb.append(type);
+        }
+        
+        return sb.append(']').toString();
+    }
+}
@@ -23,11 +23,17 @@
  */
 package cherry.frontend.lexer;
 
-// import cherry.frontend.grammar.Token;
+import cherry.frontend.grammar.Token;
+import cherry.utils.Diagnostic;
+import cherry.utils.Diagnostics;
+import cherry.utils.SymbolPool;
+import cherry.utils.Trie;
+import cherry.utils.Utf8;
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.util.logging.Level;
-import java.util.logging.Logger;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
 
 /**
  * The sole purpose of Lexer is to take a file and make sure that is has proper
@@ -64,6 +70,12 @@ import java.util.logging.Logger;
  * transition to multiple states, we will need to do a slight lookahead to peek
  * at the value of the next character to decide the transition to take.
  * </p>
+ * <p>
+ * Lexemes are never copied out of the file. Literals keep a view into the
+ * buffer of the {@code LexicalReader}, identifiers are pooled in the
+ * {@code SymbolPool} of the compilation, and keywords and symbols keep nothing
+ * since their type already tells what their text was.
+ * </p>
  * 
  * @author SoraKatadzuma
  * @version Alpha 0.0.1
@@ -97,19 +109,511 @@ public final class Lexer {
         public int index () { return index; }
     }
     
+    /** The first keyword type, in declaration order of {@code Token.Type}. */
+    private static final Token.Type FIRST_KEYWORD = Token.Type.BOOL;
+    /** The last keyword type, in declaration order of {@code Token.Type}. */
+    private static final Token.Type LAST_KEYWORD = Token.Type.COT;
+    /** The keywords of Cherry, valued by the ordinal of their type. */
+    private static final Trie KEYWORDS = generateKeywords();
+    /** The symbol types by their first character, longest symbols first. */
+    private static final Token.Type[][] SYMBOLS = generateSymbols();
+    
     /** File that this Lexer will be reading. */
     private final File file;
     /** The reader for this Lexer. */
     private final LexicalReader reader;
+    /** The pool the identifiers of this file are placed in. */
+    private final SymbolPool symbols;
+    /** The tokens found so far, unless they are pulled one at a time. */
+    private final List<Token> tokens = new ArrayList<>();
+    /** The token found last, when tokens are pulled one at a time. */
+    private Token pulled;
+    /** Whether tokens are pulled one at a time by {@code next()}. */
+    private boolean pulling;
+    /** The position of the first input of the token being lexed. */
+    private long start;
+    /** Where the inputs that could not be lexed are reported. */
+    private final Diagnostics diagnostics;
     
     /**
-     * Constructs a new Lexer to lex the file passed in from the Parser that
-     * instantiated this Lexer instance.
+     * Constructs a new Lexer to lex a file for a compilation.
      * 
      * @param file The file to lex.
+     * @param symbols The pool of the compilation, where identifiers are placed.
+     * @param diagnostics Where the inputs that could not be lexed are reported.
      */
-    public Lexer (File file) {
+    public Lexer (File file, SymbolPool symbols, Diagnostics diagnostics) {
         this.file = file;
+        this.symbols = symbols;
+        this.diagnostics = diagnostics;
         reader = new LexicalReader(file);
     }
+    
+    /**
+     * Constructs a new Lexer streaming the file through a window of a given
+     * size, however large the file is.
+     * 
+     * @param file The file to lex.
+     * @param window The size of the window.
+     * @param symbols The pool of the compilation, where identifiers are placed.
+     * @param diagnostics Where the inputs that could not be lexed are reported.
+     */
+    public Lexer (File file, int window, SymbolPool symbols, Diagnostics diagnostics) {
+        this.file = file;
+        this.symbols = symbols;
+        this.diagnostics = diagnostics;
+        reader = new LexicalReader(file, window);
+    }
+    
+    /**
+     * Constructs a new Lexer over contents already in memory, as those of a
+     * file being edited.
+     * 
+     * @param file The file the contents are of.
+     * @param contents The contents.
+     * @param length The number of bytes of the contents.
+     * @param symbols The pool of the compilation, where identifiers are placed.
+     * @param diagnostics Where the inputs that could not be lexed are reported.
+     */
+    public Lexer (File file, byte[] contents, int length, SymbolPool symbols, Diagnostics diagnostics) {
+        this.file = file;
+        this.symbols = symbols;
+        this.diagnostics = diagnostics;
+        reader = new LexicalReader(file, contents, length);
+    }
+    
+    /**
+     * Generates the keyword dictionary from the keyword types of the
+     * {@code Token.Type} enum, whose names are their lowercase form.
+     * 
+     * @return The dictionary of keywords.
+     */
+    private static Trie generateKeywords () {
+        Trie keywords = new Trie();
+        Token.Type[] types = Token.Type.values();
+        
+        keywords.insert(Token.Type.TRUE.getName(), Token.Type.TRUE.ordinal());
+        keywords.insert(Token.Type.FALSE.getName(), Token.Type.FALSE.ordinal());
+        keywords.insert(Token.Type.ASM.getName(), Token.Type.ASM.ordinal());
+        
+        for (int i = FIRST_KEYWORD.ordinal(); i <= LAST_KEYWORD.ordinal(); i++) {
+            keywords.insert(types[i].getName(), i);
+        }
+        
+        return keywords;
+    }
+    
+    /**
+     * Generates the table of symbols from the symbol types of the
+     * {@code Token.Type} enum. Symbols sharing a first character are ordered
+     * longest first, so the first match is always the longest one.
+     * 
+     * @return The table of symbols, by their first character.
+     */
+    private static Token.Type[][] generateSymbols () {
+        List<List<Token.Type>> byFirst = new ArrayList<>(128);
+        Token.Type[][] table = new Token.Type[128][];
+        
+        for (int i = 0; i < 128; i++) { byFirst.add(new ArrayList<>()); }
+        
+        for (Token.Type type : Token.Type.values()) {
+            if (type.ordinal() <= LAST_KEYWORD.ordinal()) { continue; }
+            
+            byFirst.get(type.getName().charAt(0)).add(type);
+        }
+        
+        for (int i = 0; i < 128; i++) {
+            List<Token.Type> types = byFirst.get(i);
+            
+            if (types.isEmpty()) { continue; }
+            
+            types.sort(Comparator.comparingInt((Token.Type type) -> type.getName().length()).reversed());
+            table[i] = types.toArray(new Token.Type[0]);
+        }
+        
+        return table;
+    }
+    
+    /**
+     * Runs the automaton over the whole file. Each state does its work and
+     * answers with the state to transition to, until the stop state is met.
+     */
+    public void lex () { run(null); }
+    
+    /**
+     * Runs the automaton over the directives at the head of the file only:
+     * its {@code use} and {@code namespace} declarations. Lexing stops at the
+     * first token that cannot be part of a directive, which is kept, so that
+     * the rest of the file is never tokenized.
+     */
+    public void lexHeader () { run(token -> !isDirectivePart(token.type())); }
+    
+    /**
+     * Runs the automaton from a position in the file, as after an edit, until
+     * a token that is known to be where lexing can stop is found, which is
+     * kept, or until the end of the file.
+     * 
+     * @param position The position of the first input of a token.
+     * @param until Tells whether lexing can stop at a token.
+     */
+    public void lexFrom (long position, Predicate<Token> until) {
+        reader.skip(position);
+        run(until);
+    }
+    
+    /**
+     * Runs the automaton until it finds the next token, which is not kept, so
+     * that a file of any size can be lexed as it is parsed. Every state but
+     * the start state finds a token and transitions back to the start state,
+     * which finds the EOTS token at the end of the file.
+     * 
+     * @return The next token of the file, or its EOTS token.
+     */
+    public Token next () {
+        State state = State.start;
+        
+        pulling = true;
+        pulled = null;
+        
+        while (pulled == null) { state = step(state); }
+        
+        if (pulled.type() == Token.Type.EOTS) { reader.close(); }
+        
+        return pulled;
+    }
+    
+    /**
+     * @return true if the file is streamed through a window rather than read
+     *      whole.
+     */
+    public boolean isStreamed () { return reader.isStreamed(); }
+    
+    /**
+     * Runs the automaton until the stop state is met or until a token at
+     * which to stop is found.
+     * 
+     * @param until Tells whether lexing stops at a token, or {@code null}.
+     */
+    private void run (Predicate<Token> until) {
+        State state = State.start;
+        
+        while (state != State.stop) {
+            if (until != null && state == State.start && !tokens.isEmpty()
+                    && until.test(tokens.get(tokens.size() - 1))) {
+                break;
+            }
+            
+            state = step(state);
+        }
+        
+        reader.close();
+    }
+    
+    /**
+     * Does the work of a state.
+     * 
+     * @param state The state.
+     * @return The state to transition to.
+     */
+    private State step (State state) {
+        switch (state) {
+            case start:     return start();
+            case word:      return word();
+            case number:    return number();
+            case literal:   return literal();
+            case symbol:    return symbol();
+            default:        return error();
+        }
+    }
+    
+    private static boolean isDirectivePart (Token.Type type) {
+        switch (type) {
+            case USE: case NAMESPACE: case ID: case METHODID: case DOT: case SEMCO:
+                return true;
+            default:
+                return false;
+        }
+    }
+    
+    /**
+     * @return The tokens found by {@code lex()}, ending with an EOTS token,
+     *      or those found by {@code lexHeader()}.
+     */
+    public Token[] getTokens () { return tokens.toArray(new Token[0]); }
+    
+    /**
+     * The start state skips whitespace and comments, marks the beginning of
+     * the next token, and chooses a state by the first input of that token.
+     * 
+     * @return The state to transition to.
+     */
+    private State start () {
+        skipIgnored();
+        mark();
+        
+        int ch = reader.peek();
+        
+        if (ch == -1) {
+            add(Token.Type.EOTS);
+            return State.stop;
+        }
+        
+        if (isWordStart(ch)) { return State.word; }
+        if (ch >= 0x80 && Character.isUnicodeIdentifierStart(reader.peekCodePoint())) {
+            return State.word;
+        }
+        if (isDigit(ch)) { return State.number; }
+        if (ch == '"' || ch == '\'') { return State.literal; }
+        if (ch < SYMBOLS.length && SYMBOLS[ch] != null) { return State.symbol; }
+        
+        return State.error;
+    }
+    
+    /**
+     * The word state reads an identifier, a method identifier or a keyword.
+     * 
+     * @return The state to transition to.
+     */
+    private State word () {
+        while (true) {
+            int ch = reader.peek();
+            
+            if (isWordPart(ch)) { reader.read(); }
+            else if (ch >= 0x80 && Character.isUnicodeIdentifierPart(reader.peekCodePoint())) {
+                reader.readCodePoint();
+            } else {
+                break;
+            }
+        }
+        
+        // Look ahead first, since that may move the window of a streamed file.
+        boolean call = reader.peek() == '(';
+        byte[] buffer = reader.buffer();
+        int length = (int) (reader.position() - start);
+        int keyword = KEYWORDS.find(buffer, reader.index(start), length);
+        
+        if (keyword != Trie.NO_VALUE) {
+            add(Token.Type.values()[keyword]);
+            return State.start;
+        }
+        
+        // An identifier directly followed by a parenthesis names a method.
+        Token.Type type = call ? Token.Type.METHODID : Token.Type.ID;
+        int symbol = symbols.intern(buffer, reader.index(start), length);
+        
+        emit(new Token(type, symbols.name(symbol), symbol, reader.lines(), start));
+        return State.start;
+    }
+    
+    /**
+     * The number state reads a decimal, real, hexadecimal, octal, or binary
+     * number, along with a long suffix.
+     * 
+     * @return The state to transition to.
+     */
+    private State number () {
+        Token.Type type = Token.Type.NUMBER;
+        int first = reader.read();
+        int second = reader.peek();
+        
+        if (first == '0' && (second == 'x' || second == 'X')) {
+            reader.read();
+            while (isHexDigit(reader.peek())) { reader.read(); }
+            type = Token.Type.HEXADECIMAL;
+        } else if (first == '0' && (second == 'b' || second == 'B')) {
+            reader.read();
+            while (reader.peek() == '0' || reader.peek() == '1') { reader.read(); }
+            type = Token.Type.BINARY;
+        } else {
+            while (isDigit(reader.peek())) { reader.read(); }
+            
+            if (reader.peek() == '.' && isDigit(reader.peek(1))) {
+                reader.read();
+                while (isDigit(reader.peek())) { reader.read(); }
+                type = Token.Type.REAL;
+            }
+            
+            if ((reader.peek() == 'e' || reader.peek() == 'E') && exponentFollows()) {
+                reader.read();
+                if (reader.peek() == '+' || reader.peek() == '-') { reader.read(); }
+                while (isDigit(reader.peek())) { reader.read(); }
+                type = Token.Type.REAL;
+            }
+            
+            if (type == Token.Type.NUMBER && first == '0' && reader.position() - start > 1) {
+                type = Token.Type.OCTAL;
+            }
+        }
+        
+        if (type != Token.Type.REAL && (reader.peek() == 'L' || reader.peek() == 'l')) {
+            reader.read();
+            type = Token.Type.LONGNUM;
+        }
+        
+        addLexeme(type, start, reader.position());
+        return State.start;
+    }
+    
+    /**
+     * The literal state reads a string or a character literal. The quotes are
+     * left out of the lexeme, but escapes are kept as they were written. A
+     * character literal that is not ASCII, or is a unicode escape, is read as
+     * a unicode token rather than a letter.
+     * 
+     * @return The state to transition to.
+     */
+    private State literal () {
+        int quote = reader.read();
+        int ch;
+        
+        // Pass over the body in bulk, stopping only at escapes.
+        while ((ch = reader.skipLiteral(quote)) != quote) {
+            if (ch == -1 || ch == '\n') { return State.error; }
+            
+            reader.seek(reader.peek(1) == -1 ? 1 : 2);
+        }
+        
+        reader.read();
+        
+        long from = start + 1;
+        long to = reader.position() - 1;
+        Token.Type type = Token.Type.LITERAL;
+        
+        if (quote == '\'') {
+            byte[] buffer = reader.buffer();
+            int at = reader.index(from);
+            int length = (int) (to - from);
+            boolean escape = length > 1 && buffer[at] == '\\' && buffer[at + 1] == 'u';
+            
+            type = escape || !Utf8.isAscii(buffer, reader.words(), at, length) ? Token.Type.UNICODE : Token.Type.LETTER;
+        }
+        
+        addLexeme(type, from, to);
+        return State.start;
+    }
+    
+    /**
+     * The symbol state reads the longest symbol starting at the current input.
+     * 
+     * @return The state to transition to.
+     */
+    private State symbol () {
+        for (Token.Type type : SYMBOLS[reader.peek()]) {
+            String name = type.getName();
+            int length = name.length();
+            boolean matches = true;
+            
+            for (int i = 0; i < length && matches; i++) {
+                matches = reader.peek(i) == name.charAt(i);
+            }
+            
+            if (matches) {
+                reader.seek(length);
+                add(type);
+                return State.start;
+            }
+        }
+        
+        return State.error;
+    }
+    
+    /**
+     * The error state records whatever could not be lexed as an undefined
+     * token, at least a single input of it, and carries on from there.
+     * 
+     * @return The state to transition to.
+     */
+    private State error () {
+        if (reader.position() == start) { reader.readCodePoint(); }
+        
+        addLexeme(Token.Type.UNDEFINED, start, reader.position());
+        
+        diagnostics.errorAt(Diagnostic.Code.UNEXPECTED_INPUT, reader.lines(), start,
+                "unexpected \"" + reader.slice(start, reader.position()) + "\".");
+        
+        return State.start;
+    }
+    
+    /**
+     * Skips whitespace, line comments and block comments, each in bulk.
+     */
+    private void skipIgnored () {
+        while (true) {
+            reader.skipWhitespace();
+            
+            if (reader.peek() != '/') { return; }
+            
+            int next = reader.peek(1);
+            
+            if (next == '/') {
+                reader.seek(2);
+                reader.skipLineComment();
+            } else if (next == '*') {
+                reader.seek(2);
+                reader.skipBlockComment();
+            } else {
+                return;
+            }
+        }
+    }
+    
+    /**
+     * Marks the current position as the beginning of the next token.
+     */
+    private void mark () {
+        start = reader.position();
+        reader.mark();
+    }
+    
+    /**
+     * Adds a token whose type implies its text.
+     * 
+     * @param type The type of the token.
+     */
+    private void add (Token.Type type) {
+        emit(new Token(type, null, reader.lines(), start));
+    }
+    
+    /**
+     * Adds a token viewing its lexeme between two positions.
+     * 
+     * @param type The type of the token.
+     * @param from The position of the first input of the lexeme.
+     * @param to The position just past the last input of the lexeme.
+     */
+    private void addLexeme (Token.Type type, long from, long to) {
+        emit(new Token(type, reader.slice(from, to), reader.lines(), start));
+    }
+    
+    /**
+     * Keeps a token found, or hands it to {@code next()} when tokens are
+     * pulled one at a time.
+     * 
+     * @param token The token.
+     */
+    private void emit (Token token) {
+        if (pulling) { pulled = token; }
+        else { tokens.add(token); }
+    }
+    
+    /**
+     * @return true if the inputs after an 'e' make up an exponent.
+     */
+    private boolean exponentFollows () {
+        int next = reader.peek(1);
+        
+        return isDigit(next) || ((next == '+' || next == '-') && isDigit(reader.peek(2)));
+    }
+    
+    private static boolean isWordStart (int ch) {
+        return (ch >= 'a' && ch <= 'z') || (ch >= 'A' && ch <= 'Z') || ch == '_';
+    }
+    
+    private static boolean isWordPart (int ch) { return isWordStart(ch) || isDigit(ch); }
+    
+    private static boolean isDigit (int ch) { return ch >= '0' && ch <= '9'; }
+    
+    private static boolean isHexDigit (int ch) {
+        return isDigit(ch) || (ch >= 'a' && ch <= 'f') || (ch >= 'A' && ch <= 'F');
+    }
 }
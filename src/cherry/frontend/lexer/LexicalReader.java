@@ -23,52 +23,216 @@
  */
 package cherry.frontend.lexer;
 
+import cherry.frontend.grammar.Lexeme;
+import cherry.frontend.grammar.LineIndex;
+import cherry.utils.Utf8;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
 import java.util.Stack;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
+ * The {@code LexicalReader} reads a whole file into a buffer once, then hands
+ * out its contents one input at a time to the {@code Lexer}. Because the
+ * buffer stays in memory for as long as the reader is alive, the lexemes the
+ * {@code Lexer} finds are views into it rather than copies of it.
+ * <p>
+ * A file too large for one buffer, or any file when asked to, is streamed
+ * instead: it is read through a window of fixed size that slides forward as
+ * the file is read, so that lexing takes the same memory whatever the size of
+ * the file. Positions are kept as longs in either mode. The window always
+ * holds the token being lexed, from the position last marked with
+ * {@code mark()}, growing only for a token larger than itself; whatever the
+ * reader is moved back to with {@code previousCursor()} or {@code seek()} is
+ * read into the window again if it has slid past it. Lexemes of a streamed
+ * file are copied out of the window, since it does not stay.
+ * </p>
+ * <p>
+ * Files are read as UTF-8. The {@code read()} and {@code peek()} methods hand
+ * out the raw bytes, which are the characters themselves for ASCII, while the
+ * code point and character methods decode whatever is not ASCII.
+ * </p>
+ * <p>
+ * Inputs that never make up a token, such as whitespace, comments and the
+ * bodies of string literals, can be passed over in bulk through the skip
+ * methods. These look at a word of eight bytes at a time, flagging every byte
+ * equal to the ones sought in a single pass over the word (SWAR, or SIMD
+ * within a register), rather than going through {@code read()} byte by byte.
+ * UTF-8 never encodes anything but ASCII in bytes below 0x80, so this is safe
+ * in the middle of any text.
+ * </p>
+ * <p>
+ * The reader does not keep track of lines. Positions are only ever turned
+ * into lines and columns through the {@code LineIndex} of the file, and only
+ * when they are asked for.
+ * </p>
  *
  * @author SoraKatadzuma
  * @version Alpha 0.0.1
  * @since 11/20/2017
  */
 public class LexicalReader {
+    /** Words of each whitespace byte. */
+    private static final long SPACES = ' ' * Utf8.ONES, TABS = '\t' * Utf8.ONES,
+            NEWLINES = '\n' * Utf8.ONES, RETURNS = '\r' * Utf8.ONES, FEEDS = '\f' * Utf8.ONES;
+    /** Words of each byte the comment and literal skips stop at. */
+    private static final long STARS = '*' * Utf8.ONES, BACKSLASHES = '\\' * Utf8.ONES;
+    
+    /** The size of the window a streamed file is read through. */
+    public static final int WINDOW = 1 << 20;
+    /** The largest file read into a single buffer. */
+    public static final long LARGEST_BUFFERED = Integer.MAX_VALUE - 8;
+    
     /** The file this reader will be reading from. */
     public File file;
     /** A reference to the beginning of a file. */
     public static final int ORIGIN = 0;
     /** Tells whether or not the end of a file has been reached. */
     public boolean EOF = false;
-    /** A class utilized for file hopping. */
-    private FileChannel fchan;
-    /** The reader this reader is based off. */
-    private FileInputStream stream;
+    /** The contents of the file, or of the window onto it. */
+    private byte[] buffer = new byte[0];
+    /** A view of the contents for reading them a word at a time. */
+    private ByteBuffer words = Utf8.words(buffer);
+    /** The position in the file of the first input of the buffer. */
+    private long base = 0;
+    /** The number of inputs in the buffer. */
+    private int limit = 0;
+    /** The number of inputs in the file. */
+    private long size = 0;
     /** The current position in the file. */
-    private int cursor = 0;
+    private long cursor = 0;
+    /** The first position the window must keep, the start of the token being lexed. */
+    private long mark = 0;
     /** The offset between the current cursor and the last cursor. */
-    private int offset = 0;
+    private long offset = 0;
+    /** The channel a streamed file is read through, {@code null} for a buffered one. */
+    private FileChannel channel;
+    /** The position up to which the lines of a streamed file are indexed. */
+    private long indexed = 0;
+    /** The index of the lines of the file. */
+    private LineIndex lines;
+    /** The low surrogate still owed by {@code readChar()}, or zero. */
+    private char pendingLowSurrogate = 0;
     /** A place to store the cursors that. */
-    private final Stack<Integer> cursors = new Stack<>();
+    private final Stack<Long> cursors = new Stack<>();
 
     /**
-     * Default constructor.
+     * Default constructor. The file is read whole, unless it is too large to.
      * 
-     * @param input
+     * @param input The file to read.
      */
-    public LexicalReader (File input) {
+    public LexicalReader (File input) { this(input, 0); }
+    
+    /**
+     * Constructs a reader streaming a file through a window of a given size.
+     * 
+     * @param input The file to read.
+     * @param window The size of the window, or zero to read the file whole
+     *      unless it is too large to.
+     */
+    public LexicalReader (File input, int window) {
+        this.file = input;
+        
+        try (FileInputStream stream = new FileInputStream(input)) {
+            FileChannel fchan = stream.getChannel();
+            size = fchan.size();
+            
+            if (window > 0 || size > LARGEST_BUFFERED) {
+                channel = FileChannel.open(input.toPath(), StandardOpenOption.READ);
+                buffer = new byte[window > 0 ? Math.max(Long.BYTES, window) : WINDOW];
+                words = Utf8.words(buffer);
+                lines = new LineIndex(input.getPath(), input);
+                EOF = size == 0;
+                return;
+            }
+            
+            buffer = new byte[(int) size];
+            ByteBuffer target = ByteBuffer.wrap(buffer);
+            
+            while (target.hasRemaining() && fchan.read(target) >= 0) { }
+            
+            limit = target.position();
+            size = limit;
+            words = Utf8.words(buffer);
+        } catch (IOException ex) {
+            Logger.getLogger(LexicalReader.class.getName()).log(Level.SEVERE, null, ex);
+        }
+        
+        EOF = limit == 0;
+        lines = new LineIndex(input.getPath(), buffer, limit);
+    }
+    
+    /**
+     * Constructs a reader of contents already in memory, as those of a file
+     * being edited. The contents are read as they are, without being copied.
+     * 
+     * @param input The file the contents are of.
+     * @param contents The contents.
+     * @param length The number of bytes of the contents.
+     */
+    public LexicalReader (File input, byte[] contents, int length) {
+        this.file = input;
+        this.buffer = contents;
+        this.words = Utf8.words(contents);
+        this.limit = length;
+        this.size = length;
+        this.EOF = length == 0;
+        this.lines = new LineIndex(input.getPath(), contents, length);
+    }
+    
+    /**
+     * Makes sure the inputs from a position on are in the buffer, as many of
+     * them as the file has up to a count. A streamed file slides its window
+     * forward, or back, keeping the marked position in it.
+     * 
+     * @param position The position of the first input wanted.
+     * @param count The number of inputs wanted.
+     * @return true if the position is within the file.
+     */
+    private boolean fill (long position, int count) {
+        if (position >= size) { return false; }
+        if (channel == null) { return true; }
+        
+        long end = Math.min(size, position + count);
+        
+        if (position >= base && end <= base + limit) { return true; }
+        
+        long from = Math.max(0, Math.min(position, mark));
+        
+        // A token larger than the window grows it.
+        if (end - from > buffer.length) {
+            buffer = new byte[(int) Math.min(Integer.MAX_VALUE - 8, Long.highestOneBit(end - from) << 1)];
+            words = Utf8.words(buffer);
+        }
+        
+        int wanted = (int) Math.min(buffer.length, size - from);
+        ByteBuffer target = ByteBuffer.wrap(buffer, 0, wanted);
+        
         try {
-            this.stream = new FileInputStream(input);
-            this.fchan = this.stream.getChannel();
-            this.file = input;
-        } catch (FileNotFoundException ex) {
+            while (target.hasRemaining() && channel.read(target, from + target.position()) >= 0) { }
+        } catch (IOException ex) {
             Logger.getLogger(LexicalReader.class.getName()).log(Level.SEVERE, null, ex);
         }
+        
+        base = from;
+        limit = target.position();
+        
+        // Index the lines of whatever is read for the first time.
+        if (base + limit > indexed) {
+            int first = (int) Math.max(0, indexed - base);
+            
+            lines.record(buffer, first, limit, base);
+            indexed = base + limit;
+        }
+        
+        return position < base + limit;
     }
 
     /**
@@ -78,19 +242,47 @@ public class LexicalReader {
      * @return The integer representation of an input in a file.
      */
     public int read () {
-        int in = -1;
+        long at = cursor - base;
         
-        try {
-            in = stream.read();
-        } catch (IOException ex) {
-            Logger.getLogger(LexicalReader.class.getName()).log(Level.SEVERE, null, ex);
+        if (at < 0 || at >= limit) {
+            if (!fill(cursor, 1)) {
+                EOF = true;
+                cursor++;
+                return(-1);
+            }
+            
+            at = cursor - base;
         }
         
         cursor++;
+        return(buffer[(int) at] & 0xFF);
+    }
+
+    /**
+     * Looks at the next input without reading it.
+     * 
+     * @return The next input, or -1 if the end of the file has been reached.
+     */
+    public int peek () {
+        long at = cursor - base;
         
-        if (in == -1) { EOF = true; }
+        if (at >= 0 && at < limit) { return buffer[(int) at] & 0xFF; }
+        
+        return fill(cursor, 1) ? buffer[(int) (cursor - base)] & 0xFF : -1;
+    }
+
+    /**
+     * Looks at an input further ahead without reading it.
+     * 
+     * @param ahead How far past the next input to look, zero being the next.
+     * @return The input, or -1 if that is past the end of the file.
+     */
+    public int peek (int ahead) {
+        long at = cursor + ahead;
         
-        return(in);
+        if (at >= base && at < base + limit) { return buffer[(int) (at - base)] & 0xFF; }
+        
+        return fill(cursor, ahead + 1) && at < base + limit ? buffer[(int) (at - base)] & 0xFF : -1;
     }
 
     /**
@@ -102,41 +294,37 @@ public class LexicalReader {
      */
     public long skip (long n) {
         cursors.push(cursor);
+        long ff = Math.max(0, Math.min(n, size - cursor));
         cursor += n;
-        long ff = 0;
-        
-        try {
-            ff = stream.skip(n);
-        } catch (IOException ex) {
-            Logger.getLogger(LexicalReader.class.getName()).log(Level.SEVERE, null, ex);
-        }
         
         return(ff);
     }
 
     /**
      * The {@code seek()} method is a way of moving a specified amount of inputs
-     * forward or backwards. It utilizes the FileChannel class that places the cursor
-     * at a given position in the file. It is effective in small amounts. Larger
-     * amounts may cause efficiency decrease.
+     * forward or backwards. This only moves the cursor, whatever the amount;
+     * a streamed file is read from there when next it is read.
      * 
      * @param n The number of inputs to seek.
      */
     public void seek (int n) {
-        try {
-            cursor += n;
-            fchan.position(cursor);
-        } catch (IOException ex) {
-            Logger.getLogger(LexicalReader.class.getName()).log(Level.SEVERE, null, ex);
-        }
+        cursor = Math.max(ORIGIN, cursor + n);
+        EOF = cursor >= size;
     }
 
-    /** A method by which the file stream can be closed. */
+    /**
+     * A method by which the reader can be closed. The buffer of a whole file
+     * stays alive for as long as any lexeme views it.
+     */
     public void close () {
-        try {
-            stream.close();
-        } catch (IOException ex) {
-            Logger.getLogger(LexicalReader.class.getName()).log(Level.SEVERE, null, ex);
+        EOF = true;
+        
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException ex) {
+                Logger.getLogger(LexicalReader.class.getName()).log(Level.SEVERE, null, ex);
+            }
         }
     }
 
@@ -149,32 +337,262 @@ public class LexicalReader {
     /** A method for returning to the previous file position set by {@code setNewCursor()}. */
     public void previousCursor () {
         if (!cursors.empty()) {
-            try {
-                fchan.position(cursors.pop());
-            } catch (IOException ex) {
-                Logger.getLogger(LexicalReader.class.getName()).log(Level.SEVERE, null, ex);
+            cursor = cursors.pop();
+            EOF = cursor >= size;
+        }
+    }
+    
+    /**
+     * Marks the current position as the start of a token. Everything from the
+     * mark on stays in the window until the next mark.
+     */
+    public void mark () { mark = cursor; }
+
+    /**
+     * @return The current position in the file.
+     */
+    public long position () { return cursor; }
+    
+    /**
+     * @return true if the file is streamed through a window.
+     */
+    public boolean isStreamed () { return channel != null; }
+
+    /**
+     * @return The index of the lines of the file.
+     */
+    public LineIndex lines () { return lines; }
+
+    /**
+     * Makes a view of the inputs between two positions, without copying them,
+     * or a copy of them for a streamed file.
+     * 
+     * @param start The position of the first input of the view.
+     * @param end The position just past the last input of the view.
+     * @return The view of those inputs.
+     */
+    public Lexeme slice (long start, long end) {
+        int length = (int) (end - start);
+        
+        if (channel == null) { return new Lexeme(buffer, (int) start, length); }
+        
+        fill(start, length);
+        
+        int from = index(start);
+        
+        return new Lexeme(Arrays.copyOfRange(buffer, from, from + length), 0, length);
+    }
+
+    /**
+     * @return The buffer holding the contents of the file, or of its window.
+     */
+    public byte[] buffer () { return buffer; }
+    
+    /**
+     * @return The word view of the buffer, made once for each buffer read.
+     */
+    public ByteBuffer words () { return words; }
+    
+    /**
+     * @param position A position from the mark on.
+     * @return The index of the position in the buffer.
+     */
+    public int index (long position) { return (int) (position - base); }
+
+    /**
+     * Skips a run of whitespace, stopping at the first input that is not a
+     * space, tab, line feed, carriage return or form feed. Like the comment
+     * skips, it is only used between tokens, so it gives up the mark.
+     */
+    public void skipWhitespace () {
+        mark = cursor;
+        
+        while (fill(cursor, Long.BYTES)) {
+            int at = index(cursor);
+            
+            for (; at + Long.BYTES <= limit; at += Long.BYTES) {
+                long word = words.getLong(at);
+                long space = Utf8.matches(word, SPACES) | Utf8.matches(word, TABS)
+                        | Utf8.matches(word, NEWLINES) | Utf8.matches(word, RETURNS)
+                        | Utf8.matches(word, FEEDS);
+                
+                if (space != Utf8.HIGH_BITS) {
+                    cursor = base + at + (Long.numberOfTrailingZeros(~space & Utf8.HIGH_BITS) >>> 3);
+                    return;
+                }
+            }
+            
+            for (; at < limit; at++) {
+                byte in = buffer[at];
+                
+                if (in != ' ' && in != '\t' && in != '\n' && in != '\r' && in != '\f') {
+                    cursor = base + at;
+                    return;
+                }
+            }
+            
+            cursor = base + limit;
+            mark = cursor;
+        }
+    }
+
+    /**
+     * Skips the rest of a line comment, stopping at the line feed that ends
+     * it, or at the end of the file.
+     */
+    public void skipLineComment () {
+        mark = cursor;
+        cursor = scan(cursor, NEWLINES, NEWLINES, NEWLINES, true);
+    }
+
+    /**
+     * Skips the rest of a block comment, whose opening has already been read,
+     * up to and past the closing "*&#47;".
+     * 
+     * @return true if the comment was closed before the end of the file.
+     */
+    public boolean skipBlockComment () {
+        long at = cursor;
+        
+        mark = cursor;
+        
+        while ((at = scan(at, STARS, STARS, STARS, true)) < size) {
+            at++;
+            
+            if (fill(at, 1) && buffer[index(at)] == '/') {
+                cursor = at + 1;
+                return true;
             }
         }
+        
+        cursor = size;
+        return false;
     }
 
     /**
-     * A character formatted version of the {@code read()} method.
+     * Skips the body of a string or character literal, stopping at the next
+     * closing quote, escape, or line feed, whichever comes first.
      * 
-     * @return The character format of the {@code read()} method.
+     * @param quote The quote that opened the literal.
+     * @return The input stopped at, or -1 if the end of the file was reached.
      */
-    public char readChar () { return((char) read()); }
+    public int skipLiteral (int quote) {
+        cursor = scan(cursor, quote * Utf8.ONES, BACKSLASHES, NEWLINES, false);
+        
+        return peek();
+    }
+
+    /**
+     * Scans for the first input equal to any of three bytes, given as words of
+     * that byte.
+     * 
+     * @param at The position to start scanning at.
+     * @param first A word of the first byte sought.
+     * @param second A word of the second byte sought.
+     * @param third A word of the third byte sought.
+     * @param between Whether the scan is between tokens, so that the window
+     *      need not keep the mark.
+     * @return The position of the input found, or the end of the file.
+     */
+    private long scan (long at, long first, long second, long third, boolean between) {
+        while (fill(at, Long.BYTES)) {
+            int i = index(at);
+            
+            for (; i + Long.BYTES <= limit; i += Long.BYTES) {
+                long word = words.getLong(i);
+                long found = Utf8.matches(word, first) | Utf8.matches(word, second)
+                        | Utf8.matches(word, third);
+                
+                if (found != 0) { return base + i + (Long.numberOfTrailingZeros(found) >>> 3); }
+            }
+            
+            for (; i < limit; i++) {
+                byte in = buffer[i];
+                
+                if (in == (byte) first || in == (byte) second || in == (byte) third) { return base + i; }
+            }
+            
+            at = base + limit;
+            
+            if (between) { mark = at; }
+        }
+        
+        return Math.min(at, size);
+    }
+
+    /**
+     * Looks at the next code point without reading it.
+     * 
+     * @return The next code point, or -1 if the end of the file has been reached.
+     */
+    public int peekCodePoint () {
+        if (!fill(cursor, 4)) { return(-1); }
+        
+        int at = index(cursor);
+        
+        if (buffer[at] >= 0) { return(buffer[at]); }
+        
+        return(Utf8.decodeCodePoint(buffer, at, limit));
+    }
+
+    /**
+     * Reads the next code point, however many bytes it is encoded in.
+     * 
+     * @return The next code point, or -1 if the end of the file has been reached.
+     */
+    public int readCodePoint () {
+        if (!fill(cursor, 4) || buffer[index(cursor)] >= 0) { return read(); }
+        
+        int at = index(cursor);
+        int codePoint = Utf8.decodeCodePoint(buffer, at, limit);
+        cursor += Utf8.sequenceLength(buffer, at, limit);
+        
+        return(codePoint);
+    }
+
+    /**
+     * A character formatted version of the {@code readCodePoint()} method. A
+     * code point outside of the basic plane is handed out as its two
+     * surrogates over two calls.
+     * 
+     * @return The character format of the {@code readCodePoint()} method.
+     */
+    public char readChar () {
+        if (pendingLowSurrogate != 0) {
+            char low = pendingLowSurrogate;
+            pendingLowSurrogate = 0;
+            return(low);
+        }
+        
+        int codePoint = readCodePoint();
+        
+        if (Character.isSupplementaryCodePoint(codePoint)) {
+            pendingLowSurrogate = Character.lowSurrogate(codePoint);
+            return(Character.highSurrogate(codePoint));
+        }
+        
+        return((char) codePoint);
+    }
 
     /**
      * If necessary, this method allows the reader to read and entire line.
      * @return A string containing the entire contents of a line in the source.
      */
     public String readLine () {
-        StringBuilder sb = new StringBuilder();
-        char ch = ' ';
-
-        /* readChar() which stems from read() will throw an error if one occurs */
-        while (ch != '\n' && !EOF) { ch = readChar(); sb.append(ch); }
-
-        return(sb.toString());
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int in;
+        
+        // Take the line feed as part of the line, as read() would have.
+        while ((in = read()) != -1) {
+            line.write(in);
+            
+            if (in == '\n') { break; }
+        }
+        
+        if (in == -1) { EOF = true; }
+        
+        byte[] bytes = line.toByteArray();
+        
+        return(Utf8.decode(bytes, 0, bytes.length));
     }
 }
@@ -0,0 +1,211 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 SoraKatadzuma.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package cherry.frontend.lexer;
+
+import cherry.frontend.grammar.Token;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * A {@code TokenCursor} hands the tokens of a file to the parser by their
+ * position in the file, counted in tokens from zero. It is made either over
+ * tokens already at hand, as those of a file read whole, or over a
+ * {@code Lexer} it pulls tokens from as they are asked for.
+ * <p>
+ * Pulled tokens are held in a ring that only has to hold what the parser may
+ * still look at: the tokens it looks ahead at, and the one before its current
+ * token. Asking for a token with {@code at()} makes it the current one, and
+ * releases the tokens before the one before it, so that lexing and parsing a
+ * file of any size holds a handful of tokens at a time. The ring grows only
+ * while the parser looks further ahead than it has room for. Positions are
+ * longs, so a file may have more tokens than an array can hold.
+ * </p>
+ * <p>
+ * Whatever the tree of the file refers to has to be kept beyond that. The
+ * cursor remembers, for each token it holds, the index the tree keeps it at,
+ * so a token referred to twice is kept once. Over tokens at hand every token
+ * is kept, at its own position.
+ * </p>
+ * 
+ * @author SoraKatadzuma
+ * @version Alpha 0.0.1
+ * @since 10/18/2026
+ */
+public final class TokenCursor {
+    /** What a token not kept by the tree is kept at. */
+    public static final int NOT_KEPT = -1;
+    /** The room of a new ring, a power of two. */
+    private static final int FIRST_CAPACITY = 16;
+    
+    /** The lexer tokens are pulled from, or {@code null} for tokens at hand. */
+    private final Lexer lexer;
+    /** Told of every token as it is pulled, or {@code null}. */
+    private final Consumer<Token> pulled;
+    /** The tokens at hand, or the ring of the tokens held. */
+    private Token[] tokens;
+    /** Where the tree keeps each token of the ring, or {@code NOT_KEPT}. */
+    private int[] kept;
+    /** The position of the first token held. */
+    private long first;
+    /** The position just past the last token pulled. */
+    private long end;
+    /** The position before which no token is wanted any more. */
+    private long released;
+    /** The token ending the file, once it has been pulled. */
+    private Token last;
+    
+    /**
+     * Constructs a cursor over tokens already at hand.
+     * 
+     * @param tokens The tokens, ending with an EOTS token.
+     */
+    public TokenCursor (Token[] tokens) {
+        this.lexer = null;
+        this.pulled = null;
+        this.tokens = tokens;
+        this.end = tokens.length;
+        this.last = tokens[tokens.length - 1];
+    }
+    
+    /**
+     * Constructs a cursor pulling tokens from a lexer as they are asked for.
+     * 
+     * @param lexer The lexer of the file.
+     * @param pulled Told of every token as it is pulled, in the order of the
+     *      file, or {@code null}.
+     */
+    public TokenCursor (Lexer lexer, Consumer<Token> pulled) {
+        this.lexer = lexer;
+        this.pulled = pulled;
+        this.tokens = new Token[FIRST_CAPACITY];
+        this.kept = new int[FIRST_CAPACITY];
+    }
+    
+    /**
+     * @return Every token, when they were at hand, or {@code null} when they
+     *      are pulled from a lexer.
+     */
+    public Token[] tokens () { return lexer == null ? tokens : null; }
+    
+    /**
+     * Answers the token at a position, making it the current token. Every
+     * token before the one before it is released.
+     * 
+     * @param position The position of the token.
+     * @return The token, or the EOTS token for a position past it.
+     */
+    public Token at (long position) {
+        if (position - 1 > released) { released = position - 1; }
+        
+        return ahead(position);
+    }
+    
+    /**
+     * Answers the token at a position, which may be ahead of the current one
+     * or the one just before it, without releasing anything.
+     * 
+     * @param position The position of the token.
+     * @return The token, or the EOTS token for a position past it.
+     * @throws IllegalStateException If the token has been released.
+     */
+    public Token ahead (long position) {
+        if (lexer == null) { return position < end ? tokens[(int) position] : last; }
+        
+        while (position >= end && last == null) { pull(); }
+        
+        if (position >= end) { return last; }
+        if (position < first) { throw new IllegalStateException("Token " + position + " was released."); }
+        
+        return tokens[(int) position & (tokens.length - 1)];
+    }
+    
+    /**
+     * @param position The position of a token that is held, or ahead of them.
+     * @return The index the tree keeps the token at, or {@code NOT_KEPT}.
+     */
+    public int keptAt (long position) {
+        if (lexer == null) { return (int) position; }
+        
+        ahead(position);
+        
+        if (position >= end) { return kept[(int) (end - 1) & (kept.length - 1)]; }
+        
+        return kept[(int) position & (kept.length - 1)];
+    }
+    
+    /**
+     * Remembers where the tree keeps a token that is held.
+     * 
+     * @param position The position of the token.
+     * @param index The index the tree keeps it at.
+     */
+    public void keep (long position, int index) {
+        if (lexer != null) { kept[(int) Math.min(position, end - 1) & (kept.length - 1)] = index; }
+    }
+    
+    /**
+     * @return The number of tokens the cursor has room to hold.
+     */
+    public int capacity () { return tokens.length; }
+    
+    /**
+     * Pulls the next token from the lexer, making room for it by dropping the
+     * tokens released, or by growing the ring when none are.
+     */
+    private void pull () {
+        if (end - first == tokens.length) {
+            first = Math.max(first, Math.min(released, end));
+            
+            if (end - first == tokens.length) { grow(); }
+        }
+        
+        Token token = lexer.next();
+        int slot = (int) end & (tokens.length - 1);
+        
+        tokens[slot] = token;
+        kept[slot] = NOT_KEPT;
+        end++;
+        
+        if (token.type() == Token.Type.EOTS) { last = token; }
+        if (pulled != null) { pulled.accept(token); }
+    }
+    
+    /**
+     * Doubles the ring, keeping every token held at the slot of its position.
+     */
+    private void grow () {
+        Token[] grown = new Token[tokens.length << 1];
+        int[] grownKept = new int[grown.length];
+        
+        Arrays.fill(grownKept, NOT_KEPT);
+        
+        for (long position = first; position < end; position++) {
+            grown[(int) position & (grown.length - 1)] = tokens[(int) position & (tokens.length - 1)];
+            grownKept[(int) position & (grown.length - 1)] = kept[(int) position & (kept.length - 1)];
+        }
+        
+        tokens = grown;
+        kept = grownKept;
+    }
+}
@@ -25,8 +25,14 @@ package cherry.frontend.parser;
 
 import cherry.frontend.grammar.Token;
 import cherry.frontend.lexer.Lexer;
+import cherry.frontend.lexer.TokenCursor;
+import cherry.utils.Diagnostic;
+import cherry.utils.Diagnostics;
+import cherry.utils.OutputSink;
 import cherry.utils.SearchTree;
+import cherry.utils.SymbolPool;
 import java.io.File;
+import java.io.IOException;
 
 /**
  * The {@code Parser} class is that of a type similar to a liaison class. It's
@@ -53,19 +59,41 @@ import java.io.File;
  * @since 11/20/2017
  */
 public final class Parser {
+    /** The extension of the files tokens are dumped into. */
+    public static final String DUMP_EXTENSION = ".tokens";
+    
     /** A reference to the file this Parser must parse. */
     private final File file;
+    /** The pool of the compilation, where the names of the file are placed. */
+    private final SymbolPool names;
+    /** Where the problems found in the file are reported. */
+    private final Diagnostics diagnostics;
+    /** Where the tokens are dumped. */
+    private final OutputSink sink;
+    /** Whether the tokens are dumped into a file beside the source. */
+    private final boolean dumpTokens;
     /** A reference to one instance of the parser generator. */
-    StemParser parser = new StemParser();
+    StemParser parser;
     /** The resulting ParseTree. */
     private SearchTree parseTree;
 
     /**
      * Constructs a new Parser whom will parse the file passed in from the caller.
      * @param file The file to parse.
+     * @param names The pool of the compilation, where the names of the file
+     *      are placed.
+     * @param diagnostics Where the problems found in the file are reported.
+     * @param sink Where the tokens are dumped.
+     * @param dumpTokens Whether the tokens are dumped into a file beside the
+     *      source.
      */
-    public Parser (File file) {
+    public Parser (File file, SymbolPool names, Diagnostics diagnostics, OutputSink sink, boolean dumpTokens) {
         this.file = file;
+        this.names = names;
+        this.diagnostics = diagnostics;
+        this.sink = sink;
+        this.dumpTokens = dumpTokens;
+        parser = new StemParser(names, diagnostics);
     }
 
     /**
@@ -75,33 +103,79 @@ public final class Parser {
      */
     public void parse () {
         // Generate a lexer to lexically check the file that it has received.
-        final Lexer lexer = new Lexer(file);
-        lexer.lex();
-        Token[] tokens = lexer.getTokens();
+        final Lexer lexer = new Lexer(file, names, diagnostics);
         
-        for (Token token : tokens) {
-            System.out.println(token.value());
+        if (lexer.isStreamed()) {
+            // A file too large to read whole is lexed as it is parsed, and its
+            // tokens are dumped as they are found, so it is never held whole.
+            OutputSink.Target target = dumpTokens ? target(file, sink, diagnostics) : null;
+            
+            parseTree = parser.parse(file, new TokenCursor(lexer,
+                    target == null ? null : token -> sink.print(target, token.value())));
+            
+            if (target != null) { sink.close(target); }
+        } else {
+            lexer.lex();
+            Token[] tokens = lexer.getTokens();
+            
+            if (dumpTokens) { dump(file, tokens, sink, diagnostics); }
+            
+            // Use the parser reference in the instance fields to parse the
+            // tokens found by the Lexer.
+            parseTree = parser.parse(file, tokens);
         }
         
-        // Use the parser reference in the instance fields to parse the tokens
-        // found by the Lexer.
+        // Hand over everything printed about this file together.
+        sink.flush();
+        diagnostics.flush();
+        
+        // The semantic checks need the declarations of every file, so they
+        // are done by the SemanticAnalyzer once every Parser has returned.
+    }
+    
+    /**
+     * Prints the value of every token into a file beside the source, for when
+     * the tokens are asked to be dumped. The tokens of a file lexed elsewhere
+     * are dumped here too.
+     * 
+     * @param file The file the tokens are of.
+     * @param tokens The tokens of the file.
+     * @param sink Where the tokens are dumped.
+     * @param diagnostics Where a dump that cannot be written is reported.
+     */
+    public static void dump (File file, Token[] tokens, OutputSink sink, Diagnostics diagnostics) {
+        OutputSink.Target target = target(file, sink, diagnostics);
         
-        // parser.parse(lexer.getTokens());
+        if (target == null) { return; }
         
-        // Take the result of parsing (a parse tree or multiple parse trees) and
-        // do proper semantic checks on them. The parser output will be a List
-        // of parse trees or just a single one depending on if it managed to
-        // parse into two or more parse trees. However, we want to avoid this.
+        for (Token token : tokens) { sink.print(target, token.value()); }
         
-        // finalizeParserOutput(parser.getOutput());
+        sink.close(target);
     }
     
     /**
-     * Currently a place holder.
+     * Opens the file beside the source the tokens of a file are dumped into.
      * 
-     * @return
+     * @param file The file the tokens are of.
+     * @param sink Where the tokens are dumped.
+     * @param diagnostics Where a dump that cannot be written is reported.
+     * @return The file beside the source, or {@code null} if it cannot be
+     *      written.
+     */
+    private static OutputSink.Target target (File file, OutputSink sink, Diagnostics diagnostics) {
+        try {
+            return sink.open(new File(file.getPath() + DUMP_EXTENSION));
+        } catch (IOException ex) {
+            diagnostics.error(Diagnostic.Code.UNWRITABLE_DUMP, file.getPath(),
+                    "The tokens could not be dumped: " + ex.getMessage() + ".");
+            return null;
+        }
+    }
+    
+    /**
+     * @return The tree of the file, once it has been parsed.
      */
     public SearchTree parseTree () {
-        return null;
+        return parseTree;
     }
 }
@@ -23,10 +23,865 @@
  */
 package cherry.frontend.parser;
 
+import cherry.frontend.grammar.Token;
+import cherry.frontend.grammar.TokenTypeSet;
+import cherry.frontend.lexer.TokenCursor;
+import cherry.utils.Diagnostic;
+import cherry.utils.Diagnostics;
+import cherry.utils.SearchTree;
+import cherry.utils.SearchTree.Kind;
+import cherry.utils.SymbolPool;
+import java.io.File;
+
 /**
+ * The {@code StemParser} turns the tokens of a file into a {@code SearchTree}.
+ * It is a recursive descent parser, one method to a rule of the grammar, that
+ * decides between the alternatives of a rule by the FIRST sets of those
+ * alternatives and, after a syntax error, recovers by skipping to a token in
+ * the FOLLOW set of the rule it was in. Both kinds of sets are kept as
+ * {@code TokenTypeSet}s, so that every decision is a single bit test.
+ * <p>
+ * Expressions are parsed by precedence climbing over a table of the binary
+ * operators' precedences, indexed by the index of their type.
+ * </p>
  *
  * @author SoraKatadzuma
+ * @version Alpha 0.0.1
+ * @since 10/18/2026
  */
 public class StemParser {
+    /** The keywords that start a type declaration. */
+    private static final TokenTypeSet TYPE_DECLARATIONS = TokenTypeSet.of(
+            Token.Type.CLASS, Token.Type.ENUM, Token.Type.INTERFACE, Token.Type.STRUCT).freeze();
+    /** The FIRST set of a type declaration. */
+    private static final TokenTypeSet DECLARATION_FIRST =
+            TYPE_DECLARATIONS.copy().union(TokenTypeSet.MODIFIERS).freeze();
+    /** The tokens a member of a type may follow, used to recover inside of a type. */
+    private static final TokenTypeSet MEMBER_FOLLOW = TokenTypeSet.of(
+            Token.Type.SEMCO, Token.Type.RBRACE).freeze();
+    /** The tokens a statement may start with or follow, used to recover inside of a block. */
+    private static final TokenTypeSet STATEMENT_FOLLOW = TokenTypeSet.of(
+            Token.Type.SEMCO, Token.Type.RBRACE, Token.Type.LBRACE, Token.Type.IF,
+            Token.Type.WHILE, Token.Type.DO, Token.Type.FOR, Token.Type.RETURN,
+            Token.Type.BREAK, Token.Type.CONTINUE).freeze();
+    /** The assignment operators. */
+    private static final TokenTypeSet ASSIGNMENTS = TokenTypeSet.of(
+            Token.Type.ASSIGN, Token.Type.ADDEQ, Token.Type.SUBEQ, Token.Type.MULTEQ,
+            Token.Type.DIVEQ, Token.Type.MODEQ, Token.Type.BWANDEQ, Token.Type.BWOREQ,
+            Token.Type.BWXOREQ, Token.Type.BWLSHEQ, Token.Type.BWRSHEQ, Token.Type.BWURSHEQ).freeze();
+    /** The prefix operators. */
+    private static final TokenTypeSet PREFIXES = TokenTypeSet.of(
+            Token.Type.ADD, Token.Type.SUB, Token.Type.NOT, Token.Type.BWNOT,
+            Token.Type.INCRE, Token.Type.DECRE).freeze();
+    /** The precedence of every binary operator by its index, zero for anything else. */
+    private static final int[] PRECEDENCE = generatePrecedence();
+    
+    /** The pool names are placed in. */
+    private final SymbolPool names;
+    /** The file being parsed. */
+    private File file;
+    /** The tokens being parsed. */
+    private TokenCursor cursor;
+    /** The position of the token being looked at. */
+    private long at;
+    /** The tree being built. */
+    private SearchTree tree;
+    /** The number of syntax errors found so far. */
+    private int errors;
+    /** Where syntax errors are reported. */
+    private final Diagnostics diagnostics;
+    
+    /**
+     * Constructs a new StemParser.
+     * 
+     * @param names The pool of the compilation, where qualified names are placed.
+     * @param diagnostics Where syntax errors are reported.
+     */
+    public StemParser (SymbolPool names, Diagnostics diagnostics) {
+        this.names = names;
+        this.diagnostics = diagnostics;
+    }
+    
+    /**
+     * Generates the table of binary operator precedences, from the loosest
+     * binding operator to the tightest.
+     * 
+     * @return The precedence of each type by its index.
+     */
+    private static int[] generatePrecedence () {
+        int[] table = new int[Token.Type.values().length];
+        Token.Type[][] levels = {
+            { Token.Type.OR }, { Token.Type.AND }, { Token.Type.BWOR }, { Token.Type.BWXOR },
+            { Token.Type.BWAND }, { Token.Type.EQUALS, Token.Type.NOTEQ },
+            { Token.Type.LESS, Token.Type.GREAT, Token.Type.LESSEQ, Token.Type.GREATEQ },
+            { Token.Type.BWLSH, Token.Type.BWRSH, Token.Type.BWURSH },
+            { Token.Type.ADD, Token.Type.SUB }, { Token.Type.MUL, Token.Type.DIV, Token.Type.MOD }
+        };
+        
+        for (int level = 0; level < levels.length; level++) {
+            for (Token.Type type : levels[level]) { table[type.index()] = level + 1; }
+        }
+        
+        return table;
+    }
+    
+    /**
+     * Parses the tokens of a file.
+     * 
+     * @param file The file the tokens were lexed from.
+     * @param tokens The tokens, ending with an EOTS token.
+     * @return The tree of the file.
+     */
+    public SearchTree parse (File file, Token[] tokens) { return parse(file, new TokenCursor(tokens)); }
+    
+    /**
+     * Parses the tokens of a file as a cursor hands them over. The tree of a
+     * file whose tokens are pulled from its lexer only keeps the tokens its
+     * nodes refer to.
+     * 
+     * @param file The file the tokens were lexed from.
+     * @param cursor The cursor over the tokens.
+     * @return The tree of the file.
+     */
+    public SearchTree parse (File file, TokenCursor cursor) {
+        this.file = file;
+        this.cursor = cursor;
+        this.at = 0;
+        this.errors = 0;
+        this.tree = cursor.tokens() != null ? new SearchTree(file, names, cursor.tokens())
+                : new SearchTree(file, names);
+        
+        keep(at);
+        compilationUnit();
+        tree.setLast(tree.root(), keep(at));
+        
+        // Index the tree while it is still on the thread that made it.
+        tree.buildIndex();
+        
+        return tree;
+    }
+    
+    /**
+     * @return The number of syntax errors found by the last parse.
+     */
+    public int errors () { return errors; }
+    
+    /* ---------------------------------------------------------------------- */
+    /* Declarations.                                                          */
+    /* ---------------------------------------------------------------------- */
+    
+    /**
+     * file := { use | namespace } { typeDeclaration }
+     */
+    private void compilationUnit () {
+        int root = tree.root();
+        
+        while (peek() != Token.Type.EOTS) {
+            long before = at;
+            
+            if (peek() == Token.Type.USE) {
+                directive(Kind.USE, root);
+            } else if (peek() == Token.Type.NAMESPACE) {
+                directive(Kind.NAMESPACE, root);
+            } else if (DECLARATION_FIRST.contains(peek())) {
+                typeDeclaration(root);
+            } else {
+                error("expected a type declaration");
+                sync(DECLARATION_FIRST);
+            }
+            
+            if (at == before) { at++; }
+        }
+    }
+    
+    /**
+     * use := USE qualifiedName SEMCO
+     * namespace := NAMESPACE qualifiedName SEMCO
+     */
+    private void directive (Kind kind, int parent) {
+        int start = keep(at++);
+        int node = tree.add(kind, keep(at), parent);
+        
+        tree.setName(node, qualifiedName());
+        expect(Token.Type.SEMCO);
+        span(node, start);
+    }
+    
+    /**
+     * typeDeclaration := modifiers (CLASS | ENUM | INTERFACE | STRUCT) ID
+     *                    [INHERITS type {COMMA type}] LBRACE body RBRACE
+     */
+    private void typeDeclaration (int parent) {
+        int start = keep(at);
+        
+        typeDeclaration(parent, start, modifiers());
+    }
+    
+    /**
+     * Parses a type declaration from its keyword, once its modifiers have
+     * been consumed.
+     * 
+     * @param parent The node to attach the declaration to.
+     * @param start The index of the first token of the declaration.
+     * @param modifiers The flags of its modifiers.
+     */
+    private void typeDeclaration (int parent, int start, int modifiers) {
+        Token.Type keyword = peek();
+        
+        if (!TYPE_DECLARATIONS.contains(keyword)) {
+            error("expected class, enum, interface or struct");
+            sync(DECLARATION_FIRST);
+            return;
+        }
+        
+        at++;
+        
+        Kind kind = keyword == Token.Type.CLASS ? Kind.CLASS
+                : keyword == Token.Type.ENUM ? Kind.ENUM
+                : keyword == Token.Type.INTERFACE ? Kind.INTERFACE : Kind.STRUCT;
+        int node = tree.add(kind, keep(at), parent);
+        
+        tree.setFlags(node, modifiers);
+        tree.setName(node, name());
+        
+        if (accept(Token.Type.INHERITS)) {
+            do { tree.attach(node, type()); } while (accept(Token.Type.COMMA));
+        }
+        
+        expect(Token.Type.LBRACE);
+        
+        if (kind == Kind.ENUM) { constants(node); }
+        
+        while (peek() != Token.Type.RBRACE && peek() != Token.Type.EOTS) {
+            long before = at;
+            
+            member(node);
+            
+            if (at == before) { at++; }
+        }
+        
+        expect(Token.Type.RBRACE);
+        span(node, start);
+    }
+    
+    /**
+     * constants := [ID {COMMA ID}] [SEMCO]
+     */
+    private void constants (int parent) {
+        while (peek() == Token.Type.ID) {
+            int node = tree.add(Kind.CONSTANT, keep(at), parent);
+            tree.setName(node, name());
+            
+            if (!accept(Token.Type.COMMA)) { break; }
+        }
+        
+        accept(Token.Type.SEMCO);
+    }
+    
+    /**
+     * member := typeDeclaration
+     *         | modifiers type name LPAREN parameters RPAREN (block | SEMCO)
+     *         | modifiers type name [ASSIGN expression] SEMCO
+     */
+    private void member (int parent) {
+        int start = keep(at);
+        int modifiers = modifiers();
+        
+        if (TYPE_DECLARATIONS.contains(peek())) {
+            typeDeclaration(parent, start, modifiers);
+            return;
+        }
+        
+        int type = type();
+        
+        if (tree.kind(type) == Kind.ERROR) {
+            sync(MEMBER_FOLLOW);
+            accept(Token.Type.SEMCO);
+            return;
+        }
+        
+        int nameToken = keep(at);
+        int name = name();
+        
+        if (peek() == Token.Type.LPAREN) {
+            int node = tree.add(Kind.METHOD, nameToken, parent);
+            tree.setFlags(node, modifiers);
+            tree.setName(node, name);
+            tree.attach(node, type);
+            parameters(node);
+            
+            if (!accept(Token.Type.SEMCO)) { tree.attach(node, block()); }
+            
+            span(node, start);
+            return;
+        }
+        
+        int node = tree.add(Kind.FIELD, nameToken, parent);
+        tree.setFlags(node, modifiers);
+        tree.setName(node, name);
+        tree.attach(node, type);
+        
+        if (accept(Token.Type.ASSIGN)) { tree.attach(node, expression()); }
+        
+        if (!expect(Token.Type.SEMCO)) {
+            sync(MEMBER_FOLLOW);
+            accept(Token.Type.SEMCO);
+        }
+        
+        span(node, start);
+    }
+    
+    /**
+     * parameters := LPAREN [type ID {COMMA type ID}] RPAREN
+     */
+    private void parameters (int method) {
+        expect(Token.Type.LPAREN);
+        
+        if (peek() != Token.Type.RPAREN) {
+            do {
+                int start = keep(at);
+                int type = type();
+                int node = tree.add(Kind.PARAMETER, keep(at), method);
+                
+                tree.setName(node, name());
+                tree.attach(node, type);
+                span(node, start);
+            } while (accept(Token.Type.COMMA));
+        }
+        
+        expect(Token.Type.RPAREN);
+    }
+    
+    /**
+     * modifiers := {PUBLIC | PRIVATE | ... | VOLATILE}
+     * 
+     * @return The flags of the modifiers found.
+     */
+    private int modifiers () {
+        int modifiers = 0;
+        
+        while (TokenTypeSet.MODIFIERS.contains(peek())) {
+            modifiers |= SearchTree.modifier(cursor.at(at++).type());
+        }
+        
+        return modifiers;
+    }
+    
+    /**
+     * type := (dataType | qualifiedName) {LBRACK RBRACK}
+     * 
+     * @return A detached TYPE node, or an ERROR node if there was no type.
+     */
+    private int type () {
+        int start = keep(at);
+        int node;
+        
+        if (TokenTypeSet.VALUE_TYPES.contains(peek())) {
+            node = tree.add(Kind.TYPE, keep(at++));
+        } else if (peek() == Token.Type.ID || peek() == Token.Type.METHODID) {
+            // The type of a new is followed by its arguments, so the lexer
+            // takes it for a method name.
+            node = tree.add(Kind.TYPE, keep(at));
+            tree.setName(node, qualifiedName());
+        } else {
+            error("expected a type");
+            return tree.add(Kind.ERROR, keep(at));
+        }
+        
+        int dimensions = 0;
+        
+        while (peek() == Token.Type.LBRACK && peek(1) == Token.Type.RBRACK) {
+            at += 2;
+            dimensions++;
+        }
+        
+        tree.setFlags(node, dimensions);
+        span(node, start);
+        
+        return node;
+    }
+    
+    /* ---------------------------------------------------------------------- */
+    /* Statements.                                                            */
+    /* ---------------------------------------------------------------------- */
+    
+    /**
+     * block := LBRACE {statement} RBRACE
+     * 
+     * @return A detached BLOCK node.
+     */
+    private int block () {
+        int start = keep(at);
+        int node = tree.add(Kind.BLOCK, keep(at));
+        
+        expect(Token.Type.LBRACE);
+        
+        while (peek() != Token.Type.RBRACE && peek() != Token.Type.EOTS) {
+            long before = at;
+            
+            tree.attach(node, statement());
+            
+            if (at == before) { at++; }
+        }
+        
+        expect(Token.Type.RBRACE);
+        span(node, start);
+        
+        return node;
+    }
+    
+    /**
+     * @return A detached statement node.
+     */
+    private int statement () {
+        int start = keep(at);
+        int node;
+        
+        switch (peek()) {
+            case LBRACE: {
+                return block();
+            }
+            case IF: {
+                node = tree.add(Kind.IF, keep(at++));
+                condition(node);
+                tree.attach(node, statement());
+                
+                if (accept(Token.Type.ELSE)) { tree.attach(node, statement()); }
+                break;
+            }
+            case WHILE: {
+                node = tree.add(Kind.WHILE, keep(at++));
+                condition(node);
+                tree.attach(node, statement());
+                break;
+            }
+            case DO: {
+                node = tree.add(Kind.DO, keep(at++));
+                tree.attach(node, statement());
+                expect(Token.Type.WHILE);
+                condition(node);
+                terminate();
+                break;
+            }
+            case FOR: {
+                node = tree.add(Kind.FOR, keep(at++));
+                expect(Token.Type.LPAREN);
+                tree.attach(node, peek() == Token.Type.SEMCO ? empty()
+                        : isLocalDeclaration() ? local() : expressionStatement());
+                expect(Token.Type.SEMCO);
+                tree.attach(node, peek() == Token.Type.SEMCO ? empty() : expression());
+                expect(Token.Type.SEMCO);
+                tree.attach(node, peek() == Token.Type.RPAREN ? empty() : expressionStatement());
+                expect(Token.Type.RPAREN);
+                tree.attach(node, statement());
+                break;
+            }
+            case RETURN: {
+                node = tree.add(Kind.RETURN, keep(at++));
+                
+                if (peek() != Token.Type.SEMCO) { tree.attach(node, expression()); }
+                
+                terminate();
+                break;
+            }
+            case BREAK: {
+                node = tree.add(Kind.BREAK, keep(at++));
+                terminate();
+                break;
+            }
+            case CONTINUE: {
+                node = tree.add(Kind.CONTINUE, keep(at++));
+                terminate();
+                break;
+            }
+            case SEMCO: {
+                return tree.add(Kind.EMPTY, keep(at++));
+            }
+            default: {
+                node = isLocalDeclaration() ? local() : expressionStatement();
+                terminate();
+                break;
+            }
+        }
+        
+        span(node, start);
+        
+        return node;
+    }
+    
+    /**
+     * condition := LPAREN expression RPAREN
+     */
+    private void condition (int parent) {
+        expect(Token.Type.LPAREN);
+        tree.attach(parent, expression());
+        expect(Token.Type.RPAREN);
+    }
+    
+    /**
+     * local := type ID [ASSIGN expression]
+     * 
+     * @return A detached LOCAL node.
+     */
+    private int local () {
+        int start = keep(at);
+        int type = type();
+        int node = tree.add(Kind.LOCAL, keep(at));
+        
+        tree.setName(node, name());
+        tree.attach(node, type);
+        
+        if (accept(Token.Type.ASSIGN)) { tree.attach(node, expression()); }
+        
+        span(node, start);
+        
+        return node;
+    }
+    
+    /**
+     * @return A detached EXPRESSION node holding an expression.
+     */
+    private int expressionStatement () {
+        int start = keep(at);
+        int node = tree.add(Kind.EXPRESSION, keep(at));
+        
+        tree.attach(node, expression());
+        span(node, start);
+        
+        return node;
+    }
+    
+    /**
+     * @return A detached EMPTY node.
+     */
+    private int empty () { return tree.add(Kind.EMPTY, keep(at)); }
+    
+    /**
+     * Expects the semicolon ending a statement, recovering to the end of the
+     * statement if it is missing.
+     */
+    private void terminate () {
+        if (!expect(Token.Type.SEMCO)) {
+            sync(STATEMENT_FOLLOW);
+            accept(Token.Type.SEMCO);
+        }
+    }
+    
+    /**
+     * Tells whether the tokens ahead declare a local, that is, whether they
+     * are a type followed by a name.
+     */
+    private boolean isLocalDeclaration () {
+        if (TokenTypeSet.VALUE_TYPES.contains(peek())) { return true; }
+        if (peek() != Token.Type.ID) { return false; }
+        
+        int ahead = 1;
+        
+        while (peek(ahead) == Token.Type.DOT && peek(ahead + 1) == Token.Type.ID) { ahead += 2; }
+        while (peek(ahead) == Token.Type.LBRACK && peek(ahead + 1) == Token.Type.RBRACK) { ahead += 2; }
+        
+        return peek(ahead) == Token.Type.ID;
+    }
+    
+    /* ---------------------------------------------------------------------- */
+    /* Expressions.                                                           */
+    /* ---------------------------------------------------------------------- */
+    
+    /**
+     * expression := ternary [assignmentOperator expression]
+     * 
+     * @return A detached expression node.
+     */
+    private int expression () {
+        int start = keep(at);
+        int left = ternary();
+        
+        if (!ASSIGNMENTS.contains(peek())) { return left; }
+        
+        int node = tree.add(Kind.ASSIGN, keep(at++));
+        tree.attach(node, left);
+        tree.attach(node, expression());
+        span(node, start);
+        
+        return node;
+    }
+    
+    /**
+     * ternary := binary [TERN expression COLON ternary]
+     */
+    private int ternary () {
+        int start = keep(at);
+        int condition = binary(1);
+        
+        if (peek() != Token.Type.TERN) { return condition; }
+        
+        int node = tree.add(Kind.TERNARY, keep(at++));
+        tree.attach(node, condition);
+        tree.attach(node, expression());
+        expect(Token.Type.COLON);
+        tree.attach(node, ternary());
+        span(node, start);
+        
+        return node;
+    }
+    
+    /**
+     * binary := unary {operator binary}, climbing by precedence.
+     */
+    private int binary (int minimum) {
+        int start = keep(at);
+        int left = unary();
+        int precedence;
+        
+        while ((precedence = PRECEDENCE[peek().index()]) >= minimum) {
+            int node = tree.add(Kind.BINARY, keep(at++));
+            tree.attach(node, left);
+            tree.attach(node, binary(precedence + 1));
+            span(node, start);
+            left = node;
+        }
+        
+        return left;
+    }
+    
+    /**
+     * unary := prefixOperator unary | postfix
+     */
+    private int unary () {
+        if (!PREFIXES.contains(peek())) { return postfix(primary()); }
+        
+        int start = keep(at);
+        int node = tree.add(Kind.UNARY, keep(at++));
+        tree.attach(node, unary());
+        span(node, start);
+        
+        return node;
+    }
+    
+    /**
+     * postfix := primary {DOT name [arguments] | LBRACK expression RBRACK | INCRE | DECRE}
+     */
+    private int postfix (int operand) {
+        int start = tree.first(operand);
+        
+        while (true) {
+            int node;
+            
+            if (peek() == Token.Type.DOT) {
+                at++;
+                
+                int nameToken = keep(at);
+                int name = name();
+                
+                if (peek() == Token.Type.LPAREN) {
+                    node = tree.add(Kind.CALL, nameToken);
+                    tree.setFlags(node, SearchTree.TARGETED);
+                    tree.attach(node, operand);
+                    arguments(node);
+                } else {
+                    node = tree.add(Kind.MEMBER, nameToken);
+                    tree.attach(node, operand);
+                }
+                
+                tree.setName(node, name);
+            } else if (peek() == Token.Type.LBRACK) {
+                node = tree.add(Kind.INDEX, keep(at++));
+                tree.attach(node, operand);
+                tree.attach(node, expression());
+                expect(Token.Type.RBRACK);
+            } else if (peek() == Token.Type.INCRE || peek() == Token.Type.DECRE) {
+                node = tree.add(Kind.POSTFIX, keep(at++));
+                tree.attach(node, operand);
+            } else {
+                return operand;
+            }
+            
+            span(node, start);
+            operand = node;
+        }
+    }
+    
+    /**
+     * primary := literal | THIS | name [arguments] | mathKeyword arguments
+     *          | LPAREN expression RPAREN | NEW type (arguments | LBRACK expression RBRACK)
+     */
+    private int primary () {
+        int start = keep(at);
+        Token.Type type = peek();
+        int node;
+        
+        if (TokenTypeSet.LITERALS.contains(type)) {
+            return tree.add(Kind.LITERAL, keep(at++));
+        } else if (type == Token.Type.THIS) {
+            return tree.add(Kind.THIS, keep(at++));
+        } else if (type == Token.Type.ID || type == Token.Type.METHODID) {
+            if (peek(1) != Token.Type.LPAREN) {
+                node = tree.add(Kind.NAME, keep(at));
+                tree.setName(node, name());
+                return node;
+            }
+            
+            node = tree.add(Kind.CALL, keep(at));
+            tree.setName(node, name());
+            arguments(node);
+        } else if (TokenTypeSet.MATH_KEYWORDS.contains(type)) {
+            node = tree.add(Kind.INTRINSIC, keep(at++));
+            arguments(node);
+        } else if (type == Token.Type.LPAREN) {
+            at++;
+            node = expression();
+            expect(Token.Type.RPAREN);
+            span(node, start);
+            return node;
+        } else if (type == Token.Type.NEW) {
+            node = tree.add(Kind.NEW, keep(at++));
+            tree.attach(node, type());
+            
+            if (peek() == Token.Type.LBRACK) {
+                at++;
+                tree.attach(node, expression());
+                expect(Token.Type.RBRACK);
+                tree.setFlags(node, 1);
+            } else {
+                arguments(node);
+            }
+        } else {
+            error("expected an expression");
+            return tree.add(Kind.ERROR, keep(at));
+        }
+        
+        span(node, start);
+        
+        return node;
+    }
+    
+    /**
+     * arguments := LPAREN [expression {COMMA expression}] RPAREN
+     */
+    private void arguments (int call) {
+        expect(Token.Type.LPAREN);
+        
+        if (peek() != Token.Type.RPAREN) {
+            do { tree.attach(call, expression()); } while (accept(Token.Type.COMMA));
+        }
+        
+        expect(Token.Type.RPAREN);
+    }
+    
+    /* ---------------------------------------------------------------------- */
+    /* Helpers.                                                               */
+    /* ---------------------------------------------------------------------- */
+    
+    /**
+     * name := ID | METHODID
+     * 
+     * @return The name id of the name, or {@code Token.NO_SYMBOL} if missing.
+     */
+    private int name () {
+        Token.Type type = peek();
+        
+        if (type == Token.Type.ID || type == Token.Type.METHODID) { return cursor.at(at++).symbol(); }
+        
+        error("expected a name");
+        return Token.NO_SYMBOL;
+    }
+    
+    /**
+     * qualifiedName := name {DOT name}
+     * 
+     * @return The name id of the whole dotted name.
+     */
+    private int qualifiedName () {
+        int symbol = name();
+        
+        if (peek() != Token.Type.DOT || !isName(peek(1))) { return symbol; }
+        
+        StringBuilder qualified = new StringBuilder(names.name(symbol));
+        
+        while (peek() == Token.Type.DOT && isName(peek(1))) {
+            at++;
+            qualified.append('.').append(names.name(name()));
+        }
+        
+        return names.intern(qualified.toString());
+    }
+    
+    private static boolean isName (Token.Type type) {
+        return type == Token.Type.ID || type == Token.Type.METHODID;
+    }
+    
+    /**
+     * Makes a node span from a token to the token before the current one.
+     */
+    private void span (int node, int start) {
+        boolean past = at > 0 && cursor.ahead(at - 1).offset() >= tree.tokenAt(start).offset();
+        
+        tree.setFirst(node, start);
+        tree.setLast(node, past ? keep(at - 1) : start);
+    }
+    
+    /**
+     * Keeps the token at a position for the tree to refer to, once however
+     * many nodes refer to it.
+     * 
+     * @param position The position of the token.
+     * @return The index the tree refers to the token by.
+     */
+    private int keep (long position) {
+        int kept = cursor.keptAt(position);
+        
+        if (kept == TokenCursor.NOT_KEPT) {
+            kept = tree.keep(cursor.ahead(position));
+            cursor.keep(position, kept);
+        }
+        
+        return kept;
+    }
+    
+    private Token.Type peek () { return cursor.at(at).type(); }
+    
+    private Token.Type peek (int ahead) { return cursor.ahead(at + ahead).type(); }
+    
+    /**
+     * Consumes the current token if it is of a type.
+     * 
+     * @return true if it was consumed.
+     */
+    private boolean accept (Token.Type type) {
+        if (peek() != type) { return false; }
+        
+        at++;
+        return true;
+    }
+    
+    /**
+     * Consumes the current token if it is of a type, reporting an error if it
+     * is not.
+     * 
+     * @return true if it was consumed.
+     */
+    private boolean expect (Token.Type type) {
+        if (accept(type)) { return true; }
+        
+        error("expected \"" + type.getName() + "\"");
+        return false;
+    }
+    
+    /**
+     * Skips tokens until one in a set, or the end of the tokens, is found.
+     */
+    private void sync (TokenTypeSet stops) {
+        while (peek() != Token.Type.EOTS && !stops.contains(peek())) { at++; }
+    }
     
+    /**
+     * Reports a syntax error at the current token.
+     */
+    private void error (String message) {
+        errors++;
+        
+        Token token = cursor.at(at);
+        diagnostics.errorAt(Diagnostic.Code.SYNTAX, token,
+                message + ", found \"" + token.value() + "\".");
+    }
 }
@@ -0,0 +1,129 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 SoraKatadzuma.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package cherry.frontend.semantics;
+
+import cherry.utils.SearchTree;
+import cherry.utils.SymbolPool;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An {@code Analysis} is the outcome of semantic analysis: the frozen table of
+ * declarations, and the {@code Attributes} of every file's tree, in the order
+ * the trees were given. The signatures of the libraries used are resolved as
+ * well, so that whatever refers to their members can find their types.
+ * 
+ * @author SoraKatadzuma
+ * @version Alpha 0.0.1
+ * @since 10/18/2026
+ */
+public final class Analysis {
+    /** The declarations of every file. */
+    private final SymbolTable.Snapshot symbols;
+    /** The tree of every file. */
+    private final List<SearchTree> trees;
+    /** The attributes of every tree, {@code null} where analysis failed. */
+    private final List<Attributes> attributes;
+    /** The attributes of every tree and library, by tree. */
+    private final Map<SearchTree, Attributes> byTree = new IdentityHashMap<>();
+    /** The number of semantic errors found. */
+    private final int errors;
+    
+    Analysis (SymbolTable.Snapshot symbols, List<SearchTree> trees, List<Attributes> attributes,
+            List<Attributes> libraries, int errors) {
+        this.symbols = symbols;
+        this.trees = Collections.unmodifiableList(trees);
+        this.attributes = Collections.unmodifiableList(attributes);
+        this.errors = errors;
+        
+        for (Attributes found : libraries) {
+            if (found != null) { byTree.put(found.tree(), found); }
+        }
+        
+        for (Attributes found : attributes) {
+            if (found != null) { byTree.put(found.tree(), found); }
+        }
+    }
+    
+    /**
+     * @return The declarations of every file.
+     */
+    public SymbolTable.Snapshot symbols () { return symbols; }
+    
+    /**
+     * @return The pool of the compilation, where the names of the files are.
+     */
+    public SymbolPool names () { return symbols.names(); }
+    
+    /**
+     * @return The tree of every file.
+     */
+    public List<SearchTree> trees () { return trees; }
+    
+    /**
+     * @return The attributes of every tree, in the same order.
+     */
+    public List<Attributes> attributes () { return attributes; }
+    
+    /**
+     * @param tree The tree of a file or of a library.
+     * @return The attributes of the tree, only the signatures of its types
+     *      for a library, or {@code null} if it has none.
+     */
+    public Attributes attributesOf (SearchTree tree) { return byTree.get(tree); }
+    
+    /**
+     * @param variable A field or enum constant of any file or library.
+     * @return Its type.
+     */
+    public Type typeOf (Member variable) {
+        if (variable.kind() == Member.Kind.CONSTANT) { return Type.objectOf(variable.owner()); }
+        
+        return attributesOf(variable.tree()).type(variable.node());
+    }
+    
+    /**
+     * @param method A method of any file or library.
+     * @return The types of its parameters.
+     */
+    public Type[] parametersOf (Member method) {
+        SearchTree tree = method.tree();
+        Attributes found = attributesOf(tree);
+        Type[] parameters = new Type[method.arity()];
+        int count = 0;
+        
+        for (int child = tree.firstChild(method.node()); child != SearchTree.NONE; child = tree.nextSibling(child)) {
+            if (tree.kind(child) == SearchTree.Kind.PARAMETER) { parameters[count++] = found.type(child); }
+        }
+        
+        return parameters;
+    }
+    
+    /**
+     * @return The number of semantic errors found.
+     */
+    public int errors () { return errors; }
+}
@@ -0,0 +1,101 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 SoraKatadzuma.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package cherry.frontend.semantics;
+
+import cherry.utils.SearchTree;
+import java.util.Arrays;
+
+/**
+ * {@code Attributes} are what semantic analysis learns about the nodes of one
+ * {@code SearchTree}: the type of every expression, variable and type node,
+ * the local or parameter each name refers to, and the member each name, member
+ * access and call refers to. Like the tree itself they are kept as arrays
+ * indexed by node, filled by the one thread analyzing the file.
+ * 
+ * @author SoraKatadzuma
+ * @version Alpha 0.0.1
+ * @since 10/18/2026
+ */
+public final class Attributes {
+    /** The tree these attributes are of. */
+    private final SearchTree tree;
+    /** The type of each node, {@code null} where a node has none. */
+    private final Type[] types;
+    /** The local or parameter node each name refers to, or {@code NONE}. */
+    private final int[] locals;
+    /** The member each node refers to, {@code null} where it refers to none. */
+    private final Member[] members;
+    /** The number of semantic errors found in the tree. */
+    private int errors;
+    
+    /**
+     * Constructs empty attributes for a tree.
+     * 
+     * @param tree The tree of a file.
+     */
+    Attributes (SearchTree tree) {
+        this.tree = tree;
+        this.types = new Type[tree.size()];
+        this.locals = new int[tree.size()];
+        this.members = new Member[tree.size()];
+        
+        Arrays.fill(locals, SearchTree.NONE);
+    }
+    
+    void setType (int node, Type type) { types[node] = type; }
+    
+    void setLocal (int node, int declaration) { locals[node] = declaration; }
+    
+    void setMember (int node, Member member) { members[node] = member; }
+    
+    void setErrors (int count) { errors = count; }
+    
+    /**
+     * @return The tree these attributes are of.
+     */
+    public SearchTree tree () { return tree; }
+    
+    /**
+     * @param node A node.
+     * @return The type of the node, or {@code null} if it has none.
+     */
+    public Type type (int node) { return types[node]; }
+    
+    /**
+     * @param node A name node.
+     * @return The LOCAL or PARAMETER node the name refers to, or {@code NONE}.
+     */
+    public int local (int node) { return locals[node]; }
+    
+    /**
+     * @param node A name, member or call node.
+     * @return The member the node refers to, or {@code null}.
+     */
+    public Member member (int node) { return members[node]; }
+    
+    /**
+     * @return The number of semantic errors found in the tree.
+     */
+    public int errors () { return errors; }
+}
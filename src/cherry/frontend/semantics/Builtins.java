@@ -0,0 +1,101 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 SoraKatadzuma.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package cherry.frontend.semantics;
+
+import cherry.utils.IntMap;
+import cherry.utils.SymbolPool;
+
+/**
+ * {@code Builtins} are the methods the compiler provides itself rather than
+ * reading from a source file. They live in namespaces of their own, such as
+ * {@code System}, which may be used like any namespace a file declares, and
+ * they accept a value of any type for each of their parameters.
+ * 
+ * @author SoraKatadzuma
+ * @version Alpha 0.0.1
+ * @since 10/18/2026
+ */
+public final class Builtins {
+    /** The names every pool starts with, in the order they are pooled. */
+    private static final String[] NAMES = { "System", "print", "println", "main" };
+    /** A pool of those names only, whose ids are the same in every pool. */
+    private static final SymbolPool KNOWN = pool();
+    
+    /** The name id of the System namespace. */
+    public static final int SYSTEM = KNOWN.intern("System");
+    /** The name id of the print method. */
+    public static final int PRINT = KNOWN.intern("print");
+    /** The name id of the println method. */
+    public static final int PRINTLN = KNOWN.intern("println");
+    /** The name id of main, the method a program starts at. */
+    public static final int MAIN = KNOWN.intern("main");
+    
+    /** The builtin members of the System namespace, by name id. */
+    private static final IntMap<Member[]> SYSTEM_MEMBERS = new IntMap<>();
+    
+    static {
+        SYSTEM_MEMBERS.put(PRINT, new Member[] { new Member(Member.Kind.BUILTIN, null, 1, PRINT) });
+        SYSTEM_MEMBERS.put(PRINTLN, new Member[] {
+            new Member(Member.Kind.BUILTIN, null, 0, PRINTLN),
+            new Member(Member.Kind.BUILTIN, null, 1, PRINTLN)
+        });
+    }
+    
+    private Builtins () {}
+    
+    /**
+     * Makes a new pool for a compilation. The names the compiler knows of are
+     * pooled first, so their ids are the constants of this class.
+     * 
+     * @return The new pool.
+     */
+    public static SymbolPool pool () {
+        SymbolPool pool = new SymbolPool();
+        
+        for (String name : NAMES) { pool.intern(name); }
+        
+        return pool;
+    }
+    
+    /**
+     * @param name The name id of a builtin.
+     * @return The name, the same in every pool.
+     */
+    public static String name (int name) { return KNOWN.name(name); }
+    
+    /**
+     * @param name The name id of a namespace.
+     * @return true if the compiler provides that namespace.
+     */
+    public static boolean isNamespace (int name) { return name == SYSTEM; }
+    
+    /**
+     * @param namespace The name id of a namespace.
+     * @param name The name id of a method.
+     * @return The builtin methods of that name, or {@code null} if there are none.
+     */
+    public static Member[] lookup (int namespace, int name) {
+        return namespace == SYSTEM ? SYSTEM_MEMBERS.get(name) : null;
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 SoraKatadzuma.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package cherry.frontend.semantics;
+
+import cherry.frontend.grammar.Token;
+import cherry.utils.IntMap;
+import cherry.utils.SearchTree;
+import cherry.utils.SymbolPool;
+import java.util.Arrays;
+
+/**
+ * A {@code Declaration} is an entry of the {@code SymbolTable}: a namespace,
+ * or a class, enum, interface or struct declared inside of one. It records
+ * where the declaration was made, the tree and node it was parsed into, so
+ * that later processes can go from a name straight to its definition.
+ * 
+ * @author SoraKatadzuma
+ * @version Alpha 0.0.1
+ * @since 10/18/2026
+ */
+public final class Declaration {
+    /** The kind of the declaration. */
+    private final SearchTree.Kind kind;
+    /** The name id of the namespace the declaration is in. */
+    private final int scope;
+    /** The name id of the declaration. */
+    private final int name;
+    /** The tree the declaration was parsed into, {@code null} for a namespace. */
+    private final SearchTree tree;
+    /** The node of the declaration in its tree. */
+    private final int node;
+    /** The members of a type by name id, methods of one name sharing an entry. */
+    private final IntMap<Member[]> members;
+    /** The pool of the compilation, where the names of the declaration are. */
+    private final SymbolPool names;
+    
+    /**
+     * Constructs a new Declaration.
+     * 
+     * @param kind The kind of the declaration.
+     * @param scope The name id of the namespace the declaration is in.
+     * @param name The name id of the declaration.
+     * @param tree The tree the declaration was parsed into.
+     * @param node The node of the declaration in its tree.
+     * @param names The pool of the compilation, where the names of the
+     *      declaration are.
+     */
+    public Declaration (SearchTree.Kind kind, int scope, int name, SearchTree tree, int node, SymbolPool names) {
+        this.kind = kind;   this.scope = scope; this.name = name;
+        this.tree = tree;   this.node = node;   this.names = names;
+        this.members = tree == null ? new IntMap<>(0) : collectMembers();
+    }
+    
+    /**
+     * Indexes the members declared directly inside of this type.
+     */
+    private IntMap<Member[]> collectMembers () {
+        IntMap<Member[]> found = new IntMap<>(tree.childCount(node));
+        
+        for (int child = tree.firstChild(node); child != SearchTree.NONE; child = tree.nextSibling(child)) {
+            Member.Kind memberKind;
+            
+            switch (tree.kind(child)) {
+                case FIELD:     memberKind = Member.Kind.FIELD;     break;
+                case METHOD:    memberKind = Member.Kind.METHOD;    break;
+                case CONSTANT:  memberKind = Member.Kind.CONSTANT;  break;
+                default:        continue;
+            }
+            
+            int memberName = tree.name(child);
+            
+            if (memberName == Token.NO_SYMBOL) { continue; }
+            
+            Member member = new Member(memberKind, this, child, memberName);
+            Member[] existing = found.get(memberName);
+            
+            if (existing == null) {
+                found.put(memberName, new Member[] { member });
+            } else {
+                Member[] grown = Arrays.copyOf(existing, existing.length + 1);
+                grown[existing.length] = member;
+                found.put(memberName, grown);
+            }
+        }
+        
+        return found;
+    }
+    
+    /**
+     * @return The kind of the declaration.
+     */
+    public SearchTree.Kind kind () { return kind; }
+    
+    /**
+     * @return The pool of the compilation, where the names of the declaration are.
+     */
+    public SymbolPool names () { return names; }
+    
+    /**
+     * @return The name id of the namespace the declaration is in.
+     */
+    public int scope () { return scope; }
+    
+    /**
+     * @return The name id of the declaration.
+     */
+    public int name () { return name; }
+    
+    /**
+     * @return The tree the declaration was parsed into, {@code null} for a namespace.
+     */
+    public SearchTree tree () { return tree; }
+    
+    /**
+     * @return The node of the declaration in its tree.
+     */
+    public int node () { return node; }
+    
+    /**
+     * @param memberName The name id of a member.
+     * @return The members of that name declared directly in this type, or
+     *      {@code null} if there are none.
+     */
+    public Member[] members (int memberName) { return members.get(memberName); }
+    
+    /**
+     * @return The name id of every member declared directly in this type.
+     */
+    public int[] memberNames () { return members.keys(); }
+    
+    /**
+     * @return true if the type cannot be created: an interface, a type
+     *      declared abstract, or one with a method that has no body and is
+     *      not external.
+     */
+    public boolean isAbstract () {
+        if (kind == SearchTree.Kind.INTERFACE || tree.hasModifier(node, Token.Type.ABSTRACT)) { return true; }
+        
+        for (int child = tree.firstChild(node); child != SearchTree.NONE; child = tree.nextSibling(child)) {
+            if (tree.kind(child) != SearchTree.Kind.METHOD || tree.hasModifier(child, Token.Type.EXTERNAL)) { continue; }
+            
+            boolean body = false;
+            
+            for (int part = tree.firstChild(child); part != SearchTree.NONE; part = tree.nextSibling(part)) {
+                body |= tree.kind(part) == SearchTree.Kind.BLOCK;
+            }
+            
+            if (!body) { return true; }
+        }
+        
+        return false;
+    }
+    
+    /**
+     * @return The name of the declaration, qualified by its namespace.
+     */
+    public String qualifiedName () {
+        return scope < 0 ? names.name(name) : names.name(scope) + '.' + names.name(name);
+    }
+}
@@ -0,0 +1,604 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 SoraKatadzuma.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package cherry.frontend.semantics;
+
+import cherry.frontend.grammar.LineIndex;
+import cherry.frontend.grammar.Token;
+import cherry.utils.Diagnostic;
+import cherry.utils.Diagnostics;
+import cherry.utils.IntMap;
+import cherry.utils.SearchTree;
+import cherry.utils.SearchTree.Kind;
+import cherry.utils.SymbolPool;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntPredicate;
+
+/**
+ * An {@code InterfaceSummary} is what one namespace exports, written to a
+ * file of its own once the namespace has been compiled: its types, and the
+ * signatures of their fields, methods and constants, with every type name
+ * fully qualified. A file that uses the namespace can then be checked against
+ * the summary, which is memory-mapped and read in one pass, instead of lexing
+ * and parsing every source of the namespace again.
+ * <p>
+ * A summary is read back into a small {@code SearchTree} holding only the
+ * declarations, which is declared like the tree of any file but never
+ * resolved. It also records the size, time of modification and SHA-256 hash
+ * of every source it was made from; when a source has changed or gone since,
+ * the summary is stale and is not used. The path of a source is kept relative
+ * to the directory of the summary, so that the summary finds its sources
+ * whichever directory the compiler is run from.
+ * </p>
+ * <p>
+ * Summaries are named after their namespace, with the extension ".chi", and
+ * laid out as follows, big-endian:
+ * </p>
+ * <pre>
+ * magic "CHIS", version u2
+ * strings   u4 count, then for each: u2 length, UTF-8 bytes (65535 at most)
+ * namespace u4 string
+ * uses      u4 count, then for each: u4 string
+ * sources   u4 count, then for each: u4 path string, relative to the summary's
+ *           directory when it can be, u8 size, u8 modified, 32 byte hash
+ * nodes     u4 count, then in preorder: u1 kind, u4 name string or -1, u4 flags,
+ *           u2 token type, u4 child count
+ * </pre>
+ * 
+ * @author SoraKatadzuma
+ * @version Alpha 0.0.1
+ * @since 10/18/2026
+ */
+public final class InterfaceSummary {
+    /** The first four bytes of every summary. */
+    private static final int MAGIC = 0x43484953;
+    /** The version of the layout. */
+    private static final short VERSION = 2;
+    /** The extension of summary files. */
+    public static final String EXTENSION = ".chi";
+    
+    /** The summary file. */
+    private final File file;
+    /** The mapped summary, positioned at its nodes. */
+    private final ByteBuffer buffer;
+    /** The string table of the summary. */
+    private final String[] strings;
+    /** The name id of the namespace. */
+    private final int namespace;
+    /** The name ids of the namespaces the namespace uses. */
+    private final int[] uses;
+    /** The sources the summary was made from. */
+    private final Source[] sources;
+    /** The pool of the compilation, where the names of the summary are placed. */
+    private final SymbolPool names;
+    
+    private InterfaceSummary (File file, ByteBuffer buffer, SymbolPool names) throws IOException {
+        this.file = file;
+        this.buffer = buffer;
+        this.names = names;
+        
+        if (buffer.getInt() != MAGIC || buffer.getShort() != VERSION) {
+            throw new IOException(file.getPath() + " is not a summary of this version.");
+        }
+        
+        strings = new String[buffer.getInt()];
+        
+        for (int i = 0; i < strings.length; i++) {
+            byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+            buffer.get(bytes);
+            strings[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        
+        namespace = names.intern(strings[buffer.getInt()]);
+        uses = new int[buffer.getInt()];
+        
+        for (int i = 0; i < uses.length; i++) { uses[i] = names.intern(strings[buffer.getInt()]); }
+        
+        sources = new Source[buffer.getInt()];
+        File directory = file.getAbsoluteFile().getParentFile();
+        
+        for (int i = 0; i < sources.length; i++) {
+            File path = new File(strings[buffer.getInt()]);
+            
+            if (!path.isAbsolute()) { path = new File(directory, path.getPath()); }
+            
+            long size = buffer.getLong();
+            long modified = buffer.getLong();
+            byte[] hash = new byte[32];
+            buffer.get(hash);
+            sources[i] = new Source(path, size, modified, hash);
+        }
+    }
+    
+    /**
+     * Maps a summary file.
+     * 
+     * @param file The summary file.
+     * @param names The pool of the compilation, where the names of the
+     *      summary are placed.
+     * @return The summary.
+     * @throws IOException If the file cannot be read, or is not a summary.
+     */
+    public static InterfaceSummary load (File file, SymbolPool names) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            
+            return new InterfaceSummary(file, mapped, names);
+        }
+    }
+    
+    /**
+     * @return The name id of the namespace summarized.
+     */
+    public int namespace () { return namespace; }
+    
+    /**
+     * @return The name ids of the namespaces the summarized namespace uses.
+     */
+    public int[] uses () { return uses.clone(); }
+    
+    /**
+     * Tells whether a source of the summary has changed since it was written.
+     * A source whose size and time of modification are unchanged is taken to
+     * be unchanged; any other is hashed again. A source that no longer exists
+     * makes the summary stale too, as what it declared may have gone with it.
+     * 
+     * @return true if the summary must not be used.
+     */
+    public boolean isStale () {
+        for (Source source : sources) {
+            if (!source.path.isFile()) { return true; }
+            if (source.path.length() == source.size && source.path.lastModified() == source.modified) { continue; }
+            
+            try {
+                if (!Arrays.equals(hash(source.path), source.hash)) { return true; }
+            } catch (IOException ex) {
+                return true;
+            }
+        }
+        
+        return false;
+    }
+    
+    /**
+     * Reads the declarations of the summary into a tree.
+     * 
+     * @return A tree holding the namespace and its exported declarations.
+     */
+    public SearchTree tree () {
+        ByteBuffer nodes = buffer.duplicate();
+        int count = nodes.getInt();
+        LineIndex lines = new LineIndex(file.getPath(), new byte[0], 0);
+        Token[] tokens = new Token[count];
+        Kind[] kinds = Kind.values();
+        Token.Type[] types = Token.Type.values();
+        
+        // Every node stands for a token of its own, which only matters for
+        // the data type keywords of TYPE nodes.
+        int start = nodes.position();
+        
+        for (int i = 0; i < count; i++) {
+            nodes.position(nodes.position() + 9);
+            tokens[i] = new Token(types[nodes.getShort()], null, lines, 0);
+            nodes.position(nodes.position() + 4);
+        }
+        
+        nodes.position(start);
+        
+        SearchTree tree = new SearchTree(file, names, tokens);
+        Deque<int[]> open = new ArrayDeque<>();
+        
+        for (int i = 0; i < count; i++) {
+            Kind kind = kinds[nodes.get()];
+            int name = nodes.getInt();
+            int flags = nodes.getInt();
+            nodes.getShort();
+            int children = nodes.getInt();
+            int node = i == 0 ? tree.root() : tree.add(kind, i, open.peek()[0]);
+            
+            if (name >= 0) { tree.setName(node, names.intern(strings[name])); }
+            
+            tree.setFlags(node, flags);
+            
+            if (i > 0 && --open.peek()[1] == 0) { open.pop(); }
+            if (children > 0) { open.push(new int[] { node, children }); }
+        }
+        
+        return tree;
+    }
+    
+    /* ---------------------------------------------------------------------- */
+    /* Writing.                                                               */
+    /* ---------------------------------------------------------------------- */
+    
+    /**
+     * Writes the summary of every namespace compiled without errors into a
+     * directory. Files outside of any namespace export nothing.
+     * 
+     * @param directory The directory to write into.
+     * @param analysis The analysis of the compiled files.
+     * @param diagnostics Where summaries that could not be written are reported.
+     */
+    public static void writeAll (File directory, Analysis analysis, Diagnostics diagnostics) {
+        Map<Integer, List<Attributes>> byNamespace = new LinkedHashMap<>();
+        List<Integer> failed = new ArrayList<>();
+        
+        for (Attributes attributes : analysis.attributes()) {
+            if (attributes == null) { continue; }
+            
+            int namespace = namespaceOf(attributes.tree());
+            
+            if (namespace == SymbolTable.GLOBAL) { continue; }
+            if (attributes.errors() > 0) { failed.add(namespace); }
+            
+            byNamespace.computeIfAbsent(namespace, key -> new ArrayList<>()).add(attributes);
+        }
+        
+        directory.mkdirs();
+        
+        for (Map.Entry<Integer, List<Attributes>> entry : byNamespace.entrySet()) {
+            if (failed.contains(entry.getKey())) { continue; }
+            
+            String name = analysis.names().name(entry.getKey());
+            
+            try {
+                write(new File(directory, name + EXTENSION), entry.getKey(), entry.getValue(), analysis.names());
+            } catch (IOException ex) {
+                diagnostics.warning(Diagnostic.Code.UNWRITABLE_SUMMARY, new File(directory, name + EXTENSION).getPath(),
+                        "The summary of " + name + " could not be written: " + ex.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Loads the summaries of the namespaces some files use, and of those they
+     * use in turn, from a directory. Namespaces declared by the files being
+     * compiled, and namespaces without a summary, are skipped, as are stale
+     * summaries, which are reported along with summaries that cannot be read.
+     * 
+     * @param directory The directory to read from.
+     * @param used The name ids of the namespaces used.
+     * @param declared Tells which namespaces the files being compiled declare.
+     * @param names The pool of the compilation, where the names are.
+     * @param diagnostics Where stale and unreadable summaries are reported.
+     * @return The trees of the summaries loaded.
+     */
+    public static List<SearchTree> loadAll (File directory, int[] used, IntPredicate declared, SymbolPool names,
+            Diagnostics diagnostics) {
+        List<SearchTree> trees = new ArrayList<>();
+        IntMap<Boolean> seen = new IntMap<>();
+        Deque<Integer> pending = new ArrayDeque<>();
+        
+        for (int namespace : used) { pending.add(namespace); }
+        
+        while (!pending.isEmpty()) {
+            int namespace = pending.poll();
+            
+            if (seen.put(namespace, Boolean.TRUE) != null || declared.test(namespace)) { continue; }
+            
+            String name = names.name(namespace);
+            File file = new File(directory, name + EXTENSION);
+            
+            if (!file.isFile()) { continue; }
+            
+            try {
+                InterfaceSummary summary = load(file, names);
+                
+                if (summary.isStale()) {
+                    diagnostics.warning(Diagnostic.Code.STALE_SUMMARY, file.getPath(),
+                            "The summary " + file.getPath() + " is out of date, the sources of " + name
+                            + " must be compiled again.");
+                    continue;
+                }
+                
+                trees.add(summary.tree());
+                
+                for (int next : summary.uses) { pending.add(next); }
+            } catch (IOException ex) {
+                diagnostics.warning(Diagnostic.Code.UNREADABLE_SUMMARY, file.getPath(),
+                        "The summary of " + name + " could not be read: " + ex.getMessage());
+            }
+        }
+        
+        return trees;
+    }
+    
+    /**
+     * Writes the summary of one namespace.
+     * 
+     * @param file The summary file.
+     * @param namespace The name id of the namespace.
+     * @param files The attributes of every file of the namespace.
+     * @param names The pool of the compilation, where the names are.
+     * @throws IOException If the summary cannot be written.
+     */
+    public static void write (File file, int namespace, List<Attributes> files, SymbolPool names) throws IOException {
+        Writer writer = new Writer();
+        List<Integer> uses = new ArrayList<>();
+        
+        // The root, holding the namespace and the types of every file.
+        int typeCount = 0;
+        
+        for (Attributes attributes : files) {
+            SearchTree tree = attributes.tree();
+            
+            for (int node = tree.firstChild(tree.root()); node != SearchTree.NONE; node = tree.nextSibling(node)) {
+                if (tree.kind(node) == Kind.USE && !uses.contains(tree.name(node))) { uses.add(tree.name(node)); }
+                if (isExported(tree, node)) { typeCount++; }
+            }
+        }
+        
+        writer.node(Kind.FILE, -1, 0, Token.Type.EOTS, typeCount + 1);
+        writer.node(Kind.NAMESPACE, writer.string(names.name(namespace)), 0, Token.Type.ID, 0);
+        
+        for (Attributes attributes : files) {
+            SearchTree tree = attributes.tree();
+            
+            for (int node = tree.firstChild(tree.root()); node != SearchTree.NONE; node = tree.nextSibling(node)) {
+                if (isExported(tree, node)) { writer.declaration(attributes, node); }
+            }
+        }
+        
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            int namespaceString = writer.string(names.name(namespace));
+            int[] useStrings = new int[uses.size()];
+            int[] pathStrings = new int[files.size()];
+            
+            for (int i = 0; i < useStrings.length; i++) { useStrings[i] = writer.string(names.name(uses.get(i))); }
+            for (int i = 0; i < pathStrings.length; i++) {
+                pathStrings[i] = writer.string(pathFrom(file, files.get(i).tree().file()));
+            }
+            
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeInt(writer.strings.size());
+            
+            for (String string : writer.strings.keySet()) {
+                byte[] encoded = string.getBytes(StandardCharsets.UTF_8);
+                
+                // The length is written in two bytes, and must not wrap around.
+                if (encoded.length > 0xFFFF) {
+                    throw new IOException("A string of " + encoded.length + " bytes is too long for "
+                            + file.getPath() + ", which holds at most 65535.");
+                }
+                
+                out.writeShort(encoded.length);
+                out.write(encoded);
+            }
+            
+            out.writeInt(namespaceString);
+            out.writeInt(useStrings.length);
+            
+            for (int use : useStrings) { out.writeInt(use); }
+            
+            out.writeInt(pathStrings.length);
+            
+            for (int i = 0; i < pathStrings.length; i++) {
+                File source = files.get(i).tree().file();
+                
+                out.writeInt(pathStrings[i]);
+                out.writeLong(source.length());
+                out.writeLong(source.lastModified());
+                out.write(hash(source));
+            }
+            
+            out.writeInt(writer.count);
+            writer.nodes.writeTo(out);
+        }
+        
+        try (FileOutputStream out = new FileOutputStream(file)) { bytes.writeTo(out); }
+    }
+    
+    /**
+     * Names a source for a summary: relative to the directory of the summary,
+     * or by its absolute path when it has no such relative path, as with a
+     * source on another drive.
+     */
+    private static String pathFrom (File summary, File source) {
+        Path directory = summary.getAbsoluteFile().toPath().normalize().getParent();
+        Path path = source.getAbsoluteFile().toPath().normalize();
+        
+        try {
+            return directory.relativize(path).toString();
+        } catch (IllegalArgumentException ex) {
+            return path.toString();
+        }
+    }
+    
+    private static boolean isExported (SearchTree tree, int node) {
+        return tree.kind(node).isType() && tree.name(node) != Token.NO_SYMBOL
+                && !tree.hasModifier(node, Token.Type.PRIVATE);
+    }
+    
+    private static int namespaceOf (SearchTree tree) {
+        int namespace = SymbolTable.GLOBAL;
+        
+        for (int node = tree.firstChild(tree.root()); node != SearchTree.NONE; node = tree.nextSibling(node)) {
+            if (tree.kind(node) == Kind.NAMESPACE) { namespace = tree.name(node); }
+        }
+        
+        return namespace;
+    }
+    
+    private static byte[] hash (File file) throws IOException {
+        try (InputStream in = new FileInputStream(file)) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] chunk = new byte[1 << 16];
+            
+            for (int read; (read = in.read(chunk)) > 0; ) { digest.update(chunk, 0, read); }
+            
+            return digest.digest();
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IOException(ex);
+        }
+    }
+    
+    /**
+     * Writes the nodes of a summary, gathering the strings they name.
+     */
+    private static final class Writer {
+        /** The strings named so far, by their index. */
+        final Map<String, Integer> strings = new LinkedHashMap<>();
+        /** The nodes written so far. */
+        final ByteArrayOutputStream nodes = new ByteArrayOutputStream();
+        /** The nodes, as data. */
+        final DataOutputStream out = new DataOutputStream(nodes);
+        /** The number of nodes written so far. */
+        int count;
+        
+        int string (String string) {
+            Integer index = strings.get(string);
+            
+            if (index == null) {
+                index = strings.size();
+                strings.put(string, index);
+            }
+            
+            return index;
+        }
+        
+        void node (Kind kind, int name, int flags, Token.Type token, int children) throws IOException {
+            out.writeByte(kind.ordinal());
+            out.writeInt(name);
+            out.writeInt(flags);
+            out.writeShort(token.ordinal());
+            out.writeInt(children);
+            count++;
+        }
+        
+        /**
+         * Writes a type and its exported members, leaving out initializers
+         * and method bodies.
+         */
+        void declaration (Attributes attributes, int node) throws IOException {
+            SearchTree tree = attributes.tree();
+            List<Integer> kept = new ArrayList<>();
+            
+            for (int child = tree.firstChild(node); child != SearchTree.NONE; child = tree.nextSibling(child)) {
+                Kind kind = tree.kind(child);
+                
+                if (kind == Kind.TYPE || kind == Kind.CONSTANT || isExported(tree, child)
+                        || (kind == Kind.FIELD || kind == Kind.METHOD) && !tree.hasModifier(child, Token.Type.PRIVATE)) {
+                    kept.add(child);
+                }
+            }
+            
+            node(tree.kind(node), string(tree.names().name(tree.name(node))), tree.flags(node),
+                    Token.Type.ID, kept.size());
+            
+            for (int child : kept) {
+                switch (tree.kind(child)) {
+                    case TYPE:      type(attributes, child);                    break;
+                    case CONSTANT:  named(tree, child, 0);                      break;
+                    case FIELD:     named(tree, child, 1);
+                                    type(attributes, tree.firstChild(child));   break;
+                    case METHOD:    method(attributes, child);                  break;
+                    default:        declaration(attributes, child);             break;
+                }
+            }
+        }
+        
+        private void named (SearchTree tree, int node, int children) throws IOException {
+            node(tree.kind(node), string(tree.names().name(tree.name(node))), tree.flags(node),
+                    Token.Type.ID, children);
+        }
+        
+        private void method (Attributes attributes, int node) throws IOException {
+            SearchTree tree = attributes.tree();
+            int typeNode = tree.firstChild(node);
+            List<Integer> parameters = new ArrayList<>();
+            
+            for (int child = tree.nextSibling(typeNode); child != SearchTree.NONE; child = tree.nextSibling(child)) {
+                if (tree.kind(child) == Kind.PARAMETER) { parameters.add(child); }
+            }
+            
+            named(tree, node, parameters.size() + 1);
+            type(attributes, typeNode);
+            
+            for (int parameter : parameters) {
+                named(tree, parameter, 1);
+                type(attributes, tree.firstChild(parameter));
+            }
+        }
+        
+        /**
+         * Writes a TYPE node with its name fully qualified, so that it can be
+         * resolved without the uses of the file it was written in.
+         */
+        private void type (Attributes attributes, int node) throws IOException {
+            SearchTree tree = attributes.tree();
+            
+            if (tree.name(node) == Token.NO_SYMBOL) {
+                node(Kind.TYPE, -1, tree.flags(node), tree.tokenOf(node).type(), 0);
+                return;
+            }
+            
+            Type type = attributes.type(node);
+            
+            while (type != null && type.kind() == Type.Kind.ARRAY) { type = type.element(); }
+            
+            String name = type != null && type.kind() == Type.Kind.OBJECT ? type.declaration().qualifiedName()
+                    : tree.names().name(tree.name(node));
+            
+            node(Kind.TYPE, string(name), tree.flags(node), Token.Type.ID, 0);
+        }
+    }
+    
+    /**
+     * A source a summary was made from, as it was when the summary was written.
+     */
+    private static final class Source {
+        final File path;
+        final long size;
+        final long modified;
+        final byte[] hash;
+        
+        Source (File path, long size, long modified, byte[] hash) {
+            this.path = path;   this.size = size;
+            this.modified = modified;   this.hash = hash;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 SoraKatadzuma.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package cherry.frontend.semantics;
+
+import cherry.frontend.grammar.Token;
+import cherry.utils.SearchTree;
+
+/**
+ * A {@code Member} is a field, method or enum constant of a declared type, or
+ * one of the builtin methods the compiler provides itself. It points back at
+ * the node it was declared by, so that its signature can be read from the
+ * tree whenever it is needed.
+ * 
+ * @author SoraKatadzuma
+ * @version Alpha 0.0.1
+ * @since 10/18/2026
+ */
+public final class Member {
+    /**
+     * The kinds of members.
+     */
+    public enum Kind { FIELD, METHOD, CONSTANT, BUILTIN }
+    
+    /** The kind of the member. */
+    private final Kind kind;
+    /** The type the member belongs to, {@code null} for a builtin. */
+    private final Declaration owner;
+    /** The node of the member in its owner's tree, or the arity of a builtin. */
+    private final int node;
+    /** The name id of the member. */
+    private final int name;
+    
+    /**
+     * Constructs a new Member.
+     * 
+     * @param kind The kind of the member.
+     * @param owner The type the member belongs to.
+     * @param node The node of the member in its owner's tree.
+     * @param name The name id of the member.
+     */
+    Member (Kind kind, Declaration owner, int node, int name) {
+        this.kind = kind;   this.owner = owner;
+        this.node = node;   this.name = name;
+    }
+    
+    /**
+     * @return The kind of the member.
+     */
+    public Kind kind () { return kind; }
+    
+    /**
+     * @return The type the member belongs to, {@code null} for a builtin.
+     */
+    public Declaration owner () { return owner; }
+    
+    /**
+     * @return The node of the member in its owner's tree.
+     */
+    public int node () { return node; }
+    
+    /**
+     * @return The name id of the member.
+     */
+    public int name () { return name; }
+    
+    /**
+     * @return The name of the member, spelled out.
+     */
+    public String spelling () { return owner == null ? Builtins.name(name) : owner.names().name(name); }
+    
+    /**
+     * @return The tree the member was declared in, {@code null} for a builtin.
+     */
+    public SearchTree tree () { return owner == null ? null : owner.tree(); }
+    
+    /**
+     * @return true if the member belongs to its type rather than to instances.
+     */
+    public boolean isStatic () {
+        return kind != Kind.FIELD && kind != Kind.METHOD
+                || owner.tree().hasModifier(node, Token.Type.STATIC);
+    }
+    
+    /**
+     * @return The number of parameters of a method or builtin.
+     */
+    public int arity () {
+        if (kind == Kind.BUILTIN) { return node; }
+        if (kind != Kind.METHOD) { return 0; }
+        
+        SearchTree tree = owner.tree();
+        int count = 0;
+        
+        for (int child = tree.firstChild(node); child != SearchTree.NONE; child = tree.nextSibling(child)) {
+            if (tree.kind(child) == SearchTree.Kind.PARAMETER) { count++; }
+        }
+        
+        return count;
+    }
+}
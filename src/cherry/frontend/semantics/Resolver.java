@@ -0,0 +1,1120 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 SoraKatadzuma.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package cherry.frontend.semantics;
+
+import cherry.frontend.grammar.Token;
+import cherry.utils.Diagnostic;
+import cherry.utils.Diagnostics;
+import cherry.utils.SearchTree;
+import cherry.utils.SearchTree.Kind;
+import cherry.utils.SymbolPool;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@code Resolver} is the second phase of semantic analysis for one file.
+ * It walks the file's {@code SearchTree} once, resolving every name against
+ * the locals in scope, the members of the enclosing types and the frozen
+ * {@code SymbolTable}, giving every expression a {@code Type}, and checking
+ * that the types agree. What it learns is kept in the file's
+ * {@code Attributes}.
+ * <p>
+ * A {@code Resolver} only ever reads the symbol table and the trees of other
+ * files, which no longer change by the time it runs, so the resolvers of every
+ * file run side by side without any locking. The supertypes of declarations
+ * are worked out on demand and remembered by each resolver for itself.
+ * </p>
+ * 
+ * @author SoraKatadzuma
+ * @version Alpha 0.0.1
+ * @since 10/18/2026
+ */
+final class Resolver {
+    /** The tree of the file being resolved. */
+    private final SearchTree tree;
+    /** The declarations of every file. */
+    private final SymbolTable.Snapshot symbols;
+    /** What is learnt about the tree. */
+    private final Attributes attributes;
+    /** Where semantic errors are reported. */
+    private final Diagnostics diagnostics;
+    /** The pool of the compilation, where the names are. */
+    private final SymbolPool names;
+    /** The namespace and uses of each tree seen, the file's own included. */
+    private final Map<SearchTree, FileScope> scopes = new IdentityHashMap<>();
+    /** The supertypes of each declaration seen. */
+    private final Map<Declaration, Declaration[]> supertypes = new IdentityHashMap<>();
+    /** The namespace and uses of the file being resolved. */
+    private final FileScope scope;
+    /** The namespace the type declarations being resolved are in. */
+    private int namespace = SymbolTable.GLOBAL;
+    
+    /** The types enclosing the node being resolved, innermost last. */
+    private final List<Declaration> enclosing = new ArrayList<>();
+    /** The name ids of the locals in scope. */
+    private int[] localNames = new int[16];
+    /** The LOCAL or PARAMETER nodes of the locals in scope. */
+    private int[] localNodes = new int[16];
+    /** The number of locals in scope. */
+    private int localCount;
+    /** Whether the code being resolved is static. */
+    private boolean inStatic;
+    /** The return type of the method being resolved. */
+    private Type returnType = Type.VOID;
+    /** The number of loops around the statement being resolved. */
+    private int loops;
+    /** The number of errors found. */
+    private int errors;
+    /** Whether only the signatures of the types are resolved. */
+    private boolean signaturesOnly;
+    
+    /**
+     * Constructs a new Resolver.
+     * 
+     * @param tree The tree of a file.
+     * @param symbols The declarations of every file.
+     * @param diagnostics Where semantic errors are reported.
+     */
+    Resolver (SearchTree tree, SymbolTable.Snapshot symbols, Diagnostics diagnostics) {
+        this.tree = tree;
+        this.symbols = symbols;
+        this.names = symbols.names();
+        this.diagnostics = diagnostics;
+        this.attributes = new Attributes(tree);
+        this.scope = scopeOf(tree);
+    }
+    
+    /**
+     * Resolves the whole file.
+     * 
+     * @return What was learnt about the file.
+     */
+    Attributes resolve () {
+        for (int node = tree.firstChild(tree.root()); node != SearchTree.NONE; node = tree.nextSibling(node)) {
+            if (tree.kind(node) == Kind.NAMESPACE) {
+                namespace = tree.name(node);
+            } else if (tree.kind(node) == Kind.USE) {
+                int used = tree.name(node);
+                
+                if (!symbols.isNamespace(used) && !Builtins.isNamespace(used)) {
+                    error(node, "namespace \"" + names.name(used) + "\" does not exist");
+                }
+            } else if (tree.kind(node).isType()) {
+                typeDeclaration(node, null);
+            }
+        }
+        
+        attributes.setErrors(errors);
+        return attributes;
+    }
+    
+    /**
+     * Resolves only the signatures of the types of the file: their
+     * supertypes, and the types of their fields, methods and parameters.
+     * That is all there is to learn about a library, whose bodies are
+     * compiled elsewhere.
+     * 
+     * @return What was learnt about the signatures.
+     */
+    Attributes signatures () {
+        signaturesOnly = true;
+        return resolve();
+    }
+    
+    /* ---------------------------------------------------------------------- */
+    /* Declarations.                                                          */
+    /* ---------------------------------------------------------------------- */
+    
+    private void typeDeclaration (int node, Declaration outer) {
+        if (tree.name(node) == Token.NO_SYMBOL) { return; }
+        
+        int name = outer == null ? tree.name(node)
+                : names.intern(names.name(outer.name()) + '.' + names.name(tree.name(node)));
+        Declaration declaration = symbols.lookup(namespace, name);
+        
+        // A declaration refused for clashing is still checked on its own.
+        if (declaration == null || declaration.tree() != tree || declaration.node() != node) {
+            declaration = new Declaration(tree.kind(node), namespace, name, tree, node, names);
+        }
+        
+        enclosing.add(declaration);
+        
+        for (int child = tree.firstChild(node); child != SearchTree.NONE; child = tree.nextSibling(child)) {
+            switch (tree.kind(child)) {
+                case TYPE: {
+                    Type type = type(child);
+                    
+                    if (type.kind() != Type.Kind.OBJECT && !type.isError()) {
+                        error(child, "\"" + type + "\" cannot be inherited");
+                    }
+                    break;
+                }
+                case FIELD: {
+                    field(child);
+                    break;
+                }
+                case METHOD: {
+                    method(child);
+                    break;
+                }
+                case CONSTANT: {
+                    attributes.setType(child, Type.objectOf(declaration));
+                    break;
+                }
+                default: {
+                    if (tree.kind(child).isType()) { typeDeclaration(child, declaration); }
+                    break;
+                }
+            }
+        }
+        
+        if (inherits(declaration, declaration)) {
+            error(node, "\"" + declaration.qualifiedName() + "\" inherits from itself");
+        }
+        
+        for (int memberName : declaration.memberNames()) {
+            Member[] members = declaration.members(memberName);
+            int variables = 0;
+            
+            for (Member member : members) {
+                if (member.kind() != Member.Kind.METHOD && ++variables > 1) {
+                    error(member.node(), "\"" + names.name(memberName) + "\" is already declared in \""
+                            + declaration.qualifiedName() + "\"");
+                }
+            }
+        }
+        
+        enclosing.remove(enclosing.size() - 1);
+    }
+    
+    private void field (int node) {
+        int typeNode = tree.firstChild(node);
+        Type type = variableType(typeNode);
+        
+        attributes.setType(node, type);
+        inStatic = tree.hasModifier(node, Token.Type.STATIC);
+        
+        int value = tree.nextSibling(typeNode);
+        
+        if (value != SearchTree.NONE && !signaturesOnly) { assignable(value, type, value(value)); }
+    }
+    
+    private void method (int node) {
+        int child = tree.firstChild(node);
+        
+        returnType = type(child);
+        attributes.setType(node, returnType);
+        inStatic = tree.hasModifier(node, Token.Type.STATIC);
+        loops = 0;
+        localCount = 0;
+        
+        for (child = tree.nextSibling(child); child != SearchTree.NONE; child = tree.nextSibling(child)) {
+            if (tree.kind(child) == Kind.PARAMETER) {
+                attributes.setType(child, variableType(tree.firstChild(child)));
+                declareLocal(child);
+            } else if (tree.kind(child) == Kind.BLOCK && !signaturesOnly) {
+                block(child);
+            }
+        }
+    }
+    
+    /* ---------------------------------------------------------------------- */
+    /* Statements.                                                            */
+    /* ---------------------------------------------------------------------- */
+    
+    private void block (int node) {
+        int mark = localCount;
+        
+        for (int child = tree.firstChild(node); child != SearchTree.NONE; child = tree.nextSibling(child)) {
+            statement(child);
+        }
+        
+        localCount = mark;
+    }
+    
+    private void statement (int node) {
+        switch (tree.kind(node)) {
+            case BLOCK: {
+                block(node);
+                break;
+            }
+            case LOCAL: {
+                int typeNode = tree.firstChild(node);
+                Type type = variableType(typeNode);
+                int value = tree.nextSibling(typeNode);
+                
+                attributes.setType(node, type);
+                
+                // The local is not in scope in its own initializer.
+                if (value != SearchTree.NONE) { assignable(value, type, value(value)); }
+                
+                declareLocal(node);
+                break;
+            }
+            case IF: {
+                int condition = tree.firstChild(node);
+                int mark = localCount;
+                
+                condition(condition);
+                
+                for (int branch = tree.nextSibling(condition); branch != SearchTree.NONE; branch = tree.nextSibling(branch)) {
+                    statement(branch);
+                    localCount = mark;
+                }
+                break;
+            }
+            case WHILE: {
+                int condition = tree.firstChild(node);
+                
+                condition(condition);
+                loop(tree.nextSibling(condition));
+                break;
+            }
+            case DO: {
+                int body = tree.firstChild(node);
+                
+                loop(body);
+                condition(tree.nextSibling(body));
+                break;
+            }
+            case FOR: {
+                int mark = localCount;
+                int init = tree.firstChild(node);
+                int condition = tree.nextSibling(init);
+                int update = tree.nextSibling(condition);
+                
+                statement(init);
+                
+                if (tree.kind(condition) != Kind.EMPTY) { condition(condition); }
+                
+                statement(update);
+                loop(tree.nextSibling(update));
+                localCount = mark;
+                break;
+            }
+            case RETURN: {
+                int value = tree.firstChild(node);
+                
+                if (value == SearchTree.NONE) {
+                    if (returnType.kind() != Type.Kind.VOID && !returnType.isError()) {
+                        error(node, "a value of type \"" + returnType + "\" must be returned");
+                    }
+                } else if (returnType.kind() == Type.Kind.VOID) {
+                    expression(value);
+                    error(value, "a void method cannot return a value");
+                } else {
+                    assignable(value, returnType, value(value));
+                }
+                break;
+            }
+            case BREAK:
+            case CONTINUE: {
+                if (loops == 0) {
+                    error(node, "\"" + tree.tokenOf(node).value() + "\" outside of a loop");
+                }
+                break;
+            }
+            case EXPRESSION: {
+                expression(tree.firstChild(node));
+                break;
+            }
+            default: {
+                break;
+            }
+        }
+    }
+    
+    private void loop (int body) {
+        int mark = localCount;
+        
+        loops++;
+        statement(body);
+        loops--;
+        localCount = mark;
+    }
+    
+    private void condition (int node) {
+        Type type = expression(node);
+        
+        if (type.kind() != Type.Kind.BOOL && !type.isError()) {
+            error(node, "a condition must be a bool, not \"" + type + "\"");
+        }
+    }
+    
+    /* ---------------------------------------------------------------------- */
+    /* Expressions.                                                           */
+    /* ---------------------------------------------------------------------- */
+    
+    /**
+     * Resolves an expression that must have a value.
+     */
+    private Type value (int node) {
+        Type type = expression(node);
+        
+        if (!type.isValue()) {
+            error(node, "expected a value, found \"" + type + "\"");
+            return Type.ERROR;
+        }
+        
+        return type;
+    }
+    
+    /**
+     * Resolves an expression, recording and answering its type.
+     */
+    private Type expression (int node) {
+        Type type;
+        
+        switch (tree.kind(node)) {
+            case LITERAL:   type = literal(tree.tokenOf(node).type());  break;
+            case THIS:      type = self(node);                          break;
+            case NAME:      type = name(node);                          break;
+            case MEMBER:    type = member(node);                        break;
+            case CALL:      type = call(node);                          break;
+            case INTRINSIC: type = intrinsic(node);                     break;
+            case INDEX:     type = index(node);                         break;
+            case NEW:       type = allocation(node);                    break;
+            case UNARY:     type = unary(node);                         break;
+            case POSTFIX:   type = step(node, tree.firstChild(node));   break;
+            case BINARY:    type = binary(node);                        break;
+            case ASSIGN:    type = assignment(node);                    break;
+            case TERNARY:   type = ternary(node);                       break;
+            default:        type = Type.ERROR;                          break;
+        }
+        
+        attributes.setType(node, type);
+        return type;
+    }
+    
+    private static Type literal (Token.Type type) {
+        switch (type) {
+            case LONGNUM:           return Type.LONG;
+            case REAL:              return Type.DOUBLE;
+            case LITERAL:           return Type.STRING;
+            case LETTER:
+            case UNICODE:           return Type.CHAR;
+            case TRUE:
+            case FALSE:             return Type.BOOL;
+            default:                return Type.INT;
+        }
+    }
+    
+    private Type self (int node) {
+        if (inStatic) {
+            error(node, "\"this\" cannot be used in a static context");
+            return Type.ERROR;
+        }
+        
+        return Type.objectOf(current());
+    }
+    
+    private Type name (int node) {
+        int name = tree.name(node);
+        
+        for (int i = localCount - 1; i >= 0; i--) {
+            if (localNames[i] == name) {
+                attributes.setLocal(node, localNodes[i]);
+                return attributes.type(localNodes[i]);
+            }
+        }
+        
+        for (int i = enclosing.size() - 1; i >= 0; i--) {
+            Member[] members = lookupMembers(enclosing.get(i), name);
+            
+            if (members == null) { continue; }
+            
+            Member member = members[0];
+            
+            if (member.kind() == Member.Kind.METHOD) {
+                error(node, "\"" + names.name(name) + "\" is a method, and must be called");
+                return Type.ERROR;
+            }
+            
+            if (!member.isStatic() && (inStatic || i < enclosing.size() - 1)) {
+                error(node, "the field \"" + names.name(name) + "\" cannot be used in a static context");
+            }
+            
+            attributes.setMember(node, member);
+            return memberType(member);
+        }
+        
+        Declaration type = resolveTypeName(name, scope, current());
+        
+        if (type != null) { return Type.referenceTo(type); }
+        if (symbols.isNamespace(name) || Builtins.isNamespace(name)) { return Type.namespace(name, names); }
+        
+        error(node, "cannot find \"" + names.name(name) + "\"");
+        return Type.ERROR;
+    }
+    
+    private Type member (int node) {
+        int name = tree.name(node);
+        Type target = expression(tree.firstChild(node));
+        
+        switch (target.kind()) {
+            case ERROR: {
+                return Type.ERROR;
+            }
+            case ARRAY: {
+                if (names.name(name).equals("length")) { return Type.INT; }
+                break;
+            }
+            case OBJECT:
+            case TYPE: {
+                Member[] members = lookupMembers(target.declaration(), name);
+                
+                if (members != null && members[0].kind() != Member.Kind.METHOD) {
+                    if (target.kind() == Type.Kind.TYPE && !members[0].isStatic()) {
+                        error(node, "the field \"" + names.name(name) + "\" cannot be used in a static context");
+                    }
+                    
+                    attributes.setMember(node, members[0]);
+                    return memberType(members[0]);
+                }
+                
+                if (target.kind() == Type.Kind.TYPE) {
+                    Declaration declaration = target.declaration();
+                    Declaration nested = symbols.lookup(declaration.scope(),
+                            names.intern(names.name(declaration.name()) + '.' + names.name(name)));
+                    
+                    if (nested != null) { return Type.referenceTo(nested); }
+                }
+                break;
+            }
+            case NAMESPACE: {
+                Declaration type = symbols.lookup(target.name(), name);
+                
+                if (type != null) { return Type.referenceTo(type); }
+                
+                int nested = names.intern(names.name(target.name()) + '.' + names.name(name));
+                
+                if (symbols.isNamespace(nested)) { return Type.namespace(nested, names); }
+                break;
+            }
+            default: {
+                break;
+            }
+        }
+        
+        error(node, "\"" + target + "\" has no member \"" + names.name(name) + "\"");
+        return Type.ERROR;
+    }
+    
+    private Type call (int node) {
+        int name = tree.name(node);
+        int argument = tree.firstChild(node);
+        Member[] candidates = null;
+        boolean staticOnly = inStatic;
+        boolean known = true;
+        
+        if ((tree.flags(node) & SearchTree.TARGETED) != 0) {
+            Type target = expression(argument);
+            argument = tree.nextSibling(argument);
+            staticOnly = target.kind() != Type.Kind.OBJECT;
+            
+            switch (target.kind()) {
+                case OBJECT:
+                case TYPE:      candidates = lookupMembers(target.declaration(), name);   break;
+                case NAMESPACE: candidates = Builtins.lookup(target.name(), name);        break;
+                case ERROR:     known = false;                                              break;
+                default:        break;
+            }
+        } else {
+            for (int i = enclosing.size() - 1; i >= 0 && candidates == null; i--) {
+                candidates = lookupMembers(enclosing.get(i), name);
+                staticOnly = inStatic || i < enclosing.size() - 1;
+            }
+        }
+        
+        List<Type> arguments = new ArrayList<>();
+        
+        for (; argument != SearchTree.NONE; argument = tree.nextSibling(argument)) {
+            arguments.add(value(argument));
+        }
+        
+        if (!known) { return Type.ERROR; }
+        
+        Member chosen = choose(candidates, arguments);
+        
+        if (chosen == null) {
+            error(node, candidates == null ? "cannot find the method \"" + names.name(name) + "\""
+                    : "no method \"" + names.name(name) + "\" accepts " + arguments);
+            return Type.ERROR;
+        }
+        
+        if (staticOnly && !chosen.isStatic()) {
+            error(node, "the method \"" + names.name(name) + "\" cannot be called in a static context");
+        }
+        
+        attributes.setMember(node, chosen);
+        return memberType(chosen);
+    }
+    
+    /**
+     * Chooses the first method of the right arity whose parameters accept the
+     * arguments.
+     */
+    private Member choose (Member[] candidates, List<Type> arguments) {
+        if (candidates == null) { return null; }
+        
+        for (Member candidate : candidates) {
+            if (candidate.kind() == Member.Kind.BUILTIN) {
+                if (candidate.arity() == arguments.size()) { return candidate; }
+                continue;
+            }
+            
+            if (candidate.kind() != Member.Kind.METHOD || candidate.arity() != arguments.size()) { continue; }
+            
+            SearchTree owner = candidate.tree();
+            FileScope ownerScope = scopeOf(owner);
+            boolean accepts = true;
+            int index = 0;
+            
+            for (int child = owner.firstChild(candidate.node()); child != SearchTree.NONE; child = owner.nextSibling(child)) {
+                if (owner.kind(child) != Kind.PARAMETER) { continue; }
+                
+                Type parameter = typeOf(owner, owner.firstChild(child), ownerScope, candidate.owner());
+                accepts &= parameter == null || accepts(parameter, arguments.get(index++));
+            }
+            
+            if (accepts) { return candidate; }
+        }
+        
+        return null;
+    }
+    
+    private Type intrinsic (int node) {
+        int count = 0;
+        
+        for (int argument = tree.firstChild(node); argument != SearchTree.NONE; argument = tree.nextSibling(argument)) {
+            Type type = value(argument);
+            count++;
+            
+            if (!type.isNumeric() && !type.isError()) {
+                error(argument, "\"" + tree.tokenOf(node).value() + "\" expects a number, not \"" + type + "\"");
+            }
+        }
+        
+        if (count != 1) {
+            error(node, "\"" + tree.tokenOf(node).value() + "\" expects one argument");
+        }
+        
+        return Type.DOUBLE;
+    }
+    
+    private Type index (int node) {
+        int array = tree.firstChild(node);
+        Type type = value(array);
+        
+        integral(tree.nextSibling(array));
+        
+        if (type.isError()) { return Type.ERROR; }
+        if (type.kind() != Type.Kind.ARRAY) {
+            error(array, "\"" + type + "\" is not an array");
+            return Type.ERROR;
+        }
+        
+        return type.element();
+    }
+    
+    private Type allocation (int node) {
+        int typeNode = tree.firstChild(node);
+        Type type = type(typeNode);
+        
+        if (tree.flags(node) == 1) {
+            integral(tree.nextSibling(typeNode));
+            return type.kind() == Type.Kind.VOID ? Type.ERROR : Type.arrayOf(type);
+        }
+        
+        for (int argument = tree.nextSibling(typeNode); argument != SearchTree.NONE; argument = tree.nextSibling(argument)) {
+            value(argument);
+        }
+        
+        if (type.kind() != Type.Kind.OBJECT && !type.isError()) {
+            error(typeNode, "\"" + type + "\" cannot be created with new");
+            return Type.ERROR;
+        }
+        
+        return type;
+    }
+    
+    private Type unary (int node) {
+        int operand = tree.firstChild(node);
+        
+        switch (tree.tokenOf(node).type()) {
+            case NOT: {
+                Type type = value(operand);
+                
+                if (type.kind() != Type.Kind.BOOL && !type.isError()) {
+                    error(node, "\"!\" expects a bool, not \"" + type + "\"");
+                }
+                
+                return Type.BOOL;
+            }
+            case BWNOT: {
+                return Type.promote(integral(operand), Type.INT);
+            }
+            case INCRE:
+            case DECRE: {
+                return step(node, operand);
+            }
+            default: {
+                Type type = value(operand);
+                
+                if (!type.isNumeric() && !type.isError()) {
+                    error(node, "\"" + tree.tokenOf(node).value() + "\" expects a number, not \"" + type + "\"");
+                    return Type.ERROR;
+                }
+                
+                return Type.promote(type, Type.INT);
+            }
+        }
+    }
+    
+    /**
+     * Resolves an increment or decrement of a variable.
+     */
+    private Type step (int node, int operand) {
+        Type type = value(operand);
+        
+        variable(operand);
+        
+        if (!type.isNumeric() && !type.isError()) {
+            error(node, "\"" + tree.tokenOf(node).value() + "\" expects a number, not \"" + type + "\"");
+            return Type.ERROR;
+        }
+        
+        return type;
+    }
+    
+    private Type binary (int node) {
+        int leftNode = tree.firstChild(node);
+        Type left = value(leftNode);
+        Type right = value(tree.nextSibling(leftNode));
+        Token.Type operator = tree.tokenOf(node).type();
+        
+        return operation(node, operator, left, right);
+    }
+    
+    /**
+     * Finds the type of a binary operation, or of the operation of a compound
+     * assignment.
+     */
+    private Type operation (int node, Token.Type operator, Type left, Type right) {
+        if (left.isError() || right.isError()) {
+            boolean logical = operator == Token.Type.AND || operator == Token.Type.OR
+                    || operator == Token.Type.EQUALS || operator == Token.Type.NOTEQ
+                    || operator == Token.Type.LESS || operator == Token.Type.LESSEQ
+                    || operator == Token.Type.GREAT || operator == Token.Type.GREATEQ;
+            
+            return logical ? Type.BOOL : Type.ERROR;
+        }
+        
+        switch (operator) {
+            case AND:
+            case OR: {
+                if (left.kind() == Type.Kind.BOOL && right.kind() == Type.Kind.BOOL) { return Type.BOOL; }
+                break;
+            }
+            case EQUALS:
+            case NOTEQ: {
+                if (accepts(left, right) || accepts(right, left)) { return Type.BOOL; }
+                break;
+            }
+            case LESS:
+            case LESSEQ:
+            case GREAT:
+            case GREATEQ: {
+                if (left.isNumeric() && right.isNumeric()) { return Type.BOOL; }
+                break;
+            }
+            case BWAND:
+            case BWOR:
+            case BWXOR:
+            case BWANDEQ:
+            case BWOREQ:
+            case BWXOREQ: {
+                if (left.kind() == Type.Kind.BOOL && right.kind() == Type.Kind.BOOL) { return Type.BOOL; }
+                if (left.isIntegral() && right.isIntegral()) { return Type.promote(left, right); }
+                break;
+            }
+            case BWLSH:
+            case BWRSH:
+            case BWURSH:
+            case BWLSHEQ:
+            case BWRSHEQ:
+            case BWURSHEQ: {
+                if (left.isIntegral() && right.isIntegral()) { return Type.promote(left, Type.INT); }
+                break;
+            }
+            case ADD:
+            case ADDEQ: {
+                if (left.kind() == Type.Kind.STRING || right.kind() == Type.Kind.STRING) { return Type.STRING; }
+                if (left.isNumeric() && right.isNumeric()) { return Type.promote(left, right); }
+                break;
+            }
+            default: {
+                if (left.isNumeric() && right.isNumeric()) { return Type.promote(left, right); }
+                break;
+            }
+        }
+        
+        error(node, "\"" + operator.getName() + "\" cannot be applied to \"" + left + "\" and \"" + right + "\"");
+        return Type.ERROR;
+    }
+    
+    private Type assignment (int node) {
+        int targetNode = tree.firstChild(node);
+        Type target = value(targetNode);
+        int valueNode = tree.nextSibling(targetNode);
+        Type value = value(valueNode);
+        Token.Type operator = tree.tokenOf(node).type();
+        
+        variable(targetNode);
+        
+        if (operator == Token.Type.ASSIGN) {
+            assignable(valueNode, target, value);
+        } else {
+            Type result = operation(node, operator, target, value);
+            
+            // A compound assignment narrows its result back, as long as the
+            // target is a number; only a string may be added onto a string.
+            if (!result.isError() && !accepts(target, result) && !(target.isNumeric() && result.isNumeric())) {
+                error(node, "\"" + operator.getName() + "\" cannot store \"" + result + "\" into \"" + target + "\"");
+            }
+        }
+        
+        return target;
+    }
+    
+    private Type ternary (int node) {
+        int conditionNode = tree.firstChild(node);
+        int thenNode = tree.nextSibling(conditionNode);
+        
+        condition(conditionNode);
+        
+        Type then = value(thenNode);
+        Type otherwise = value(tree.nextSibling(thenNode));
+        
+        if (then.isError() || otherwise.isError()) { return Type.ERROR; }
+        if (then.equals(otherwise)) { return then; }
+        if (then.isNumeric() && otherwise.isNumeric()) { return Type.promote(then, otherwise); }
+        if (accepts(then, otherwise)) { return then; }
+        if (accepts(otherwise, then)) { return otherwise; }
+        
+        error(node, "the branches have unrelated types \"" + then + "\" and \"" + otherwise + "\"");
+        return Type.ERROR;
+    }
+    
+    /**
+     * Resolves an expression that must be a whole number.
+     */
+    private Type integral (int node) {
+        Type type = value(node);
+        
+        if (!type.isIntegral() && !type.isError()) {
+            error(node, "expected a whole number, not \"" + type + "\"");
+            return Type.ERROR;
+        }
+        
+        return type;
+    }
+    
+    /**
+     * Checks that an already resolved expression is something that can be
+     * assigned to.
+     */
+    private void variable (int node) {
+        if (attributes.type(node) == null || attributes.type(node).isError()) { return; }
+        
+        Kind kind = tree.kind(node);
+        Member member = attributes.member(node);
+        boolean assignable = kind == Kind.INDEX
+                || kind == Kind.NAME && attributes.local(node) != SearchTree.NONE
+                || (kind == Kind.NAME || kind == Kind.MEMBER) && member != null && member.kind() == Member.Kind.FIELD;
+        
+        if (!assignable) { error(node, "only a variable can be assigned to"); }
+    }
+    
+    private void assignable (int node, Type target, Type value) {
+        if (!accepts(target, value)) {
+            error(node, "\"" + value + "\" cannot be assigned to \"" + target + "\"");
+        }
+    }
+    
+    /* ---------------------------------------------------------------------- */
+    /* Types and members.                                                     */
+    /* ---------------------------------------------------------------------- */
+    
+    /**
+     * Tells whether a value may be assigned to a variable, an object being
+     * assignable to any of its supertypes.
+     */
+    private boolean accepts (Type target, Type value) {
+        if (target.accepts(value)) { return true; }
+        
+        return target.kind() == Type.Kind.OBJECT && value.kind() == Type.Kind.OBJECT
+                && inherits(value.declaration(), target.declaration());
+    }
+    
+    private Declaration current () { return enclosing.get(enclosing.size() - 1); }
+    
+    private void declareLocal (int node) {
+        int name = tree.name(node);
+        int mark = localCount;
+        
+        for (int i = localCount - 1; i >= 0; i--) {
+            if (localNames[i] == name) {
+                error(node, "\"" + names.name(name) + "\" is already declared in this method");
+                break;
+            }
+        }
+        
+        if (mark == localNames.length) {
+            localNames = Arrays.copyOf(localNames, mark << 1);
+            localNodes = Arrays.copyOf(localNodes, mark << 1);
+        }
+        
+        localNames[mark] = name;
+        localNodes[mark] = node;
+        localCount++;
+    }
+    
+    /**
+     * Resolves a TYPE node of the file, reporting it if it is unknown.
+     */
+    private Type type (int node) {
+        if (tree.kind(node) != Kind.TYPE) { return Type.ERROR; }
+        
+        Type type = typeOf(tree, node, scope, enclosing.isEmpty() ? null : current());
+        
+        if (type == null) {
+            error(node, "cannot find the type \"" + names.name(tree.name(node)) + "\"");
+            type = Type.ERROR;
+        }
+        
+        attributes.setType(node, type);
+        return type;
+    }
+    
+    /**
+     * Resolves the TYPE node of a variable, which cannot be void.
+     */
+    private Type variableType (int node) {
+        Type type = type(node);
+        
+        if (type.kind() == Type.Kind.VOID) {
+            error(node, "a variable cannot be void");
+            return Type.ERROR;
+        }
+        
+        return type;
+    }
+    
+    /**
+     * Resolves a TYPE node of any tree.
+     * 
+     * @return The type, or {@code null} if it names no type.
+     */
+    private Type typeOf (SearchTree owner, int node, FileScope ownerScope, Declaration context) {
+        Type type;
+        
+        if (owner.name(node) == Token.NO_SYMBOL) {
+            type = Type.of(owner.tokenOf(node).type());
+        } else {
+            Declaration declaration = resolveTypeName(owner.name(node), ownerScope, context);
+            type = declaration == null ? null : Type.objectOf(declaration);
+        }
+        
+        if (type == null) { return null; }
+        
+        for (int i = owner.flags(node); i > 0; i--) { type = Type.arrayOf(type); }
+        
+        return type;
+    }
+    
+    /**
+     * Finds the type a name refers to: a type nested in the context or the
+     * types around it, a type of the file's namespace or of the namespaces it
+     * uses, a type outside of any namespace, or a fully qualified type.
+     */
+    private Declaration resolveTypeName (int name, FileScope in, Declaration context) {
+        String simple = names.name(name);
+        
+        for (Declaration outer = context; outer != null; outer = outerOf(outer)) {
+            Declaration nested = symbols.lookup(outer.scope(), names.intern(names.name(outer.name()) + '.' + simple));
+            
+            if (nested != null) { return nested; }
+        }
+        
+        Declaration found = symbols.lookup(in.namespace, name);
+        
+        for (int i = 0; found == null && i < in.uses.length; i++) { found = symbols.lookup(in.uses[i], name); }
+        
+        if (found == null) { found = symbols.lookup(SymbolTable.GLOBAL, name); }
+        
+        int dot = simple.lastIndexOf('.');
+        
+        for (; found == null && dot > 0; dot = simple.lastIndexOf('.', dot - 1)) {
+            found = symbols.lookup(names.intern(simple.substring(0, dot)), names.intern(simple.substring(dot + 1)));
+        }
+        
+        return found;
+    }
+    
+    private Declaration outerOf (Declaration declaration) {
+        String name = names.name(declaration.name());
+        int dot = name.lastIndexOf('.');
+        
+        return dot < 0 ? null : symbols.lookup(declaration.scope(), names.intern(name.substring(0, dot)));
+    }
+    
+    /**
+     * Finds the members of a name in a type, or else in its supertypes.
+     */
+    private Member[] lookupMembers (Declaration declaration, int name) {
+        List<Declaration> pending = new ArrayList<>();
+        List<Declaration> seen = new ArrayList<>();
+        
+        pending.add(declaration);
+        
+        while (!pending.isEmpty()) {
+            Declaration next = pending.remove(0);
+            
+            if (seen.contains(next)) { continue; }
+            
+            seen.add(next);
+            
+            Member[] members = next.members(name);
+            
+            if (members != null) { return members; }
+            
+            pending.addAll(Arrays.asList(supertypesOf(next)));
+        }
+        
+        return null;
+    }
+    
+    /**
+     * @return true if a type is the given type, or inherits from it.
+     */
+    private boolean inherits (Declaration declaration, Declaration ancestor) {
+        List<Declaration> pending = new ArrayList<>(Arrays.asList(supertypesOf(declaration)));
+        List<Declaration> seen = new ArrayList<>();
+        
+        while (!pending.isEmpty()) {
+            Declaration next = pending.remove(pending.size() - 1);
+            
+            if (next == ancestor) { return true; }
+            if (seen.contains(next)) { continue; }
+            
+            seen.add(next);
+            pending.addAll(Arrays.asList(supertypesOf(next)));
+        }
+        
+        return false;
+    }
+    
+    private Declaration[] supertypesOf (Declaration declaration) {
+        Declaration[] found = supertypes.get(declaration);
+        
+        if (found != null) { return found; }
+        
+        SearchTree owner = declaration.tree();
+        FileScope ownerScope = scopeOf(owner);
+        List<Declaration> list = new ArrayList<>();
+        
+        for (int child = owner.firstChild(declaration.node()); child != SearchTree.NONE; child = owner.nextSibling(child)) {
+            if (owner.kind(child) != Kind.TYPE) { continue; }
+            
+            Type type = typeOf(owner, child, ownerScope, outerOf(declaration));
+            
+            if (type != null && type.kind() == Type.Kind.OBJECT) { list.add(type.declaration()); }
+        }
+        
+        found = list.toArray(new Declaration[0]);
+        supertypes.put(declaration, found);
+        return found;
+    }
+    
+    /**
+     * @return The type of a field or constant, or the return type of a method.
+     */
+    private Type memberType (Member member) {
+        if (member.kind() == Member.Kind.BUILTIN) { return Type.VOID; }
+        if (member.kind() == Member.Kind.CONSTANT) { return Type.objectOf(member.owner()); }
+        
+        SearchTree owner = member.tree();
+        Type type = typeOf(owner, owner.firstChild(member.node()), scopeOf(owner), member.owner());
+        
+        return type == null ? Type.ERROR : type;
+    }
+    
+    private FileScope scopeOf (SearchTree of) {
+        FileScope found = scopes.get(of);
+        
+        if (found == null) {
+            found = new FileScope(of);
+            scopes.put(of, found);
+        }
+        
+        return found;
+    }
+    
+    private void error (int node, String message) {
+        errors++;
+        
+        diagnostics.errorAt(Diagnostic.Code.SEMANTIC, tree.tokenOf(node), message + ".");
+    }
+    
+    /**
+     * The namespace a file declares its types in, and the namespaces it uses.
+     */
+    private static final class FileScope {
+        /** The name id of the namespace of the file, or {@code GLOBAL}. */
+        final int namespace;
+        /** The name ids of the namespaces the file uses. */
+        final int[] uses;
+        
+        FileScope (SearchTree tree) {
+            int found = SymbolTable.GLOBAL;
+            int[] used = new int[0];
+            
+            for (int node = tree.firstChild(tree.root()); node != SearchTree.NONE; node = tree.nextSibling(node)) {
+                if (tree.kind(node) == Kind.NAMESPACE) {
+                    found = tree.name(node);
+                } else if (tree.kind(node) == Kind.USE) {
+                    used = Arrays.copyOf(used, used.length + 1);
+                    used[used.length - 1] = tree.name(node);
+                }
+            }
+            
+            namespace = found;
+            uses = used;
+        }
+    }
+}
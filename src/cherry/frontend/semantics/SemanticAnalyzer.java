@@ -0,0 +1,176 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 SoraKatadzuma.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package cherry.frontend.semantics;
+
+import cherry.utils.Diagnostic;
+import cherry.utils.Diagnostics;
+import cherry.utils.SearchTree;
+import cherry.utils.SymbolPool;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The {@code SemanticAnalyzer} checks the meaning of every file of a
+ * compilation, in two phases that each run one task per file on the same pool
+ * the files were parsed on.
+ * <p>
+ * The first phase collects what each file declares into a shared
+ * {@code SymbolTable}, along with the members of every declared type. Once
+ * every file is done the table is frozen, and that is the only point at which
+ * one file waits for another. The second phase then resolves the names and
+ * types of each file against the frozen table, which no task changes any
+ * more, so the files are checked side by side without any locking.
+ * </p>
+ * 
+ * @author SoraKatadzuma
+ * @version Alpha 0.0.1
+ * @since 10/18/2026
+ */
+public final class SemanticAnalyzer {
+    /** The pool both phases run on. */
+    private final ExecutorService pool;
+    /** The pool of the compilation, where the names of the trees are. */
+    private final SymbolPool names;
+    /** Where semantic errors are reported. */
+    private final Diagnostics diagnostics;
+    
+    /**
+     * Constructs a new SemanticAnalyzer.
+     * 
+     * @param pool The pool both phases run on, ideally a work-stealing one.
+     * @param names The pool of the compilation, where the names of the trees are.
+     * @param diagnostics Where semantic errors are reported.
+     */
+    public SemanticAnalyzer (ExecutorService pool, SymbolPool names, Diagnostics diagnostics) {
+        this.pool = pool;
+        this.names = names;
+        this.diagnostics = diagnostics;
+    }
+    
+    /**
+     * Analyzes the trees of every file of a compilation.
+     * 
+     * @param trees The trees of the files.
+     * @return What was learnt about them.
+     * @throws InterruptedException If interrupted while waiting for a phase.
+     */
+    public Analysis analyze (List<SearchTree> trees) throws InterruptedException {
+        return analyze(trees, Collections.<SearchTree>emptyList());
+    }
+    
+    /**
+     * Analyzes the trees of every file of a compilation, against the
+     * declarations of some libraries. The trees of the libraries, read from
+     * their {@code InterfaceSummary}, are declared but not resolved.
+     * 
+     * @param trees The trees of the files.
+     * @param libraries The trees of the libraries used.
+     * @return What was learnt about the files.
+     * @throws InterruptedException If interrupted while waiting for a phase.
+     */
+    public Analysis analyze (List<SearchTree> trees, List<SearchTree> libraries) throws InterruptedException {
+        final SymbolTable table = new SymbolTable(names);
+        final List<Callable<Boolean>> declare = new ArrayList<>(trees.size() + libraries.size());
+        
+        for (SearchTree tree : libraries) { declare.add(() -> { table.declareAll(tree); return true; }); }
+        for (SearchTree tree : trees) { declare.add(() -> { table.declareAll(tree); return true; }); }
+        
+        int errors = 0;
+        
+        for (Future<Boolean> declared : pool.invokeAll(declare)) {
+            if (join(declared) == null) { errors++; }
+        }
+        
+        final SymbolTable.Snapshot symbols = table.freeze();
+        
+        // Reported in the order of the sources rather than as the tasks met
+        // them, so that the same sources always give the same messages.
+        List<Declaration> clashes = table.clashes();
+        
+        for (int i = 0; i < clashes.size(); i += 2) {
+            Declaration refused = clashes.get(i);
+            Declaration kept = clashes.get(i + 1);
+            
+            diagnostics.errorAt(Diagnostic.Code.DUPLICATE_DECLARATION,
+                    refused.tree().tokenOf(refused.node()),
+                    "\"" + names.name(refused.name()) + "\" is already declared in "
+                    + kept.tree().file().getPath() + ".");
+            errors++;
+        }
+        
+        final List<Callable<Attributes>> resolve = new ArrayList<>(trees.size() + libraries.size());
+        final Diagnostics quiet = new Diagnostics();
+        
+        // The libraries were checked when they were compiled, so only the
+        // signatures of their types are needed, and nothing is reported.
+        for (SearchTree tree : libraries) { resolve.add(() -> new Resolver(tree, symbols, quiet).signatures()); }
+        
+        for (SearchTree tree : trees) {
+            resolve.add(() -> {
+                try {
+                    return new Resolver(tree, symbols, diagnostics).resolve();
+                } finally {
+                    // Hand over the diagnostics of the file together.
+                    diagnostics.flush();
+                }
+            });
+        }
+        
+        List<Attributes> signatures = new ArrayList<>(libraries.size());
+        List<Attributes> attributes = new ArrayList<>(trees.size());
+        
+        for (Future<Attributes> resolved : pool.invokeAll(resolve)) {
+            Attributes found = join(resolved);
+            
+            if (signatures.size() < libraries.size()) { signatures.add(found); continue; }
+            
+            if (found == null) { errors++; }
+            else { errors += found.errors(); }
+            
+            attributes.add(found);
+        }
+        
+        diagnostics.flush();
+        return new Analysis(symbols, trees, attributes, signatures, errors);
+    }
+    
+    /**
+     * @return The result of a finished task, or {@code null} if it failed.
+     */
+    private static <T> T join (Future<T> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException ex) {
+            Logger.getLogger(SemanticAnalyzer.class.getName()).log(Level.SEVERE, null, ex.getCause());
+            return null;
+        }
+    }
+}
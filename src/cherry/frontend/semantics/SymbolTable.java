@@ -0,0 +1,337 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 SoraKatadzuma.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package cherry.frontend.semantics;
+
+import cherry.frontend.grammar.Token;
+import cherry.utils.SearchTree;
+import cherry.utils.SymbolPool;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@code SymbolTable} holds every namespace, and every class, enum,
+ * interface and struct, declared across all the files of a compilation. In
+ * the first phase of semantic analysis every file publishes its declarations
+ * into the same table, from its own task.
+ * <p>
+ * Declarations are scoped by their namespace and keyed by the pair of name
+ * ids, the namespace's and their own. While files are being declared the table
+ * is split into stripes by key, each guarded by its own lock, so that the
+ * tasks rarely contend with each other. Once every file has been declared the
+ * table is frozen into a {@code Snapshot}: a single open addressing table
+ * that is never changed again, so every later process can read it from any
+ * thread without locking, and look names up without allocating.
+ * </p>
+ * <p>
+ * Namespaces live in a scope of their own, {@code NAMESPACES}, and types
+ * declared outside of any namespace live in the scope {@code GLOBAL}.
+ * </p>
+ * <p>
+ * When two types of one scope share a name, the one that comes first in the
+ * sources, by file and then by position, is kept and the other is refused.
+ * Which of them was declared first depends on how the tasks were scheduled,
+ * so that is never what decides.
+ * </p>
+ * 
+ * @author SoraKatadzuma
+ * @version Alpha 0.0.1
+ * @since 10/18/2026
+ */
+public final class SymbolTable {
+    /** The scope of the declarations made outside of any namespace. */
+    public static final int GLOBAL = Token.NO_SYMBOL;
+    /** The scope the namespaces themselves are declared in. */
+    public static final int NAMESPACES = -2;
+    
+    /** The number of stripes, a power of two. */
+    private static final int STRIPES = 16;
+    
+    /** The stripes of declarations, by key. */
+    private final List<Map<Long, Declaration>> stripes = new ArrayList<>(STRIPES);
+    /** The types refused for a name their scope already declares. */
+    private final List<Declaration> refused = new ArrayList<>(0);
+    /** The frozen table, once there is one. */
+    private volatile Snapshot snapshot;
+    /** The pool of the compilation, where the names declared are. */
+    private final SymbolPool names;
+    
+    /** Orders declarations of types by where they are in the sources. */
+    private static final Comparator<Declaration> BY_PLACE = (a, b) -> {
+        int byFile = a.tree().file().getPath().compareTo(b.tree().file().getPath());
+        
+        return byFile != 0 ? byFile : Integer.compare(a.tree().token(a.node()), b.tree().token(b.node()));
+    };
+    
+    /**
+     * Constructs a new empty table.
+     * 
+     * @param names The pool of the compilation, where the names declared are.
+     */
+    public SymbolTable (SymbolPool names) {
+        this.names = names;
+        
+        for (int i = 0; i < STRIPES; i++) { stripes.add(new HashMap<>()); }
+    }
+    
+    /**
+     * @param scope The name id of a namespace, or one of the two special scopes.
+     * @param name The name id of a declaration.
+     * @return The key of the declaration.
+     */
+    public static long key (int scope, int name) {
+        return ((long) scope << 32) | (name & 0xFFFFFFFFL);
+    }
+    
+    /**
+     * Spreads the bits of a key, so that both halves choose its stripe and slot.
+     */
+    private static int hash (long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        
+        return (int) (hash ^ (hash >>> 32));
+    }
+    
+    /**
+     * Declares a name. A namespace may be declared any number of times. A type
+     * whose scope already declares one of the same name clashes with it, and
+     * whichever of the two comes later in the sources is refused.
+     * 
+     * @param declaration The declaration to make.
+     * @return true if the scope did not declare the name yet.
+     * @throws IllegalStateException If the table has been frozen.
+     */
+    public boolean declare (Declaration declaration) {
+        if (snapshot != null) { throw new IllegalStateException("The symbol table is frozen."); }
+        
+        long key = key(declaration.scope(), declaration.name());
+        Map<Long, Declaration> stripe = stripes.get(hash(key) & (STRIPES - 1));
+        Declaration later;
+        
+        synchronized (stripe) {
+            Declaration existing = stripe.get(key);
+            
+            if (existing == null) {
+                stripe.put(key, declaration);
+                return true;
+            }
+            
+            if (declaration.kind() == SearchTree.Kind.NAMESPACE) { return false; }
+            
+            later = declaration;
+            
+            if (BY_PLACE.compare(declaration, existing) < 0) {
+                stripe.put(key, declaration);
+                later = existing;
+            }
+        }
+        
+        synchronized (refused) { refused.add(later); }
+        
+        return false;
+    }
+    
+    /**
+     * Publishes the declarations of a whole tree: its namespace, and the types
+     * declared in it. Nested types are declared under their dotted name, such
+     * as "Outer.Inner". Clashes are only known once every tree is published,
+     * and are answered by {@code clashes()}.
+     * 
+     * @param tree The tree of a file.
+     */
+    public void declareAll (SearchTree tree) {
+        int scope = GLOBAL;
+        
+        for (int node = tree.firstChild(tree.root()); node != SearchTree.NONE; node = tree.nextSibling(node)) {
+            if (tree.kind(node) == SearchTree.Kind.NAMESPACE) {
+                scope = tree.name(node);
+                
+                // A namespace may be declared by any number of files.
+                declare(new Declaration(SearchTree.Kind.NAMESPACE, NAMESPACES, scope, null, node, names));
+            } else if (tree.kind(node).isType()) {
+                declareType(tree, node, scope, null);
+            }
+        }
+    }
+    
+    /**
+     * Declares a type and the types nested inside of it.
+     */
+    private void declareType (SearchTree tree, int node, int scope, String outer) {
+        if (tree.name(node) == Token.NO_SYMBOL) { return; }
+        
+        String simple = names.name(tree.name(node));
+        String qualified = outer == null ? simple : outer + '.' + simple;
+        int name = outer == null ? tree.name(node) : names.intern(qualified);
+        
+        declare(new Declaration(tree.kind(node), scope, name, tree, node, names));
+        
+        for (int child = tree.firstChild(node); child != SearchTree.NONE; child = tree.nextSibling(child)) {
+            if (tree.kind(child).isType()) { declareType(tree, child, scope, qualified); }
+        }
+    }
+    
+    /**
+     * Freezes the table. Nothing may be declared after this, and every call
+     * answers the same snapshot.
+     * 
+     * @return The frozen table.
+     */
+    public synchronized Snapshot freeze () {
+        if (snapshot != null) { return snapshot; }
+        
+        List<Declaration> all = new ArrayList<>();
+        
+        for (Map<Long, Declaration> stripe : stripes) {
+            synchronized (stripe) { all.addAll(stripe.values()); }
+        }
+        
+        snapshot = new Snapshot(all, names);
+        return snapshot;
+    }
+    
+    /**
+     * Answers the types that were refused, each beside the one that was kept
+     * for its name, ordered by where the refused ones are in the sources.
+     * 
+     * @return The clashes, in pairs of the declaration refused followed by the
+     *      one kept.
+     * @throws IllegalStateException If the table has not been frozen yet.
+     */
+    public List<Declaration> clashes () {
+        if (snapshot == null) { throw new IllegalStateException("The symbol table is not frozen yet."); }
+        
+        List<Declaration> later;
+        
+        synchronized (refused) { later = new ArrayList<>(refused); }
+        
+        later.sort(BY_PLACE);
+        
+        List<Declaration> clashes = new ArrayList<>(later.size() * 2);
+        
+        for (Declaration declaration : later) {
+            clashes.add(declaration);
+            clashes.add(snapshot.lookup(declaration.scope(), declaration.name()));
+        }
+        
+        return clashes;
+    }
+    
+    /**
+     * A {@code Snapshot} is a frozen {@code SymbolTable}. It is an open
+     * addressing table of keys and declarations, filled once and only read
+     * after that.
+     */
+    public static final class Snapshot {
+        /** The keys of each slot. */
+        private final long[] keys;
+        /** The declarations of each slot, {@code null} for an empty slot. */
+        private final Declaration[] values;
+        /** Every declaration, in a stable order. */
+        private final Declaration[] declarations;
+        /** The pool of the compilation, where the names declared are. */
+        private final SymbolPool names;
+        
+        /**
+         * @param all Every declaration of the table.
+         * @param names The pool of the compilation, where the names declared are.
+         */
+        private Snapshot (List<Declaration> all, SymbolPool names) {
+            this.names = names;
+            
+            int capacity = Integer.highestOneBit(Math.max(8, all.size() * 2 - 1)) << 1;
+            keys = new long[capacity];
+            values = new Declaration[capacity];
+            declarations = all.toArray(new Declaration[0]);
+            
+            // Order by qualified name, so that whoever goes through every
+            // declaration does so in the same order on every run. A namespace
+            // and a global type may share a name, so the two special scopes,
+            // whose ids never change, break that tie.
+            Arrays.sort(declarations, (a, b) -> {
+                int byScope = scopeName(names, a.scope()).compareTo(scopeName(names, b.scope()));
+                
+                if (byScope != 0) { return byScope; }
+                
+                int byName = names.name(a.name()).compareTo(names.name(b.name()));
+                
+                return byName != 0 ? byName : Integer.compare(a.scope(), b.scope());
+            });
+            
+            for (Declaration declaration : declarations) {
+                long key = key(declaration.scope(), declaration.name());
+                int slot = hash(key) & (capacity - 1);
+                
+                while (values[slot] != null) { slot = (slot + 1) & (capacity - 1); }
+                
+                keys[slot] = key;
+                values[slot] = declaration;
+            }
+        }
+        
+        private static String scopeName (SymbolPool names, int scope) {
+            return scope < 0 ? "" : names.name(scope);
+        }
+        
+        /**
+         * @param scope The name id of a namespace, or one of the two special scopes.
+         * @param name The name id of a declaration.
+         * @return The declaration, or {@code null} if there is none.
+         */
+        public Declaration lookup (int scope, int name) {
+            long key = key(scope, name);
+            int mask = keys.length - 1;
+            
+            for (int slot = hash(key) & mask; values[slot] != null; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) { return values[slot]; }
+            }
+            
+            return null;
+        }
+        
+        /**
+         * @param name The name id of a namespace.
+         * @return true if some file declares that namespace.
+         */
+        public boolean isNamespace (int name) { return lookup(NAMESPACES, name) != null; }
+        
+        /**
+         * @return Every declaration, ordered by namespace and then by name.
+         */
+        public Declaration[] declarations () { return declarations.clone(); }
+        
+        /**
+         * @return The number of declarations.
+         */
+        public int size () { return declarations.length; }
+        
+        /**
+         * @return The pool of the compilation, where the names declared are.
+         */
+        public SymbolPool names () { return names; }
+    }
+}
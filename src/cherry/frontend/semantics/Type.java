@@ -0,0 +1,247 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 SoraKatadzuma.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package cherry.frontend.semantics;
+
+import cherry.frontend.grammar.Token;
+import cherry.utils.SymbolPool;
+
+/**
+ * A {@code Type} is what semantic analysis finds an expression, a variable or
+ * a method to be. Primitive types are shared constants; object types refer to
+ * the {@code Declaration} of their class, enum, interface or struct; array
+ * types refer to the type of their elements.
+ * <p>
+ * Two kinds of type stand for names rather than values: {@code TYPE}, the
+ * type of a name that refers to a declared type (as in a static access such
+ * as {@code Example.square(2)}), and {@code NAMESPACE}, the type of a name
+ * that refers to a namespace. The {@code ERROR} type is given to whatever
+ * could not be analyzed, and is compatible with everything, so that one
+ * mistake is reported once rather than once for every use.
+ * </p>
+ * 
+ * @author SoraKatadzuma
+ * @version Alpha 0.0.1
+ * @since 10/18/2026
+ */
+public final class Type {
+    /**
+     * The kinds of types, with the primitive numeric kinds in order of
+     * widening.
+     */
+    public enum Kind {
+        ERROR, VOID, BOOL, BYTE, SHORT, CHAR, INT, LONG, FLOAT, DOUBLE, STRING,
+        OBJECT, ARRAY, TYPE, NAMESPACE
+    }
+    
+    public static final Type ERROR = new Type(Kind.ERROR, null, null, Token.NO_SYMBOL);
+    public static final Type VOID = new Type(Kind.VOID, null, null, Token.NO_SYMBOL);
+    public static final Type BOOL = new Type(Kind.BOOL, null, null, Token.NO_SYMBOL);
+    public static final Type BYTE = new Type(Kind.BYTE, null, null, Token.NO_SYMBOL);
+    public static final Type SHORT = new Type(Kind.SHORT, null, null, Token.NO_SYMBOL);
+    public static final Type CHAR = new Type(Kind.CHAR, null, null, Token.NO_SYMBOL);
+    public static final Type INT = new Type(Kind.INT, null, null, Token.NO_SYMBOL);
+    public static final Type LONG = new Type(Kind.LONG, null, null, Token.NO_SYMBOL);
+    public static final Type FLOAT = new Type(Kind.FLOAT, null, null, Token.NO_SYMBOL);
+    public static final Type DOUBLE = new Type(Kind.DOUBLE, null, null, Token.NO_SYMBOL);
+    public static final Type STRING = new Type(Kind.STRING, null, null, Token.NO_SYMBOL);
+    
+    /** The kind of this type. */
+    private final Kind kind;
+    /** The declaration of an object or type reference. */
+    private final Declaration declaration;
+    /** The type of the elements of an array. */
+    private final Type element;
+    /** The name id of a namespace reference. */
+    private final int name;
+    /** The pool the name of a namespace reference is in. */
+    private final SymbolPool names;
+    
+    private Type (Kind kind, Declaration declaration, Type element, int name) {
+        this(kind, declaration, element, name, null);
+    }
+    
+    private Type (Kind kind, Declaration declaration, Type element, int name, SymbolPool names) {
+        this.kind = kind;   this.declaration = declaration;
+        this.element = element; this.name = name;   this.names = names;
+    }
+    
+    /**
+     * @param declaration The declaration of a type.
+     * @return The type of the values of that declaration.
+     */
+    public static Type objectOf (Declaration declaration) {
+        return new Type(Kind.OBJECT, declaration, null, Token.NO_SYMBOL);
+    }
+    
+    /**
+     * @param declaration The declaration of a type.
+     * @return The type of a name referring to that declaration.
+     */
+    public static Type referenceTo (Declaration declaration) {
+        return new Type(Kind.TYPE, declaration, null, Token.NO_SYMBOL);
+    }
+    
+    /**
+     * @param name The name id of a namespace.
+     * @param names The pool the name is in.
+     * @return The type of a name referring to that namespace.
+     */
+    public static Type namespace (int name, SymbolPool names) {
+        return new Type(Kind.NAMESPACE, null, null, name, names);
+    }
+    
+    /**
+     * @param element The type of the elements.
+     * @return The type of an array of those elements.
+     */
+    public static Type arrayOf (Type element) {
+        return element == ERROR ? ERROR : new Type(Kind.ARRAY, null, element, Token.NO_SYMBOL);
+    }
+    
+    /**
+     * @param keyword A data type keyword.
+     * @return The primitive type of the keyword, or {@code null} if it has none.
+     */
+    public static Type of (Token.Type keyword) {
+        switch (keyword) {
+            case BOOL:      return BOOL;
+            case BYTE:      return BYTE;
+            case CHAR:      return CHAR;
+            case DOUBLE:    return DOUBLE;
+            case FLOAT:     return FLOAT;
+            case INT:       return INT;
+            case LONG:      return LONG;
+            case SHORT:     return SHORT;
+            case STRING:    return STRING;
+            case VOID:      return VOID;
+            default:        return null;
+        }
+    }
+    
+    public Kind kind () { return kind; }
+    
+    public Declaration declaration () { return declaration; }
+    
+    public Type element () { return element; }
+    
+    public int name () { return name; }
+    
+    public boolean isError () { return kind == Kind.ERROR; }
+    
+    /**
+     * @return true for the primitive numbers, characters included.
+     */
+    public boolean isNumeric () { return kind.ordinal() >= Kind.BYTE.ordinal() && kind.ordinal() <= Kind.DOUBLE.ordinal(); }
+    
+    /**
+     * @return true for the primitive whole numbers, characters included.
+     */
+    public boolean isIntegral () { return kind.ordinal() >= Kind.BYTE.ordinal() && kind.ordinal() <= Kind.LONG.ordinal(); }
+    
+    /**
+     * @return true for anything a variable may hold.
+     */
+    public boolean isValue () { return kind != Kind.VOID && kind != Kind.TYPE && kind != Kind.NAMESPACE; }
+    
+    /**
+     * @return true for the types whose values are references.
+     */
+    public boolean isReference () { return kind == Kind.STRING || kind == Kind.OBJECT || kind == Kind.ARRAY; }
+    
+    /**
+     * Tells whether a value of another type may be assigned to a variable of
+     * this type without a cast. Numbers widen, characters widen to int and
+     * beyond, and anything may be assigned to or from the error type.
+     * 
+     * @param other The type of the value.
+     * @return true if the assignment is allowed.
+     */
+    public boolean accepts (Type other) {
+        if (isError() || other.isError() || equals(other)) { return true; }
+        if (!isNumeric() || !other.isNumeric()) { return false; }
+        if (kind == Kind.CHAR) { return false; }
+        if (other.kind == Kind.CHAR) { return kind.ordinal() >= Kind.INT.ordinal(); }
+        if (kind == Kind.SHORT && other.kind == Kind.BYTE) { return true; }
+        
+        return kind.ordinal() >= Kind.INT.ordinal() && kind.ordinal() >= other.kind.ordinal();
+    }
+    
+    /**
+     * Finds the type two numbers are promoted to before an arithmetic
+     * operation: int at the least, or the wider of the two.
+     * 
+     * @param a The type of one operand.
+     * @param b The type of the other operand.
+     * @return The promoted type.
+     */
+    public static Type promote (Type a, Type b) {
+        if (a.isError() || b.isError()) { return ERROR; }
+        
+        Kind wider = a.kind.ordinal() > b.kind.ordinal() ? a.kind : b.kind;
+        
+        switch (wider) {
+            case DOUBLE:    return DOUBLE;
+            case FLOAT:     return FLOAT;
+            case LONG:      return LONG;
+            default:        return INT;
+        }
+    }
+    
+    @Override
+    public boolean equals (Object other) {
+        if (this == other) { return true; }
+        if (!(other instanceof Type)) { return false; }
+        
+        Type type = (Type) other;
+        
+        if (kind != type.kind) { return false; }
+        
+        switch (kind) {
+            case OBJECT: case TYPE: return declaration == type.declaration;
+            case ARRAY:             return element.equals(type.element);
+            case NAMESPACE:         return name == type.name;
+            default:                return true;
+        }
+    }
+    
+    @Override
+    public int hashCode () {
+        switch (kind) {
+            case OBJECT: case TYPE: return kind.hashCode() * 31 + System.identityHashCode(declaration);
+            case ARRAY:             return element.hashCode() * 31 + 1;
+            case NAMESPACE:         return name;
+            default:                return kind.hashCode();
+        }
+    }
+    
+    @Override
+    public String toString () {
+        switch (kind) {
+            case OBJECT: case TYPE: return declaration.qualifiedName();
+            case ARRAY:             return element + "[]";
+            case NAMESPACE:         return names.name(name);
+            default:                return kind.name().toLowerCase();
+        }
+    }
+}
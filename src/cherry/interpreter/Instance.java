@@ -0,0 +1,68 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 SoraKatadzuma.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package cherry.interpreter;
+
+import cherry.backend.Generator;
+
+/**
+ * An {@code Instance} is an object of a program being run: the shape of its
+ * class, and the values of its fields, in the slots the shape gives them.
+ * 
+ * @author SoraKatadzuma
+ * @version Alpha 0.0.1
+ * @since 10/18/2026
+ */
+final class Instance {
+    /** The class of the object. */
+    final Shape shape;
+    /** The values of the fields, those of the superclasses first. */
+    final Object[] fields;
+    /** The name of the object if it is a constant of an enum, or else {@code null}. */
+    final String constant;
+    
+    /**
+     * Constructs a new Instance, with the fields of its class at their
+     * default values.
+     * 
+     * @param shape The class of the object.
+     * @param constant The name of the constant of an enum, or {@code null}.
+     */
+    Instance (Shape shape, String constant) {
+        this.shape = shape;
+        this.fields = shape.defaults().clone();
+        this.constant = constant;
+    }
+    
+    /**
+     * @return The object as the JVM prints it: the name of an enum constant,
+     *      or else the name of the class and the hash of the object.
+     */
+    @Override
+    public String toString () {
+        if (constant != null) { return constant; }
+        
+        return Generator.internalName(shape.declaration()).replace('/', '.')
+                + '@' + Integer.toHexString(System.identityHashCode(this));
+    }
+}
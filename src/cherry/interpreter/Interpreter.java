@@ -0,0 +1,221 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 SoraKatadzuma.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package cherry.interpreter;
+
+import cherry.frontend.semantics.Analysis;
+import cherry.frontend.semantics.Builtins;
+import cherry.frontend.semantics.Declaration;
+import cherry.frontend.semantics.Member;
+import cherry.frontend.semantics.Type;
+import cherry.middleend.PassManager;
+import cherry.utils.Diagnostic;
+import cherry.utils.Diagnostics;
+import cherry.utils.SearchTree;
+import java.io.PrintStream;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * The {@code Interpreter} runs a program straight from its analysis, without
+ * generating a class for it, for a script or test that takes less time to
+ * run than a class would take to generate and load. Each method is lowered to
+ * SSA form and optimized by the passes of the compilation, as for a class,
+ * and then translated into the closures of a {@code Routine}, but only once
+ * it is first called.
+ * <p>
+ * The program starts from the first static main of the trees, in the order
+ * they were analyzed, which may take nothing or an array of strings. What the
+ * JVM would have thrown for the program stops it, and is reported where it
+ * happened, as a {@code RUNTIME} diagnostic.
+ * </p>
+ * 
+ * @author SoraKatadzuma
+ * @version Alpha 0.0.1
+ * @since 10/18/2026
+ */
+public final class Interpreter {
+    /** The analysis of the program. */
+    private final Analysis analysis;
+    /** Where problems are reported. */
+    private final Diagnostics diagnostics;
+    /** The passes each method is optimized by. */
+    private final PassManager passes;
+    /** Where the program prints. */
+    private final PrintStream out;
+    /** Translates the routines of the program. */
+    private final Translator translator;
+    /** The shape of each type used, made once first used. */
+    private final Map<Declaration, Shape> shapes = new IdentityHashMap<>();
+    
+    /**
+     * Constructs a new Interpreter.
+     * 
+     * @param analysis The analysis of the program, without errors.
+     * @param diagnostics Where problems are reported.
+     * @param passes The passes each method is optimized by.
+     * @param out Where the program prints.
+     */
+    public Interpreter (Analysis analysis, Diagnostics diagnostics, PassManager passes, PrintStream out) {
+        this.analysis = analysis;
+        this.diagnostics = diagnostics;
+        this.passes = passes;
+        this.out = out;
+        this.translator = new Translator(this);
+    }
+    
+    /**
+     * Runs the program, from its first static main.
+     * 
+     * @return true if it ran to the end; if it did not, why was reported.
+     */
+    public boolean run () {
+        Member main = entryPoint();
+        
+        if (main == null) {
+            diagnostics.error(Diagnostic.Code.RUNTIME, null, "There is no static main to run.");
+            return false;
+        }
+        
+        try {
+            Shape shape = shapeOf(main.owner());
+            
+            shape.initialize();
+            
+            if (main.arity() == 0) { shape.routineOf(main).invoke(); }
+            else { shape.routineOf(main).invoke((Object) new String[0]); }
+            
+            return true;
+        } catch (Trap trap) {
+            // A trap without a message was reported where it was made.
+            if (trap.getMessage() != null) { diagnostics.error(Diagnostic.Code.RUNTIME, trap.fileName(), trap.getMessage()); }
+            
+            return false;
+        } catch (StackOverflowError error) {
+            diagnostics.error(Diagnostic.Code.RUNTIME, null, "The program ran out of stack, calling too deep.");
+            return false;
+        } finally {
+            out.flush();
+        }
+    }
+    
+    /**
+     * @return The static main the program starts from: that of the first
+     *      type, in the order of the trees and then of the types in each,
+     *      with one that takes nothing or an array of strings.
+     */
+    private Member entryPoint () {
+        Member found = null;
+        int foundTree = Integer.MAX_VALUE;
+        
+        for (Declaration declaration : analysis.symbols().declarations()) {
+            Member[] mains = declaration.kind().isType() ? declaration.members(Builtins.MAIN) : null;
+            int tree = analysis.trees().indexOf(declaration.tree());
+            
+            if (mains == null || tree < 0 || analysis.attributesOf(declaration.tree()) == null) { continue; }
+            
+            for (Member main : mains) {
+                if (!isMain(main)) { continue; }
+                
+                if (tree < foundTree || tree == foundTree && main.node() < found.node()) {
+                    found = main;
+                    foundTree = tree;
+                }
+            }
+        }
+        
+        return found;
+    }
+    
+    private boolean isMain (Member main) {
+        if (main.kind() != Member.Kind.METHOD || !main.isStatic()
+                || Shape.bodyOf(main.tree(), main.node()) == SearchTree.NONE) {
+            return false;
+        }
+        
+        Type[] parameters = analysis.parametersOf(main);
+        
+        return parameters.length == 0 || parameters.length == 1 && parameters[0].equals(Type.arrayOf(Type.STRING));
+    }
+    
+    /* ---------------------------------------------------------------------- */
+    /* For the parts of the interpreter.                                      */
+    /* ---------------------------------------------------------------------- */
+    
+    /**
+     * @param declaration A type of the program.
+     * @return The shape of the type, made the first time it is asked for.
+     */
+    Shape shapeOf (Declaration declaration) {
+        Shape shape = shapes.get(declaration);
+        
+        if (shape == null) {
+            shape = new Shape(this, declaration);
+            shapes.put(declaration, shape);
+        }
+        
+        return shape;
+    }
+    
+    /**
+     * Makes what the JVM threw for a program into a trap, telling where.
+     * 
+     * @param routine The routine it was thrown in.
+     * @param ex What was thrown.
+     * @param line The line of the instruction it was thrown by.
+     * @return The trap.
+     */
+    Trap trap (Routine routine, RuntimeException ex, int line) {
+        String what;
+        
+        if (ex instanceof ArithmeticException) {
+            what = "a whole number was divided by zero";
+        } else if (ex instanceof ArrayIndexOutOfBoundsException) {
+            what = "an index was out of the bounds of its array";
+        } else if (ex instanceof NegativeArraySizeException) {
+            what = "an array was given a negative length";
+        } else if (ex instanceof NullPointerException) {
+            what = "null was used as an object or array";
+        } else {
+            what = ex.getMessage();
+        }
+        
+        return new Trap(routine.owner().declaration().tree().file().getPath(),
+                "\"" + routine.name() + "\" stopped on line " + line + ": " + what + ".");
+    }
+    
+    /**
+     * @return The name of a member.
+     */
+    String nameOf (Member member) { return member.spelling(); }
+    
+    Analysis analysis () { return analysis; }
+    
+    Diagnostics diagnostics () { return diagnostics; }
+    
+    PassManager passes () { return passes; }
+    
+    PrintStream out () { return out; }
+    
+    Translator translator () { return translator; }
+}
@@ -0,0 +1,245 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 SoraKatadzuma.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package cherry.interpreter;
+
+import cherry.frontend.semantics.Member;
+
+/**
+ * A {@code Routine} is a method, or the field initializers of a type, as the
+ * interpreter runs it: the SSA form of its function, translated into closures
+ * that each compute one instruction from the registers of a call, and leave
+ * the value in the register of the instruction. Constants are in their
+ * registers from the start, so every operand is read from a register.
+ * <p>
+ * A routine is only lowered and translated the first time it is called, so
+ * that a program starts running as soon as its first method is ready, and
+ * the methods it never calls cost nothing.
+ * </p>
+ * 
+ * @author SoraKatadzuma
+ * @version Alpha 0.0.1
+ * @since 10/18/2026
+ */
+final class Routine {
+    /** Computes an instruction from the registers of a call. */
+    interface Node {
+        /**
+         * @param registers The registers of the call.
+         * @return The value of the instruction, or {@code null} if it has none.
+         */
+        Object eval (Object[] registers);
+    }
+    
+    /** Decides which way a branch goes, from the registers of a call. */
+    interface Test {
+        /**
+         * @param registers The registers of the call.
+         * @return true to go to the first target of the branch.
+         */
+        boolean test (Object[] registers);
+    }
+    
+    /**
+     * A {@code Segment} is a block, translated: the closures of its
+     * instructions, the registers their values go to, and where it goes next.
+     */
+    static final class Segment {
+        /** The closures of the instructions, in order. */
+        Node[] nodes;
+        /** The register of each value, or -1 for an instruction without one. */
+        int[] results;
+        /** The line of each instruction, and then of the terminator. */
+        int[] lines;
+        /** What decides a branch, {@code null} for a jump or return. */
+        Test condition;
+        /** Where the block goes: one edge for a jump, two for a branch, none for a return. */
+        Edge[] edges;
+        /** The register of the value returned, or -1. */
+        int returned = -1;
+    }
+    
+    /**
+     * An {@code Edge} goes from one segment to another, moving the values the
+     * phis of the target pick for it into their registers on the way.
+     */
+    static final class Edge {
+        /** Where the edge goes. */
+        final Segment target;
+        /** The registers of the phis of the target. */
+        final int[] to;
+        /** The registers of the values they pick. */
+        final int[] from;
+        /** Where the values are held while moved, if a phi picks another. */
+        final Object[] held;
+        
+        Edge (Segment target, int[] to, int[] from, boolean parallel) {
+            this.target = target;
+            this.to = to;
+            this.from = from;
+            this.held = parallel ? new Object[to.length] : null;
+        }
+        
+        /**
+         * Moves the values picked by the phis of the target into their
+         * registers, all at once.
+         */
+        void take (Object[] registers) {
+            if (held == null) {
+                for (int i = 0; i < to.length; i++) { registers[to[i]] = registers[from[i]]; }
+                return;
+            }
+            
+            for (int i = 0; i < to.length; i++) { held[i] = registers[from[i]]; }
+            for (int i = 0; i < to.length; i++) { registers[to[i]] = held[i]; }
+        }
+    }
+    
+    /** The type the routine belongs to. */
+    private final Shape owner;
+    /** The method, or {@code null} for the field initializers. */
+    private final Member method;
+    /** Whether the routine is static, or has a receiver. */
+    private final boolean isStatic;
+    
+    /** The registers a call starts with: the constants, and nothing else. */
+    private Object[] template;
+    /** The registers of the parameters, the receiver first. */
+    private int[] parameters;
+    /** The segment of the entry block, {@code null} until translated. */
+    private Segment entry;
+    
+    /**
+     * Constructs a new Routine, translated once first called.
+     * 
+     * @param owner The type the routine belongs to.
+     * @param method The method, or {@code null} for the field initializers.
+     * @param isStatic Whether the routine is static, or has a receiver.
+     */
+    Routine (Shape owner, Member method, boolean isStatic) {
+        this.owner = owner;
+        this.method = method;
+        this.isStatic = isStatic;
+    }
+    
+    /**
+     * @return The type the routine belongs to.
+     */
+    Shape owner () { return owner; }
+    
+    /**
+     * @return The method, or {@code null} for the field initializers.
+     */
+    Member method () { return method; }
+    
+    /**
+     * @return Whether the routine is static, or has a receiver.
+     */
+    boolean isStatic () { return isStatic; }
+    
+    /**
+     * Gives the routine what it was translated into.
+     */
+    void define (Object[] template, int[] parameters, Segment entry) {
+        this.template = template;
+        this.parameters = parameters;
+        this.entry = entry;
+    }
+    
+    /**
+     * @return The name of the routine, as in "Demo.Main.fib".
+     */
+    String name () {
+        String name = method == null ? isStatic ? "<clinit>" : "<init>" : owner.interpreter().nameOf(method);
+        
+        return owner.declaration().qualifiedName() + '.' + name;
+    }
+    
+    /* ---------------------------------------------------------------------- */
+    /* Running.                                                               */
+    /* ---------------------------------------------------------------------- */
+    
+    /**
+     * Calls the routine.
+     * 
+     * @param arguments The receiver, if it has one, then the arguments.
+     * @return The value returned, or {@code null} if there is none.
+     */
+    Object invoke (Object... arguments) {
+        if (entry == null) { owner.interpreter().translator().translate(this); }
+        
+        Object[] registers = template.clone();
+        
+        for (int i = 0; i < parameters.length; i++) { registers[parameters[i]] = arguments[i]; }
+        
+        return execute(registers);
+    }
+    
+    /**
+     * Calls the routine with arguments from the registers of another call,
+     * without gathering them first.
+     * 
+     * @param caller The registers of the call calling.
+     * @param operands The registers of the receiver and arguments.
+     * @return The value returned, or {@code null} if there is none.
+     */
+    Object call (Object[] caller, int[] operands) {
+        if (entry == null) { owner.interpreter().translator().translate(this); }
+        
+        Object[] registers = template.clone();
+        
+        for (int i = 0; i < parameters.length; i++) { registers[parameters[i]] = caller[operands[i]]; }
+        
+        return execute(registers);
+    }
+    
+    private Object execute (Object[] registers) {
+        Segment segment = entry;
+        int at = 0;
+        
+        try {
+            for (;;) {
+                Node[] nodes = segment.nodes;
+                int[] results = segment.results;
+                
+                for (at = 0; at < nodes.length; at++) {
+                    Object value = nodes[at].eval(registers);
+                    
+                    if (results[at] >= 0) { registers[results[at]] = value; }
+                }
+                
+                if (segment.edges.length == 0) { return segment.returned < 0 ? null : registers[segment.returned]; }
+                
+                Edge edge = segment.edges[segment.condition == null || segment.condition.test(registers) ? 0 : 1];
+                
+                edge.take(registers);
+                segment = edge.target;
+            }
+        } catch (Trap trap) {
+            throw trap;
+        } catch (RuntimeException ex) {
+            // What the JVM throws for a program is reported where it was thrown.
+            throw owner.interpreter().trap(this, ex, segment.lines[at]);
+        }
+    }
+}
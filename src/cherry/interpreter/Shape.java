@@ -0,0 +1,372 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 SoraKatadzuma.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package cherry.interpreter;
+
+import cherry.frontend.semantics.Analysis;
+import cherry.frontend.semantics.Attributes;
+import cherry.frontend.semantics.Declaration;
+import cherry.frontend.semantics.Member;
+import cherry.frontend.semantics.Type;
+import cherry.middleend.Function;
+import cherry.middleend.Lowering;
+import cherry.utils.Diagnostics;
+import cherry.utils.SearchTree;
+import cherry.utils.SearchTree.Kind;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@code Shape} is a class, enum or interface of a program being run: where
+ * each of its fields is kept, the values of its static fields, and the
+ * routines of its methods. The instance fields of a class come after those of
+ * its superclass, so a field is in the same slot of every object that has it,
+ * whatever its class.
+ * <p>
+ * A shape is initialized the first time it is used, as the JVM initializes a
+ * class: its superclass first, then its enum constants, then its static
+ * fields. Its methods are only lowered and translated once called.
+ * </p>
+ * 
+ * @author SoraKatadzuma
+ * @version Alpha 0.0.1
+ * @since 10/18/2026
+ */
+final class Shape {
+    /** The shape has not been initialized. */
+    private static final int UNINITIALIZED = 0;
+    /** The shape is being initialized, which lets it be used meanwhile. */
+    private static final int INITIALIZING = 1;
+    /** The shape has been initialized. */
+    private static final int INITIALIZED = 2;
+    
+    /** The interpreter running the program. */
+    private final Interpreter interpreter;
+    /** The type. */
+    private final Declaration declaration;
+    /** The shape of the superclass, or {@code null}. */
+    private final Shape parent;
+    /** The shapes of the interfaces inherited directly. */
+    private final List<Shape> interfaces = new ArrayList<>();
+    /** The slot of each instance field declared by the type. */
+    private final Map<Member, Integer> slots = new IdentityHashMap<>();
+    /** The slot of each static field and enum constant. */
+    private final Map<Member, Integer> staticSlots = new IdentityHashMap<>();
+    /** The values the instance fields start with, those of the superclasses first. */
+    private final Object[] defaults;
+    /** The values of the static fields and enum constants. */
+    private final Object[] statics;
+    /** The routine of each method declared by the type. */
+    private final Map<Member, Routine> routines = new IdentityHashMap<>();
+    /** The routine each method called on an instance of the type runs. */
+    private final Map<Member, Routine> overrides = new IdentityHashMap<>();
+    /** The functions of the methods calls may be inlined from, {@code null} where they may not. */
+    private final Map<Member, Function> callees = new HashMap<>();
+    
+    /** Lowers the functions of the type, once one is needed. */
+    private Lowering lowering;
+    /** The routines setting the instance fields, those of the superclasses first. */
+    private Routine[] constructors;
+    /** How far the shape is initialized. */
+    private int state = UNINITIALIZED;
+    
+    /**
+     * Constructs a new Shape, laying out its fields.
+     * 
+     * @param interpreter The interpreter running the program.
+     * @param declaration The type.
+     */
+    Shape (Interpreter interpreter, Declaration declaration) {
+        SearchTree tree = declaration.tree();
+        Attributes attributes = interpreter.analysis().attributesOf(tree);
+        Shape superclass = null;
+        
+        this.interpreter = interpreter;
+        this.declaration = declaration;
+        
+        for (int child = tree.firstChild(declaration.node()); child != SearchTree.NONE; child = tree.nextSibling(child)) {
+            if (tree.kind(child) != Kind.TYPE) { continue; }
+            
+            Shape supertype = interpreter.shapeOf(attributes.type(child).declaration());
+            
+            if (supertype.declaration.kind() == Kind.INTERFACE) { interfaces.add(supertype); }
+            else { superclass = supertype; }
+        }
+        
+        this.parent = superclass;
+        
+        List<Object> fields = new ArrayList<>();
+        List<Object> values = new ArrayList<>();
+        
+        if (parent != null) { fields.addAll(Arrays.asList(parent.defaults)); }
+        
+        for (int name : declaration.memberNames()) {
+            for (Member member : declaration.members(name)) {
+                if (member.kind() == Member.Kind.METHOD || member.kind() == Member.Kind.BUILTIN) { continue; }
+                
+                Object zero = zero(interpreter.analysis().typeOf(member));
+                
+                if (isStatic(member)) {
+                    staticSlots.put(member, values.size());
+                    values.add(zero);
+                } else {
+                    slots.put(member, fields.size());
+                    fields.add(zero);
+                }
+            }
+        }
+        
+        this.defaults = fields.toArray();
+        this.statics = values.toArray();
+    }
+    
+    /**
+     * @return The type.
+     */
+    Declaration declaration () { return declaration; }
+    
+    /**
+     * @return The values the instance fields start with.
+     */
+    Object[] defaults () { return defaults; }
+    
+    /**
+     * @return The values of the static fields and enum constants.
+     */
+    Object[] statics () { return statics; }
+    
+    /**
+     * @param field An instance field of the type.
+     * @return The slot of the field in every instance that has it.
+     */
+    int slotOf (Member field) { return slots.get(field); }
+    
+    /**
+     * @param field A static field or enum constant of the type.
+     * @return The slot of the field among the statics of the type.
+     */
+    int staticSlotOf (Member field) { return staticSlots.get(field); }
+    
+    /**
+     * @return true if a member is static, as every field of an interface is.
+     */
+    static boolean isStatic (Member member) {
+        return member.isStatic() || member.kind() == Member.Kind.FIELD && member.owner().kind() == Kind.INTERFACE;
+    }
+    
+    /**
+     * @return The value a field of a type starts with.
+     */
+    static Object zero (Type type) {
+        switch (type.kind()) {
+            case LONG:      return 0L;
+            case FLOAT:     return 0f;
+            case DOUBLE:    return 0d;
+            case STRING:
+            case OBJECT:
+            case ARRAY:     return null;
+            default:        return 0;
+        }
+    }
+    
+    /* ---------------------------------------------------------------------- */
+    /* Initialization.                                                        */
+    /* ---------------------------------------------------------------------- */
+    
+    /**
+     * Initializes the shape, if it has not been already or is not being
+     * already, as the JVM initializes a class the first time it is used.
+     */
+    void initialize () {
+        if (state != UNINITIALIZED) { return; }
+        
+        SearchTree tree = declaration.tree();
+        
+        state = INITIALIZING;
+        
+        if (parent != null) { parent.initialize(); }
+        
+        for (int child = tree.firstChild(declaration.node()); child != SearchTree.NONE; child = tree.nextSibling(child)) {
+            if (tree.kind(child) != Kind.CONSTANT) { continue; }
+            
+            Instance constant = new Instance(this, tree.names().name(tree.name(child)));
+            
+            construct(constant);
+            statics[staticSlotOf(memberAt(child))] = constant;
+        }
+        
+        new Routine(this, null, true).invoke();
+        state = INITIALIZED;
+    }
+    
+    /**
+     * Sets the instance fields of an object that have values, those of the
+     * superclasses first, as its constructors would.
+     * 
+     * @param instance The object, of this shape.
+     */
+    void construct (Instance instance) {
+        if (constructors == null) {
+            List<Routine> chain = new ArrayList<>();
+            
+            for (Shape shape = this; shape != null; shape = shape.parent) { chain.add(0, new Routine(shape, null, false)); }
+            
+            constructors = chain.toArray(new Routine[0]);
+        }
+        
+        for (Routine constructor : constructors) { constructor.invoke(instance); }
+    }
+    
+    /* ---------------------------------------------------------------------- */
+    /* Methods.                                                               */
+    /* ---------------------------------------------------------------------- */
+    
+    /**
+     * @param method A method declared by the type.
+     * @return The routine of the method.
+     */
+    Routine routineOf (Member method) {
+        Routine routine = routines.get(method);
+        
+        if (routine == null) {
+            routine = new Routine(this, method, method.isStatic());
+            routines.put(method, routine);
+        }
+        
+        return routine;
+    }
+    
+    /**
+     * Finds the routine a method called on an instance of the type runs: that
+     * of the method itself, or of the nearest override of it.
+     * 
+     * @param method The method called.
+     * @return The routine, or {@code null} if no type the instance is of has
+     *      a body for the method.
+     */
+    Routine overrideOf (Member method) {
+        Routine routine = overrides.get(method);
+        
+        if (routine == null && !overrides.containsKey(method)) {
+            Type[] parameters = interpreter.analysis().parametersOf(method);
+            List<Shape> pending = new ArrayList<>();
+            
+            for (Shape shape = this; shape != null && routine == null; shape = shape.parent) {
+                routine = shape.declared(method.name(), parameters);
+                pending.addAll(shape.interfaces);
+            }
+            
+            // Then the bodies interfaces give their methods.
+            while (routine == null && !pending.isEmpty()) {
+                Shape next = pending.remove(0);
+                
+                routine = next.declared(method.name(), parameters);
+                pending.addAll(next.interfaces);
+            }
+            
+            overrides.put(method, routine);
+        }
+        
+        return routine;
+    }
+    
+    /**
+     * @return The routine of an instance method of the type with a body, of
+     *      a name and parameters, or {@code null}.
+     */
+    private Routine declared (int name, Type[] parameters) {
+        Member[] candidates = declaration.members(name);
+        Analysis analysis = interpreter.analysis();
+        
+        if (candidates == null) { return null; }
+        
+        for (Member candidate : candidates) {
+            if (candidate.kind() != Member.Kind.METHOD || candidate.isStatic()
+                    || bodyOf(declaration.tree(), candidate.node()) == SearchTree.NONE) {
+                continue;
+            }
+            
+            if (Arrays.equals(analysis.parametersOf(candidate), parameters)) { return routineOf(candidate); }
+        }
+        
+        return null;
+    }
+    
+    /**
+     * @return The lowering of the functions of the type.
+     */
+    Lowering lowering () {
+        if (lowering == null) { lowering = new Lowering(interpreter.analysis(), declaration, interpreter.diagnostics()); }
+        
+        return lowering;
+    }
+    
+    /**
+     * @return The function of a method calls may be inlined from: a static
+     *      method of this type with a body, as for a class generated.
+     */
+    Function callee (Member method) {
+        if (method.owner() != declaration || method.kind() != Member.Kind.METHOD || !method.isStatic()
+                || bodyOf(declaration.tree(), method.node()) == SearchTree.NONE) {
+            return null;
+        }
+        
+        if (!callees.containsKey(method)) {
+            Lowering quiet = new Lowering(interpreter.analysis(), declaration, new Diagnostics());
+            
+            callees.put(method, quiet.method(method.node()));
+        }
+        
+        return callees.get(method);
+    }
+    
+    /**
+     * @return The interpreter running the program.
+     */
+    Interpreter interpreter () { return interpreter; }
+    
+    /**
+     * @return The block of a method, or {@code NONE} if it has none.
+     */
+    static int bodyOf (SearchTree owner, int method) {
+        int body = SearchTree.NONE;
+        
+        for (int child = owner.firstChild(method); child != SearchTree.NONE; child = owner.nextSibling(child)) {
+            if (owner.kind(child) == Kind.BLOCK) { body = child; }
+        }
+        
+        return body;
+    }
+    
+    private Member memberAt (int node) {
+        for (Member member : declaration.members(declaration.tree().name(node))) {
+            if (member.node() == node) { return member; }
+        }
+        
+        throw new IllegalStateException("A member of \"" + declaration.qualifiedName() + "\" has no entry.");
+    }
+}
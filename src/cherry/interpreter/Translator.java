@@ -0,0 +1,715 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 SoraKatadzuma.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package cherry.interpreter;
+
+import cherry.frontend.semantics.Member;
+import cherry.frontend.semantics.Type;
+import cherry.interpreter.Routine.Edge;
+import cherry.interpreter.Routine.Node;
+import cherry.interpreter.Routine.Segment;
+import cherry.interpreter.Routine.Test;
+import cherry.middleend.Block;
+import cherry.middleend.Function;
+import cherry.middleend.Instruction;
+import cherry.middleend.Instruction.Op;
+import cherry.middleend.Intrinsic;
+import cherry.utils.SearchTree;
+import cherry.utils.SymbolPool;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A {@code Translator} turns the function of a routine into the closures it
+ * runs. Which closure an instruction becomes is decided here, once, by its
+ * operation and the types of its operands, so that running it is no more than
+ * the operation itself on the registers it reads.
+ * <p>
+ * What a closure can only learn when it runs, it learns the first time and
+ * keeps: a static field or method resolves its type, which is initialized
+ * then, as the JVM would; and a call on an instance keeps the class of the
+ * last receiver, and the override it found for it, so that a call on objects
+ * of one class only looks its method up once. Instance fields need neither,
+ * since a field is in the same slot of every object that has it.
+ * </p>
+ * <p>
+ * A comparison used only by the branch after it is not computed into a
+ * register, but tested by the branch itself.
+ * </p>
+ * 
+ * @author SoraKatadzuma
+ * @version Alpha 0.0.1
+ * @since 10/18/2026
+ */
+final class Translator {
+    /** A false bool. */
+    private static final Integer FALSE = 0;
+    /** A true bool. */
+    private static final Integer TRUE = 1;
+    
+    /** The interpreter running the program. */
+    private final Interpreter interpreter;
+    /** The pool of names of the compilation. */
+    private final SymbolPool names;
+    
+    /**
+     * Constructs a new Translator.
+     * 
+     * @param interpreter The interpreter running the program.
+     */
+    Translator (Interpreter interpreter) {
+        this.interpreter = interpreter;
+        this.names = interpreter.analysis().names();
+    }
+    
+    /**
+     * Lowers, optimizes and translates a routine.
+     * 
+     * @param routine The routine, not yet translated.
+     * @throws Trap If the routine has no body, or could not be lowered.
+     */
+    void translate (Routine routine) {
+        Shape owner = routine.owner();
+        Member method = routine.method();
+        SearchTree tree = owner.declaration().tree();
+        
+        if (method != null && Shape.bodyOf(tree, method.node()) == SearchTree.NONE) {
+            throw new Trap(tree.file().getPath(), "\"" + routine.name() + "\" has no body to run.");
+        }
+        
+        Function function = method == null
+                ? owner.lowering().initializers(routine.isStatic())
+                : owner.lowering().method(method.node());
+        
+        // Why was reported as it was lowered.
+        if (function == null) { throw new Trap(null, null); }
+        
+        interpreter.passes().optimize(function, owner::callee);
+        
+        Object[] template = new Object[function.instructionLimit()];
+        int[] parameters = new int[function.parameters().size()];
+        Map<Block, Segment> segments = new IdentityHashMap<>();
+        
+        for (int i = 0; i < parameters.length; i++) { parameters[i] = function.parameters().get(i).id(); }
+        for (Block block : function.blocks()) { segments.put(block, new Segment()); }
+        
+        for (Block block : function.blocks()) {
+            Segment segment = segments.get(block);
+            List<Node> nodes = new ArrayList<>();
+            List<Integer> results = new ArrayList<>();
+            List<Integer> lines = new ArrayList<>();
+            
+            for (Instruction instruction : block.instructions()) {
+                Op op = instruction.op();
+                
+                if (op == Op.CONSTANT) { template[instruction.id()] = instruction.value(); }
+                if (op == Op.CONSTANT || op == Op.PARAMETER || isTested(instruction)) { continue; }
+                
+                if (op.isTerminator()) {
+                    lines.add(instruction.line());
+                    terminator(instruction, segment, segments);
+                    break;
+                }
+                
+                nodes.add(node(instruction));
+                results.add(instruction.hasValue() ? instruction.id() : -1);
+                lines.add(instruction.line());
+            }
+            
+            segment.nodes = nodes.toArray(new Node[0]);
+            segment.results = new int[results.size()];
+            segment.lines = new int[lines.size()];
+            
+            for (int i = 0; i < segment.results.length; i++) { segment.results[i] = results.get(i); }
+            for (int i = 0; i < segment.lines.length; i++) { segment.lines[i] = lines.get(i); }
+        }
+        
+        routine.define(template, parameters, segments.get(function.entry()));
+    }
+    
+    /**
+     * @return true if an instruction is a comparison tested only by the
+     *      branch ending its block.
+     */
+    private static boolean isTested (Instruction instruction) {
+        if (!instruction.op().isComparison() || instruction.users().size() != 1) { return false; }
+        
+        Instruction user = instruction.users().get(0);
+        
+        return user.op() == Op.BRANCH && user.block() == instruction.block();
+    }
+    
+    /* ---------------------------------------------------------------------- */
+    /* Control.                                                               */
+    /* ---------------------------------------------------------------------- */
+    
+    private void terminator (Instruction terminator, Segment segment, Map<Block, Segment> segments) {
+        switch (terminator.op()) {
+            case JUMP: {
+                segment.edges = new Edge[] { edge(terminator, 0, segments) };
+                break;
+            }
+            case BRANCH: {
+                Instruction condition = terminator.operand(0);
+                
+                segment.condition = isTested(condition) ? comparison(condition) : truth(condition.id());
+                segment.edges = new Edge[] { edge(terminator, 0, segments), edge(terminator, 1, segments) };
+                break;
+            }
+            default: {
+                segment.edges = new Edge[0];
+                segment.returned = terminator.operands().isEmpty() ? -1 : terminator.operand(0).id();
+                break;
+            }
+        }
+    }
+    
+    /**
+     * @return The edge to a target of a jump or branch, moving the values
+     *      the phis of the target pick when it is entered from there.
+     */
+    private static Edge edge (Instruction terminator, int index, Map<Block, Segment> segments) {
+        Block from = terminator.block();
+        Block to = terminator.target(index);
+        List<Instruction> phis = to.phis();
+        // A branch with both targets the same is two predecessors of it.
+        int skip = index == 1 && terminator.target(0) == to ? 1 : 0;
+        int predecessor = 0;
+        
+        while (to.predecessors().get(predecessor) != from || skip-- > 0) { predecessor++; }
+        
+        int[] targets = new int[phis.size()];
+        int[] sources = new int[phis.size()];
+        boolean parallel = false;
+        
+        for (int i = 0; i < targets.length; i++) {
+            targets[i] = phis.get(i).id();
+            sources[i] = phis.get(i).operand(predecessor).id();
+            
+            // A phi moved into before another phi picks it must be held.
+            for (int j = 0; j < i; j++) { parallel |= targets[j] == sources[i]; }
+        }
+        
+        return new Edge(segments.get(to), targets, sources, parallel);
+    }
+    
+    private static Test truth (int x) {
+        return r -> (int) r[x] != 0;
+    }
+    
+    private static Test comparison (Instruction comparison) {
+        Op op = comparison.op();
+        int x = comparison.operand(0).id();
+        int y = comparison.operand(1).id();
+        
+        switch (comparison.operand(0).type().kind()) {
+            case LONG: {
+                switch (op) {
+                    case EQ:    return r -> (long) r[x] == (long) r[y];
+                    case NE:    return r -> (long) r[x] != (long) r[y];
+                    case LT:    return r -> (long) r[x] < (long) r[y];
+                    case GE:    return r -> (long) r[x] >= (long) r[y];
+                    case GT:    return r -> (long) r[x] > (long) r[y];
+                    default:    return r -> (long) r[x] <= (long) r[y];
+                }
+            }
+            case FLOAT: {
+                switch (op) {
+                    case EQ:    return r -> (float) r[x] == (float) r[y];
+                    case NE:    return r -> (float) r[x] != (float) r[y];
+                    case LT:    return r -> (float) r[x] < (float) r[y];
+                    case GE:    return r -> (float) r[x] >= (float) r[y];
+                    case GT:    return r -> (float) r[x] > (float) r[y];
+                    default:    return r -> (float) r[x] <= (float) r[y];
+                }
+            }
+            case DOUBLE: {
+                switch (op) {
+                    case EQ:    return r -> (double) r[x] == (double) r[y];
+                    case NE:    return r -> (double) r[x] != (double) r[y];
+                    case LT:    return r -> (double) r[x] < (double) r[y];
+                    case GE:    return r -> (double) r[x] >= (double) r[y];
+                    case GT:    return r -> (double) r[x] > (double) r[y];
+                    default:    return r -> (double) r[x] <= (double) r[y];
+                }
+            }
+            case STRING: {
+                return op == Op.EQ ? r -> Objects.equals(r[x], r[y]) : r -> !Objects.equals(r[x], r[y]);
+            }
+            case OBJECT:
+            case ARRAY: {
+                return op == Op.EQ ? r -> r[x] == r[y] : r -> r[x] != r[y];
+            }
+            default: {
+                switch (op) {
+                    case EQ:    return r -> (int) r[x] == (int) r[y];
+                    case NE:    return r -> (int) r[x] != (int) r[y];
+                    case LT:    return r -> (int) r[x] < (int) r[y];
+                    case GE:    return r -> (int) r[x] >= (int) r[y];
+                    case GT:    return r -> (int) r[x] > (int) r[y];
+                    default:    return r -> (int) r[x] <= (int) r[y];
+                }
+            }
+        }
+    }
+    
+    /* ---------------------------------------------------------------------- */
+    /* Instructions.                                                          */
+    /* ---------------------------------------------------------------------- */
+    
+    private Node node (Instruction instruction) {
+        Op op = instruction.op();
+        
+        if (op.isArithmetic()) { return arithmetic(instruction); }
+        
+        if (op.isComparison()) {
+            Test test = comparison(instruction);
+            
+            return r -> test.test(r) ? TRUE : FALSE;
+        }
+        
+        int x = instruction.operands().isEmpty() ? -1 : instruction.operand(0).id();
+        
+        switch (op) {
+            case NEG:           return negation(instruction.type(), x);
+            case NOT:           return r -> (int) r[x] ^ 1;
+            case CONVERT:       return conversion(instruction.type(), x);
+            case CONCAT:        return concatenation(instruction);
+            case LOAD:
+            case STORE:         return field(instruction);
+            case ELEMENT:       return element(instruction.type(), x, instruction.operand(1).id());
+            case PUT:           return put(instruction);
+            case LENGTH:        return length(instruction.operand(0).type().element(), x);
+            case NEW:           return new Allocation(instruction.type());
+            case NEW_ARRAY:     return allocation(instruction.type().element(), x);
+            case CALL:          return call(instruction);
+            case PRINT:         return print(instruction);
+            case INTRINSIC: {
+                Intrinsic function = (Intrinsic) instruction.value();
+                
+                return r -> function.apply((double) r[x]);
+            }
+            default: {
+                throw new IllegalStateException("A " + op.name().toLowerCase() + " cannot be translated.");
+            }
+        }
+    }
+    
+    private static Node arithmetic (Instruction instruction) {
+        Op op = instruction.op();
+        int x = instruction.operand(0).id();
+        int y = instruction.operand(1).id();
+        
+        switch (instruction.type().kind()) {
+            case LONG: {
+                switch (op) {
+                    case ADD:   return r -> (long) r[x] + (long) r[y];
+                    case SUB:   return r -> (long) r[x] - (long) r[y];
+                    case MUL:   return r -> (long) r[x] * (long) r[y];
+                    case DIV:   return r -> (long) r[x] / (long) r[y];
+                    case REM:   return r -> (long) r[x] % (long) r[y];
+                    case AND:   return r -> (long) r[x] & (long) r[y];
+                    case OR:    return r -> (long) r[x] | (long) r[y];
+                    case XOR:   return r -> (long) r[x] ^ (long) r[y];
+                    case SHL:   return r -> (long) r[x] << ((Number) r[y]).intValue();
+                    case SHR:   return r -> (long) r[x] >> ((Number) r[y]).intValue();
+                    default:    return r -> (long) r[x] >>> ((Number) r[y]).intValue();
+                }
+            }
+            case FLOAT: {
+                switch (op) {
+                    case ADD:   return r -> (float) r[x] + (float) r[y];
+                    case SUB:   return r -> (float) r[x] - (float) r[y];
+                    case MUL:   return r -> (float) r[x] * (float) r[y];
+                    case DIV:   return r -> (float) r[x] / (float) r[y];
+                    default:    return r -> (float) r[x] % (float) r[y];
+                }
+            }
+            case DOUBLE: {
+                switch (op) {
+                    case ADD:   return r -> (double) r[x] + (double) r[y];
+                    case SUB:   return r -> (double) r[x] - (double) r[y];
+                    case MUL:   return r -> (double) r[x] * (double) r[y];
+                    case DIV:   return r -> (double) r[x] / (double) r[y];
+                    default:    return r -> (double) r[x] % (double) r[y];
+                }
+            }
+            default: {
+                switch (op) {
+                    case ADD:   return r -> (int) r[x] + (int) r[y];
+                    case SUB:   return r -> (int) r[x] - (int) r[y];
+                    case MUL:   return r -> (int) r[x] * (int) r[y];
+                    case DIV:   return r -> (int) r[x] / (int) r[y];
+                    case REM:   return r -> (int) r[x] % (int) r[y];
+                    case AND:   return r -> (int) r[x] & (int) r[y];
+                    case OR:    return r -> (int) r[x] | (int) r[y];
+                    case XOR:   return r -> (int) r[x] ^ (int) r[y];
+                    case SHL:   return r -> (int) r[x] << (int) r[y];
+                    case SHR:   return r -> (int) r[x] >> (int) r[y];
+                    default:    return r -> (int) r[x] >>> (int) r[y];
+                }
+            }
+        }
+    }
+    
+    private static Node negation (Type type, int x) {
+        switch (type.kind()) {
+            case LONG:      return r -> -(long) r[x];
+            case FLOAT:     return r -> -(float) r[x];
+            case DOUBLE:    return r -> -(double) r[x];
+            default:        return r -> -(int) r[x];
+        }
+    }
+    
+    /**
+     * @return A conversion of a number to a type, as the JVM converts it.
+     */
+    private static Node conversion (Type to, int x) {
+        switch (to.kind()) {
+            case LONG:      return r -> ((Number) r[x]).longValue();
+            case FLOAT:     return r -> ((Number) r[x]).floatValue();
+            case DOUBLE:    return r -> ((Number) r[x]).doubleValue();
+            case BYTE:      return r -> (int) (byte) ((Number) r[x]).intValue();
+            case SHORT:     return r -> (int) (short) ((Number) r[x]).intValue();
+            case CHAR:      return r -> (int) (char) ((Number) r[x]).intValue();
+            default:        return r -> ((Number) r[x]).intValue();
+        }
+    }
+    
+    private static Node concatenation (Instruction concat) {
+        int count = concat.operands().size();
+        int[] parts = new int[count];
+        Type.Kind[] kinds = new Type.Kind[count];
+        
+        for (int i = 0; i < count; i++) {
+            parts[i] = concat.operand(i).id();
+            kinds[i] = concat.operand(i).type().kind();
+        }
+        
+        return r -> {
+            StringBuilder text = new StringBuilder();
+            
+            for (int i = 0; i < parts.length; i++) { text.append(text(r[parts[i]], kinds[i])); }
+            
+            return text.toString();
+        };
+    }
+    
+    /**
+     * @return A value as it is printed, or joined into a string.
+     */
+    static String text (Object value, Type.Kind kind) {
+        switch (kind) {
+            case BOOL:  return (int) value != 0 ? "true" : "false";
+            case CHAR:  return String.valueOf((char) (int) value);
+            default:    return String.valueOf(value);
+        }
+    }
+    
+    private Node print (Instruction print) {
+        PrintStream out = interpreter.out();
+        boolean line = names.name(print.member().name()).equals("println");
+        
+        if (print.operands().isEmpty()) {
+            return r -> {
+                out.println();
+                return null;
+            };
+        }
+        
+        int x = print.operand(0).id();
+        Type.Kind kind = print.operand(0).type().kind();
+        
+        if (line) {
+            return r -> {
+                out.println(text(r[x], kind));
+                return null;
+            };
+        }
+        
+        return r -> {
+            out.print(text(r[x], kind));
+            return null;
+        };
+    }
+    
+    /* ---------------------------------------------------------------------- */
+    /* Objects and arrays.                                                    */
+    /* ---------------------------------------------------------------------- */
+    
+    private Node field (Instruction instruction) {
+        Member member = instruction.member();
+        boolean load = instruction.op() == Op.LOAD;
+        
+        if (Shape.isStatic(member)) {
+            return new StaticField(member, load ? -1 : instruction.operand(0).id());
+        }
+        
+        int slot = interpreter.shapeOf(member.owner()).slotOf(member);
+        int object = instruction.operand(0).id();
+        
+        if (load) { return r -> ((Instance) r[object]).fields[slot]; }
+        
+        int value = instruction.operand(1).id();
+        
+        return r -> {
+            ((Instance) r[object]).fields[slot] = r[value];
+            return null;
+        };
+    }
+    
+    private static Node element (Type type, int array, int index) {
+        switch (type.kind()) {
+            case LONG:      return r -> ((long[]) r[array])[(int) r[index]];
+            case FLOAT:     return r -> ((float[]) r[array])[(int) r[index]];
+            case DOUBLE:    return r -> ((double[]) r[array])[(int) r[index]];
+            case STRING:
+            case OBJECT:
+            case ARRAY:     return r -> ((Object[]) r[array])[(int) r[index]];
+            default:        return r -> ((int[]) r[array])[(int) r[index]];
+        }
+    }
+    
+    private static Node put (Instruction put) {
+        int array = put.operand(0).id();
+        int index = put.operand(1).id();
+        int value = put.operand(2).id();
+        
+        switch (put.operand(0).type().element().kind()) {
+            case LONG: {
+                return r -> {
+                    ((long[]) r[array])[(int) r[index]] = (long) r[value];
+                    return null;
+                };
+            }
+            case FLOAT: {
+                return r -> {
+                    ((float[]) r[array])[(int) r[index]] = (float) r[value];
+                    return null;
+                };
+            }
+            case DOUBLE: {
+                return r -> {
+                    ((double[]) r[array])[(int) r[index]] = (double) r[value];
+                    return null;
+                };
+            }
+            case STRING:
+            case OBJECT:
+            case ARRAY: {
+                return r -> {
+                    ((Object[]) r[array])[(int) r[index]] = r[value];
+                    return null;
+                };
+            }
+            default: {
+                return r -> {
+                    ((int[]) r[array])[(int) r[index]] = (int) r[value];
+                    return null;
+                };
+            }
+        }
+    }
+    
+    private static Node length (Type element, int array) {
+        switch (element.kind()) {
+            case LONG:      return r -> ((long[]) r[array]).length;
+            case FLOAT:     return r -> ((float[]) r[array]).length;
+            case DOUBLE:    return r -> ((double[]) r[array]).length;
+            case STRING:
+            case OBJECT:
+            case ARRAY:     return r -> ((Object[]) r[array]).length;
+            default:        return r -> ((int[]) r[array]).length;
+        }
+    }
+    
+    /**
+     * @return The creation of an array, of the JVM's own array type for the
+     *      numbers, and of strings, so that it is printed as one would be.
+     */
+    private static Node allocation (Type element, int length) {
+        switch (element.kind()) {
+            case LONG:      return r -> new long[(int) r[length]];
+            case FLOAT:     return r -> new float[(int) r[length]];
+            case DOUBLE:    return r -> new double[(int) r[length]];
+            case STRING:    return r -> new String[(int) r[length]];
+            case OBJECT:
+            case ARRAY:     return r -> new Object[(int) r[length]];
+            default:        return r -> new int[(int) r[length]];
+        }
+    }
+    
+    private Node call (Instruction call) {
+        Member member = call.member();
+        int[] operands = new int[call.operands().size()];
+        
+        for (int i = 0; i < operands.length; i++) { operands[i] = call.operand(i).id(); }
+        
+        return member.isStatic() ? new StaticCall(member, operands) : new VirtualCall(member, operands);
+    }
+    
+    /* ---------------------------------------------------------------------- */
+    /* Sites resolved once run.                                               */
+    /* ---------------------------------------------------------------------- */
+    
+    /**
+     * A {@code StaticField} loads or stores a static field or enum constant,
+     * initializing its type the first time.
+     */
+    private final class StaticField implements Node {
+        /** The field. */
+        private final Member member;
+        /** The register of the value stored, or -1 for a load. */
+        private final int value;
+        /** The statics of the type of the field, once resolved. */
+        private Object[] statics;
+        /** The slot of the field among them. */
+        private int slot;
+        
+        StaticField (Member member, int value) {
+            this.member = member;
+            this.value = value;
+        }
+        
+        @Override
+        public Object eval (Object[] r) {
+            if (statics == null) {
+                Shape shape = interpreter.shapeOf(member.owner());
+                
+                shape.initialize();
+                slot = shape.staticSlotOf(member);
+                statics = shape.statics();
+            }
+            
+            if (value < 0) { return statics[slot]; }
+            
+            statics[slot] = r[value];
+            return null;
+        }
+    }
+    
+    /**
+     * An {@code Allocation} creates an object, initializing its type the
+     * first time.
+     */
+    private final class Allocation implements Node {
+        /** The type of the object. */
+        private final Type type;
+        /** The shape of the object, once resolved. */
+        private Shape shape;
+        
+        Allocation (Type type) {
+            this.type = type;
+        }
+        
+        @Override
+        public Object eval (Object[] r) {
+            if (shape == null) {
+                Shape resolved = interpreter.shapeOf(type.declaration());
+                
+                resolved.initialize();
+                shape = resolved;
+            }
+            
+            Instance instance = new Instance(shape, null);
+            
+            shape.construct(instance);
+            return instance;
+        }
+    }
+    
+    /**
+     * A {@code StaticCall} calls a static method, initializing its type the
+     * first time.
+     */
+    private final class StaticCall implements Node {
+        /** The method. */
+        private final Member member;
+        /** The registers of the arguments. */
+        private final int[] operands;
+        /** The routine of the method, once resolved. */
+        private Routine target;
+        
+        StaticCall (Member member, int[] operands) {
+            this.member = member;
+            this.operands = operands;
+        }
+        
+        @Override
+        public Object eval (Object[] r) {
+            if (target == null) {
+                Shape shape = interpreter.shapeOf(member.owner());
+                
+                shape.initialize();
+                target = shape.routineOf(member);
+            }
+            
+            return target.call(r, operands);
+        }
+    }
+    
+    /**
+     * A {@code VirtualCall} calls a method on an object, through the override
+     * of the class of the object. It keeps the class of the last object and
+     * the override found for it, and only looks again for an object of
+     * another class.
+     */
+    private final class VirtualCall implements Node {
+        /** The method. */
+        private final Member member;
+        /** The registers of the receiver and arguments. */
+        private final int[] operands;
+        /** The class of the last receiver. */
+        private Shape cached;
+        /** The override found for it. */
+        private Routine target;
+        
+        VirtualCall (Member member, int[] operands) {
+            this.member = member;
+            this.operands = operands;
+        }
+        
+        @Override
+        public Object eval (Object[] r) {
+            Shape shape = ((Instance) r[operands[0]]).shape;
+            
+            if (shape != cached) {
+                Routine found = shape.overrideOf(member);
+                
+                if (found == null) {
+                    throw new UnsupportedOperationException("\"" + interpreter.nameOf(member) + "\" has no body in \""
+                            + shape.declaration().qualifiedName() + "\"");
+                }
+                
+                target = found;
+                cached = shape;
+            }
+            
+            return target.call(r, operands);
+        }
+    }
+}
@@ -21,36 +21,37 @@
  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
  * THE SOFTWARE.
  */
-package cherry.utils.exceptions;
+package cherry.interpreter;
 
 /**
- * This exception is thrown if for some reason the name of a flag fails to raise
- * its RuntimeFlag equivalent.
+ * A {@code Trap} stops a program being run where it went wrong: where it
+ * divided by zero, went past the end of an array, or used a null. It carries
+ * what went wrong and where, and, like the diagnostics it is reported as,
+ * nothing of the interpreter's own stack.
  * 
  * @author SoraKatadzuma
  * @version Alpha 0.0.1
- * @since 11/20/2017
+ * @since 10/18/2026
  */
-public class FailureToRaiseException extends Exception {
+final class Trap extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+    
+    /** The file of the function that went wrong, {@code null} if none. */
+    private final String fileName;
+    
     /**
-     * Constructs a new FailureToRaiseException with a reason and a cause.
+     * Constructs a new Trap.
      * 
-     * @param reason A explanation of what happened.
-     * @param cause What caused this exception.
+     * @param fileName The file of the function that went wrong, or {@code null}.
+     * @param message What went wrong, and where.
      */
-    public FailureToRaiseException (String reason, Throwable cause) { super(reason, cause); }
-
-    /**
-     * Constructs a new FailureToRaiseException with only a reason.
-     * 
-     * @param reason A explanation of what happened.
-     */
-    public FailureToRaiseException (String reason) { super(reason); }
-
+    Trap (String fileName, String message) {
+        super(message, null, false, false);
+        this.fileName = fileName;
+    }
+    
     /**
-     * Constructs a new FailureToRaiseException with only a cause.
-     * 
-     * @param cause What caused this exception.
+     * @return The file of the function that went wrong, {@code null} if none.
      */
-    public FailureToRaiseException (Throwable cause) { super(cause); }
+    String fileName () { return fileName; }
 }
@@ -0,0 +1,145 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 SoraKatadzuma.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package cherry.middleend;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A {@code Block} is a run of instructions that is only ever entered at its
+ * start and left at its end, by the terminator that is its last instruction.
+ * Its phis come before the rest of its instructions, and each has one
+ * operand for every predecessor of the block, in the same order.
+ * 
+ * @author SoraKatadzuma
+ * @version Alpha 0.0.1
+ * @since 10/18/2026
+ */
+public final class Block {
+    /** The function the block is in. */
+    private final Function function;
+    /** The number of the block in its function. */
+    private final int id;
+    /** The phis of the block. */
+    final List<Instruction> phis = new ArrayList<>(2);
+    /** The other instructions of the block, its terminator last. */
+    final List<Instruction> instructions = new ArrayList<>();
+    /** The blocks that go to this one, once per edge. */
+    final List<Block> predecessors = new ArrayList<>(2);
+    
+    Block (Function function, int id) {
+        this.function = function;
+        this.id = id;
+    }
+    
+    /**
+     * @return The function the block is in.
+     */
+    public Function function () { return function; }
+    
+    /**
+     * @return The number of the block in its function.
+     */
+    public int id () { return id; }
+    
+    /**
+     * @return The phis of the block.
+     */
+    public List<Instruction> phis () { return Collections.unmodifiableList(phis); }
+    
+    /**
+     * @return The instructions of the block other than its phis, its
+     *      terminator last.
+     */
+    public List<Instruction> instructions () { return Collections.unmodifiableList(instructions); }
+    
+    /**
+     * @return The blocks that go to this one, once per edge.
+     */
+    public List<Block> predecessors () { return Collections.unmodifiableList(predecessors); }
+    
+    /**
+     * @return The terminator of the block, or {@code null} while it has none.
+     */
+    public Instruction terminator () {
+        Instruction last = instructions.isEmpty() ? null : instructions.get(instructions.size() - 1);
+        
+        return last != null && last.op().isTerminator() ? last : null;
+    }
+    
+    /**
+     * @return The blocks this one goes to.
+     */
+    public List<Block> successors () {
+        Instruction terminator = terminator();
+        List<Block> successors = new ArrayList<>(2);
+        
+        for (int i = 0; terminator != null && i < terminator.targetCount(); i++) { successors.add(terminator.target(i)); }
+        
+        return successors;
+    }
+    
+    /**
+     * Adds an instruction at the end of the block, before its terminator if
+     * it has one.
+     */
+    Instruction add (Instruction instruction) {
+        instruction.block = this;
+        
+        if (instruction.op() == Instruction.Op.PHI) {
+            phis.add(instruction);
+        } else if (terminator() != null && !instruction.op().isTerminator()) {
+            instructions.add(instructions.size() - 1, instruction);
+        } else {
+            instructions.add(instruction);
+        }
+        
+        return instruction;
+    }
+    
+    /**
+     * Removes the edge from a predecessor, along with the operand of each
+     * phi for it.
+     */
+    void removePredecessor (Block predecessor) {
+        int index = predecessors.indexOf(predecessor);
+        
+        predecessors.remove(index);
+        
+        for (Instruction phi : phis) { phi.removeOperand(index); }
+    }
+    
+    /**
+     * Makes the edges from one predecessor come from another instead.
+     */
+    void replacePredecessor (Block old, Block replacement) {
+        for (int i = 0; i < predecessors.size(); i++) {
+            if (predecessors.get(i) == old) { predecessors.set(i, replacement); }
+        }
+    }
+    
+    @Override
+    public String toString () { return "b" + id; }
+}
@@ -0,0 +1,130 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 SoraKatadzuma.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package cherry.middleend;
+
+import cherry.middleend.Instruction.Op;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@code CommonSubexpressions} pass finds operations that compute what
+ * an operation before them already computed, and uses the value of the first
+ * instead. The blocks are visited down the tree of their dominators, so that
+ * the values known in a block are those of the blocks every path to it goes
+ * through, and are forgotten again once the blocks below it are done.
+ * <p>
+ * Only operations whose value depends on their operands alone are merged:
+ * arithmetic, comparisons, conversions and the like. Loads, calls and
+ * anything else that memory may change under are left alone.
+ * </p>
+ * 
+ * @author SoraKatadzuma
+ * @version Alpha 0.0.1
+ * @since 10/18/2026
+ */
+public final class CommonSubexpressions implements Pass {
+    @Override
+    public String name () { return "cse"; }
+    
+    @Override
+    public void run (Function function) {
+        Dominators dominators = new Dominators(function);
+        Map<List<Object>, Instruction> known = new HashMap<>();
+        Deque<Block> pending = new ArrayDeque<>();
+        // What each block added to those known, to forget once it is done.
+        Map<Block, List<List<Object>>> added = new HashMap<>();
+        
+        pending.push(function.entry());
+        
+        while (!pending.isEmpty()) {
+            Block block = pending.pop();
+            
+            if (added.containsKey(block)) {
+                for (List<Object> key : added.remove(block)) { known.remove(key); }
+                
+                continue;
+            }
+            
+            List<List<Object>> keys = new ArrayList<>();
+            
+            for (Instruction instruction : new ArrayList<>(block.instructions)) {
+                if (!instruction.isRepeatable()) { continue; }
+                
+                List<Object> key = keyOf(instruction);
+                Instruction first = known.get(key);
+                
+                if (first != null) {
+                    instruction.replaceAllUsesWith(first);
+                    instruction.remove();
+                } else {
+                    known.put(key, instruction);
+                    keys.add(key);
+                }
+            }
+            
+            // Visited again after the blocks below it, to forget what it added.
+            added.put(block, keys);
+            pending.push(block);
+            
+            for (Block child : dominators.children(block)) { pending.push(child); }
+        }
+    }
+    
+    /**
+     * @return What identifies the value of an instruction: its operation,
+     *      type, constant and operands, the operands in order of their number
+     *      where their order does not matter.
+     */
+    private static List<Object> keyOf (Instruction instruction) {
+        List<Instruction> operands = instruction.operands();
+        Object[] key = new Object[3 + operands.size()];
+        
+        key[0] = instruction.op();
+        key[1] = instruction.type();
+        key[2] = instruction.value();
+        
+        for (int i = 0; i < operands.size(); i++) { key[3 + i] = operands.get(i); }
+        
+        if (isCommutative(instruction.op()) && operands.get(0).id() > operands.get(1).id()) {
+            key[3] = operands.get(1);
+            key[4] = operands.get(0);
+        }
+        
+        return Arrays.asList(key);
+    }
+    
+    private static boolean isCommutative (Op op) {
+        switch (op) {
+            case ADD: case MUL: case AND: case OR: case XOR: case EQ: case NE:
+                return true;
+            default:
+                return false;
+        }
+    }
+}
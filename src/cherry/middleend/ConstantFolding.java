@@ -0,0 +1,394 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 SoraKatadzuma.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package cherry.middleend;
+
+import cherry.frontend.semantics.Type;
+import cherry.middleend.Instruction.Op;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The {@code ConstantFolding} pass computes what can be computed before the
+ * program runs: operations on constants, with the same results as the JVM
+ * would give, and operations that give back one of their operands, such as
+ * adding zero. Each value replaced is replaced wherever it is used, and its
+ * users are looked at again, so constants propagate as far as they go.
+ * <p>
+ * A branch on a constant becomes a jump, and the blocks no longer reached
+ * are removed, which may leave phis with one value, that are replaced too.
+ * Division of whole numbers by zero is left alone, so that it still throws.
+ * </p>
+ * <p>
+ * The math intrinsics are folded too, as {@link Intrinsic#apply} computes
+ * them, once their argument is known.
+ * </p>
+ * 
+ * @author SoraKatadzuma
+ * @version Alpha 0.0.1
+ * @since 10/18/2026
+ */
+public final class ConstantFolding implements Pass {
+    /** The function being folded. */
+    private Function function;
+    /** The instructions to look at. */
+    private final Deque<Instruction> work = new ArrayDeque<>();
+    
+    @Override
+    public String name () { return "fold"; }
+    
+    @Override
+    public void run (Function function) {
+        boolean jumped;
+        
+        this.function = function;
+        
+        do {
+            jumped = false;
+            
+            for (Block block : function.blocks()) {
+                work.addAll(block.phis);
+                work.addAll(block.instructions);
+            }
+            
+            while (!work.isEmpty()) {
+                Instruction instruction = work.poll();
+                
+                // Removed since it was added.
+                if (instruction.block() == null) { continue; }
+                
+                if (instruction.op() == Op.BRANCH) {
+                    jumped |= branch(instruction);
+                    continue;
+                }
+                
+                Instruction replacement = simplify(instruction);
+                
+                if (replacement == null || replacement == instruction) { continue; }
+                
+                work.addAll(instruction.users());
+                instruction.replaceAllUsesWith(replacement);
+                instruction.remove();
+            }
+        } while (jumped && function.removeUnreachable());
+        
+        this.function = null;
+    }
+    
+    /**
+     * Replaces a branch on a constant with a jump.
+     * 
+     * @return true if it was replaced.
+     */
+    private boolean branch (Instruction branch) {
+        Instruction condition = branch.operand(0);
+        
+        if (!condition.isConstant()) { return false; }
+        
+        Block block = branch.block();
+        Block taken = branch.target(condition.intValue() != 0 ? 0 : 1);
+        List<Block> left = new ArrayList<>(block.successors());
+        
+        function.jumpTo(block, taken);
+        
+        // The phis of the blocks no longer reached from here lost a value.
+        for (Block successor : left) { if (successor != taken) { work.addAll(successor.phis); } }
+        
+        return true;
+    }
+    
+    /**
+     * @return What an instruction can be replaced with, or {@code null}.
+     */
+    private Instruction simplify (Instruction instruction) {
+        Op op = instruction.op();
+        
+        if (op == Op.PHI) { return onlyValue(instruction); }
+        if (op == Op.CONCAT) { return concat(instruction); }
+        
+        if (instruction.operands().isEmpty() || !(op.isArithmetic() || op.isComparison()
+                || op == Op.NEG || op == Op.NOT || op == Op.CONVERT || op == Op.INTRINSIC)) {
+            return null;
+        }
+        
+        boolean constants = true;
+        
+        for (Instruction operand : instruction.operands()) { constants &= operand.isConstant(); }
+        
+        if (!constants) { return identity(instruction); }
+        
+        Object value = evaluate(instruction);
+        
+        return value == null ? null : function.constant(instruction.type(), value);
+    }
+    
+    /**
+     * @return The value a phi always picks, other than itself, or {@code null}.
+     */
+    private static Instruction onlyValue (Instruction phi) {
+        Instruction same = null;
+        
+        for (Instruction operand : phi.operands()) {
+            if (operand == same || operand == phi) { continue; }
+            if (same != null) { return null; }
+            
+            same = operand;
+        }
+        
+        return same;
+    }
+    
+    /**
+     * Joins the constant parts of a string that are next to each other.
+     * 
+     * @return The string, if every part was constant, or else {@code null}.
+     */
+    private Instruction concat (Instruction concat) {
+        for (int i = 0; i + 1 < concat.operands().size(); ) {
+            Instruction a = concat.operand(i);
+            Instruction b = concat.operand(i + 1);
+            
+            if (!a.isConstant() || !b.isConstant()) {
+                i++;
+                continue;
+            }
+            
+            concat.setOperand(i, function.constant(Type.STRING, text(a) + text(b)));
+            concat.removeOperand(i + 1);
+        }
+        
+        if (concat.operands().size() != 1 || !concat.operand(0).isConstant()) { return null; }
+        
+        return function.constant(Type.STRING, text(concat.operand(0)));
+    }
+    
+    /**
+     * @return A constant as it is printed.
+     */
+    private static String text (Instruction constant) {
+        Object value = constant.value();
+        
+        switch (constant.type().kind()) {
+            case BOOL:  return String.valueOf(constant.intValue() != 0);
+            case CHAR:  return String.valueOf((char) constant.intValue());
+            default:    return String.valueOf(value);
+        }
+    }
+    
+    /**
+     * @return The operand an operation gives back when the other is a
+     *      constant that changes nothing, or {@code null}.
+     */
+    private static Instruction identity (Instruction instruction) {
+        Op op = instruction.op();
+        
+        if (op == Op.NOT && instruction.operand(0).op() == Op.NOT) { return instruction.operand(0).operand(0); }
+        
+        // Adding zero to a floating point number may still change it: -0.0 + 0 is 0.0.
+        if (!op.isArithmetic() || !instruction.type().isIntegral()) { return null; }
+        
+        Instruction a = instruction.operand(0);
+        Instruction b = instruction.operand(1);
+        
+        if (b.isConstant()) {
+            long value = ((Number) b.value()).longValue();
+            
+            switch (op) {
+                case ADD: case SUB: case OR: case XOR: case SHL: case SHR: case USHR:
+                    return value == 0 ? a : null;
+                case MUL: case DIV:
+                    return value == 1 ? a : null;
+                default:
+                    return null;
+            }
+        }
+        
+        if (a.isConstant()) {
+            long value = ((Number) a.value()).longValue();
+            
+            switch (op) {
+                case ADD: case OR: case XOR:
+                    return value == 0 ? b : null;
+                case MUL:
+                    return value == 1 ? b : null;
+                default:
+                    return null;
+            }
+        }
+        
+        return null;
+    }
+    
+    /**
+     * @return The value of an operation on constants, or {@code null} if it
+     *      throws, or cannot be computed here.
+     */
+    private static Object evaluate (Instruction instruction) {
+        Op op = instruction.op();
+        Instruction a = instruction.operand(0);
+        
+        if (op.isComparison()) {
+            Object b = instruction.operand(1).value();
+            
+            return compare(op, a.type(), a.value(), b) ? 1 : 0;
+        }
+        
+        switch (op) {
+            case NEG:       return negate(a.type(), (Number) a.value());
+            case NOT:       return a.intValue() ^ 1;
+            case CONVERT:   return convert((Number) a.value(), instruction.type());
+            case INTRINSIC: return ((Intrinsic) instruction.value()).apply(((Number) a.value()).doubleValue());
+            default:        return arithmetic(op, instruction.type(), (Number) a.value(), (Number) instruction.operand(1).value());
+        }
+    }
+    
+    private static boolean compare (Op op, Type type, Object a, Object b) {
+        switch (type.kind()) {
+            case LONG: {
+                long x = ((Number) a).longValue(), y = ((Number) b).longValue();
+                
+                return test(op, Long.compare(x, y));
+            }
+            case FLOAT:
+            case DOUBLE: {
+                double x = ((Number) a).doubleValue(), y = ((Number) b).doubleValue();
+                
+                // Every comparison with NaN is false, but that of not being equal.
+                if (Double.isNaN(x) || Double.isNaN(y)) { return op == Op.NE; }
+                
+                return test(op, Double.compare(x == 0 ? 0.0 : x, y == 0 ? 0.0 : y));
+            }
+            case STRING:
+            case OBJECT:
+            case ARRAY: {
+                boolean equal = Objects.equals(a, b);
+                
+                return op == Op.EQ ? equal : !equal;
+            }
+            default: {
+                return test(op, Integer.compare(((Number) a).intValue(), ((Number) b).intValue()));
+            }
+        }
+    }
+    
+    private static boolean test (Op op, int order) {
+        switch (op) {
+            case EQ:    return order == 0;
+            case NE:    return order != 0;
+            case LT:    return order < 0;
+            case GE:    return order >= 0;
+            case GT:    return order > 0;
+            default:    return order <= 0;
+        }
+    }
+    
+    private static Object negate (Type type, Number value) {
+        switch (type.kind()) {
+            case LONG:      return -value.longValue();
+            case FLOAT:     return -value.floatValue();
+            case DOUBLE:    return -value.doubleValue();
+            default:        return -value.intValue();
+        }
+    }
+    
+    /**
+     * @return A number converted to a type, as the JVM converts it.
+     */
+    static Object convert (Number value, Type to) {
+        switch (to.kind()) {
+            case LONG:      return value.longValue();
+            case FLOAT:     return value.floatValue();
+            case DOUBLE:    return value.doubleValue();
+            case BYTE:      return (int) (byte) value.intValue();
+            case SHORT:     return (int) (short) value.intValue();
+            case CHAR:      return (int) (char) value.intValue();
+            default:        return value.intValue();
+        }
+    }
+    
+    private static Object arithmetic (Op op, Type type, Number a, Number b) {
+        switch (type.kind()) {
+            case LONG: {
+                long x = a.longValue(), y = b.longValue();
+                
+                switch (op) {
+                    case ADD:   return x + y;
+                    case SUB:   return x - y;
+                    case MUL:   return x * y;
+                    case DIV:   return y == 0 ? null : x / y;
+                    case REM:   return y == 0 ? null : x % y;
+                    case AND:   return x & y;
+                    case OR:    return x | y;
+                    case XOR:   return x ^ y;
+                    case SHL:   return x << y;
+                    case SHR:   return x >> y;
+                    default:    return x >>> y;
+                }
+            }
+            case FLOAT: {
+                float x = a.floatValue(), y = b.floatValue();
+                
+                switch (op) {
+                    case ADD:   return x + y;
+                    case SUB:   return x - y;
+                    case MUL:   return x * y;
+                    case DIV:   return x / y;
+                    case REM:   return x % y;
+                    default:    return null;
+                }
+            }
+            case DOUBLE: {
+                double x = a.doubleValue(), y = b.doubleValue();
+                
+                switch (op) {
+                    case ADD:   return x + y;
+                    case SUB:   return x - y;
+                    case MUL:   return x * y;
+                    case DIV:   return x / y;
+                    case REM:   return x % y;
+                    default:    return null;
+                }
+            }
+            default: {
+                int x = a.intValue(), y = b.intValue();
+                
+                switch (op) {
+                    case ADD:   return x + y;
+                    case SUB:   return x - y;
+                    case MUL:   return x * y;
+                    case DIV:   return y == 0 ? null : x / y;
+                    case REM:   return y == 0 ? null : x % y;
+                    case AND:   return x & y;
+                    case OR:    return x | y;
+                    case XOR:   return x ^ y;
+                    case SHL:   return x << y;
+                    case SHR:   return x >> y;
+                    default:    return x >>> y;
+                }
+            }
+        }
+    }
+}
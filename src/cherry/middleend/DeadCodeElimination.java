@@ -0,0 +1,111 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 SoraKatadzuma.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package cherry.middleend;
+
+import cherry.middleend.Instruction.Op;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+
+/**
+ * The {@code DeadCodeElimination} pass removes what makes a value nobody
+ * needs. Everything that changes something, or may throw, is needed, and so
+ * is whatever it uses, and whatever that uses in turn: the rest, along with
+ * phis that only feed each other round a loop, is removed. Blocks that can no
+ * longer be reached are removed, and a block that only ever goes on to one
+ * other, which nothing else goes to, is merged with it.
+ * 
+ * @author SoraKatadzuma
+ * @version Alpha 0.0.1
+ * @since 10/18/2026
+ */
+public final class DeadCodeElimination implements Pass {
+    @Override
+    public String name () { return "dce"; }
+    
+    @Override
+    public void run (Function function) {
+        function.removeUnreachable();
+        
+        BitSet live = new BitSet(function.instructionLimit());
+        Deque<Instruction> pending = new ArrayDeque<>();
+        
+        for (Block block : function.blocks()) {
+            for (Instruction instruction : block.instructions) {
+                if (isNeeded(instruction)) {
+                    live.set(instruction.id());
+                    pending.push(instruction);
+                }
+            }
+        }
+        
+        while (!pending.isEmpty()) {
+            for (Instruction operand : pending.pop().operands()) {
+                if (!live.get(operand.id())) {
+                    live.set(operand.id());
+                    pending.push(operand);
+                }
+            }
+        }
+        
+        for (Block block : function.blocks()) {
+            // Phis first: their operands may be among what is removed.
+            for (Instruction phi : new ArrayList<>(block.phis)) { if (!live.get(phi.id())) { clear(phi); } }
+            
+            for (Instruction instruction : new ArrayList<>(block.instructions)) {
+                if (!live.get(instruction.id())) { clear(instruction); }
+            }
+        }
+        
+        for (Block block : function.blocks()) {
+            for (Instruction phi : new ArrayList<>(block.phis)) { if (!live.get(phi.id())) { phi.remove(); } }
+            
+            for (Instruction instruction : new ArrayList<>(block.instructions)) {
+                if (!live.get(instruction.id())) { instruction.remove(); }
+            }
+        }
+        
+        function.mergeBlocks();
+    }
+    
+    /**
+     * @return true if an instruction is needed for what it does, rather than
+     *      for its value. Parameters and constants are kept whatever happens,
+     *      as the function holds on to them.
+     */
+    private static boolean isNeeded (Instruction instruction) {
+        Op op = instruction.op();
+        
+        return op == Op.PARAMETER || op == Op.CONSTANT || !instruction.isPure();
+    }
+    
+    /**
+     * Stops a dead instruction from using anything, so that dead values that
+     * use each other can be removed in any order.
+     */
+    private static void clear (Instruction instruction) {
+        while (!instruction.operands().isEmpty()) { instruction.removeOperand(instruction.operands().size() - 1); }
+    }
+}
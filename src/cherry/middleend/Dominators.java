@@ -0,0 +1,138 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 SoraKatadzuma.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package cherry.middleend;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The {@code Dominators} of a function are, for each block, the blocks every
+ * path from the entry to it goes through. They are found as the tree of
+ * immediate dominators, by going over the blocks in reverse postorder until
+ * nothing changes, which for the functions of structured code takes two
+ * rounds at most.
+ * 
+ * @author SoraKatadzuma
+ * @version Alpha 0.0.1
+ * @since 10/18/2026
+ */
+final class Dominators {
+    /** The blocks in reverse postorder. */
+    private final List<Block> order;
+    /** The place of each block in that order, by block number, -1 if it cannot be reached. */
+    private final int[] index;
+    /** The immediate dominator of each block, by block number. */
+    private final Block[] parent;
+    /** The blocks each block immediately dominates, by block number. */
+    private final List<List<Block>> children;
+    
+    /**
+     * Finds the dominators of a function.
+     * 
+     * @param function The function.
+     */
+    Dominators (Function function) {
+        this.order = function.reversePostorder();
+        this.index = new int[function.blockLimit()];
+        this.parent = new Block[function.blockLimit()];
+        this.children = new ArrayList<>(Collections.nCopies(function.blockLimit(), (List<Block>) null));
+        
+        Arrays.fill(index, -1);
+        
+        for (int i = 0; i < order.size(); i++) { index[order.get(i).id()] = i; }
+        
+        Block entry = function.entry();
+        boolean changed = true;
+        
+        parent[entry.id()] = entry;
+        
+        while (changed) {
+            changed = false;
+            
+            for (int i = 1; i < order.size(); i++) {
+                Block block = order.get(i);
+                Block found = null;
+                
+                for (Block predecessor : block.predecessors) {
+                    if (parent[predecessor.id()] == null) { continue; }
+                    
+                    found = found == null ? predecessor : intersect(predecessor, found);
+                }
+                
+                if (parent[block.id()] != found) {
+                    parent[block.id()] = found;
+                    changed = true;
+                }
+            }
+        }
+        
+        for (Block block : order) {
+            children.set(block.id(), new ArrayList<>(2));
+            
+            if (block != entry) { children.get(parent[block.id()].id()).add(block); }
+        }
+    }
+    
+    private Block intersect (Block a, Block b) {
+        while (a != b) {
+            while (index[a.id()] > index[b.id()]) { a = parent[a.id()]; }
+            while (index[b.id()] > index[a.id()]) { b = parent[b.id()]; }
+        }
+        
+        return a;
+    }
+    
+    /**
+     * @return The blocks that can be reached, in reverse postorder.
+     */
+    List<Block> order () { return order; }
+    
+    /**
+     * @return The immediate dominator of a block, the entry for the entry.
+     */
+    Block parent (Block block) { return parent[block.id()]; }
+    
+    /**
+     * @return The blocks a block immediately dominates.
+     */
+    List<Block> children (Block block) { return children.get(block.id()); }
+    
+    /**
+     * @return true if every path to one block goes through another, as every
+     *      path to a block goes through itself.
+     */
+    boolean dominates (Block dominator, Block block) {
+        while (block != dominator) {
+            Block up = parent[block.id()];
+            
+            if (up == block) { return false; }
+            
+            block = up;
+        }
+        
+        return true;
+    }
+}
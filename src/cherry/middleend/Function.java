@@ -0,0 +1,424 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 SoraKatadzuma.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package cherry.middleend;
+
+import cherry.frontend.semantics.Member;
+import cherry.frontend.semantics.Type;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@code Function} is the SSA form of the body of a method, or of the field
+ * initializers a constructor or static initializer runs. Its first block is
+ * where it starts, and holds its parameters and constants.
+ * <p>
+ * Constants are made once per function, and are never used up: each use
+ * of one is free to push it again.
+ * </p>
+ * 
+ * @author SoraKatadzuma
+ * @version Alpha 0.0.1
+ * @since 10/18/2026
+ */
+public final class Function {
+    /** The name of the function. */
+    private final String name;
+    /** Whether the function has no receiver. */
+    private final boolean isStatic;
+    /** The type the function returns. */
+    private final Type returnType;
+    /** The blocks, the entry first. */
+    private final List<Block> blocks = new ArrayList<>();
+    /** The parameters, the receiver first if there is one. */
+    private final List<Instruction> parameters = new ArrayList<>();
+    /** The constants, by type and value. */
+    private final Map<List<Object>, Instruction> constants = new HashMap<>();
+    /** The number of the next block. */
+    private int nextBlock;
+    /** The number of the next instruction. */
+    private int nextInstruction;
+    
+    /**
+     * Constructs a new Function with an empty entry block.
+     * 
+     * @param name The name of the function.
+     * @param isStatic Whether the function has no receiver.
+     * @param returnType The type the function returns.
+     */
+    public Function (String name, boolean isStatic, Type returnType) {
+        this.name = name;
+        this.isStatic = isStatic;
+        this.returnType = returnType;
+        
+        newBlock();
+    }
+    
+    /**
+     * @return The name of the function.
+     */
+    public String name () { return name; }
+    
+    /**
+     * @return Whether the function has no receiver.
+     */
+    public boolean isStatic () { return isStatic; }
+    
+    /**
+     * @return The type the function returns.
+     */
+    public Type returnType () { return returnType; }
+    
+    /**
+     * @return The block the function starts at.
+     */
+    public Block entry () { return blocks.get(0); }
+    
+    /**
+     * @return The blocks, the entry first.
+     */
+    public List<Block> blocks () { return Collections.unmodifiableList(blocks); }
+    
+    /**
+     * @return The parameters, the receiver first if there is one.
+     */
+    public List<Instruction> parameters () { return Collections.unmodifiableList(parameters); }
+    
+    /**
+     * @return The number of instructions other than parameters and constants.
+     */
+    public int size () {
+        int size = 0;
+        
+        for (Block block : blocks) { size += block.phis.size() + block.instructions.size(); }
+        
+        return size - parameters.size() - constants.size();
+    }
+    
+    /* ---------------------------------------------------------------------- */
+    /* Building.                                                              */
+    /* ---------------------------------------------------------------------- */
+    
+    /**
+     * Adds a parameter after those already added.
+     * 
+     * @param type The type of the parameter.
+     * @return The parameter.
+     */
+    public Instruction parameter (Type type) {
+        Instruction parameter = make(Instruction.Op.PARAMETER, type, parameters.size(), null, null);
+        
+        entry().instructions.add(parameters.size(), parameter);
+        parameter.block = entry();
+        parameters.add(parameter);
+        return parameter;
+    }
+    
+    /**
+     * @param type The type of the constant: a number, bool or string.
+     * @param value The constant: an Integer for an int, a narrower number,
+     *      or a bool, which is 0 or 1; a Long, Float, Double or String otherwise.
+     * @return The constant.
+     */
+    public Instruction constant (Type type, Object value) {
+        List<Object> key = Arrays.asList(type.kind(), value);
+        Instruction constant = constants.get(key);
+        
+        if (constant == null) {
+            constant = make(Instruction.Op.CONSTANT, type, value, null, null);
+            entry().instructions.add(parameters.size(), constant);
+            constant.block = entry();
+            constants.put(key, constant);
+        }
+        
+        return constant;
+    }
+    
+    Block newBlock () {
+        Block block = new Block(this, nextBlock++);
+        
+        blocks.add(block);
+        return block;
+    }
+    
+    Instruction make (Instruction.Op op, Type type, Object value, Member member, Block[] targets, Instruction... operands) {
+        return new Instruction(nextInstruction++, op, type, value, member, targets, operands);
+    }
+    
+    /**
+     * Ends a block with a jump.
+     */
+    Instruction jump (Block from, Block to, int line) {
+        to.predecessors.add(from);
+        return add(from, make(Instruction.Op.JUMP, Type.VOID, null, null, new Block[] { to }), line);
+    }
+    
+    /**
+     * Ends a block with a branch on a bool.
+     */
+    Instruction branch (Block from, Instruction condition, Block then, Block otherwise, int line) {
+        if (then == otherwise) { return jump(from, then, line); }
+        
+        then.predecessors.add(from);
+        otherwise.predecessors.add(from);
+        return add(from, make(Instruction.Op.BRANCH, Type.VOID, null, null, new Block[] { then, otherwise }, condition), line);
+    }
+    
+    Instruction add (Block block, Instruction instruction, int line) {
+        instruction.line(line);
+        return block.add(instruction);
+    }
+    
+    /**
+     * Replaces the terminator of a block with a jump to one of its targets,
+     * dropping the edges to the others.
+     */
+    void jumpTo (Block from, Block to) {
+        Instruction terminator = from.terminator();
+        boolean kept = false;
+        
+        for (Block successor : from.successors()) {
+            if (successor == to && !kept) { kept = true; }
+            else { successor.removePredecessor(from); }
+        }
+        
+        terminator.remove();
+        add(from, make(Instruction.Op.JUMP, Type.VOID, null, null, new Block[] { to }), terminator.line());
+    }
+    
+    /**
+     * Removes the blocks that cannot be reached from the entry.
+     * 
+     * @return true if any were removed.
+     */
+    boolean removeUnreachable () {
+        BitSet reached = new BitSet(nextBlock);
+        Deque<Block> pending = new ArrayDeque<>();
+        
+        pending.push(entry());
+        reached.set(entry().id());
+        
+        while (!pending.isEmpty()) {
+            for (Block successor : pending.pop().successors()) {
+                if (!reached.get(successor.id())) {
+                    reached.set(successor.id());
+                    pending.push(successor);
+                }
+            }
+        }
+        
+        List<Block> unreached = new ArrayList<>();
+        
+        for (Block block : blocks) { if (!reached.get(block.id())) { unreached.add(block); } }
+        
+        if (unreached.isEmpty()) { return false; }
+        
+        for (Block block : unreached) {
+            for (Block successor : block.successors()) {
+                if (reached.get(successor.id())) { successor.removePredecessor(block); }
+            }
+        }
+        
+        // What the unreached blocks make can only be used by each other, as a
+        // use must be reached through what it uses.
+        for (Block block : unreached) {
+            for (Instruction phi : new ArrayList<>(block.phis)) { phi.remove(); }
+            for (Instruction instruction : new ArrayList<>(block.instructions)) { instruction.remove(); }
+        }
+        
+        blocks.removeAll(unreached);
+        return true;
+    }
+    
+    /**
+     * Merges each block that jumps to a block nothing else goes to with it,
+     * and makes whatever goes to a block that only jumps go straight on to
+     * where it jumps, where no phi tells the two paths apart.
+     */
+    void mergeBlocks () {
+        boolean changed = true;
+        
+        while (changed) {
+            changed = false;
+            
+            for (Block block : new ArrayList<>(blocks)) {
+                if (blocks.contains(block)) { changed |= merge(block) | bypass(block); }
+            }
+        }
+    }
+    
+    private boolean merge (Block block) {
+        Instruction jump = block.terminator();
+        
+        if (jump == null || jump.op() != Instruction.Op.JUMP) { return false; }
+        
+        Block next = jump.target(0);
+        
+        if (next == block || next == entry() || next.predecessors.size() != 1) { return false; }
+        
+        for (Instruction phi : new ArrayList<>(next.phis)) {
+            phi.replaceAllUsesWith(phi.operand(0));
+            phi.remove();
+        }
+        
+        jump.remove();
+        
+        for (Instruction instruction : next.instructions) {
+            instruction.block = block;
+            block.instructions.add(instruction);
+        }
+        
+        next.instructions.clear();
+        
+        for (Block successor : block.successors()) { successor.replacePredecessor(next, block); }
+        
+        blocks.remove(next);
+        return true;
+    }
+    
+    private boolean bypass (Block block) {
+        if (block == entry() || !block.phis.isEmpty() || block.instructions.size() != 1) { return false; }
+        
+        Instruction jump = block.terminator();
+        
+        if (jump.op() != Instruction.Op.JUMP) { return false; }
+        
+        Block next = jump.target(0);
+        
+        if (next == block || !next.phis.isEmpty()) { return false; }
+        
+        for (Block predecessor : block.predecessors) {
+            if (predecessor.successors().contains(next)) { return false; }
+        }
+        
+        for (Block predecessor : block.predecessors) {
+            Instruction terminator = predecessor.terminator();
+            
+            for (int i = 0; i < terminator.targetCount(); i++) {
+                if (terminator.target(i) == block) { terminator.setTarget(i, next); }
+            }
+            
+            next.predecessors.add(predecessor);
+        }
+        
+        next.predecessors.remove(block);
+        jump.remove();
+        blocks.remove(block);
+        return true;
+    }
+    
+    /**
+     * Splits every edge from a block with more than one successor to a block
+     * with more than one predecessor, with a block that only jumps, so that
+     * there is a place for what must happen on that edge alone.
+     */
+    public void splitCriticalEdges () {
+        for (Block block : new ArrayList<>(blocks)) {
+            Instruction terminator = block.terminator();
+            
+            if (terminator == null || terminator.targetCount() < 2) { continue; }
+            
+            for (int i = 0; i < terminator.targetCount(); i++) {
+                Block target = terminator.target(i);
+                
+                if (target.predecessors.size() < 2) { continue; }
+                
+                Block edge = newBlock();
+                
+                target.replacePredecessor(block, edge);
+                terminator.setTarget(i, edge);
+                edge.predecessors.add(block);
+                add(edge, make(Instruction.Op.JUMP, Type.VOID, null, null, new Block[] { target }), terminator.line());
+            }
+        }
+    }
+    
+    /**
+     * @return The blocks in reverse postorder: each before its successors,
+     *      other than those it is reached back from.
+     */
+    public List<Block> reversePostorder () {
+        List<Block> order = new ArrayList<>(blocks.size());
+        BitSet visited = new BitSet(nextBlock);
+        Deque<Block> path = new ArrayDeque<>();
+        Deque<Integer> next = new ArrayDeque<>();
+        
+        path.push(entry());
+        next.push(0);
+        visited.set(entry().id());
+        
+        while (!path.isEmpty()) {
+            Block block = path.peek();
+            List<Block> successors = block.successors();
+            int index = next.pop();
+            
+            if (index < successors.size()) {
+                next.push(index + 1);
+                
+                Block successor = successors.get(index);
+                
+                if (!visited.get(successor.id())) {
+                    visited.set(successor.id());
+                    path.push(successor);
+                    next.push(0);
+                }
+            } else {
+                order.add(path.pop());
+            }
+        }
+        
+        Collections.reverse(order);
+        return order;
+    }
+    
+    /**
+     * @return The highest block number plus one.
+     */
+    int blockLimit () { return nextBlock; }
+    
+    /**
+     * @return The highest instruction number plus one.
+     */
+    public int instructionLimit () { return nextInstruction; }
+    
+    @Override
+    public String toString () {
+        StringBuilder text = new StringBuilder(name).append(":\n");
+        
+        for (Block block : blocks) {
+            text.append("  ").append(block).append(" <- ").append(block.predecessors).append('\n');
+            
+            for (Instruction phi : block.phis) { text.append("    ").append(phi).append('\n'); }
+            for (Instruction instruction : block.instructions) { text.append("    ").append(instruction).append('\n'); }
+        }
+        
+        return text.toString();
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 SoraKatadzuma.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package cherry.middleend;
+
+import cherry.frontend.semantics.Member;
+import cherry.middleend.Instruction.Op;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@code Inliner} replaces calls of small static methods with a copy of
+ * their body, so that the call costs nothing, and what the caller knows of
+ * the arguments can be used in the body by the passes after it. The block of
+ * the call is split in two at the call, the copy goes between the halves,
+ * and each return of the copy jumps to the second half, where a phi picks
+ * the value returned if there is more than one return.
+ * <p>
+ * Only the calls a function starts with are inlined, not those of the copies,
+ * and never a method that calls itself, so inlining always comes to an end.
+ * </p>
+ * 
+ * @author SoraKatadzuma
+ * @version Alpha 0.0.1
+ * @since 10/18/2026
+ */
+public final class Inliner implements Pass {
+    /** The most instructions a method may have to be inlined. */
+    public static final int LIMIT = 24;
+    
+    /**
+     * The {@code Callees} find the functions of the methods that may be
+     * inlined: static methods with a body, in the class being generated.
+     */
+    public interface Callees {
+        /**
+         * @param method The method called.
+         * @return Its function, which is only copied from, or {@code null}
+         *      if it may not be inlined.
+         */
+        Function callee (Member method);
+    }
+    
+    /** Where the functions of methods called are found. */
+    private final Callees callees;
+    
+    /**
+     * Constructs a new Inliner.
+     * 
+     * @param callees Where the functions of methods called are found.
+     */
+    public Inliner (Callees callees) { this.callees = callees; }
+    
+    @Override
+    public String name () { return "inline"; }
+    
+    @Override
+    public void run (Function function) {
+        List<Instruction> calls = new ArrayList<>();
+        
+        for (Block block : function.blocks()) {
+            for (Instruction instruction : block.instructions) {
+                if (instruction.op() == Op.CALL) { calls.add(instruction); }
+            }
+        }
+        
+        for (Instruction call : calls) {
+            Function callee = callees.callee(call.member());
+            
+            if (callee != null && callee.size() <= LIMIT && isInlinable(callee, call.member())) {
+                inline(function, call, callee);
+            }
+        }
+    }
+    
+    /**
+     * @return true if a function returns, and does not call the method it is of.
+     */
+    private static boolean isInlinable (Function callee, Member method) {
+        boolean returns = false;
+        
+        for (Block block : callee.blocks()) {
+            for (Instruction instruction : block.instructions) {
+                if (instruction.op() == Op.CALL && instruction.member() == method) { return false; }
+                
+                returns |= instruction.op() == Op.RETURN;
+            }
+        }
+        
+        return returns;
+    }
+    
+    private static void inline (Function caller, Instruction call, Function callee) {
+        Block block = call.block();
+        Block after = caller.newBlock();
+        List<Instruction> rest = block.instructions.subList(block.instructions.indexOf(call) + 1, block.instructions.size());
+        
+        // What follows the call goes on after the copy.
+        for (Instruction instruction : rest) {
+            instruction.block = after;
+            after.instructions.add(instruction);
+        }
+        
+        rest.clear();
+        
+        for (Block successor : after.successors()) { successor.replacePredecessor(block, after); }
+        
+        Map<Block, Block> blocks = new IdentityHashMap<>();
+        Map<Instruction, Instruction> copies = new IdentityHashMap<>();
+        List<Instruction> copied = new ArrayList<>();
+        List<Instruction> results = new ArrayList<>();
+        
+        for (Block original : callee.blocks()) { blocks.put(original, caller.newBlock()); }
+        
+        for (Block original : callee.blocks()) {
+            Block copy = blocks.get(original);
+            
+            for (Block predecessor : original.predecessors) { copy.predecessors.add(blocks.get(predecessor)); }
+            
+            for (Instruction phi : original.phis) {
+                copies.put(phi, copy.add(caller.make(Op.PHI, phi.type(), null, null, null)));
+                copied.add(phi);
+            }
+            
+            for (Instruction instruction : original.instructions) {
+                switch (instruction.op()) {
+                    case PARAMETER: {
+                        copies.put(instruction, call.operand((Integer) instruction.value()));
+                        break;
+                    }
+                    case CONSTANT: {
+                        copies.put(instruction, caller.constant(instruction.type(), instruction.value()));
+                        break;
+                    }
+                    case RETURN: {
+                        results.add(instruction.operands().isEmpty() ? null : instruction.operand(0));
+                        caller.jump(copy, after, instruction.line());
+                        break;
+                    }
+                    default: {
+                        Block[] targets = null;
+                        
+                        if (instruction.targetCount() > 0) {
+                            targets = new Block[instruction.targetCount()];
+                            
+                            for (int i = 0; i < targets.length; i++) { targets[i] = blocks.get(instruction.target(i)); }
+                        }
+                        
+                        copies.put(instruction, caller.add(copy, caller.make(instruction.op(), instruction.type(),
+                                instruction.value(), instruction.member(), targets), instruction.line()));
+                        copied.add(instruction);
+                        break;
+                    }
+                }
+            }
+        }
+        
+        // Operands are only given once everything is copied, as a phi may
+        // use what comes after it.
+        for (Instruction original : copied) {
+            Instruction copy = copies.get(original);
+            
+            for (Instruction operand : original.operands()) { copy.addOperand(copies.get(operand)); }
+        }
+        
+        if (call.hasValue()) {
+            Instruction result;
+            
+            if (results.size() == 1) {
+                result = copies.get(results.get(0));
+            } else {
+                result = after.add(caller.make(Op.PHI, call.type(), null, null, null));
+                
+                // The returns jumped to the second half in the order they were copied.
+                for (Instruction returned : results) { result.addOperand(copies.get(returned)); }
+            }
+            
+            call.replaceAllUsesWith(result);
+        }
+        
+        call.remove();
+        caller.jump(block, blocks.get(callee.entry()), call.line());
+    }
+}
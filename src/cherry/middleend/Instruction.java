@@ -0,0 +1,360 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 SoraKatadzuma.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package cherry.middleend;
+
+import cherry.frontend.semantics.Member;
+import cherry.frontend.semantics.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An {@code Instruction} is one operation of a {@code Function}, and the
+ * value it makes, if it makes one. A function is in SSA form: every value is
+ * made by exactly one instruction, and where the values of a variable from
+ * different paths meet, a {@code PHI} picks the one of the path taken.
+ * <p>
+ * Each instruction knows its operands and the instructions that use it, so
+ * that a pass can replace a value everywhere it is used at once.
+ * </p>
+ * 
+ * @author SoraKatadzuma
+ * @version Alpha 0.0.1
+ * @since 10/18/2026
+ */
+public final class Instruction {
+    /**
+     * The operations of instructions. Arithmetic and comparisons operate on
+     * operands of the same type, which is the type of arithmetic and of the
+     * operands of a comparison: every conversion is an instruction of its own.
+     */
+    public enum Op {
+        /** A parameter, or the receiver of an instance method. */
+        PARAMETER,
+        /** A constant, held as its {@code value}. */
+        CONSTANT,
+        /** Picks one of its operands, by the predecessor its block was entered from. */
+        PHI,
+        
+        ADD, SUB, MUL, DIV, REM, AND, OR, XOR, SHL, SHR, USHR,
+        /** Negates a number. */
+        NEG,
+        /** Negates a bool. */
+        NOT,
+        /** Converts a number to the type of the instruction. */
+        CONVERT,
+        
+        EQ, NE, LT, GE, GT, LE,
+        
+        /** Joins the text of its operands into a string. */
+        CONCAT,
+        /** Gets a field of its operand, or a static field. */
+        LOAD,
+        /** Puts its last operand in a field of its first, or in a static field. */
+        STORE,
+        /** Gets an element of an array. */
+        ELEMENT,
+        /** Puts an element of an array: the array, index and value. */
+        PUT,
+        /** The length of an array. */
+        LENGTH,
+        /** Creates an object of the type of the instruction. */
+        NEW,
+        /** Creates an array of the length of its operand. */
+        NEW_ARRAY,
+        /** Calls a method with its operands, the receiver first. */
+        CALL,
+        /** Prints its operand, if it has one, through a builtin of System. */
+        PRINT,
+        /** Applies a math function, held as its {@code value}, to a double. */
+        INTRINSIC,
+        
+        /** Goes to its one target. */
+        JUMP,
+        /** Goes to its first target if its operand is true, or else its second. */
+        BRANCH,
+        /** Leaves the function, with its operand if it has one. */
+        RETURN;
+        
+        /**
+         * @return true if the operation ends a block.
+         */
+        public boolean isTerminator () { return ordinal() >= JUMP.ordinal(); }
+        
+        /**
+         * @return true for arithmetic on two operands.
+         */
+        public boolean isArithmetic () { return ordinal() >= ADD.ordinal() && ordinal() <= USHR.ordinal(); }
+        
+        /**
+         * @return true for comparisons, which make a bool.
+         */
+        public boolean isComparison () { return ordinal() >= EQ.ordinal() && ordinal() <= LE.ordinal(); }
+        
+        /**
+         * @return The comparison that holds exactly when this one does not,
+         *      which for floating point numbers is only true of EQ and NE.
+         */
+        public Op negated () {
+            switch (this) {
+                case EQ:    return NE;
+                case NE:    return EQ;
+                case LT:    return GE;
+                case GE:    return LT;
+                case GT:    return LE;
+                default:    return GT;
+            }
+        }
+        
+        /**
+         * @return The comparison that holds when this one does with its
+         *      operands swapped.
+         */
+        public Op swapped () {
+            switch (this) {
+                case LT:    return GT;
+                case GT:    return LT;
+                case LE:    return GE;
+                case GE:    return LE;
+                default:    return this;
+            }
+        }
+    }
+    
+    /** The operation. */
+    private final Op op;
+    /** The type of the value made, VOID if none is. */
+    private final Type type;
+    /** The values operated on. */
+    private final List<Instruction> operands = new ArrayList<>(2);
+    /** The instructions that use this value, once per use. */
+    private final List<Instruction> users = new ArrayList<>(2);
+    /** The block the instruction is in, {@code null} once removed. */
+    Block block;
+    /** The constant, index of a parameter, or function of an intrinsic. */
+    private final Object value;
+    /** The field or method of a load, store, call or print. */
+    private final Member member;
+    /** Where a jump or branch goes. */
+    private final Block[] targets;
+    /** The line of the source the instruction comes from. */
+    private int line;
+    /** The number of the instruction in its function. */
+    private final int id;
+    /** What a removed instruction was replaced with, while a function is built. */
+    Instruction replacement;
+    
+    Instruction (int id, Op op, Type type, Object value, Member member, Block[] targets, Instruction... operands) {
+        this.id = id;
+        this.op = op;
+        this.type = type;
+        this.value = value;
+        this.member = member;
+        this.targets = targets;
+        
+        for (Instruction operand : operands) { addOperand(operand); }
+    }
+    
+    /**
+     * @return The operation.
+     */
+    public Op op () { return op; }
+    
+    /**
+     * @return The type of the value made, VOID if none is.
+     */
+    public Type type () { return type; }
+    
+    /**
+     * @return The values operated on.
+     */
+    public List<Instruction> operands () { return Collections.unmodifiableList(operands); }
+    
+    /**
+     * @param index The index of an operand.
+     * @return The operand.
+     */
+    public Instruction operand (int index) { return operands.get(index); }
+    
+    /**
+     * @return The instructions that use this value, once per use.
+     */
+    public List<Instruction> users () { return Collections.unmodifiableList(users); }
+    
+    /**
+     * @return The block the instruction is in, {@code null} once removed.
+     */
+    public Block block () { return block; }
+    
+    /**
+     * @return The constant, index of a parameter, or function of an intrinsic.
+     */
+    public Object value () { return value; }
+    
+    /**
+     * @return The field or method of a load, store, call or print.
+     */
+    public Member member () { return member; }
+    
+    /**
+     * @param index 0 for the only target of a jump or the target of a branch
+     *      taken when its operand is true, 1 for the other.
+     * @return Where the jump or branch goes.
+     */
+    public Block target (int index) { return targets[index]; }
+    
+    /**
+     * @return The number of targets.
+     */
+    public int targetCount () { return targets == null ? 0 : targets.length; }
+    
+    /**
+     * @return The line of the source the instruction comes from.
+     */
+    public int line () { return line; }
+    
+    void line (int line) { this.line = line; }
+    
+    /**
+     * @return The number of the instruction in its function.
+     */
+    public int id () { return id; }
+    
+    /**
+     * @return true if the instruction makes a value.
+     */
+    public boolean hasValue () { return type.kind() != Type.Kind.VOID; }
+    
+    /**
+     * @return true if the instruction is a constant.
+     */
+    public boolean isConstant () { return op == Op.CONSTANT; }
+    
+    /**
+     * @return The constant of an instruction of the int family or a bool.
+     */
+    public int intValue () { return ((Number) value).intValue(); }
+    
+    /**
+     * @return true if the instruction does nothing but make its value: it
+     *      changes nothing, and cannot throw, so that it may be left out if
+     *      the value is not used.
+     */
+    public boolean isPure () {
+        switch (op) {
+            case DIV:
+            case REM:           return !type.isIntegral() || isNonZero(operands.get(1));
+            case LENGTH:        return false;
+            case LOAD:          return operands.isEmpty();
+            default:            return op.ordinal() < Op.LOAD.ordinal() || op == Op.INTRINSIC;
+        }
+    }
+    
+    /**
+     * @return true if the value of the instruction depends on nothing but its
+     *      operands, so that another instruction with the same operands makes
+     *      the same value, or throws where the first would have.
+     */
+    public boolean isRepeatable () {
+        return op.isArithmetic() || op.isComparison() || op == Op.NEG || op == Op.NOT || op == Op.CONVERT
+                || op == Op.CONCAT || op == Op.LENGTH || op == Op.INTRINSIC;
+    }
+    
+    private static boolean isNonZero (Instruction divisor) {
+        return divisor.isConstant() && ((Number) divisor.value).longValue() != 0;
+    }
+    
+    /* ---------------------------------------------------------------------- */
+    /* Changes.                                                               */
+    /* ---------------------------------------------------------------------- */
+    
+    void addOperand (Instruction operand) {
+        operands.add(operand);
+        operand.users.add(this);
+    }
+    
+    void setOperand (int index, Instruction operand) {
+        operands.get(index).users.remove(this);
+        operands.set(index, operand);
+        operand.users.add(this);
+    }
+    
+    void removeOperand (int index) {
+        operands.remove(index).users.remove(this);
+    }
+    
+    void setTarget (int index, Block target) { targets[index] = target; }
+    
+    /**
+     * Makes every user of this value use another instead.
+     * 
+     * @param other The value used instead.
+     */
+    void replaceAllUsesWith (Instruction other) {
+        for (Instruction user : new ArrayList<>(users)) {
+            for (int i = 0; i < user.operands.size(); i++) {
+                if (user.operands.get(i) == this) { user.setOperand(i, other); }
+            }
+        }
+    }
+    
+    /**
+     * Takes the instruction out of its block, and out of the users of its
+     * operands. Its own users must have stopped using it.
+     */
+    void remove () {
+        for (Instruction operand : operands) { operand.users.remove(this); }
+        
+        operands.clear();
+        
+        if (block != null) {
+            (op == Op.PHI ? block.phis : block.instructions).remove(this);
+            block = null;
+        }
+    }
+    
+    @Override
+    public String toString () {
+        StringBuilder text = new StringBuilder();
+        
+        if (hasValue()) { text.append('%').append(id).append(" = "); }
+        
+        text.append(op.name().toLowerCase());
+        
+        if (hasValue()) { text.append(' ').append(type); }
+        if (op == Op.CONSTANT && value instanceof String) { text.append(" \"").append(value).append('"'); }
+        else if (value != null) { text.append(' ').append(value); }
+        if (member != null) { text.append(' ').append(member.spelling()); }
+        
+        for (int i = 0; i < operands.size(); i++) {
+            text.append(i == 0 ? " " : ", ").append('%').append(operands.get(i).id);
+        }
+        
+        for (int i = 0; i < targetCount(); i++) {
+            text.append(i == 0 ? " -> " : ", ").append('b').append(targets[i].id());
+        }
+        
+        return text.toString();
+    }
+}
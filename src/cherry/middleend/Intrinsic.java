@@ -0,0 +1,114 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 SoraKatadzuma.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package cherry.middleend;
+
+import cherry.frontend.grammar.Token;
+
+/**
+ * An {@code Intrinsic} is one of the math functions Cherry has as keywords.
+ * The compiler knows what each of them computes: with a constant argument it
+ * is computed while compiling, and otherwise it is written as the method of
+ * {@code java.lang.Math} the JVM runs fastest, which it mostly replaces with
+ * machine instructions. The reciprocal functions have no method of their own,
+ * and are written as one divided by the function they are the reciprocal of,
+ * so that they cost no more than it.
+ * 
+ * @author SoraKatadzuma
+ * @version Alpha 0.0.1
+ * @since 10/18/2026
+ */
+public enum Intrinsic {
+    EXP     ("exp",     false),
+    SQRT    ("sqrt",    false),
+    LOG     ("log10",   false),
+    LN      ("log",     false),
+    COS     ("cos",     false),
+    SIN     ("sin",     false),
+    TAN     ("tan",     false),
+    CSC     ("sin",     true),
+    SEC     ("cos",     true),
+    COT     ("tan",     true);
+    
+    /** The method of {@code java.lang.Math} computing the function. */
+    private final String method;
+    /** Whether the function is one divided by that of the method. */
+    private final boolean reciprocal;
+    
+    private Intrinsic (String method, boolean reciprocal) {
+        this.method = method;
+        this.reciprocal = reciprocal;
+    }
+    
+    /**
+     * @return The method of {@code java.lang.Math} computing the function,
+     *      or its reciprocal; it takes and gives back a double.
+     */
+    public String method () { return method; }
+    
+    /**
+     * @return true if the function is one divided by what the method gives.
+     */
+    public boolean isReciprocal () { return reciprocal; }
+    
+    /**
+     * Computes the function as the code written for it does.
+     * 
+     * @param x The argument.
+     * @return The value of the function.
+     */
+    public double apply (double x) {
+        switch (this) {
+            case EXP:   return Math.exp(x);
+            case SQRT:  return Math.sqrt(x);
+            case LOG:   return Math.log10(x);
+            case LN:    return Math.log(x);
+            case COS:   return Math.cos(x);
+            case SIN:   return Math.sin(x);
+            case TAN:   return Math.tan(x);
+            case CSC:   return 1 / Math.sin(x);
+            case SEC:   return 1 / Math.cos(x);
+            default:    return 1 / Math.tan(x);
+        }
+    }
+    
+    /**
+     * @param keyword The type of the keyword naming a function.
+     * @return The intrinsic, or {@code null} if the keyword names none.
+     */
+    public static Intrinsic of (Token.Type keyword) {
+        switch (keyword) {
+            case EXP:   return EXP;
+            case SQRT:  return SQRT;
+            case LOG:   return LOG;
+            case LN:    return LN;
+            case COS:   return COS;
+            case SIN:   return SIN;
+            case TAN:   return TAN;
+            case CSC:   return CSC;
+            case SEC:   return SEC;
+            case COT:   return COT;
+            default:    return null;
+        }
+    }
+}
@@ -0,0 +1,1152 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 SoraKatadzuma.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package cherry.middleend;
+
+import cherry.frontend.grammar.Token;
+import cherry.frontend.semantics.Analysis;
+import cherry.frontend.semantics.Attributes;
+import cherry.frontend.semantics.Declaration;
+import cherry.frontend.semantics.Member;
+import cherry.frontend.semantics.Type;
+import cherry.middleend.Instruction.Op;
+import cherry.utils.Diagnostic;
+import cherry.utils.Diagnostics;
+import cherry.utils.IntMap;
+import cherry.utils.SearchTree;
+import cherry.utils.SearchTree.Kind;
+import cherry.utils.SymbolPool;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The {@code Lowering} turns the bodies of the methods of a type, and its
+ * field initializers, into {@code Function}s in SSA form. The SSA form is
+ * built as the tree is walked, by looking up the value a local has in each
+ * block when it is used, and adding a phi where a block joins paths that
+ * give it different values. A block whose predecessors are not all known,
+ * the head of a loop, is only sealed once they are, and any phi it needed
+ * in the meantime is completed then.
+ * <p>
+ * Nothing is optimized here: the passes of the {@code PassManager} do that
+ * afterwards, on the SSA form.
+ * </p>
+ * 
+ * @author SoraKatadzuma
+ * @version Alpha 0.0.1
+ * @since 10/18/2026
+ */
+public final class Lowering {
+    /** The analysis of the compilation. */
+    private final Analysis analysis;
+    /** The type whose functions are lowered. */
+    private final Declaration owner;
+    /** The tree of the type. */
+    private final SearchTree tree;
+    /** The attributes of the tree. */
+    private final Attributes attributes;
+    /** Where problems are reported. */
+    private final Diagnostics diagnostics;
+    /** The pool of names of the compilation. */
+    private final SymbolPool names;
+    
+    /** The function being built. */
+    private Function function;
+    /** The block instructions are added to, {@code null} where nothing can be reached. */
+    private Block current;
+    /** The line of the statement being lowered. */
+    private int line;
+    /** Where a break goes, innermost loop first. */
+    private final Deque<Block> breaks = new ArrayDeque<>();
+    /** Where a continue goes, innermost loop first. */
+    private final Deque<Block> continues = new ArrayDeque<>();
+    /** The value of each local at the end of each block, by node. */
+    private final Map<Block, IntMap<Instruction>> definitions = new IdentityHashMap<>();
+    /** The phis of blocks not yet sealed, by the node of their local. */
+    private final Map<Block, IntMap<Instruction>> incomplete = new IdentityHashMap<>();
+    /** The blocks whose predecessors are all known. */
+    private final Set<Block> sealed = Collections.newSetFromMap(new IdentityHashMap<>());
+    /** Whether something could not be lowered. */
+    private boolean failed;
+    
+    /**
+     * Constructs a new Lowering.
+     * 
+     * @param analysis The analysis of the compilation.
+     * @param owner The type whose functions are lowered.
+     * @param diagnostics Where problems are reported.
+     */
+    public Lowering (Analysis analysis, Declaration owner, Diagnostics diagnostics) {
+        this.analysis = analysis;
+        this.owner = owner;
+        this.tree = owner.tree();
+        this.attributes = analysis.attributesOf(tree);
+        this.diagnostics = diagnostics;
+        this.names = analysis.names();
+    }
+    
+    /**
+     * Lowers a method with a body.
+     * 
+     * @param node The node of the method.
+     * @return The function, or {@code null} if it could not be lowered, in
+     *      which case why was reported.
+     */
+    public Function method (int node) {
+        boolean isStatic = tree.hasModifier(node, Token.Type.STATIC);
+        Type returnType = attributes.type(node);
+        int body = SearchTree.NONE;
+        
+        start(names.name(tree.name(node)), isStatic, returnType);
+        
+        if (!isStatic) { function.parameter(Type.objectOf(owner)); }
+        
+        for (int child = tree.firstChild(node); child != SearchTree.NONE; child = tree.nextSibling(child)) {
+            if (tree.kind(child) == Kind.PARAMETER) { write(child, current, function.parameter(attributes.type(child))); }
+            if (tree.kind(child) == Kind.BLOCK) { body = child; }
+        }
+        
+        line = tree.tokenOf(node).line();
+        statement(body);
+        
+        if (current != null) {
+            if (returnType.kind() == Type.Kind.VOID) {
+                add(Op.RETURN, Type.VOID);
+            } else {
+                error(node, "\"" + function.name() + "\" must return a value of type \"" + returnType + "\" on every path");
+            }
+        }
+        
+        return finish();
+    }
+    
+    /**
+     * Lowers the field initializers of the type, into the part of a
+     * constructor or static initializer that runs them.
+     * 
+     * @param statics Whether to lower those of the static fields, which are
+     *      all of those of an interface, or those of the instance fields.
+     * @return The function, which has a receiver unless it is static, or
+     *      {@code null} if it could not be lowered.
+     */
+    public Function initializers (boolean statics) {
+        boolean isInterface = owner.kind() == Kind.INTERFACE;
+        
+        start(statics ? "<clinit>" : "<init>", statics, Type.VOID);
+        
+        Instruction self = statics ? null : function.parameter(Type.objectOf(owner));
+        
+        for (int child = tree.firstChild(owner.node()); child != SearchTree.NONE; child = tree.nextSibling(child)) {
+            if (tree.kind(child) != Kind.FIELD) { continue; }
+            
+            int value = tree.nextSibling(tree.firstChild(child));
+            boolean isStatic = isInterface || tree.hasModifier(child, Token.Type.STATIC);
+            
+            if (value == SearchTree.NONE || isStatic != statics) { continue; }
+            
+            line = tree.tokenOf(child).line();
+            
+            Instruction initial = valueOf(value, attributes.type(child));
+            Member field = memberAt(child);
+            
+            if (statics) { append(Op.STORE, Type.VOID, null, field, initial); }
+            else { append(Op.STORE, Type.VOID, null, field, self, initial); }
+        }
+        
+        add(Op.RETURN, Type.VOID);
+        return finish();
+    }
+    
+    private void start (String name, boolean isStatic, Type returnType) {
+        function = new Function(name, isStatic, returnType);
+        current = function.entry();
+        sealed.add(current);
+        failed = false;
+    }
+    
+    private Function finish () {
+        Function done = failed ? null : function;
+        
+        function.removeUnreachable();
+        function = null;
+        current = null;
+        definitions.clear();
+        incomplete.clear();
+        sealed.clear();
+        return done;
+    }
+    
+    /**
+     * @return The member declared by a node of the type.
+     */
+    private Member memberAt (int node) {
+        for (Member member : owner.members(tree.name(node))) {
+            if (member.node() == node) { return member; }
+        }
+        
+        throw new IllegalStateException("A member of \"" + owner.qualifiedName() + "\" has no entry.");
+    }
+    
+    /* ---------------------------------------------------------------------- */
+    /* SSA.                                                                   */
+    /* ---------------------------------------------------------------------- */
+    
+    private void write (int local, Block block, Instruction value) {
+        IntMap<Instruction> values = definitions.get(block);
+        
+        if (values == null) { definitions.put(block, values = new IntMap<>()); }
+        
+        values.put(local, value);
+    }
+    
+    private Instruction read (int local, Block block) {
+        IntMap<Instruction> values = definitions.get(block);
+        Instruction value = values == null ? null : values.get(local);
+        
+        if (value == null) { return readRecursive(local, block); }
+        
+        // A phi found to be needless is replaced, but may still be recorded.
+        while (value.replacement != null) { value = value.replacement; }
+        
+        return value;
+    }
+    
+    private Instruction readRecursive (int local, Block block) {
+        Instruction value;
+        
+        if (!sealed.contains(block)) {
+            value = phi(block, attributes.type(local));
+            
+            IntMap<Instruction> pending = incomplete.get(block);
+            
+            if (pending == null) { incomplete.put(block, pending = new IntMap<>()); }
+            
+            pending.put(local, value);
+        } else if (block.predecessors.size() == 1) {
+            value = read(local, block.predecessors.get(0));
+        } else {
+            // Recorded before its operands are looked up, so that a loop
+            // back to this block finds the phi rather than looking again.
+            value = phi(block, attributes.type(local));
+            write(local, block, value);
+            value = complete(local, value);
+        }
+        
+        write(local, block, value);
+        return value;
+    }
+    
+    private Instruction phi (Block block, Type type) {
+        return block.add(function.make(Op.PHI, type, null, null, null));
+    }
+    
+    /**
+     * Gives a phi the value of its local from each predecessor.
+     * 
+     * @return The phi, or the one value it would always pick.
+     */
+    private Instruction complete (int local, Instruction phi) {
+        for (Block predecessor : phi.block().predecessors) { phi.addOperand(read(local, predecessor)); }
+        
+        return simplify(phi);
+    }
+    
+    /**
+     * Replaces a phi that only ever picks one value, other than itself, with
+     * that value, and then does the same for the phis that used it.
+     */
+    private Instruction simplify (Instruction phi) {
+        Instruction same = null;
+        
+        for (Instruction operand : phi.operands()) {
+            if (operand == same || operand == phi) { continue; }
+            if (same != null) { return phi; }
+            
+            same = operand;
+        }
+        
+        // Only a block that cannot be reached has a phi of nothing.
+        if (same == null) { same = zero(phi.type()); }
+        
+        List<Instruction> users = new ArrayList<>(phi.users());
+        
+        phi.replaceAllUsesWith(same);
+        phi.remove();
+        phi.replacement = same;
+        
+        for (Instruction user : users) {
+            if (user != phi && user.op() == Op.PHI && user.block() != null) { simplify(user); }
+        }
+        
+        return same;
+    }
+    
+    /**
+     * Marks that every predecessor of a block is known, completing the phis
+     * it needed before then.
+     */
+    private void seal (Block block) {
+        IntMap<Instruction> pending = incomplete.remove(block);
+        
+        sealed.add(block);
+        
+        if (pending == null) { return; }
+        
+        for (int local : pending.keys()) { complete(local, pending.get(local)); }
+    }
+    
+    /* ---------------------------------------------------------------------- */
+    /* Statements.                                                            */
+    /* ---------------------------------------------------------------------- */
+    
+    private void statement (int node) {
+        // Nothing is lowered for what cannot be reached.
+        if (current == null) { return; }
+        
+        Kind kind = tree.kind(node);
+        
+        if (kind != Kind.BLOCK) { line = tree.tokenOf(node).line(); }
+        
+        switch (kind) {
+            case BLOCK: {
+                for (int child = tree.firstChild(node); child != SearchTree.NONE; child = tree.nextSibling(child)) {
+                    statement(child);
+                }
+                break;
+            }
+            case LOCAL: {
+                Type type = attributes.type(node);
+                int value = tree.nextSibling(tree.firstChild(node));
+                
+                write(node, current, value == SearchTree.NONE ? zero(type) : valueOf(value, type));
+                break;
+            }
+            case IF: {
+                int condition = tree.firstChild(node);
+                int then = tree.nextSibling(condition);
+                int otherwise = tree.nextSibling(then);
+                Block thenBlock = block();
+                Block after = block();
+                Block elseBlock = otherwise == SearchTree.NONE ? after : block();
+                
+                condition(condition, thenBlock, elseBlock);
+                seal(thenBlock);
+                enter(thenBlock);
+                statement(then);
+                jump(after);
+                
+                if (otherwise != SearchTree.NONE) {
+                    seal(elseBlock);
+                    enter(elseBlock);
+                    statement(otherwise);
+                    jump(after);
+                }
+                
+                seal(after);
+                enter(after);
+                break;
+            }
+            case WHILE: {
+                int condition = tree.firstChild(node);
+                Block head = block();
+                Block body = block();
+                Block exit = block();
+                
+                jump(head);
+                enter(head);
+                condition(condition, body, exit);
+                seal(body);
+                enter(body);
+                loop(tree.nextSibling(condition), exit, head);
+                jump(head);
+                seal(head);
+                seal(exit);
+                enter(exit);
+                break;
+            }
+            case DO: {
+                int body = tree.firstChild(node);
+                Block head = block();
+                Block test = block();
+                Block exit = block();
+                
+                jump(head);
+                enter(head);
+                loop(body, exit, test);
+                jump(test);
+                seal(test);
+                enter(test);
+                condition(tree.nextSibling(body), head, exit);
+                seal(head);
+                seal(exit);
+                enter(exit);
+                break;
+            }
+            case FOR: {
+                int init = tree.firstChild(node);
+                int condition = tree.nextSibling(init);
+                int update = tree.nextSibling(condition);
+                Block head = block();
+                Block body = block();
+                Block next = block();
+                Block exit = block();
+                
+                statement(init);
+                jump(head);
+                enter(head);
+                
+                if (tree.kind(condition) == Kind.EMPTY) { jump(body); }
+                else { condition(condition, body, exit); }
+                
+                seal(body);
+                enter(body);
+                loop(tree.nextSibling(update), exit, next);
+                jump(next);
+                seal(next);
+                enter(next);
+                statement(update);
+                jump(head);
+                seal(head);
+                seal(exit);
+                enter(exit);
+                break;
+            }
+            case RETURN: {
+                int value = tree.firstChild(node);
+                
+                if (value == SearchTree.NONE) { add(Op.RETURN, Type.VOID); }
+                else { append(Op.RETURN, Type.VOID, null, null, valueOf(value, function.returnType())); }
+                
+                current = null;
+                break;
+            }
+            case BREAK: {
+                jump(breaks.peek());
+                break;
+            }
+            case CONTINUE: {
+                jump(continues.peek());
+                break;
+            }
+            case EXPRESSION: {
+                effect(tree.firstChild(node));
+                break;
+            }
+            default: {
+                break;
+            }
+        }
+    }
+    
+    private void loop (int body, Block exit, Block next) {
+        breaks.push(exit);
+        continues.push(next);
+        statement(body);
+        continues.pop();
+        breaks.pop();
+    }
+    
+    private Block block () { return function.newBlock(); }
+    
+    /**
+     * Continues in a block, if anything goes to it.
+     */
+    private void enter (Block block) {
+        current = block.predecessors.isEmpty() ? null : block;
+    }
+    
+    /**
+     * Ends the current block with a jump, if it can be reached.
+     */
+    private void jump (Block target) {
+        if (current == null) { return; }
+        
+        function.jump(current, target, line);
+        current = null;
+    }
+    
+    /**
+     * Ends the current block with a branch on a condition, going through as
+     * many blocks as the parts of the condition need.
+     * 
+     * @param node A bool expression.
+     * @param then Where to go if it holds.
+     * @param otherwise Where to go if it does not.
+     */
+    private void condition (int node, Block then, Block otherwise) {
+        if (current == null) { return; }
+        
+        Kind kind = tree.kind(node);
+        Token.Type operator = tree.tokenOf(node).type();
+        
+        if (kind == Kind.LITERAL && (operator == Token.Type.TRUE || operator == Token.Type.FALSE)) {
+            jump(operator == Token.Type.TRUE ? then : otherwise);
+            return;
+        }
+        
+        if (kind == Kind.UNARY && operator == Token.Type.NOT) {
+            condition(tree.firstChild(node), otherwise, then);
+            return;
+        }
+        
+        // The right of && and || is only evaluated when the left does not
+        // decide the whole.
+        if (kind == Kind.BINARY && (operator == Token.Type.AND || operator == Token.Type.OR)) {
+            int left = tree.firstChild(node);
+            Block right = block();
+            
+            if (operator == Token.Type.AND) { condition(left, right, otherwise); }
+            else { condition(left, then, right); }
+            
+            seal(right);
+            enter(right);
+            condition(tree.nextSibling(left), then, otherwise);
+            return;
+        }
+        
+        Instruction value = value(node);
+        
+        function.branch(current, value, then, otherwise, line);
+        current = null;
+    }
+    
+    /**
+     * Joins the values of the paths that go to a block, with a phi if they
+     * are more than one, and continues in the block.
+     * 
+     * @param from The last block of each path, or {@code null} for a path
+     *      that cannot be reached.
+     * @param values The value of each path.
+     */
+    private Instruction join (Block block, Type type, Block[] from, Instruction[] values) {
+        seal(block);
+        enter(block);
+        
+        if (block.predecessors.size() == 1) {
+            for (int i = 0; i < from.length; i++) { if (from[i] == block.predecessors.get(0)) { return values[i]; } }
+        }
+        
+        Instruction phi = phi(block, type);
+        
+        for (Block predecessor : block.predecessors) {
+            for (int i = 0; i < from.length; i++) {
+                if (from[i] == predecessor) { phi.addOperand(values[i]); }
+            }
+        }
+        
+        return phi;
+    }
+    
+    /* ---------------------------------------------------------------------- */
+    /* Expressions.                                                           */
+    /* ---------------------------------------------------------------------- */
+    
+    /**
+     * Lowers an expression, and converts its value to a type.
+     */
+    private Instruction valueOf (int node, Type target) {
+        // A number written out is made a constant of the type it is needed as.
+        if (tree.kind(node) == Kind.LITERAL && attributes.type(node).isNumeric() && target.isNumeric()) {
+            return literal(node, target);
+        }
+        
+        return convert(value(node), target);
+    }
+    
+    /**
+     * Lowers an expression for its effect alone.
+     */
+    private void effect (int node) {
+        switch (tree.kind(node)) {
+            case LITERAL: case THIS: case NAME: return;
+            default:                            value(node);
+        }
+    }
+    
+    /**
+     * Lowers an expression for its value, of the type it was found to have.
+     */
+    private Instruction value (int node) {
+        switch (tree.kind(node)) {
+            case LITERAL:   return literal(node, attributes.type(node));
+            case THIS:      return function.parameters().get(0);
+            case NAME:      return name(node);
+            case MEMBER:    return member(node);
+            case CALL:      return call(node);
+            case INTRINSIC: return intrinsic(node);
+            case INDEX:     return index(node);
+            case NEW:       return allocation(node);
+            case UNARY:     return unary(node);
+            case POSTFIX:   return step(node, tree.firstChild(node), false);
+            case BINARY:    return binary(node);
+            case ASSIGN:    return assignment(node);
+            case TERNARY:   return ternary(node);
+            default: {
+                error(node, "this cannot be generated");
+                return zero(attributes.type(node));
+            }
+        }
+    }
+    
+    private Instruction add (Op op, Type type, Instruction... operands) {
+        return append(op, type, null, null, operands);
+    }
+    
+    private Instruction append (Op op, Type type, Object value, Member member, Instruction... operands) {
+        return function.add(current, function.make(op, type, value, member, null, operands), line);
+    }
+    
+    /**
+     * Converts a number to another type, if it is not of that type already.
+     */
+    private Instruction convert (Instruction value, Type to) {
+        Type from = value.type();
+        
+        if (!from.isNumeric() || !to.isNumeric() || from.kind() == to.kind()) { return value; }
+        
+        return add(Op.CONVERT, to, value);
+    }
+    
+    private Instruction literal (int node, Type target) {
+        Token token = tree.tokenOf(node);
+        
+        switch (token.type()) {
+            case TRUE:      return function.constant(Type.BOOL, 1);
+            case FALSE:     return function.constant(Type.BOOL, 0);
+            case LITERAL:   return function.constant(Type.STRING, unescape(token.value()));
+            case LETTER:
+            case UNICODE:   return number(target, (int) unescape(token.value()).charAt(0));
+            case REAL:      return number(target, Double.parseDouble(token.value()));
+            default:        break;
+        }
+        
+        try {
+            return number(target, whole(token.value()));
+        } catch (NumberFormatException ex) {
+            error(node, "\"" + token.value() + "\" is too large a number");
+            return zero(target);
+        }
+    }
+    
+    /**
+     * @return A number as a constant of a type.
+     */
+    private Instruction number (Type type, Number value) {
+        switch (type.kind()) {
+            case LONG:      return function.constant(type, value.longValue());
+            case FLOAT:     return function.constant(type, value.floatValue());
+            case DOUBLE:    return function.constant(type, value.doubleValue());
+            case BYTE:      return function.constant(type, (int) value.byteValue());
+            case SHORT:     return function.constant(type, (int) value.shortValue());
+            case CHAR:      return function.constant(type, (int) (char) value.intValue());
+            default:        return function.constant(type, value.intValue());
+        }
+    }
+    
+    /**
+     * @return The value a local is given when it is declared without one.
+     */
+    private Instruction zero (Type type) {
+        if (type.isNumeric()) { return number(type, 0); }
+        if (type.kind() == Type.Kind.BOOL) { return function.constant(type, 0); }
+        
+        return function.constant(type, null);
+    }
+    
+    /**
+     * @param text A whole number as written: decimal, hexadecimal, octal or
+     *      binary, and perhaps long.
+     * @return Its value.
+     */
+    static long whole (String text) {
+        int end = text.length();
+        
+        if (text.charAt(end - 1) == 'l' || text.charAt(end - 1) == 'L') { end--; }
+        
+        if (end > 2 && text.charAt(0) == '0' && (text.charAt(1) == 'x' || text.charAt(1) == 'X')) {
+            return Long.parseUnsignedLong(text.substring(2, end), 16);
+        }
+        
+        if (end > 2 && text.charAt(0) == '0' && (text.charAt(1) == 'b' || text.charAt(1) == 'B')) {
+            return Long.parseUnsignedLong(text.substring(2, end), 2);
+        }
+        
+        if (end > 1 && text.charAt(0) == '0') { return Long.parseUnsignedLong(text.substring(1, end), 8); }
+        
+        return Long.parseUnsignedLong(text.substring(0, end));
+    }
+    
+    /**
+     * @param text The text of a string or character, as written between its quotes.
+     * @return The text with its escapes replaced by what they stand for.
+     */
+    static String unescape (String text) {
+        if (text.indexOf('\\') < 0) { return text; }
+        
+        StringBuilder out = new StringBuilder(text.length());
+        
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            
+            if (c != '\\' || i + 1 == text.length()) {
+                out.append(c);
+                continue;
+            }
+            
+            c = text.charAt(++i);
+            
+            switch (c) {
+                case 'n':   out.append('\n');   break;
+                case 't':   out.append('\t');   break;
+                case 'r':   out.append('\r');   break;
+                case 'b':   out.append('\b');   break;
+                case 'f':   out.append('\f');   break;
+                case '0':   out.append('\0');   break;
+                case 'u': {
+                    out.append((char) Integer.parseInt(text.substring(i + 1, i + 5), 16));
+                    i += 4;
+                    break;
+                }
+                default:    out.append(c);      break;
+            }
+        }
+        
+        return out.toString();
+    }
+    
+    private Instruction name (int node) {
+        int local = attributes.local(node);
+        
+        if (local != SearchTree.NONE) { return read(local, current); }
+        
+        Member member = attributes.member(node);
+        
+        // A name of a type or namespace has no value of its own.
+        if (member == null) { return null; }
+        
+        return load(member, isStatic(member) ? null : function.parameters().get(0));
+    }
+    
+    private Instruction load (Member member, Instruction object) {
+        Type type = analysis.typeOf(member);
+        
+        return object == null ? append(Op.LOAD, type, null, member) : append(Op.LOAD, type, null, member, object);
+    }
+    
+    private Instruction member (int node) {
+        int target = tree.firstChild(node);
+        Member member = attributes.member(node);
+        
+        // The only member that is not a field or constant is the length of an array.
+        if (member == null) { return add(Op.LENGTH, Type.INT, value(target)); }
+        
+        return load(member, receiver(target, member));
+    }
+    
+    /**
+     * Lowers what a member is used through: the object it is of, which is
+     * still evaluated for a static member, but then not used.
+     * 
+     * @return The object, or {@code null} if the member is static.
+     */
+    private Instruction receiver (int target, Member member) {
+        if (attributes.type(target).kind() != Type.Kind.OBJECT) { return null; }
+        
+        Instruction object = value(target);
+        
+        return isStatic(member) ? null : object;
+    }
+    
+    /**
+     * @return true if a member is static, as every field of an interface is.
+     */
+    static boolean isStatic (Member member) {
+        return member.isStatic() || member.kind() == Member.Kind.FIELD && member.owner().kind() == Kind.INTERFACE;
+    }
+    
+    private Instruction call (int node) {
+        Member member = attributes.member(node);
+        int argument = tree.firstChild(node);
+        boolean builtin = member.kind() == Member.Kind.BUILTIN;
+        Instruction receiver = null;
+        
+        if ((tree.flags(node) & SearchTree.TARGETED) != 0) {
+            if (!builtin) { receiver = receiver(argument, member); }
+            
+            argument = tree.nextSibling(argument);
+        } else if (!builtin && !isStatic(member)) {
+            receiver = function.parameters().get(0);
+        }
+        
+        if (builtin) {
+            if (argument == SearchTree.NONE) { return append(Op.PRINT, Type.VOID, null, member); }
+            
+            return append(Op.PRINT, Type.VOID, null, member, value(argument));
+        }
+        
+        Type[] parameters = analysis.parametersOf(member);
+        List<Instruction> operands = new ArrayList<>(parameters.length + 1);
+        
+        if (receiver != null) { operands.add(receiver); }
+        
+        for (int i = 0; argument != SearchTree.NONE; argument = tree.nextSibling(argument), i++) {
+            operands.add(valueOf(argument, parameters[i]));
+        }
+        
+        return append(Op.CALL, analysis.typeOf(member), null, member, operands.toArray(new Instruction[0]));
+    }
+    
+    private Instruction intrinsic (int node) {
+        return append(Op.INTRINSIC, Type.DOUBLE, Intrinsic.of(tree.tokenOf(node).type()), null, valueOf(tree.firstChild(node), Type.DOUBLE));
+    }
+    
+    private Instruction index (int node) {
+        int array = tree.firstChild(node);
+        Instruction values = value(array);
+        
+        return add(Op.ELEMENT, attributes.type(node), values, valueOf(tree.nextSibling(array), Type.INT));
+    }
+    
+    private Instruction allocation (int node) {
+        int typeNode = tree.firstChild(node);
+        Type type = attributes.type(node);
+        
+        if (tree.flags(node) == 1) { return add(Op.NEW_ARRAY, type, valueOf(tree.nextSibling(typeNode), Type.INT)); }
+        
+        Declaration made = type.declaration();
+        
+        if (made.kind() == Kind.ENUM || made.isAbstract()) {
+            error(node, "\"" + made.qualifiedName() + "\" is abstract, and cannot be created with new");
+            return zero(type);
+        }
+        
+        // There are no constructors to give the arguments to yet, so they
+        // are only evaluated.
+        for (int argument = tree.nextSibling(typeNode); argument != SearchTree.NONE; argument = tree.nextSibling(argument)) {
+            effect(argument);
+        }
+        
+        return add(Op.NEW, type);
+    }
+    
+    private Instruction unary (int node) {
+        int operand = tree.firstChild(node);
+        Type type = attributes.type(node);
+        
+        switch (tree.tokenOf(node).type()) {
+            case NOT:   return add(Op.NOT, Type.BOOL, value(operand));
+            case BWNOT: return add(Op.XOR, type, valueOf(operand, type), number(type, -1));
+            case SUB:   return add(Op.NEG, type, valueOf(operand, type));
+            case INCRE:
+            case DECRE: return step(node, operand, true);
+            default:    return valueOf(operand, type);
+        }
+    }
+    
+    private Instruction binary (int node) {
+        Token.Type operator = tree.tokenOf(node).type();
+        Type type = attributes.type(node);
+        int left = tree.firstChild(node);
+        int right = tree.nextSibling(left);
+        Op comparison = comparison(operator);
+        
+        if (comparison != null) { return compare(left, right, comparison); }
+        
+        if (operator == Token.Type.AND || operator == Token.Type.OR) {
+            // A condition used as a value picks true or false by where it goes.
+            Block then = block();
+            Block otherwise = block();
+            Block[] from = new Block[2];
+            Instruction[] values = { function.constant(Type.BOOL, 1), function.constant(Type.BOOL, 0) };
+            Block after = block();
+            
+            condition(node, then, otherwise);
+            seal(then);
+            seal(otherwise);
+            enter(then);
+            from[0] = current;
+            jump(after);
+            enter(otherwise);
+            from[1] = current;
+            jump(after);
+            return join(after, Type.BOOL, from, values);
+        }
+        
+        if (operator == Token.Type.ADD && type.kind() == Type.Kind.STRING) {
+            List<Instruction> parts = new ArrayList<>();
+            
+            parts(node, parts);
+            return add(Op.CONCAT, type, parts.toArray(new Instruction[0]));
+        }
+        
+        Instruction a = valueOf(left, type);
+        Instruction b = valueOf(right, isShift(operator) ? Type.INT : type);
+        
+        return add(arithmetic(operator), type, a, b);
+    }
+    
+    /**
+     * Lowers the parts of a string, a whole chain of additions joined at once.
+     */
+    private void parts (int node, List<Instruction> parts) {
+        if (tree.kind(node) == Kind.BINARY && tree.tokenOf(node).type() == Token.Type.ADD
+                && attributes.type(node).kind() == Type.Kind.STRING) {
+            int left = tree.firstChild(node);
+            
+            parts(left, parts);
+            parts(tree.nextSibling(left), parts);
+            return;
+        }
+        
+        parts.add(value(node));
+    }
+    
+    private Instruction compare (int left, int right, Op comparison) {
+        Type a = attributes.type(left);
+        Type b = attributes.type(right);
+        
+        if (a.isNumeric() && b.isNumeric()) {
+            Type type = Type.promote(a, b);
+            Instruction first = valueOf(left, type);
+            
+            return add(comparison, Type.BOOL, first, valueOf(right, type));
+        }
+        
+        Instruction first = value(left);
+        
+        return add(comparison, Type.BOOL, first, value(right));
+    }
+    
+    private static Op comparison (Token.Type operator) {
+        switch (operator) {
+            case EQUALS:    return Op.EQ;
+            case NOTEQ:     return Op.NE;
+            case LESS:      return Op.LT;
+            case GREATEQ:   return Op.GE;
+            case GREAT:     return Op.GT;
+            case LESSEQ:    return Op.LE;
+            default:        return null;
+        }
+    }
+    
+    private static boolean isShift (Token.Type operator) {
+        switch (operator) {
+            case BWLSH: case BWRSH: case BWURSH: case BWLSHEQ: case BWRSHEQ: case BWURSHEQ:
+                return true;
+            default:
+                return false;
+        }
+    }
+    
+    /**
+     * @return The operation of an arithmetic operator, or of a compound assignment.
+     */
+    private static Op arithmetic (Token.Type operator) {
+        switch (operator) {
+            case ADD:   case ADDEQ:     return Op.ADD;
+            case SUB:   case SUBEQ:     return Op.SUB;
+            case MUL:   case MULTEQ:    return Op.MUL;
+            case DIV:   case DIVEQ:     return Op.DIV;
+            case MOD:   case MODEQ:     return Op.REM;
+            case BWAND: case BWANDEQ:   return Op.AND;
+            case BWOR:  case BWOREQ:    return Op.OR;
+            case BWXOR: case BWXOREQ:   return Op.XOR;
+            case BWLSH: case BWLSHEQ:   return Op.SHL;
+            case BWRSH: case BWRSHEQ:   return Op.SHR;
+            default:                    return Op.USHR;
+        }
+    }
+    
+    private Instruction ternary (int node) {
+        Type type = attributes.type(node);
+        int condition = tree.firstChild(node);
+        int then = tree.nextSibling(condition);
+        Block thenBlock = block();
+        Block elseBlock = block();
+        Block after = block();
+        Block[] from = new Block[2];
+        Instruction[] values = new Instruction[2];
+        
+        condition(condition, thenBlock, elseBlock);
+        seal(thenBlock);
+        seal(elseBlock);
+        enter(thenBlock);
+        
+        if (current != null) {
+            values[0] = valueOf(then, type);
+            from[0] = current;
+            jump(after);
+        }
+        
+        enter(elseBlock);
+        
+        if (current != null) {
+            values[1] = valueOf(tree.nextSibling(then), type);
+            from[1] = current;
+            jump(after);
+        }
+        
+        return join(after, type, from, values);
+    }
+    
+    /* ---------------------------------------------------------------------- */
+    /* Assignments.                                                           */
+    /* ---------------------------------------------------------------------- */
+    
+    /**
+     * A {@code Reference} is what a variable is reached through: a local, a
+     * field and the object it is of, or an array and an index.
+     */
+    private static final class Reference {
+        /** The node of the local, or {@code NONE}. */
+        private int local = SearchTree.NONE;
+        /** The field, if it is one. */
+        private Member member;
+        /** The object of an instance field, or the array of an element. */
+        private Instruction object;
+        /** The index of an element. */
+        private Instruction index;
+        /** The type of the variable. */
+        private Type type;
+    }
+    
+    private Reference reference (int node) {
+        Reference reference = new Reference();
+        
+        reference.type = attributes.type(node);
+        
+        switch (tree.kind(node)) {
+            case NAME: {
+                reference.local = attributes.local(node);
+                reference.member = attributes.member(node);
+                
+                if (reference.local == SearchTree.NONE && !isStatic(reference.member)) {
+                    reference.object = function.parameters().get(0);
+                }
+                break;
+            }
+            case MEMBER: {
+                reference.member = attributes.member(node);
+                reference.object = receiver(tree.firstChild(node), reference.member);
+                break;
+            }
+            default: {
+                int array = tree.firstChild(node);
+                
+                reference.object = value(array);
+                reference.index = valueOf(tree.nextSibling(array), Type.INT);
+                break;
+            }
+        }
+        
+        return reference;
+    }
+    
+    private Instruction fetch (Reference reference) {
+        if (reference.local != SearchTree.NONE) { return read(reference.local, current); }
+        if (reference.index != null) { return add(Op.ELEMENT, reference.type, reference.object, reference.index); }
+        
+        return load(reference.member, reference.object);
+    }
+    
+    private void put (Reference reference, Instruction value) {
+        if (reference.local != SearchTree.NONE) {
+            write(reference.local, current, value);
+        } else if (reference.index != null) {
+            add(Op.PUT, Type.VOID, reference.object, reference.index, value);
+        } else if (reference.object == null) {
+            append(Op.STORE, Type.VOID, null, reference.member, value);
+        } else {
+            append(Op.STORE, Type.VOID, null, reference.member, reference.object, value);
+        }
+    }
+    
+    private Instruction assignment (int node) {
+        int target = tree.firstChild(node);
+        int value = tree.nextSibling(target);
+        Token.Type operator = tree.tokenOf(node).type();
+        Reference reference = reference(target);
+        Instruction result;
+        
+        if (operator == Token.Type.ASSIGN) {
+            result = valueOf(value, reference.type);
+        } else {
+            result = operation(operator, reference.type, fetch(reference), value);
+        }
+        
+        put(reference, result);
+        return result;
+    }
+    
+    /**
+     * Applies the operation of a compound assignment to the value of its
+     * target, and converts the result back to the target's type.
+     */
+    private Instruction operation (Token.Type operator, Type type, Instruction old, int value) {
+        // Only += applies to a string.
+        if (type.kind() == Type.Kind.STRING) {
+            List<Instruction> parts = new ArrayList<>();
+            
+            parts.add(old);
+            parts(value, parts);
+            return add(Op.CONCAT, type, parts.toArray(new Instruction[0]));
+        }
+        
+        Type valueType = attributes.type(value);
+        boolean shift = isShift(operator);
+        Type result = type.kind() == Type.Kind.BOOL ? Type.BOOL
+                : shift ? Type.promote(type, Type.INT) : Type.promote(type, valueType);
+        Instruction a = convert(old, result);
+        Instruction b = valueOf(value, shift ? Type.INT : result);
+        
+        return convert(add(arithmetic(operator), result, a, b), type);
+    }
+    
+    /**
+     * Lowers an increment or decrement.
+     * 
+     * @param prefix Whether the value is that after the step, or before.
+     */
+    private Instruction step (int node, int operand, boolean prefix) {
+        Reference reference = reference(operand);
+        Type type = reference.type;
+        Type result = Type.promote(type, Type.INT);
+        Op op = tree.tokenOf(node).type() == Token.Type.INCRE ? Op.ADD : Op.SUB;
+        Instruction old = fetch(reference);
+        Instruction stepped = convert(add(op, result, convert(old, result), number(result, 1)), type);
+        
+        put(reference, stepped);
+        return prefix ? stepped : old;
+    }
+    
+    private void error (int node, String message) {
+        failed = true;
+        diagnostics.errorAt(Diagnostic.Code.GENERATION, tree.tokenOf(node), message + ".");
+    }
+}
@@ -21,35 +21,28 @@
  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
  * THE SOFTWARE.
  */
-package cherry.utils.exceptions;
+package cherry.middleend;
 
 /**
- * This exception is thrown if a flag is marked as unknown.
+ * A {@code Pass} changes a {@code Function} in SSA form into one that does
+ * the same, but in less time or space. A pass keeps no state from one
+ * function to the next, so that the same pass may be run on the functions of
+ * different classes at once.
  * 
  * @author SoraKatadzuma
  * @version Alpha 0.0.1
- * @since 11/20/2017
+ * @since 10/18/2026
  */
-public class UnknownFlagException extends Exception {
+public interface Pass {
     /**
-     * Constructs a new UnknownFlagException with a reason and a cause.
-     * 
-     * @param reason A explanation of what happened.
-     * @param cause What caused this exception.
-     */
-    public UnknownFlagException (String reason, Throwable cause) { super(reason, cause); }
-
-    /**
-     * Constructs a new UnknownFlagException with only a reason.
-     * 
-     * @param reason A explanation of what happened.
+     * @return The name the pass is timed and disabled by.
      */
-    public UnknownFlagException (String reason) { super(reason); }
-
+    String name ();
+    
     /**
-     * Constructs a new UnknownFlagException with only a cause.
+     * Runs the pass over a function, changing it in place.
      * 
-     * @param cause What caused this exception.
+     * @param function The function.
      */
-    public UnknownFlagException (Throwable cause) { super(cause); }
+    void run (Function function);
 }
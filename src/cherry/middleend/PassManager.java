@@ -0,0 +1,171 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 SoraKatadzuma.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package cherry.middleend;
+
+import cherry.utils.OutputSink;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The {@code PassManager} runs the optimization passes over each function,
+ * in an order where each pass leaves the most for the next to do: inlining
+ * first, so that the arguments of a call meet the body they are used in,
+ * then folding the constants that brings together, then merging what is
+ * computed twice, and last removing everything that is no longer used.
+ * <p>
+ * Any pass may be disabled, to find which one a problem comes from, and the
+ * time each takes is added up over every function of every class, from
+ * whichever thread the class is generated on.
+ * </p>
+ * 
+ * @author SoraKatadzuma
+ * @version Alpha 0.0.1
+ * @since 10/18/2026
+ */
+public final class PassManager {
+    /**
+     * The passes, in the order they are run.
+     */
+    public enum Stage {
+        INLINE("inline"),
+        FOLD("fold"),
+        CSE("cse"),
+        DCE("dce");
+        
+        /** The name the pass is disabled by. */
+        private final String name;
+        
+        Stage (String name) { this.name = name; }
+        
+        /**
+         * @return The name the pass is disabled by.
+         */
+        public String passName () { return name; }
+        
+        /**
+         * @param name The name of a pass.
+         * @return The stage, or {@code null} if there is no such pass.
+         */
+        public static Stage named (String name) {
+            for (Stage stage : values()) { if (stage.name.equals(name)) { return stage; } }
+            
+            return null;
+        }
+    }
+    
+    /** The passes that are not run. */
+    private final boolean[] disabled = new boolean[Stage.values().length];
+    /** The nanoseconds spent in each pass. */
+    private final Map<Stage, LongAdder> nanos = new EnumMap<>(Stage.class);
+    /** The functions each pass was run on. */
+    private final Map<Stage, LongAdder> runs = new EnumMap<>(Stage.class);
+    
+    /**
+     * Constructs a new PassManager running every pass.
+     */
+    public PassManager () {
+        for (Stage stage : Stage.values()) {
+            nanos.put(stage, new LongAdder());
+            runs.put(stage, new LongAdder());
+        }
+    }
+    
+    /**
+     * Disables passes by name.
+     * 
+     * @param names The names of the passes, separated by commas.
+     * @return The names that are not of any pass.
+     */
+    public List<String> disable (String names) {
+        List<String> unknown = new ArrayList<>();
+        
+        for (String name : names.split(",")) {
+            Stage stage = Stage.named(name.trim());
+            
+            if (stage == null) { unknown.add(name.trim()); }
+            else { disabled[stage.ordinal()] = true; }
+        }
+        
+        return unknown;
+    }
+    
+    /**
+     * @param stage A pass.
+     * @return true if the pass is run.
+     */
+    public boolean isEnabled (Stage stage) { return !disabled[stage.ordinal()]; }
+    
+    /**
+     * Runs every enabled pass over a function.
+     * 
+     * @param function The function, which is changed in place.
+     * @param callees Where the functions calls may be inlined from are found.
+     */
+    public void optimize (Function function, Inliner.Callees callees) {
+        for (Stage stage : Stage.values()) {
+            if (disabled[stage.ordinal()]) { continue; }
+            
+            Pass pass = create(stage, callees);
+            long start = System.nanoTime();
+            
+            pass.run(function);
+            nanos.get(stage).add(System.nanoTime() - start);
+            runs.get(stage).increment();
+        }
+    }
+    
+    private static Pass create (Stage stage, Inliner.Callees callees) {
+        switch (stage) {
+            case INLINE:    return new Inliner(callees);
+            case FOLD:      return new ConstantFolding();
+            case CSE:       return new CommonSubexpressions();
+            default:        return new DeadCodeElimination();
+        }
+    }
+    
+    /**
+     * Prints the time spent in each pass, and on how many functions.
+     * 
+     * @param sink Where it is printed.
+     */
+    public void report (OutputSink sink) {
+        long total = 0;
+        
+        sink.print(sink.err(), String.format("%-8s %10s %12s", "pass", "functions", "time (ms)"));
+        
+        for (Stage stage : Stage.values()) {
+            long spent = nanos.get(stage).sum();
+            
+            total += spent;
+            sink.print(sink.err(), String.format("%-8s %10d %12.3f%s", stage.passName(), runs.get(stage).sum(),
+                    spent / 1e6, disabled[stage.ordinal()] ? "  (disabled)" : ""));
+        }
+        
+        sink.print(sink.err(), String.format("%-8s %10s %12.3f", "total", "", total / 1e6));
+        sink.flush();
+    }
+}
@@ -0,0 +1,333 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 SoraKatadzuma.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package cherry.server;
+
+import cherry.frontend.grammar.LineIndex;
+import cherry.frontend.grammar.Token;
+import cherry.frontend.lexer.Lexer;
+import cherry.frontend.parser.StemParser;
+import cherry.utils.Diagnostic;
+import cherry.utils.Diagnostics;
+import cherry.utils.SearchTree;
+import cherry.utils.SymbolPool;
+import cherry.utils.Utf8;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A {@code Document} is a file open in an editor, kept in memory by the
+ * language server along with its tokens, its tree, and its syntax errors.
+ * <p>
+ * An edit is applied to the bytes of the document, then only the tokens
+ * around it are lexed again. Lexing starts a couple of tokens before the
+ * edit, since an edit may join onto the token before it, and stops at the
+ * first token past the edit that is also a token of the old contents, at the
+ * same place relative to the end of the edit. The lexer holds no state between
+ * tokens, so every token from there on would come out the same, and the old
+ * ones are kept, moved by the size of the edit. The tokens are then parsed
+ * again whole, since parsing takes no input of its own and the tree has no
+ * way of replacing a part of itself.
+ * </p>
+ * <p>
+ * Positions in the protocol are lines from zero and characters counted in
+ * UTF-16 code units, while the compiler counts bytes, so a document converts
+ * between the two.
+ * </p>
+ * 
+ * @author SoraKatadzuma
+ * @version Alpha 0.0.1
+ * @since 10/18/2026
+ */
+public final class Document {
+    /** The identifier of the document in the protocol. */
+    private final String uri;
+    /** The file the document is of. */
+    private final File file;
+    /** The pool the names of the document are placed in. */
+    private final SymbolPool names;
+    /** The version of the document, as told by the editor. */
+    private int version;
+    /** The contents of the document, never changed once lexed. */
+    private byte[] text;
+    /** The tokens of the document, ending with an EOTS token. */
+    private Token[] tokens;
+    /** The tree of the document. */
+    private SearchTree tree;
+    /** The lexical and syntax errors of the document. */
+    private List<Diagnostic> syntaxErrors;
+    /** The number of tokens lexed again by the last edit. */
+    private int relexed;
+    
+    /**
+     * Constructs a new Document, lexing and parsing it whole.
+     * 
+     * @param uri The identifier of the document in the protocol.
+     * @param file The file the document is of.
+     * @param contents The contents of the document.
+     * @param names The pool the names of the document are placed in, kept
+     *      by its tokens across edits.
+     * @param version The version of the document.
+     */
+    public Document (String uri, File file, String contents, SymbolPool names, int version) {
+        this.uri = uri;
+        this.file = file;
+        this.names = names;
+        this.version = version;
+        this.text = contents.getBytes(StandardCharsets.UTF_8);
+        
+        Lexer lexer = new Lexer(file, text, text.length, names, new Diagnostics());
+        lexer.lex();
+        tokens = lexer.getTokens();
+        relexed = tokens.length;
+        parse();
+    }
+    
+    /**
+     * Replaces the whole contents of the document.
+     * 
+     * @param contents The new contents.
+     * @param version The new version.
+     */
+    public void replace (String contents, int version) {
+        edit(0, text.length, contents, version);
+    }
+    
+    /**
+     * Replaces a range of the document, lexing again only the tokens around it.
+     * 
+     * @param start The offset of the first byte replaced.
+     * @param end The offset just past the last byte replaced.
+     * @param contents The contents to put in its place.
+     * @param version The new version.
+     */
+    public void edit (long start, long end, String contents, int version) {
+        byte[] inserted = contents.getBytes(StandardCharsets.UTF_8);
+        int from = (int) start;
+        int to = (int) end;
+        byte[] next = new byte[text.length - (to - from) + inserted.length];
+        
+        System.arraycopy(text, 0, next, 0, from);
+        System.arraycopy(inserted, 0, next, from, inserted.length);
+        System.arraycopy(text, to, next, from + inserted.length, text.length - to);
+        
+        final Token[] old = tokens;
+        final long delta = inserted.length - (long) (to - from);
+        final long editEnd = from + inserted.length;
+        final int[] resumed = { -1 };
+        
+        // Start two tokens before the first one at or after the edit.
+        int first = Math.max(0, firstAtOrAfter(old, start) - 2);
+        long position = first == 0 ? 0 : old[first].offset();
+        
+        Lexer lexer = new Lexer(file, next, next.length, names, new Diagnostics());
+        lexer.lexFrom(position, token -> {
+            if (token.offset() < editEnd) { return false; }
+            
+            int match = at(old, token.offset() - delta);
+            
+            if (match < 0 || !sameToken(old[match], token)) { return false; }
+            
+            resumed[0] = match;
+            return true;
+        });
+        
+        Token[] lexed = lexer.getTokens();
+        LineIndex lines = lexed[lexed.length - 1].lines();
+        int kept = resumed[0] < 0 ? 0 : old.length - resumed[0];
+        int fresh = resumed[0] < 0 ? lexed.length : lexed.length - 1;
+        Token[] spliced = new Token[first + fresh + kept];
+        
+        System.arraycopy(old, 0, spliced, 0, first);
+        System.arraycopy(lexed, 0, spliced, first, fresh);
+        
+        if (kept > 0) { System.arraycopy(old, resumed[0], spliced, first + fresh, kept); }
+        
+        // Every token now reads its line from the new contents, and those
+        // after the edit are moved by its size.
+        for (int i = 0; i < first; i++) { spliced[i].setPosition(lines, spliced[i].offset()); }
+        for (int i = first + fresh; i < spliced.length; i++) {
+            spliced[i].setPosition(lines, spliced[i].offset() + delta);
+        }
+        
+        this.text = next;
+        this.tokens = spliced;
+        this.version = version;
+        this.relexed = fresh;
+        parse();
+    }
+    
+    /**
+     * Parses the tokens, collecting the lexical and syntax errors.
+     */
+    private void parse () {
+        Diagnostics errors = new Diagnostics();
+        
+        // Whatever could not be lexed is an undefined token, so lexical
+        // errors are found again from the tokens rather than kept per edit.
+        for (Token token : tokens) {
+            if (token.type() == Token.Type.UNDEFINED) {
+                errors.errorAt(Diagnostic.Code.UNEXPECTED_INPUT, token,
+                        "unexpected \"" + token.value() + "\".");
+            }
+        }
+        
+        tree = new StemParser(names, errors).parse(file, tokens);
+        syntaxErrors = errors.all();
+    }
+    
+    /**
+     * @return The index of the first token at or after an offset.
+     */
+    private static int firstAtOrAfter (Token[] tokens, long offset) {
+        int low = 0;
+        int high = tokens.length;
+        
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            
+            if (tokens[middle].offset() < offset) { low = middle + 1; }
+            else { high = middle; }
+        }
+        
+        return low;
+    }
+    
+    /**
+     * @return The index of the token at an offset, or -1 if none starts there.
+     */
+    private static int at (Token[] tokens, long offset) {
+        int found = firstAtOrAfter(tokens, offset);
+        
+        return found < tokens.length && tokens[found].offset() == offset ? found : -1;
+    }
+    
+    /**
+     * @return true if two tokens are of the same type and text.
+     */
+    private static boolean sameToken (Token a, Token b) {
+        return a.type() == b.type() && Objects.equals(a.value(), b.value());
+    }
+    
+    /**
+     * Converts a position of the protocol to an offset.
+     * 
+     * @param line A line, from zero.
+     * @param character A character in the line, in UTF-16 code units.
+     * @return The offset of the position, within the document.
+     */
+    public long offsetOf (int line, int character) {
+        LineIndex lines = tokens[0].lines();
+        
+        if (line >= lines.lines()) { return text.length; }
+        
+        int at = (int) lines.startOf(line + 1);
+        
+        for (int units = 0; units < character && at < text.length && text[at] != '\n'; ) {
+            units += Utf8.decodeCodePoint(text, at, text.length) >= 0x10000 ? 2 : 1;
+            at += Math.max(1, Utf8.sequenceLength(text, at, text.length));
+        }
+        
+        return at;
+    }
+    
+    /**
+     * Converts an offset to a position of the protocol.
+     * 
+     * @param offset An offset in the document.
+     * @return The line, from zero, and the character, in UTF-16 code units.
+     */
+    public int[] positionOf (long offset) {
+        LineIndex lines = tokens[0].lines();
+        int line = lines.lineOf(offset);
+        int character = 0;
+        int end = (int) Math.min(offset, text.length);
+        
+        for (int at = (int) lines.startOf(line); at < end; ) {
+            character += Utf8.decodeCodePoint(text, at, text.length) >= 0x10000 ? 2 : 1;
+            at += Math.max(1, Utf8.sequenceLength(text, at, text.length));
+        }
+        
+        return new int[] { line - 1, character };
+    }
+    
+    /**
+     * @param token A token of the document.
+     * @return The offset just past the token.
+     */
+    public long endOf (Token token) {
+        if (token.type() == Token.Type.EOTS) { return token.offset(); }
+        
+        long length = token.value().getBytes(StandardCharsets.UTF_8).length;
+        
+        // The quotes of a literal are not part of its lexeme.
+        switch (token.type()) {
+            case LITERAL: case LETTER: case UNICODE: length += 2; break;
+            default: break;
+        }
+        
+        return Math.min(text.length, token.offset() + length);
+    }
+    
+    /**
+     * @return The identifier of the document in the protocol.
+     */
+    public String uri () { return uri; }
+    
+    /**
+     * @return The file the document is of.
+     */
+    public File file () { return file; }
+    
+    /**
+     * @return The version of the document.
+     */
+    public int version () { return version; }
+    
+    /**
+     * @return The contents of the document.
+     */
+    public String text () { return new String(text, StandardCharsets.UTF_8); }
+    
+    /**
+     * @return The tokens of the document, ending with an EOTS token.
+     */
+    public Token[] tokens () { return tokens; }
+    
+    /**
+     * @return The tree of the document.
+     */
+    public SearchTree tree () { return tree; }
+    
+    /**
+     * @return The lexical and syntax errors of the document.
+     */
+    public List<Diagnostic> syntaxErrors () { return syntaxErrors; }
+    
+    /**
+     * @return The number of tokens lexed again by the last edit.
+     */
+    public int relexed () { return relexed; }
+}
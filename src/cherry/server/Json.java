@@ -0,0 +1,324 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 SoraKatadzuma.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package cherry.server;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@code Json} reads and writes the JSON the language server speaks. Objects
+ * are read into maps that keep the order of their members, arrays into lists,
+ * numbers into longs when they are whole and doubles when they are not, and
+ * {@code null} into {@code null}. Writing takes the same kinds of values.
+ * <p>
+ * Only as much of JSON as the protocol needs is handled; malformed input is
+ * refused with an {@code IllegalArgumentException}.
+ * </p>
+ * 
+ * @author SoraKatadzuma
+ * @version Alpha 0.0.1
+ * @since 10/18/2026
+ */
+public final class Json {
+    /** The text being read. */
+    private final String text;
+    /** The position in the text. */
+    private int at;
+    
+    /**
+     * @param text The text to read.
+     */
+    private Json (String text) { this.text = text; }
+    
+    /**
+     * Reads a value.
+     * 
+     * @param text The JSON text of the value.
+     * @return The value.
+     * @throws IllegalArgumentException If the text is not JSON.
+     */
+    public static Object parse (String text) {
+        Json reader = new Json(text);
+        Object value = reader.value();
+        
+        reader.skipSpace();
+        
+        if (reader.at != text.length()) { throw reader.error("unexpected text after the value"); }
+        
+        return value;
+    }
+    
+    /**
+     * Writes a value.
+     * 
+     * @param value A map, list, string, number, boolean or {@code null}.
+     * @return The JSON text of the value.
+     */
+    public static String write (Object value) {
+        StringBuilder out = new StringBuilder(256);
+        
+        write(value, out);
+        return out.toString();
+    }
+    
+    /**
+     * Makes an object out of pairs of member names and values.
+     * 
+     * @param pairs The names and values, one after the other.
+     * @return The object.
+     */
+    public static Map<String, Object> object (Object... pairs) {
+        Map<String, Object> object = new LinkedHashMap<>();
+        
+        for (int i = 0; i < pairs.length; i += 2) { object.put((String) pairs[i], pairs[i + 1]); }
+        
+        return object;
+    }
+    
+    /**
+     * @param value An object.
+     * @param path The names of the members to go through.
+     * @return The member at the end of the path, or {@code null}.
+     */
+    @SuppressWarnings("unchecked")
+    public static Object get (Object value, String... path) {
+        for (String name : path) {
+            if (!(value instanceof Map)) { return null; }
+            
+            value = ((Map<String, Object>) value).get(name);
+        }
+        
+        return value;
+    }
+    
+    /**
+     * @param value An object.
+     * @param path The names of the members to go through.
+     * @return The number at the end of the path, or -1 if there is none.
+     */
+    public static int getInt (Object value, String... path) {
+        Object found = get(value, path);
+        
+        return found instanceof Number ? ((Number) found).intValue() : -1;
+    }
+    
+    private static void write (Object value, StringBuilder out) {
+        if (value == null) {
+            out.append("null");
+        } else if (value instanceof String) {
+            quote((String) value, out);
+        } else if (value instanceof Map) {
+            boolean first = true;
+            
+            out.append('{');
+            
+            for (Map.Entry<?, ?> member : ((Map<?, ?>) value).entrySet()) {
+                if (!first) { out.append(','); }
+                
+                quote(String.valueOf(member.getKey()), out);
+                out.append(':');
+                write(member.getValue(), out);
+                first = false;
+            }
+            
+            out.append('}');
+        } else if (value instanceof List) {
+            boolean first = true;
+            
+            out.append('[');
+            
+            for (Object element : (List<?>) value) {
+                if (!first) { out.append(','); }
+                
+                write(element, out);
+                first = false;
+            }
+            
+            out.append(']');
+        } else {
+            // Numbers and booleans are written as Java writes them.
+            out.append(value);
+        }
+    }
+    
+    private static void quote (String string, StringBuilder out) {
+        out.append('"');
+        
+        for (int i = 0; i < string.length(); i++) {
+            char ch = string.charAt(i);
+            
+            switch (ch) {
+                case '"':  out.append("\\\""); break;
+                case '\\': out.append("\\\\"); break;
+                case '\n': out.append("\\n");  break;
+                case '\r': out.append("\\r");  break;
+                case '\t': out.append("\\t");  break;
+                default:
+                    if (ch < 0x20) { out.append(String.format("\\u%04x", (int) ch)); }
+                    else { out.append(ch); }
+            }
+        }
+        
+        out.append('"');
+    }
+    
+    private Object value () {
+        skipSpace();
+        
+        if (at >= text.length()) { throw error("expected a value"); }
+        
+        char ch = text.charAt(at);
+        
+        switch (ch) {
+            case '{': return object();
+            case '[': return array();
+            case '"': return string();
+            case 't': return literal("true", Boolean.TRUE);
+            case 'f': return literal("false", Boolean.FALSE);
+            case 'n': return literal("null", null);
+            default:  return number();
+        }
+    }
+    
+    private Map<String, Object> object () {
+        Map<String, Object> object = new LinkedHashMap<>();
+        
+        at++;
+        skipSpace();
+        
+        if (peek() == '}') { at++; return object; }
+        
+        while (true) {
+            skipSpace();
+            
+            if (peek() != '"') { throw error("expected the name of a member"); }
+            
+            String name = string();
+            
+            skipSpace();
+            expect(':');
+            object.put(name, value());
+            skipSpace();
+            
+            if (peek() == ',') { at++; continue; }
+            
+            expect('}');
+            return object;
+        }
+    }
+    
+    private List<Object> array () {
+        List<Object> array = new ArrayList<>();
+        
+        at++;
+        skipSpace();
+        
+        if (peek() == ']') { at++; return array; }
+        
+        while (true) {
+            array.add(value());
+            skipSpace();
+            
+            if (peek() == ',') { at++; continue; }
+            
+            expect(']');
+            return array;
+        }
+    }
+    
+    private String string () {
+        StringBuilder string = new StringBuilder();
+        
+        at++;
+        
+        while (true) {
+            if (at >= text.length()) { throw error("unterminated string"); }
+            
+            char ch = text.charAt(at++);
+            
+            if (ch == '"') { return string.toString(); }
+            if (ch != '\\') { string.append(ch); continue; }
+            if (at >= text.length()) { throw error("unterminated escape"); }
+            
+            char escaped = text.charAt(at++);
+            
+            switch (escaped) {
+                case 'n': string.append('\n'); break;
+                case 'r': string.append('\r'); break;
+                case 't': string.append('\t'); break;
+                case 'b': string.append('\b'); break;
+                case 'f': string.append('\f'); break;
+                case 'u':
+                    if (at + 4 > text.length()) { throw error("incomplete unicode escape"); }
+                    
+                    string.append((char) Integer.parseInt(text.substring(at, at + 4), 16));
+                    at += 4;
+                    break;
+                default: string.append(escaped);
+            }
+        }
+    }
+    
+    private Object literal (String word, Object value) {
+        if (!text.startsWith(word, at)) { throw error("expected " + word); }
+        
+        at += word.length();
+        return value;
+    }
+    
+    private Number number () {
+        int from = at;
+        boolean whole = true;
+        
+        while (at < text.length() && "+-0123456789.eE".indexOf(text.charAt(at)) >= 0) {
+            if (".eE".indexOf(text.charAt(at)) >= 0) { whole = false; }
+            
+            at++;
+        }
+        
+        if (from == at) { throw error("unexpected character"); }
+        
+        String number = text.substring(from, at);
+        
+        return whole ? (Number) Long.parseLong(number) : (Number) Double.parseDouble(number);
+    }
+    
+    private void skipSpace () {
+        while (at < text.length() && Character.isWhitespace(text.charAt(at))) { at++; }
+    }
+    
+    private char peek () { return at < text.length() ? text.charAt(at) : '\0'; }
+    
+    private void expect (char ch) {
+        if (peek() != ch) { throw error("expected '" + ch + "'"); }
+        
+        at++;
+    }
+    
+    private IllegalArgumentException error (String message) {
+        return new IllegalArgumentException("JSON " + message + " at " + at + ".");
+    }
+}
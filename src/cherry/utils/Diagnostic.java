@@ -0,0 +1,219 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 SoraKatadzuma.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package cherry.utils;
+
+import cherry.frontend.grammar.LineIndex;
+
+/**
+ * A {@code Diagnostic} is something the compiler found wrong, or worth a
+ * warning, with a source: what kind of problem it is, how severe, where it
+ * is, and what to tell about it. It is a plain value rather than an
+ * exception, so that finding a problem costs no stack trace, and so that a
+ * compilation can carry on past it and report every problem in one run.
+ * <p>
+ * The place of a diagnostic is the offset in its file, which is only turned
+ * into a line and column, through the {@code LineIndex} of the file, when the
+ * diagnostic is printed. A diagnostic about a whole file, or about no file at
+ * all, has no offset.
+ * </p>
+ * 
+ * @author SoraKatadzuma
+ * @version Alpha 0.0.1
+ * @since 10/18/2026
+ */
+public final class Diagnostic {
+    /** The offset of a diagnostic that is not at a position in a file. */
+    public static final long NO_OFFSET = -1;
+    
+    /**
+     * How severe a diagnostic is.
+     */
+    public enum Severity {
+        /** The compilation cannot succeed. */
+        ERROR("error"),
+        /** The compilation may be wrong. */
+        WARNING("warning");
+        
+        /** The name the severity is printed with. */
+        private final String name;
+        
+        /**
+         * @param name The name the severity is printed with.
+         */
+        Severity (String name) { this.name = name; }
+        
+        /**
+         * @return The name the severity is printed with.
+         */
+        public String getName () { return name; }
+    }
+    
+    /**
+     * What kind of problem a diagnostic is. Each kind has a code that stays
+     * the same between versions, so that problems can be looked up and
+     * filtered by it.
+     */
+    public enum Code {
+        /** A file named on the command line does not exist. */
+        FILE_NOT_FOUND("F001"),
+        /** A file named on the command line does not have a proper extension. */
+        IMPROPER_FILE("F002"),
+        /** An argument file could not be read. */
+        UNREADABLE_ARGUMENT_FILE("F003"),
+        /** The tokens of a file could not be dumped. */
+        UNWRITABLE_DUMP("F004"),
+        /** A class file could not be written. */
+        UNWRITABLE_CLASS("F005"),
+        /** The compiler was given no files to compile. */
+        NO_FILES("F006"),
+        /** A flag does not exist, or was given a value it should not have. */
+        UNKNOWN_FLAG("C001"),
+        /** The value of a flag is not one it accepts. */
+        IMPROPER_FLAG_VALUE("C002"),
+        /** An entry point is neither a file nor a namespace. */
+        UNKNOWN_ENTRY("G001"),
+        /** Some namespaces use each other. */
+        CYCLIC_USE("G002"),
+        /** An interface summary is out of date with its sources. */
+        STALE_SUMMARY("G003"),
+        /** An interface summary could not be written. */
+        UNWRITABLE_SUMMARY("G004"),
+        /** An interface summary could not be read. */
+        UNREADABLE_SUMMARY("G005"),
+        /** Some input could not be made into a token. */
+        UNEXPECTED_INPUT("L001"),
+        /** The tokens do not follow the grammar. */
+        SYNTAX("P001"),
+        /** A type is declared twice in a namespace. */
+        DUPLICATE_DECLARATION("S001"),
+        /** A name or type does not resolve, or is misused. */
+        SEMANTIC("S002"),
+        /** A declaration has no equivalent on the JVM. */
+        GENERATION("B001"),
+        /** A worker could not be started, reached, or given a file. */
+        UNAVAILABLE_WORKER("D001"),
+        /** A program run by the interpreter stopped on an error. */
+        RUNTIME("R001");
+        
+        /** The code of the kind. */
+        private final String code;
+        
+        /**
+         * @param code The code of the kind.
+         */
+        Code (String code) { this.code = code; }
+        
+        /**
+         * @return The code of the kind.
+         */
+        public String getCode () { return code; }
+    }
+    
+    /** What kind of problem this is. */
+    private final Code code;
+    /** How severe this is. */
+    private final Severity severity;
+    /** The name of the file this is about, or {@code null}. */
+    private final String fileName;
+    /** The index of the lines of the file, or {@code null}. */
+    private final LineIndex lines;
+    /** The offset in the file this is at, or {@code NO_OFFSET}. */
+    private final long offset;
+    /** What to tell about it. */
+    private final String message;
+    
+    /**
+     * Constructs a new Diagnostic.
+     * 
+     * @param code What kind of problem it is.
+     * @param severity How severe it is.
+     * @param fileName The name of the file it is about, or {@code null}.
+     * @param lines The index of the lines of the file, or {@code null} if it
+     *      is not at an offset.
+     * @param offset The offset in the file it is at, or {@code NO_OFFSET}.
+     * @param message What to tell about it.
+     */
+    public Diagnostic (Code code, Severity severity, String fileName, LineIndex lines, long offset, String message) {
+        this.code = code;           this.severity = severity;
+        this.fileName = fileName;   this.lines = lines;
+        this.offset = offset;       this.message = message;
+    }
+    
+    /**
+     * @return What kind of problem this is.
+     */
+    public Code code () { return code; }
+    
+    /**
+     * @return How severe this is.
+     */
+    public Severity severity () { return severity; }
+    
+    /**
+     * @return The name of the file this is about, or {@code null}.
+     */
+    public String fileName () { return fileName; }
+    
+    /**
+     * @return The offset in the file this is at, or {@code NO_OFFSET}.
+     */
+    public long offset () { return offset; }
+    
+    /**
+     * @return What to tell about it.
+     */
+    public String message () { return message; }
+    
+    /**
+     * @return The line this is at, starting from one, or zero if it is not at
+     *      an offset.
+     */
+    public int line () { return lines == null || offset < 0 ? 0 : lines.lineOf(offset); }
+    
+    /**
+     * @return The column this is at, starting from one, or zero if it is not
+     *      at an offset.
+     */
+    public int column () { return lines == null || offset < 0 ? 0 : lines.columnOf(offset); }
+    
+    /**
+     * @return The diagnostic as it is printed, as in
+     *      "file:line:column: error S002: message".
+     */
+    @Override
+    public String toString () {
+        StringBuilder printed = new StringBuilder(64 + message.length());
+        
+        if (fileName != null) {
+            printed.append(fileName).append(':');
+            
+            if (line() > 0) { printed.append(line()).append(':').append(column()).append(':'); }
+            
+            printed.append(' ');
+        }
+        
+        return printed.append(severity.getName()).append(' ').append(code.getCode())
+                .append(": ").append(message).toString();
+    }
+}
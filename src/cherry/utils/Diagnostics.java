@@ -0,0 +1,190 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 SoraKatadzuma.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package cherry.utils;
+
+import cherry.frontend.grammar.LineIndex;
+import cherry.frontend.grammar.Token;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The {@code Diagnostics} collect every {@code Diagnostic} of a compilation.
+ * Any thread may report to them at any time: a diagnostic is printed through
+ * the {@code OutputSink}, in the buffer of the thread that found it, and kept
+ * in a queue that takes no lock, so that the problems of every file can be
+ * counted and listed once the compilation is done.
+ * <p>
+ * Whatever reports a diagnostic carries on afterwards, skipping what it could
+ * not make sense of, so that one run finds every problem rather than only the
+ * first one.
+ * </p>
+ * <p>
+ * Each compilation reports to diagnostics of its own, printed through its
+ * sink. Whatever checks sources on its own, such as the language server,
+ * collects into diagnostics of its own which need not print anything.
+ * </p>
+ * 
+ * @author SoraKatadzuma
+ * @version Alpha 0.0.1
+ * @since 10/18/2026
+ */
+public final class Diagnostics {
+    /** Every diagnostic reported, as they were reported. */
+    private final Queue<Diagnostic> reported = new ConcurrentLinkedQueue<>();
+    /** The number of errors reported. */
+    private final LongAdder errors = new LongAdder();
+    /** The number of warnings reported. */
+    private final LongAdder warnings = new LongAdder();
+    /** Where diagnostics are printed as they are reported, or {@code null}. */
+    private final OutputSink sink;
+    
+    /**
+     * Constructs new, empty diagnostics which are not printed.
+     */
+    public Diagnostics () { this(null); }
+    
+    /**
+     * Constructs new, empty diagnostics printed as they are reported.
+     * 
+     * @param sink Where diagnostics are printed, or {@code null} for nowhere.
+     */
+    public Diagnostics (OutputSink sink) {
+        this.sink = sink;
+    }
+    
+    /**
+     * @return Where diagnostics are printed, or {@code null} if they are not.
+     */
+    public OutputSink sink () { return sink; }
+    
+    /**
+     * Hands over every diagnostic the current thread has printed, so that the
+     * diagnostics of a piece of work are written together.
+     */
+    public void flush () {
+        if (sink != null) { sink.flush(); }
+    }
+    
+    /**
+     * Reports a diagnostic, printing it and keeping it.
+     * 
+     * @param diagnostic The diagnostic.
+     * @return The diagnostic.
+     */
+    public Diagnostic report (Diagnostic diagnostic) {
+        reported.add(diagnostic);
+        
+        if (diagnostic.severity() == Diagnostic.Severity.ERROR) { errors.increment(); }
+        else { warnings.increment(); }
+        
+        if (sink != null) { sink.print(sink.err(), diagnostic.toString()); }
+        
+        return diagnostic;
+    }
+    
+    /**
+     * Reports an error at a token.
+     * 
+     * @param code What kind of problem it is.
+     * @param token The token it is at.
+     * @param message What to tell about it.
+     * @return The diagnostic reported.
+     */
+    public Diagnostic errorAt (Diagnostic.Code code, Token token, String message) {
+        return errorAt(code, token.lines(), token.offset(), message);
+    }
+    
+    /**
+     * Reports an error at an offset in a file.
+     * 
+     * @param code What kind of problem it is.
+     * @param lines The index of the lines of the file.
+     * @param offset The offset it is at.
+     * @param message What to tell about it.
+     * @return The diagnostic reported.
+     */
+    public Diagnostic errorAt (Diagnostic.Code code, LineIndex lines, long offset, String message) {
+        return report(new Diagnostic(code, Diagnostic.Severity.ERROR, lines.fileName(), lines, offset, message));
+    }
+    
+    /**
+     * Reports an error about a whole file, or about no file.
+     * 
+     * @param code What kind of problem it is.
+     * @param fileName The name of the file, or {@code null}.
+     * @param message What to tell about it.
+     * @return The diagnostic reported.
+     */
+    public Diagnostic error (Diagnostic.Code code, String fileName, String message) {
+        return report(new Diagnostic(code, Diagnostic.Severity.ERROR, fileName, null, Diagnostic.NO_OFFSET, message));
+    }
+    
+    /**
+     * Reports a warning about a whole file, or about no file.
+     * 
+     * @param code What kind of problem it is.
+     * @param fileName The name of the file, or {@code null}.
+     * @param message What to tell about it.
+     * @return The diagnostic reported.
+     */
+    public Diagnostic warning (Diagnostic.Code code, String fileName, String message) {
+        return report(new Diagnostic(code, Diagnostic.Severity.WARNING, fileName, null, Diagnostic.NO_OFFSET, message));
+    }
+    
+    /**
+     * @return The number of errors reported.
+     */
+    public int errors () { return errors.intValue(); }
+    
+    /**
+     * @return The number of warnings reported.
+     */
+    public int warnings () { return warnings.intValue(); }
+    
+    /**
+     * @return Every diagnostic reported, ordered by file, then by offset.
+     */
+    public List<Diagnostic> all () {
+        List<Diagnostic> all = new ArrayList<>(reported);
+        
+        all.sort(Order.BY_PLACE);
+        return all;
+    }
+    
+    /**
+     * Holds the order of diagnostics, made only once they are first ordered:
+     * its lambdas are costly to link, and the compiler itself never orders
+     * the diagnostics it prints.
+     */
+    private static final class Order {
+        /** Orders diagnostics by file, then by offset. */
+        static final Comparator<Diagnostic> BY_PLACE = Comparator
+                .comparing((Diagnostic each) -> each.fileName() == null ? "" : each.fileName())
+                .thenComparingLong(Diagnostic::offset);
+    }
+}
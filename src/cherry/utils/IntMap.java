@@ -0,0 +1,161 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 SoraKatadzuma.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package cherry.utils;
+
+import java.util.Arrays;
+
+/**
+ * An {@code IntMap} maps int keys, such as name ids and node ids, to values.
+ * It is an open addressing table of primitive keys, so that looking a key up
+ * never boxes it, and never allocates.
+ * <p>
+ * An {@code IntMap} is not safe to change from more than one thread, but once
+ * filled and safely published it can be read from any number of them.
+ * </p>
+ * 
+ * @author SoraKatadzuma
+ * @version Alpha 0.0.1
+ * @since 10/18/2026
+ *
+ * @param <V> The type of the values.
+ */
+public final class IntMap<V> {
+    /** The keys of each slot. */
+    private int[] keys;
+    /** The values of each slot, {@code null} for an empty slot. */
+    private Object[] values;
+    /** The number of entries. */
+    private int size;
+    
+    /**
+     * Constructs a new empty map.
+     */
+    public IntMap () { this(8); }
+    
+    /**
+     * Constructs a new empty map sized for a number of entries.
+     * 
+     * @param expected The number of entries expected.
+     */
+    public IntMap (int expected) {
+        int capacity = Integer.highestOneBit(Math.max(4, expected * 2 - 1)) << 1;
+        keys = new int[capacity];
+        values = new Object[capacity];
+    }
+    
+    private static int slot (int key, int mask) {
+        int hash = key * 0x9E3779B9;
+        
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+    
+    /**
+     * @param key A key.
+     * @return The value of the key, or {@code null} if it has none.
+     */
+    @SuppressWarnings("unchecked")
+    public V get (int key) {
+        int mask = keys.length - 1;
+        
+        for (int slot = slot(key, mask); values[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) { return (V) values[slot]; }
+        }
+        
+        return null;
+    }
+    
+    /**
+     * @param key A key.
+     * @return true if the key has a value.
+     */
+    public boolean containsKey (int key) { return get(key) != null; }
+    
+    /**
+     * Gives a key a value, replacing any it had.
+     * 
+     * @param key A key.
+     * @param value The value, which may not be {@code null}.
+     * @return The value the key had, or {@code null}.
+     */
+    @SuppressWarnings("unchecked")
+    public V put (int key, V value) {
+        if (value == null) { throw new NullPointerException("IntMap values may not be null."); }
+        
+        int mask = keys.length - 1;
+        int slot = slot(key, mask);
+        
+        for (; values[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                V old = (V) values[slot];
+                values[slot] = value;
+                return old;
+            }
+        }
+        
+        keys[slot] = key;
+        values[slot] = value;
+        
+        if (++size * 2 > keys.length) { rehash(); }
+        
+        return null;
+    }
+    
+    private void rehash () {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        int mask = (oldKeys.length << 1) - 1;
+        keys = new int[oldKeys.length << 1];
+        values = new Object[oldKeys.length << 1];
+        
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] == null) { continue; }
+            
+            int slot = slot(oldKeys[i], mask);
+            
+            while (values[slot] != null) { slot = (slot + 1) & mask; }
+            
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+        }
+    }
+    
+    /**
+     * @return The number of entries.
+     */
+    public int size () { return size; }
+    
+    /**
+     * @return The keys of every entry, in no particular order.
+     */
+    public int[] keys () {
+        int[] found = new int[size];
+        int count = 0;
+        
+        for (int i = 0; i < keys.length; i++) {
+            if (values[i] != null) { found[count++] = keys[i]; }
+        }
+        
+        return Arrays.copyOf(found, count);
+    }
+}
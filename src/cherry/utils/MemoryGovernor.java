@@ -0,0 +1,169 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 SoraKatadzuma.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package cherry.utils;
+
+import java.io.File;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The {@code MemoryGovernor} bounds the memory taken by the files being
+ * worked on at once. Before a file is read, lexed and parsed, its task takes a
+ * share of a budget estimated from the size of the file, and gives it back
+ * once it is done; a task whose share would overdraw the budget waits until
+ * enough has been given back.
+ * <p>
+ * A file larger than the whole budget is still let in once nothing else is
+ * in flight, so that no file can wait forever. Waiting is done through the
+ * {@code ForkJoinPool}'s managed blocking, so that a work-stealing pool can
+ * keep its other workers busy while some of them wait.
+ * </p>
+ * 
+ * @author SoraKatadzuma
+ * @version Alpha 0.0.1
+ * @since 10/18/2026
+ */
+public final class MemoryGovernor {
+    /**
+     * The bytes of heap taken per byte of source while a file is worked on:
+     * the source itself, its tokens, and its tree.
+     */
+    public static final int BYTES_PER_SOURCE_BYTE = 24;
+    
+    /** The number of bytes that may be in flight at once. */
+    private final long budget;
+    /** The number of bytes in flight. */
+    private long inFlight;
+    /** The most bytes that have been in flight at once. */
+    private long peak;
+    
+    /**
+     * Constructs a new MemoryGovernor.
+     * 
+     * @param budget The number of bytes that may be in flight at once.
+     */
+    public MemoryGovernor (long budget) {
+        if (budget <= 0) { throw new IllegalArgumentException("The memory budget must be positive."); }
+        
+        this.budget = budget;
+    }
+    
+    /**
+     * @return A governor allowing half of the heap the JVM may grow to.
+     */
+    public static MemoryGovernor ofHeap () { return new MemoryGovernor(Runtime.getRuntime().maxMemory() / 2); }
+    
+    /**
+     * Reads a size such as "512m", in bytes, or kilo, mega or gigabytes.
+     * 
+     * @param size The size.
+     * @return The number of bytes.
+     * @throws NumberFormatException If the size is not a positive number of
+     *      bytes, or is too large to count in a long.
+     */
+    public static long parseSize (String size) {
+        String trimmed = size.trim().toLowerCase();
+        int shift = 0;
+        
+        switch (trimmed.isEmpty() ? ' ' : trimmed.charAt(trimmed.length() - 1)) {
+            case 'k': shift = 10; break;
+            case 'm': shift = 20; break;
+            case 'g': shift = 30; break;
+            default: break;
+        }
+        
+        long value = Long.parseLong(shift == 0 ? trimmed : trimmed.substring(0, trimmed.length() - 1));
+        
+        if (value <= 0) { throw new NumberFormatException("The size \"" + size + "\" is not positive."); }
+        
+        try {
+            return Math.multiplyExact(value, 1L << shift);
+        } catch (ArithmeticException ex) {
+            throw new NumberFormatException("The size \"" + size + "\" is too large.");
+        }
+    }
+    
+    /**
+     * @param file A source file.
+     * @return The bytes of heap the file is expected to take while worked on.
+     */
+    public static long estimate (File file) { return Math.max(1, file.length()) * BYTES_PER_SOURCE_BYTE; }
+    
+    /**
+     * Takes a share of the budget, waiting until there is enough of it left.
+     * 
+     * @param bytes The share to take.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    public void acquire (long bytes) throws InterruptedException {
+        ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+            @Override
+            public boolean block () throws InterruptedException {
+                synchronized (MemoryGovernor.this) {
+                    while (!admits(bytes)) { MemoryGovernor.this.wait(); }
+                    
+                    take(bytes);
+                }
+                
+                return true;
+            }
+            
+            @Override
+            public boolean isReleasable () {
+                synchronized (MemoryGovernor.this) {
+                    if (!admits(bytes)) { return false; }
+                    
+                    take(bytes);
+                    return true;
+                }
+            }
+        });
+    }
+    
+    private boolean admits (long bytes) { return inFlight == 0 || inFlight + bytes <= budget; }
+    
+    private void take (long bytes) {
+        inFlight += bytes;
+        peak = Math.max(peak, inFlight);
+    }
+    
+    /**
+     * Gives a share of the budget back.
+     * 
+     * @param bytes The share taken.
+     */
+    public synchronized void release (long bytes) {
+        inFlight -= bytes;
+        notifyAll();
+    }
+    
+    /**
+     * @return The number of bytes that may be in flight at once.
+     */
+    public long budget () { return budget; }
+    
+    /**
+     * @return The most bytes that have been in flight at once.
+     */
+    public synchronized long peak () { return peak; }
+}
@@ -0,0 +1,404 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 SoraKatadzuma.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package cherry.utils;
+
+import java.io.File;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.logging.Level;
+
+/**
+ * The {@code OutputSink} is where everything a compilation prints goes: the
+ * diagnostics of every file, and the dumps of their tokens. Each
+ * {@code CompilationSession} has one, unless it is given diagnostics that
+ * already print through one. Printing straight
+ * to a stream, or through a {@code Logger}, makes every thread take the same
+ * lock for every line, so instead each thread keeps the lines it prints in
+ * buffers of its own, one for each target, and hands a buffer over whole once
+ * the thread is done with a file. A single writer thread takes the buffers
+ * handed over, in the order they were handed over, and writes them to the
+ * channel of their target.
+ * <p>
+ * A file is lexed, parsed or resolved by one thread at a time, which flushes
+ * its buffers at the end, so the output of a file stays in order and in one
+ * piece, although the output of different files may come in any order. The
+ * standard output and error are shared by every file, so what a file prints
+ * to them is only handed over when it is flushed, however long; a target
+ * opened for one file alone, such as a dump of its tokens, is handed over
+ * every {@code BATCH} characters, since nothing else comes between its
+ * pieces. Nothing printed is certain to be written until {@code drain()}
+ * returns.
+ * </p>
+ * <p>
+ * The buffers of a thread are only known to the sink from the first time it
+ * prints until the next drain, which takes them off the thread again. A
+ * thread keeps nothing of a sink once it is drained, so a pool that outlives
+ * many sessions, as that of a language server does, does not hold on to
+ * their sinks, and the buffers of the threads of a pool that is gone can be
+ * collected.
+ * </p>
+ * 
+ * @author SoraKatadzuma
+ * @version Alpha 0.0.1
+ * @since 10/18/2026
+ */
+public final class OutputSink {
+    /** The number of characters a thread keeps for a target of its own before handing them over. */
+    public static final int BATCH = 1 << 14;
+    /**
+     * The buffers of the current thread, for each sink it has printed to
+     * since that sink was last drained.
+     */
+    private static final ThreadLocal<Map<OutputSink, Local>> LOCALS =
+            ThreadLocal.withInitial(ConcurrentHashMap::new);
+    
+    /** The standard output. */
+    private final Target out = new Target("stdout",
+            Channels.newChannel(new FileOutputStream(FileDescriptor.out)), false);
+    /** The standard error, where diagnostics go. */
+    private final Target err = new Target("stderr",
+            Channels.newChannel(new FileOutputStream(FileDescriptor.err)), false);
+    /** The buffers handed over, waiting to be written. */
+    private final BlockingQueue<Batch> batches = new LinkedBlockingQueue<>();
+    /** The buffers of every thread that has printed since the last drain. */
+    private final Queue<Local> locals = new ConcurrentLinkedQueue<>();
+    
+    /**
+     * Constructs a new OutputSink, starting its writer.
+     */
+    public OutputSink () {
+        Thread writer = new Thread(this::write, "OutputSink-Writer");
+        
+        writer.setDaemon(true);
+        writer.start();
+    }
+    
+    /**
+     * @return The standard output.
+     */
+    public Target out () { return out; }
+    
+    /**
+     * @return The standard error.
+     */
+    public Target err () { return err; }
+    
+    /**
+     * Opens a file to print to, replacing whatever it held.
+     * 
+     * @param file The file.
+     * @return The target printing to the file.
+     * @throws IOException If the file could not be opened.
+     */
+    public Target open (File file) throws IOException {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        
+        return new Target(file.getPath(), channel, true);
+    }
+    
+    /**
+     * Prints a line to a target, through the buffer the current thread keeps
+     * for it.
+     * 
+     * @param target The target.
+     * @param line The line, without its line feed.
+     */
+    public void print (Target target, CharSequence line) { local().print(target, line, batches); }
+    
+    /**
+     * Reports a diagnostic on the standard error, in the form a {@code Logger}
+     * would give its message in.
+     * 
+     * @param level The level of the diagnostic.
+     * @param message The message.
+     */
+    public void report (Level level, String message) { print(err, level.getName() + ": " + message); }
+    
+    /**
+     * Hands over everything the current thread has printed.
+     */
+    public void flush () {
+        Local local = LOCALS.get().get(this);
+        
+        if (local != null) { local.flush(batches); }
+    }
+    
+    /**
+     * Hands over everything the current thread has printed to a target, then
+     * closes it once that is written.
+     * 
+     * @param target The target, opened through {@code open()}.
+     */
+    public void close (Target target) {
+        flush();
+        batches.add(new Batch(target, null, true, null));
+    }
+    
+    /**
+     * Hands over everything every thread has printed, and waits for it to be
+     * written. No thread should be printing meanwhile.
+     * 
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    public void drain () throws InterruptedException {
+        CountDownLatch written = new CountDownLatch(1);
+        
+        for (Iterator<Local> each = locals.iterator(); each.hasNext(); ) {
+            each.next().release(this, batches);
+            each.remove();
+        }
+        
+        batches.add(new Batch(null, null, false, written));
+        written.await();
+    }
+    
+    /**
+     * Drains the sink, then stops its writer. Nothing printed afterwards is
+     * written.
+     * 
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    public void shutdown () throws InterruptedException {
+        drain();
+        batches.add(Batch.STOP);
+    }
+    
+    /**
+     * @return The buffers of the current thread, made known to the sink if
+     *      they are new.
+     */
+    private Local local () {
+        Map<OutputSink, Local> mine = LOCALS.get();
+        Local local = mine.get(this);
+        
+        if (local == null) {
+            local = new Local(mine);
+            mine.put(this, local);
+            locals.add(local);
+        }
+        
+        return local;
+    }
+    
+    /**
+     * Writes the buffers handed over, for as long as the compiler runs.
+     */
+    private void write () {
+        List<Batch> taken = new ArrayList<>();
+        
+        while (true) {
+            try {
+                taken.add(batches.take());
+            } catch (InterruptedException ex) {
+                return;
+            }
+            
+            // Take whatever else is waiting along with it.
+            batches.drainTo(taken);
+            
+            for (Batch batch : taken) {
+                if (batch == Batch.STOP) { return; }
+                
+                batch.write();
+            }
+            
+            taken.clear();
+        }
+    }
+    
+    /**
+     * A {@code Target} is somewhere lines are printed to.
+     */
+    public static final class Target {
+        /** The name of the target. */
+        private final String name;
+        /** The channel the lines are written through. */
+        private final WritableByteChannel channel;
+        /** Whether the channel is closed along with the target. */
+        private final boolean owned;
+        
+        /**
+         * Constructs a new Target.
+         * 
+         * @param name The name of the target.
+         * @param channel The channel the lines are written through.
+         * @param owned Whether the channel is closed along with the target.
+         */
+        private Target (String name, WritableByteChannel channel, boolean owned) {
+            this.name = name;   this.channel = channel;   this.owned = owned;
+        }
+        
+        /**
+         * @return The name of the target.
+         */
+        public String name () { return name; }
+    }
+    
+    /**
+     * A {@code Batch} is a buffer handed over to the writer, or a request to
+     * close a target, to say when everything before it is written, or to
+     * stop writing.
+     */
+    private static final class Batch {
+        /** Asks the writer to stop. */
+        private static final Batch STOP = new Batch(null, null, false, null);
+        
+        /** The target written to. */
+        private final Target target;
+        /** The bytes to write, or {@code null}. */
+        private final ByteBuffer bytes;
+        /** Whether the target is closed after. */
+        private final boolean close;
+        /** The latch counted down once written, or {@code null}. */
+        private final CountDownLatch written;
+        
+        /**
+         * Constructs a new Batch.
+         * 
+         * @param target The target written to.
+         * @param bytes The bytes to write, or {@code null}.
+         * @param close Whether the target is closed after.
+         * @param written The latch counted down once written, or {@code null}.
+         */
+        private Batch (Target target, ByteBuffer bytes, boolean close, CountDownLatch written) {
+            this.target = target;   this.bytes = bytes;
+            this.close = close;     this.written = written;
+        }
+        
+        /**
+         * Does what this batch asks for. A target that can no longer be
+         * written to is given up on quietly, since there is nowhere left to
+         * say so.
+         */
+        private void write () {
+            try {
+                if (bytes != null) {
+                    while (bytes.hasRemaining()) { target.channel.write(bytes); }
+                }
+                
+                if (close && target.owned) { target.channel.close(); }
+            } catch (IOException ex) {
+                // Nothing more can be printed to this target.
+            }
+            
+            if (written != null) { written.countDown(); }
+        }
+    }
+    
+    /**
+     * A {@code Local} holds the lines a thread has printed to one sink that
+     * are not yet handed over, for each target. It holds nothing of the sink
+     * itself, only the buffers of the thread it belongs to, so that a drain
+     * can take it off that thread. It is locked only so that a drain can
+     * flush it from another thread.
+     */
+    private static final class Local {
+        /** The lines printed to each target. */
+        private final Map<Target, StringBuilder> pending = new IdentityHashMap<>();
+        /** The buffers of the thread, for each sink, this is one of. */
+        private final Map<OutputSink, Local> home;
+        
+        /**
+         * Constructs a new Local.
+         * 
+         * @param home The buffers of the thread, for each sink.
+         */
+        private Local (Map<OutputSink, Local> home) { this.home = home; }
+        
+        /**
+         * Prints a line to a target.
+         * 
+         * @param target The target.
+         * @param line The line, without its line feed.
+         * @param batches Where the lines are handed over.
+         */
+        private synchronized void print (Target target, CharSequence line, BlockingQueue<Batch> batches) {
+            StringBuilder lines = pending.get(target);
+            
+            if (lines == null) { pending.put(target, lines = new StringBuilder(256)); }
+            
+            lines.append(line).append('\n');
+            
+            // Shared targets wait for the end of the file, so its lines stay together.
+            if (target.owned && lines.length() >= BATCH) { handOver(target, lines, batches); }
+        }
+        
+        /**
+         * Hands over the lines printed to every target.
+         * 
+         * @param batches Where the lines are handed over.
+         */
+        private synchronized void flush (BlockingQueue<Batch> batches) {
+            for (Map.Entry<Target, StringBuilder> entry : pending.entrySet()) {
+                if (entry.getValue().length() > 0) { handOver(entry.getKey(), entry.getValue(), batches); }
+            }
+            
+            pending.clear();
+        }
+        
+        /**
+         * Hands over the lines printed to every target, and takes these
+         * buffers off their thread, which then keeps nothing of the sink. New
+         * ones are made the next time the thread prints to it.
+         * 
+         * @param sink The sink these buffers are of.
+         * @param batches Where the lines are handed over.
+         */
+        private synchronized void release (OutputSink sink, BlockingQueue<Batch> batches) {
+            flush(batches);
+            home.remove(sink, this);
+        }
+        
+        /**
+         * Hands over the lines printed to a target, emptying them.
+         * 
+         * @param target The target.
+         * @param lines The lines.
+         * @param batches Where the lines are handed over.
+         */
+        private static void handOver (Target target, StringBuilder lines, BlockingQueue<Batch> batches) {
+            batches.add(new Batch(target, StandardCharsets.UTF_8.encode(lines.toString()), false, null));
+            lines.setLength(0);
+        }
+    }
+}
@@ -23,10 +23,662 @@
  */
 package cherry.utils;
 
+import cherry.frontend.grammar.Token;
+import java.io.File;
+import java.util.Arrays;
+
 /**
+ * The {@code SearchTree} is the tree the {@code Parser} builds out of the
+ * tokens of a single file. Rather than an object for every node, the tree is
+ * kept as a set of parallel arrays indexed by node id, so that a tree of a
+ * large file is a handful of arrays instead of millions of small objects, and
+ * later processes can walk it without chasing references.
+ * <p>
+ * Every node has a kind, the index of the token that best stands for it (the
+ * name of a declaration, the operator of an expression, and so on), the
+ * indices of its first and last tokens, a name id from the
+ * {@code SymbolPool} of the tree if it declares or refers to a name, and a field of flags
+ * whose meaning depends on its kind. Children are kept in the order they were
+ * attached, through first child and next sibling links.
+ * </p>
+ * <p>
+ * Nodes are made detached and attached to their parent afterwards, which lets
+ * the parser make an operand before it knows which operator it belongs to.
+ * </p>
+ * <p>
+ * A tree parsed from every token of a file refers to them by their index. A
+ * tree parsed as the file is streamed only keeps the tokens its nodes refer
+ * to, and refers to them by the index they were kept at; once it is done
+ * they are put in the order of the file, so that both trees can be searched
+ * the same way.
+ * </p>
+ * <p>
+ * Once a tree is parsed it can be searched through three indexes, built
+ * together in one pass the first time any of them is asked for: the nodes of
+ * each kind, the declarations of each name, and the innermost node at each
+ * token. These answer "every method", "the declaration of x" and "the node at
+ * the cursor" without walking the tree, so the tree should not change once
+ * they are built.
+ * </p>
  *
  * @author SoraKatadzuma
+ * @version Alpha 0.0.1
+ * @since 10/18/2026
  */
 public class SearchTree {
+    /**
+     * The kinds of nodes a tree can be made of.
+     */
+    public enum Kind {
+        /* The root of every tree. */
+        FILE,
+        
+        /* Declarations. */
+        USE, NAMESPACE, CLASS, ENUM, INTERFACE, STRUCT, CONSTANT, FIELD, METHOD,
+        PARAMETER, LOCAL,
+        
+        /* Types, whose flags are the number of array dimensions. */
+        TYPE,
+        
+        /* Statements. */
+        BLOCK, IF, WHILE, DO, FOR, RETURN, BREAK, CONTINUE, EXPRESSION, EMPTY,
+        
+        /* Expressions. */
+        ASSIGN, TERNARY, BINARY, UNARY, POSTFIX, CALL, INTRINSIC, MEMBER, INDEX,
+        NEW, NAME, LITERAL, THIS,
+        
+        /* Whatever could not be parsed. */
+        ERROR;
+        
+        /**
+         * @return true if this kind declares a type.
+         */
+        public boolean isType () {
+            return this == CLASS || this == ENUM || this == INTERFACE || this == STRUCT;
+        }
+    }
+    
+    /** The id of no node at all. */
+    public static final int NONE = -1;
+    /** The flag of a call whose first child is the target it is called on. */
+    public static final int TARGETED = 1;
+    
+    /**
+     * Gets the flag a modifier sets on the declaration it modifies.
+     * 
+     * @param type A modifier type.
+     * @return The flag of that modifier.
+     */
+    public static int modifier (Token.Type type) {
+        return 1 << (type.index() - Token.Type.PUBLIC.index());
+    }
+    
+    /**
+     * @param node A declaration node.
+     * @param type A modifier type.
+     * @return true if the declaration has that modifier.
+     */
+    public boolean hasModifier (int node, Token.Type type) {
+        return (flags[node] & modifier(type)) != 0;
+    }
+    
+    /** The file this tree was parsed from. */
+    private final File file;
+    /** The pool the names of this tree are in. */
+    private final SymbolPool names;
+    /** The tokens this tree was parsed from, or those kept by its nodes. */
+    private Token[] tokens;
+    /** The number of tokens in {@code tokens}. */
+    private int tokenCount;
+    /** Whether the tokens kept so far are in the order of the file. */
+    private boolean ordered = true;
+    /** The number of nodes in this tree. */
+    private int size;
+    
+    private Kind[] kinds;
+    private int[] token;
+    private int[] first;
+    private int[] last;
+    private int[] name;
+    private int[] flags;
+    private int[] parent;
+    private int[] firstChild;
+    private int[] lastChild;
+    private int[] nextSibling;
+    /** The indexes of this tree, built on first use. */
+    private volatile Index index;
+    
+    /**
+     * Constructs a new tree holding only its root, a FILE node.
+     * 
+     * @param file The file this tree is parsed from.
+     * @param names The pool the names of this tree are in.
+     * @param tokens The tokens this tree is parsed from.
+     */
+    public SearchTree (File file, SymbolPool names, Token[] tokens) {
+        this(file, names, tokens, tokens.length, Math.max(16, tokens.length));
+        setLast(root(), Math.max(0, tokens.length - 1));
+    }
+    
+    /**
+     * Constructs a new tree holding only its root, a FILE node, for a file
+     * whose tokens are kept as its nodes refer to them. The root stands for
+     * the first token kept.
+     * 
+     * @param file The file this tree is parsed from.
+     * @param names The pool the names of this tree are in.
+     */
+    public SearchTree (File file, SymbolPool names) { this(file, names, new Token[16], 0, 16); }
+    
+    /**
+     * Constructs a new tree holding only its root, a FILE node.
+     * 
+     * @param file The file this tree is parsed from.
+     * @param names The pool the names of this tree are in.
+     * @param tokens The tokens this tree is parsed from.
+     * @param tokenCount The number of tokens in {@code tokens}.
+     * @param capacity The number of nodes to make room for.
+     */
+    private SearchTree (File file, SymbolPool names, Token[] tokens, int tokenCount, int capacity) {
+        this.file = file;
+        this.names = names;
+        this.tokens = tokens;
+        this.tokenCount = tokenCount;
+        
+        kinds = new Kind[capacity];
+        token = new int[capacity];
+        first = new int[capacity];
+        last = new int[capacity];
+        name = new int[capacity];
+        flags = new int[capacity];
+        parent = new int[capacity];
+        firstChild = new int[capacity];
+        lastChild = new int[capacity];
+        nextSibling = new int[capacity];
+        
+        add(Kind.FILE, 0);
+    }
+    
+    /**
+     * Keeps a token a node of this tree refers to, for a tree whose tokens
+     * are kept as its nodes refer to them.
+     * 
+     * @param kept The token.
+     * @return The index the token is kept at.
+     */
+    public int keep (Token kept) {
+        if (tokenCount == tokens.length) { tokens = Arrays.copyOf(tokens, tokenCount << 1); }
+        if (tokenCount > 0 && kept.offset() < tokens[tokenCount - 1].offset()) { ordered = false; }
+        
+        tokens[tokenCount] = kept;
+        return tokenCount++;
+    }
+    
+    /**
+     * @param tokenIndex The index of a token.
+     * @return The token.
+     */
+    public Token tokenAt (int tokenIndex) { return tokens[tokenIndex]; }
+    
+    /**
+     * Makes a new detached node. Its first and last tokens are both the token
+     * it stands for, until told otherwise.
+     * 
+     * @param kind The kind of the node.
+     * @param tokenIndex The index of the token the node stands for.
+     * @return The id of the new node.
+     */
+    public int add (Kind kind, int tokenIndex) {
+        if (size == kinds.length) { grow(); }
+        
+        int node = size++;
+        kinds[node] = kind;
+        token[node] = tokenIndex;
+        first[node] = tokenIndex;
+        last[node] = tokenIndex;
+        name[node] = Token.NO_SYMBOL;
+        flags[node] = 0;
+        parent[node] = NONE;
+        firstChild[node] = NONE;
+        lastChild[node] = NONE;
+        nextSibling[node] = NONE;
+        
+        return node;
+    }
+    
+    /**
+     * Makes a new node and attaches it as the last child of a parent.
+     * 
+     * @param kind The kind of the node.
+     * @param tokenIndex The index of the token the node stands for.
+     * @param parentNode The node to attach the new node to.
+     * @return The id of the new node.
+     */
+    public int add (Kind kind, int tokenIndex, int parentNode) {
+        int node = add(kind, tokenIndex);
+        attach(parentNode, node);
+        
+        return node;
+    }
+    
+    /**
+     * Attaches a detached node as the last child of a parent.
+     * 
+     * @param parentNode The node to attach to.
+     * @param child The node to attach.
+     */
+    public void attach (int parentNode, int child) {
+        parent[child] = parentNode;
+        
+        if (lastChild[parentNode] == NONE) { firstChild[parentNode] = child; }
+        else { nextSibling[lastChild[parentNode]] = child; }
+        
+        lastChild[parentNode] = child;
+    }
+    
+    private void grow () {
+        int capacity = kinds.length << 1;
+        kinds = Arrays.copyOf(kinds, capacity);
+        token = Arrays.copyOf(token, capacity);
+        first = Arrays.copyOf(first, capacity);
+        last = Arrays.copyOf(last, capacity);
+        name = Arrays.copyOf(name, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+        parent = Arrays.copyOf(parent, capacity);
+        firstChild = Arrays.copyOf(firstChild, capacity);
+        lastChild = Arrays.copyOf(lastChild, capacity);
+        nextSibling = Arrays.copyOf(nextSibling, capacity);
+    }
+    
+    /**
+     * @param node A node.
+     * @param tokenIndex The index of the first token of the node.
+     */
+    public void setFirst (int node, int tokenIndex) { first[node] = tokenIndex; }
+    
+    /**
+     * @param node A node.
+     * @param tokenIndex The index of the last token of the node.
+     */
+    public void setLast (int node, int tokenIndex) { last[node] = tokenIndex; }
+    
+    /**
+     * @param node A node.
+     * @param id The name id of the node.
+     */
+    public void setName (int node, int id) { name[node] = id; }
+    
+    /**
+     * @param node A node.
+     * @param value The flags of the node.
+     */
+    public void setFlags (int node, int value) { flags[node] = value; }
+    
+    /**
+     * @return The file this tree was parsed from.
+     */
+    public File file () { return file; }
+    
+    /**
+     * @return The pool the names of this tree are in.
+     */
+    public SymbolPool names () { return names; }
+    
+    /**
+     * @return The tokens this tree was parsed from, or those kept by its
+     *      nodes, in the order of the file.
+     */
+    public Token[] tokens () {
+        settle();
+        
+        return tokens;
+    }
+    
+    /**
+     * Puts the tokens kept by the nodes of this tree in the order of the
+     * file, as they may be kept out of it when a node reaches back for the
+     * token before the current one, and trims them to their number.
+     */
+    private void settle () {
+        if (ordered && tokenCount == tokens.length) { return; }
+        
+        if (!ordered) {
+            Integer[] order = new Integer[tokenCount];
+            int[] moved = new int[tokenCount];
+            Token[] sorted = new Token[tokenCount];
+            
+            for (int t = 0; t < tokenCount; t++) { order[t] = t; }
+            
+            Arrays.sort(order, (a, b) -> Long.compare(tokens[a].offset(), tokens[b].offset()));
+            
+            for (int t = 0; t < tokenCount; t++) {
+                sorted[t] = tokens[order[t]];
+                moved[order[t]] = t;
+            }
+            
+            for (int node = 0; node < size; node++) {
+                token[node] = moved[token[node]];
+                first[node] = moved[first[node]];
+                last[node] = moved[last[node]];
+            }
+            
+            tokens = sorted;
+            ordered = true;
+        } else {
+            tokens = Arrays.copyOf(tokens, tokenCount);
+        }
+    }
+    
+    /**
+     * @return The number of nodes in this tree.
+     */
+    public int size () { return size; }
+    
+    /**
+     * @return The id of the root of this tree.
+     */
+    public int root () { return 0; }
+    
+    /**
+     * @param node A node.
+     * @return The kind of the node.
+     */
+    public Kind kind (int node) { return kinds[node]; }
+    
+    /**
+     * @param node A node.
+     * @return The index of the token the node stands for.
+     */
+    public int token (int node) { return token[node]; }
+    
+    /**
+     * @param node A node.
+     * @return The token the node stands for.
+     */
+    public Token tokenOf (int node) { return tokens[token[node]]; }
+    
+    /**
+     * @param node A node.
+     * @return The index of the first token of the node.
+     */
+    public int first (int node) { return first[node]; }
+    
+    /**
+     * @param node A node.
+     * @return The index of the last token of the node.
+     */
+    public int last (int node) { return last[node]; }
+    
+    /**
+     * @param node A node.
+     * @return The name id of the node, or {@code Token.NO_SYMBOL}.
+     */
+    public int name (int node) { return name[node]; }
+    
+    /**
+     * @param node A node.
+     * @return The flags of the node.
+     */
+    public int flags (int node) { return flags[node]; }
+    
+    /**
+     * @param node A node.
+     * @return The parent of the node, or {@code NONE}.
+     */
+    public int parent (int node) { return parent[node]; }
+    
+    /**
+     * @param node A node.
+     * @return The first child of the node, or {@code NONE}.
+     */
+    public int firstChild (int node) { return firstChild[node]; }
+    
+    /**
+     * @param node A node.
+     * @return The next sibling of the node, or {@code NONE}.
+     */
+    public int nextSibling (int node) { return nextSibling[node]; }
+    
+    /**
+     * @param node A node.
+     * @param index The position of a child among its siblings.
+     * @return That child, or {@code NONE} if the node has too few children.
+     */
+    public int child (int node, int index) {
+        int child = firstChild[node];
+        
+        for (int i = 0; i < index && child != NONE; i++) { child = nextSibling[child]; }
+        
+        return child;
+    }
+    
+    /**
+     * @param node A node.
+     * @return The number of children of the node.
+     */
+    public int childCount (int node) {
+        int count = 0;
+        
+        for (int child = firstChild[node]; child != NONE; child = nextSibling[child]) { count++; }
+        
+        return count;
+    }
+    
+    /**
+     * @param kind A kind of node.
+     * @return The nodes of that kind, in the order they were made.
+     */
+    public int[] nodesOf (Kind kind) {
+        Index found = index();
+        
+        return Arrays.copyOfRange(found.byKind, found.kindStarts[kind.ordinal()],
+                found.kindStarts[kind.ordinal() + 1]);
+    }
+    
+    /**
+     * @param kind A kind of node.
+     * @return The number of nodes of that kind.
+     */
+    public int countOf (Kind kind) {
+        Index found = index();
+        
+        return found.kindStarts[kind.ordinal() + 1] - found.kindStarts[kind.ordinal()];
+    }
+    
+    /**
+     * @param id A name id.
+     * @return Every declaration of that name in this tree, in the order they
+     *      were made, which may be none.
+     */
+    public int[] declarationsOf (int id) {
+        int[] found = index().declarations.get(id);
+        
+        return found == null ? new int[0] : found.clone();
+    }
+    
+    /**
+     * @param id A name id.
+     * @return The first declaration of that name in this tree, or {@code NONE}.
+     */
+    public int declarationOf (int id) {
+        int[] found = index().declarations.get(id);
+        
+        return found == null ? NONE : found[0];
+    }
+    
+    /**
+     * Finds the innermost node at an offset in the file. An offset between
+     * two tokens counts as being at the first of them.
+     * 
+     * @param offset An offset in the file.
+     * @return The innermost node whose tokens hold the offset, or the root.
+     */
+    public int nodeAt (long offset) {
+        Index found = index();
+        Token[] tokens = tokens();
+        int low = 0;
+        int high = tokens.length - 1;
+        
+        // The last token starting at or before the offset.
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            
+            if (tokens[middle].offset() <= offset) { low = middle + 1; }
+            else { high = middle - 1; }
+        }
+        
+        return high < 0 ? root() : found.innermost[high];
+    }
+    
+    /**
+     * @param tokenIndex The index of a token.
+     * @return The innermost node whose tokens hold that token.
+     */
+    public int nodeAtToken (int tokenIndex) { return index().innermost[tokenIndex]; }
+    
+    /**
+     * Builds the indexes of this tree, if they are not built yet. The parser
+     * builds them once it is done, so that the thread that made the tree pays
+     * for them. Two threads may both build them, but both arrive at the same
+     * indexes.
+     */
+    public void buildIndex () { index(); }
+    
+    /**
+     * @return The indexes of this tree, built if this is the first use.
+     */
+    private Index index () {
+        Index found = index;
+        
+        if (found == null) {
+            settle();
+            index = found = new Index(this);
+        }
+        
+        return found;
+    }
     
+    /**
+     * The {@code Index} holds the indexes of a tree, all built in one pass
+     * over its nodes.
+     */
+    private static final class Index {
+        /** The nodes of every kind, grouped by kind, in the order they were made. */
+        private final int[] byKind;
+        /** Where the nodes of each kind start in {@code byKind}, with one more at the end. */
+        private final int[] kindStarts;
+        /** The declarations of every name. */
+        private final IntMap<int[]> declarations = new IntMap<>();
+        /** The innermost node at every token. */
+        private final int[] innermost;
+        
+        /**
+         * Builds the indexes of a tree.
+         * 
+         * @param tree The tree.
+         */
+        Index (SearchTree tree) {
+            Kind[] kinds = Kind.values();
+            int size = tree.size;
+            
+            // Group the nodes by kind through a counting sort.
+            kindStarts = new int[kinds.length + 1];
+            byKind = new int[size];
+            
+            for (int node = 0; node < size; node++) { kindStarts[tree.kinds[node].ordinal() + 1]++; }
+            for (int k = 0; k < kinds.length; k++) { kindStarts[k + 1] += kindStarts[k]; }
+            
+            int[] next = Arrays.copyOf(kindStarts, kinds.length);
+            
+            for (int node = 0; node < size; node++) {
+                Kind kind = tree.kinds[node];
+                
+                byKind[next[kind.ordinal()]++] = node;
+                
+                if (isDeclaration(kind) && tree.name[node] != Token.NO_SYMBOL) {
+                    int[] known = declarations.get(tree.name[node]);
+                    int[] grown = known == null ? new int[1] : Arrays.copyOf(known, known.length + 1);
+                    
+                    grown[grown.length - 1] = node;
+                    declarations.put(tree.name[node], grown);
+                }
+            }
+            
+            innermost = innermost(tree);
+        }
+        
+        /**
+         * @param kind A kind of node.
+         * @return true if nodes of that kind declare a name.
+         */
+        private static boolean isDeclaration (Kind kind) {
+            return kind.compareTo(Kind.NAMESPACE) >= 0 && kind.compareTo(Kind.LOCAL) <= 0;
+        }
+        
+        /**
+         * Finds the innermost node at every token. The attached nodes are
+         * ordered by their first token, parents before their children, then
+         * swept along the tokens with a stack of the nodes that are open: a
+         * node is pushed at its first token and popped after its last, so the
+         * top of the stack is always the innermost node.
+         * 
+         * @param tree The tree.
+         * @return The innermost node at every token.
+         */
+        private static int[] innermost (SearchTree tree) {
+            int[] found = new int[tree.tokens.length];
+            int[] preorder = new int[tree.size];
+            long[] order = new long[tree.size];
+            int[] pending = new int[16];
+            int[] children = new int[16];
+            int count = 0;
+            int top = 0;
+            
+            // Walk the nodes reachable from the root in preorder, ordering
+            // them by their first token, then by their place in the walk.
+            pending[top++] = tree.root();
+            
+            while (top > 0) {
+                int node = pending[--top];
+                int many = 0;
+                
+                preorder[count] = node;
+                order[count] = (long) tree.first[node] << 32 | count;
+                count++;
+                
+                for (int child = tree.firstChild[node]; child != NONE; child = tree.nextSibling[child]) {
+                    if (many == children.length) { children = Arrays.copyOf(children, many << 1); }
+                    
+                    children[many++] = child;
+                }
+                
+                if (top + many > pending.length) { pending = Arrays.copyOf(pending, (top + many) << 1); }
+                
+                // Push the children last first, so they are walked in order.
+                while (many > 0) { pending[top++] = children[--many]; }
+            }
+            
+            Arrays.sort(order, 0, count);
+            
+            int[] open = new int[16];
+            int depth = 0;
+            int next = 0;
+            
+            for (int t = 0; t < found.length; t++) {
+                while (next < count && (int) (order[next] >>> 32) <= t) {
+                    int node = preorder[(int) order[next++]];
+                    
+                    if (depth == open.length) { open = Arrays.copyOf(open, depth << 1); }
+                    
+                    open[depth++] = node;
+                }
+                
+                while (depth > 1 && tree.last[open[depth - 1]] < t) { depth--; }
+                
+                found[t] = depth > 0 ? open[depth - 1] : tree.root();
+            }
+            
+            return found;
+        }
+    }
 }
@@ -0,0 +1,215 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 SoraKatadzuma.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package cherry.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * The {@code SymbolPool} gives every distinct name the compiler comes across
+ * a single string and a small number, its id. The {@code Lexer} pools every
+ * identifier it finds, so that the same name in a thousand places is only
+ * ever one string, and so that later processes can compare and look up names
+ * by their id instead of by their characters.
+ * <p>
+ * Names are looked up straight from the buffer they were read into; a name
+ * that is already in the pool costs a hash and a compare, but never an
+ * allocation. Since every parser thread of a compilation pools into the same
+ * instance, the pool is split into stripes by hash, each guarded by its own
+ * lock, so that threads rarely wait on each other. The stripe a name lives in
+ * makes up the low bits of its id.
+ * </p>
+ * <p>
+ * Each compilation has a pool of its own, so that the names of one are let go
+ * of with it. The same names pooled in the same order into new pools get the
+ * same ids, which is how the names the compiler itself knows of, made by
+ * {@code Builtins.pool()}, have ids that can be constants.
+ * </p>
+ * 
+ * @author SoraKatadzuma
+ * @version Alpha 0.0.1
+ * @since 10/18/2026
+ */
+public final class SymbolPool {
+    /** The number of bits of an id that name its stripe. */
+    private static final int STRIPE_BITS = 4;
+    /** The number of stripes in the pool. */
+    private static final int STRIPES = 1 << STRIPE_BITS;
+    /** The stripes of this pool. */
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    
+    /**
+     * Constructs a new empty pool.
+     */
+    public SymbolPool () {
+        for (int i = 0; i < STRIPES; i++) { stripes[i] = new Stripe(); }
+    }
+    
+    /**
+     * Pools the name held in a range of a buffer.
+     * 
+     * @param buffer The buffer holding the name.
+     * @param offset The position of the first byte of the name.
+     * @param length The number of bytes in the name.
+     * @return The id of the name.
+     */
+    public int intern (byte[] buffer, int offset, int length) {
+        int hash = hash(buffer, offset, length);
+        int stripe = hash & (STRIPES - 1);
+        
+        return (stripes[stripe].intern(buffer, offset, length, hash) << STRIPE_BITS) | stripe;
+    }
+    
+    /**
+     * Pools a name that is already a string.
+     * 
+     * @param name The name to pool.
+     * @return The id of the name.
+     */
+    public int intern (String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        
+        return intern(bytes, 0, bytes.length);
+    }
+    
+    /**
+     * Gets the pooled string of an id.
+     * 
+     * @param id The id of a name in this pool.
+     * @return The pooled string of that name.
+     */
+    public String name (int id) {
+        return stripes[id & (STRIPES - 1)].names[id >>> STRIPE_BITS];
+    }
+    
+    /**
+     * Hashes a range of a buffer. The result is spread so that both the low
+     * bits, which pick a stripe, and the bits above them, which pick a slot in
+     * that stripe, depend on every byte.
+     */
+    private static int hash (byte[] buffer, int offset, int length) {
+        int hash = 0x811C9DC5;
+        
+        for (int i = offset; i < offset + length; i++) {
+            hash = (hash ^ buffer[i]) * 0x01000193;
+        }
+        
+        return hash ^ (hash >>> 16);
+    }
+    
+    /**
+     * A stripe is an open addressing table of its own names. The slots hold
+     * the index of a name plus one, so that zero marks an empty slot.
+     */
+    private static final class Stripe {
+        /** The bytes of each name, by index. */
+        private byte[][] keys = new byte[16][];
+        /** The hash of each name, by index. */
+        private int[] hashes = new int[16];
+        /** The string of each name, by index. Read without the lock by {@code name()}. */
+        private volatile String[] names = new String[16];
+        /** The table of slots. */
+        private int[] slots = new int[32];
+        /** The number of names in this stripe. */
+        private int size;
+        
+        /**
+         * Finds or adds a name, returning its index in this stripe.
+         */
+        synchronized int intern (byte[] buffer, int offset, int length, int hash) {
+            int mask = slots.length - 1;
+            
+            for (int slot = (hash >>> STRIPE_BITS) & mask; ; slot = (slot + 1) & mask) {
+                int entry = slots[slot];
+                
+                if (entry == 0) { return add(buffer, offset, length, hash, slot); }
+                
+                int index = entry - 1;
+                
+                if (hashes[index] == hash && matches(keys[index], buffer, offset, length)) {
+                    return index;
+                }
+            }
+        }
+        
+        /**
+         * Adds a new name in an empty slot, growing the stripe when needed.
+         */
+        private int add (byte[] buffer, int offset, int length, int hash, int slot) {
+            int index = size++;
+            
+            if (index == keys.length) {
+                int capacity = keys.length << 1;
+                keys = Arrays.copyOf(keys, capacity);
+                hashes = Arrays.copyOf(hashes, capacity);
+                
+                String[] grown = Arrays.copyOf(names, capacity);
+                grown[index] = new String(buffer, offset, length, StandardCharsets.UTF_8);
+                names = grown;
+            } else {
+                names[index] = new String(buffer, offset, length, StandardCharsets.UTF_8);
+            }
+            
+            keys[index] = Arrays.copyOfRange(buffer, offset, offset + length);
+            hashes[index] = hash;
+            slots[slot] = index + 1;
+            
+            // Keep the table at most half full.
+            if (size << 1 > slots.length) { rehash(); }
+            
+            return index;
+        }
+        
+        /**
+         * Doubles the table of slots and places every name again.
+         */
+        private void rehash () {
+            int[] table = new int[slots.length << 1];
+            int mask = table.length - 1;
+            
+            for (int index = 0; index < size; index++) {
+                int slot = (hashes[index] >>> STRIPE_BITS) & mask;
+                
+                while (table[slot] != 0) { slot = (slot + 1) & mask; }
+                
+                table[slot] = index + 1;
+            }
+            
+            slots = table;
+        }
+        
+        /**
+         * Compares a pooled name to a range of a buffer.
+         */
+        private static boolean matches (byte[] key, byte[] buffer, int offset, int length) {
+            if (key.length != length) { return false; }
+            
+            for (int i = 0; i < length; i++) {
+                if (key[i] != buffer[offset + i]) { return false; }
+            }
+            
+            return true;
+        }
+    }
+}
@@ -34,6 +34,11 @@ package cherry.utils;
  * contains that word. Its complexity is O(n) but has the potential to have its
  * performance increased.
  * </p>
+ * <p>
+ * A word may also be given a value when it is inserted, which {@code find()}
+ * hands back for that word. This lets the {@code Lexer} tell a keyword's type
+ * straight from the bytes of its source without making a string first.
+ * </p>
  * 
  * @author SoraKatadzuma
  * @version Alpha 0.0.1
@@ -49,6 +54,8 @@ public class Trie {
     protected class Node {
         // the array containing the references to the next nodes.
         private final Node[] children = new Node[52];
+        // the value of the word ending at this node, or NO_VALUE.
+        private int value = NO_VALUE;
 
         protected Node() { }
 
@@ -94,6 +101,9 @@ public class Trie {
         }
     }
 
+    /** The value found for words that were inserted without one. */
+    public static final int NO_VALUE = -1;
+
     // The root node of this Trie.
     private final Node root = new Node();
 
@@ -145,5 +155,54 @@ public class Trie {
         return true;
     }
 
+    /**
+     * Inserts a word into the trie and gives it a value.
+     *
+     * @param word The word to insert.
+     * @param value The value of the word, returned by {@code find()}.
+     * @return true if and only if the word was fully added.
+     */
+    public boolean insert(String word, int value) {
+        boolean added = insert(word);
+        Node node = root;
+
+        for (int i = 0; i < word.length(); i++) {
+            node = node.getChild(word.charAt(i));
+        }
+
+        node.value = value;
+        return added;
+    }
+
+    /**
+     * Finds the value of a whole word held in a range of a buffer. Anything
+     * that is not a letter can not be part of a word in this trie.
+     *
+     * @param buffer The buffer holding the word.
+     * @param offset The position of the first byte of the word.
+     * @param length The number of bytes in the word.
+     * @return The value of the word, or NO_VALUE if it is not in this trie.
+     */
+    public int find(byte[] buffer, int offset, int length) {
+        Node node = root;
+
+        for (int i = offset; i < offset + length; i++) {
+            int ch = buffer[i];
+
+            if (!isLetter(ch)) { return NO_VALUE; }
+            if ((node = node.getChild((char) ch)) == null) { return NO_VALUE; }
+        }
+
+        return node.value;
+    }
+
+    /**
+     * @param ch The character to check.
+     * @return true if the character is one of the 52 letters a node can hold.
+     */
+    private static boolean isLetter(int ch) {
+        return (ch >= 'A' && ch <= 'Z') || (ch >= 'a' && ch <= 'z');
+    }
+
     public Node root() { return root; }
 }
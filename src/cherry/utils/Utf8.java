@@ -0,0 +1,249 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 SoraKatadzuma.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package cherry.utils;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * The {@code Utf8} class decodes the UTF-8 that Cherry sources are written in.
+ * Sources are mostly ASCII, so every method here first checks eight bytes at
+ * a time for a set high bit, which no ASCII byte has, and only falls back to
+ * decoding a byte at a time for the runs that are not ASCII.
+ * <p>
+ * Malformed input (a stray continuation byte, a truncated or overlong
+ * sequence, or an encoded surrogate) decodes to {@code REPLACEMENT}, and
+ * decoding carries on from the next byte.
+ * </p>
+ * 
+ * @author SoraKatadzuma
+ * @version Alpha 0.0.1
+ * @since 10/18/2026
+ */
+public final class Utf8 {
+    /** The high bit of every byte in a word, set only in non-ASCII bytes. */
+    public static final long HIGH_BITS = 0x8080808080808080L;
+    /** A word with every byte set to one. */
+    public static final long ONES = 0x0101010101010101L;
+    /** A word with every bit but the high bit of each byte set. */
+    private static final long LOW_BITS = ~HIGH_BITS;
+    /** The code point malformed input decodes to. */
+    public static final int REPLACEMENT = 0xFFFD;
+    
+    private Utf8 () {}
+    
+    /**
+     * Makes a little endian word view of a buffer, for reading eight bytes at
+     * a time with {@code getLong()}.
+     * 
+     * @param buffer The buffer to view.
+     * @return The word view of the buffer.
+     */
+    public static ByteBuffer words (byte[] buffer) {
+        return ByteBuffer.wrap(buffer).order(ByteOrder.LITTLE_ENDIAN);
+    }
+    
+    /**
+     * Flags every byte of a word that is equal to the byte of a pattern, by
+     * setting its high bit. Every other bit of the result is clear. Unlike the
+     * usual "has a zero byte" trick this has no false positives, so the flags
+     * can be counted and located exactly.
+     * 
+     * @param word The word to look through.
+     * @param pattern A word with every byte set to the byte sought.
+     * @return The high bit of every equal byte.
+     */
+    public static long matches (long word, long pattern) {
+        long x = word ^ pattern;
+        
+        return ~(((x & LOW_BITS) + LOW_BITS) | x | LOW_BITS);
+    }
+    
+    /**
+     * Finds the first byte in a range that is not ASCII. The word view is the
+     * one the owner of the buffer made once with {@code words()}, so that a
+     * scan allocates nothing.
+     * 
+     * @param buffer The buffer to search.
+     * @param words The word view of the buffer.
+     * @param from The position to start searching at.
+     * @param to The position to stop searching at.
+     * @return The position of the first non-ASCII byte, or {@code to}.
+     */
+    public static int skipAscii (byte[] buffer, ByteBuffer words, int from, int to) {
+        int at = from;
+        
+        while (at + Long.BYTES <= to && (words.getLong(at) & HIGH_BITS) == 0) {
+            at += Long.BYTES;
+        }
+        
+        while (at < to && buffer[at] >= 0) { at++; }
+        
+        return at;
+    }
+    
+    /**
+     * @param buffer The buffer to check.
+     * @param words The word view of the buffer.
+     * @param offset The position of the first byte to check.
+     * @param length The number of bytes to check.
+     * @return true if every byte in the range is ASCII.
+     */
+    public static boolean isAscii (byte[] buffer, ByteBuffer words, int offset, int length) {
+        return skipAscii(buffer, words, offset, offset + length) == offset + length;
+    }
+    
+    /**
+     * Checks a range of a buffer that has no word view at hand. A view is only
+     * made for a range long enough to be read a word at a time.
+     * 
+     * @param buffer The buffer to check.
+     * @param offset The position of the first byte to check.
+     * @param length The number of bytes to check.
+     * @return true if every byte in the range is ASCII.
+     */
+    public static boolean isAscii (byte[] buffer, int offset, int length) {
+        return isAscii(buffer, viewFor(buffer, length), offset, length);
+    }
+    
+    /**
+     * Decodes a range of a buffer that has no word view at hand. A view is
+     * only made for a range long enough to be read a word at a time, and then
+     * only once for the whole range.
+     * 
+     * @param buffer The buffer to decode.
+     * @param offset The position of the first byte to decode.
+     * @param length The number of bytes to decode.
+     * @return The decoded string.
+     */
+    public static String decode (byte[] buffer, int offset, int length) {
+        return decode(buffer, viewFor(buffer, length), offset, length);
+    }
+    
+    /**
+     * Decodes a range of a buffer into a string. ASCII runs are widened eight
+     * bytes at a time.
+     * 
+     * @param buffer The buffer to decode.
+     * @param words The word view of the buffer.
+     * @param offset The position of the first byte to decode.
+     * @param length The number of bytes to decode.
+     * @return The decoded string.
+     */
+    public static String decode (byte[] buffer, ByteBuffer words, int offset, int length) {
+        // A string never has more characters than its encoding has bytes.
+        char[] chars = new char[length];
+        int end = offset + length;
+        int count = 0;
+        int at = offset;
+        
+        while (at < end) {
+            int ascii = skipAscii(buffer, words, at, end);
+            
+            while (at < ascii) { chars[count++] = (char) buffer[at++]; }
+            
+            if (at == end) { break; }
+            
+            int codePoint = decodeCodePoint(buffer, at, end);
+            at += sequenceLength(buffer, at, end);
+            count += Character.toChars(codePoint, chars, count);
+        }
+        
+        return new String(chars, 0, count);
+    }
+    
+    /**
+     * @param buffer The buffer to view.
+     * @param length The number of bytes that will be read through the view.
+     * @return A word view of the buffer, or {@code null} when fewer bytes than
+     * a word will be read, since {@code skipAscii()} never touches it then.
+     */
+    private static ByteBuffer viewFor (byte[] buffer, int length) {
+        return length < Long.BYTES ? null : words(buffer);
+    }
+    
+    /**
+     * Decodes the code point whose sequence starts at a position.
+     * 
+     * @param buffer The buffer to decode from.
+     * @param at The position of the first byte of the sequence.
+     * @param end The position the sequence must end by.
+     * @return The code point, or {@code REPLACEMENT} if it is malformed.
+     */
+    public static int decodeCodePoint (byte[] buffer, int at, int end) {
+        int lead = buffer[at] & 0xFF;
+        
+        if (lead < 0x80) { return lead; }
+        
+        int length = sequenceLength(buffer, at, end);
+        
+        if (length == 1) { return REPLACEMENT; }
+        
+        int codePoint = lead & (0x7F >> length);
+        
+        for (int i = 1; i < length; i++) {
+            codePoint = (codePoint << 6) | (buffer[at + i] & 0x3F);
+        }
+        
+        return codePoint;
+    }
+    
+    /**
+     * Measures the sequence starting at a position. A malformed sequence
+     * measures a single byte, so that decoding resumes right after its lead.
+     * 
+     * @param buffer The buffer to measure in.
+     * @param at The position of the first byte of the sequence.
+     * @param end The position the sequence must end by.
+     * @return The number of bytes in the sequence.
+     */
+    public static int sequenceLength (byte[] buffer, int at, int end) {
+        int lead = buffer[at] & 0xFF;
+        int length;
+        int min;
+        
+        if (lead < 0x80) { return 1; }
+        else if (lead >= 0xC2 && lead <= 0xDF) { length = 2; min = 0x80; }
+        else if (lead >= 0xE0 && lead <= 0xEF) { length = 3; min = 0x800; }
+        else if (lead >= 0xF0 && lead <= 0xF4) { length = 4; min = 0x10000; }
+        else { return 1; }
+        
+        if (at + length > end) { return 1; }
+        
+        int codePoint = lead & (0x7F >> length);
+        
+        for (int i = 1; i < length; i++) {
+            int next = buffer[at + i] & 0xFF;
+            
+            if ((next & 0xC0) != 0x80) { return 1; }
+            
+            codePoint = (codePoint << 6) | (next & 0x3F);
+        }
+        
+        boolean overlong = codePoint < min;
+        boolean surrogate = codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE;
+        
+        return overlong || surrogate || codePoint > Character.MAX_CODE_POINT ? 1 : length;
+    }
+}
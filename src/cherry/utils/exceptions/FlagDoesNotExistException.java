@@ -32,6 +32,8 @@ package cherry.utils.exceptions;
  * @since 11/20/2017
  */
 public class FlagDoesNotExistException extends Exception {
+    private static final long serialVersionUID = 1L;
+    
     /**
      * Constructs a new FlagDoesNotExistException with a reason and a cause.
      * 
@@ -23,11 +23,19 @@
  */
 package cherry.utils.handlers;
 
-import cherry.utils.exceptions.FileNotProperException;
-import cherry.utils.exceptions.InvalidFileExtensionException;
+import cherry.utils.Diagnostic;
+import cherry.utils.Diagnostics;
 import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 /**
  * The {@code FileHandler} class is responsible for checking files for their
@@ -35,13 +43,34 @@ import java.util.List;
  * parsed, and setting appropriate runtime flags not given by the user. For
  * ease of understanding; these flags could be debug informative, special
  * assembler instruction flags, or the like wise.
+ * <p>
+ * Besides explicit file names the handler accepts two other kinds of input.
+ * A directory is walked recursively, and in parallel, for every file with a
+ * proper extension. An argument of the form "@list" names a file that holds
+ * one input per line, which keeps very large builds from overflowing the
+ * command line. Entries of an argument file may be files or directories, but
+ * not other argument files.
+ * </p>
+ * <p>
+ * An input that cannot be registered is reported as a {@code Diagnostic} and
+ * left out, and the handler carries on with the rest, so that every improper
+ * input is reported at once.
+ * </p>
  * 
  * @author SoraKatadzuma
  * @version Alpha 0.0.1
  * @since 11/20/2017
  */
 public final class FileHandler {
-    private static File[] registeredFiles;
+    /** The files registered, of this compilation alone. */
+    private final File[] registeredFiles;
+    /** Where inputs that cannot be registered are reported. */
+    private final Diagnostics diagnostics;
+    
+    /** The prefix marking a command line argument as an argument file. */
+    private static final char ARGUMENT_FILE_PREFIX = '@';
+    /** The character that starts a comment line inside of an argument file. */
+    private static final char ARGUMENT_FILE_COMMENT = '#';
     
     // One of this class's main jobs is to check each file for the appropriate
     // file extensions. In this case those extensions can be .ch, .ry, or .cherry.
@@ -51,30 +80,33 @@ public final class FileHandler {
      * Constructs a new FileHandler with the given files. It checks those files
      * for one of the three available extensions: .ch, .ry, or .cherry; then it
      * will register that file with given information that the parser that will
-     * parse it, needs to know.
+     * parse it, needs to know. Directories and argument files are expanded
+     * into the files they contain. Improper files, and argument files that
+     * could not be read, are reported and left out, as is being given no
+     * files at all.
      * 
      * @param files The array of file names passed in via the command line.
-     * @throws FileNotProperException If the file to be registered has an
-     *			improper extension.
+     * @param diagnostics Where inputs that cannot be registered are reported.
      */
-    public FileHandler (String[] files) throws FileNotProperException {
+    public FileHandler (String[] files, Diagnostics diagnostics) {
+        this.diagnostics = diagnostics;
+
+        if (files.length == 0) {
+            diagnostics.error(Diagnostic.Code.NO_FILES, null, "The compiler did not receive files to parse.");
+        }
+        
         // A list to collect all the valid Files in.
-        List<File> fileList = new LinkedList<>();
+        List<File> fileList = new ArrayList<>();
         
         // Iterate over all file names, and test them to make sure they are
         // proper names.
         for (String file : files) {
-            try {
-                // Check for the appropriate extensions.
-                checkExtensionAppropriatenessOf(file);
-
-                // If it is appropriate then we should get here where we can
-                // register the file we have the name for.
-                fileList.add(new File(file));
-            } catch (InvalidFileExtensionException cause) {
-                String reason = "Invalid File Extension.";
-
-                throw new FileNotProperException(reason, cause);
+            if (!file.isEmpty() && file.charAt(0) == ARGUMENT_FILE_PREFIX) {
+                for (String entry : readArgumentFile(file.substring(1))) {
+                    register(entry, fileList);
+                }
+            } else {
+                register(file, fileList);
             }
         }
         
@@ -82,39 +114,85 @@ public final class FileHandler {
     }
     
     /**
-     * Takes a "file" name and it checks the extension. If that extension is not
-     * one of the three: .ch, .ry, or .cherry; then the file has an invalid file
-     * extension. At which point the exception will be thrown and will most
-     * likely be wrapped as a FileNotProperException.
+     * Registers a single input, which is either a directory to be walked or
+     * the name of a file that must exist and have a proper extension.
      * 
-     * @param name A string representing the name of a file.
-     * @throws InvalidFileExtensionException If the file name does not end with
-     *			an appropriate file extension as deemed here: .ch, .ry, .cherry.
+     * @param name The name of the file or directory.
+     * @param fileList The list collecting the registered files.
      */
-    public static final void checkExtensionAppropriatenessOf (String name)
-    throws InvalidFileExtensionException {
-        for (int i = 0; i < name.length(); i++) {
-            // Check for the extension separator, then make sure the length
-            // before the end of the name is near the correct length.
-            // If so, then this must be a file extension at which point we
-            // should check it's continuity.
-            if (name.charAt(i) != '.') { continue; }
-            if ((name.length() - i) > 6) { continue; }
-
-            String extension = name.substring(i);
-
-            // We have a potential match, now we need to formally check it.
-            switch (extension) {
-                // A proper file extension.
-                case ".ch": case ".ry": case ".cherry": { return; }
-                // Error
-                default: {
-                    String reason = "\"" + extension + "\" is not a proper file extension.";
-
-                    throw new InvalidFileExtensionException(reason);
-                }
-            }
+    private void register (String name, List<File> fileList) {
+        File file = new File(name);
+        
+        // Directories are searched for proper files rather than checked.
+        if (file.isDirectory()) {
+            fileList.addAll(ForkJoinPool.commonPool().invoke(new DirectoryWalk(file)));
+            return;
+        }
+        
+        // Check for the appropriate extensions, without building an
+        // exception for every improper one.
+        if (!hasProperExtension(name)) {
+            int separator = name.lastIndexOf('.');
+            String extension = separator < 0 ? "" : name.substring(separator);
+            
+            diagnostics.error(Diagnostic.Code.IMPROPER_FILE, name,
+                    "\"" + extension + "\" is not a proper file extension.");
+            return;
+        }
+        
+        if (!file.isFile()) {
+            diagnostics.error(Diagnostic.Code.FILE_NOT_FOUND, name, "The file does not exist.");
+            return;
+        }
+        
+        // If it is appropriate then we should get here where we can register
+        // the file we have the name for.
+        fileList.add(file);
+    }
+    
+    /**
+     * Reads the entries of an argument file. Every non-blank line that does
+     * not start with a '#' is one entry.
+     * 
+     * @param name The name of the argument file, without the '@' prefix.
+     * @return The entries found in the argument file, or none if it could not
+     *      be read.
+     */
+    private List<String> readArgumentFile (String name) {
+        List<String> lines;
+        
+        try {
+            lines = Files.readAllLines(new File(name).toPath(), StandardCharsets.UTF_8);
+        } catch (IOException cause) {
+            diagnostics.error(Diagnostic.Code.UNREADABLE_ARGUMENT_FILE, name,
+                    "The argument file could not be read.");
+            return new LinkedList<>();
+        }
+        
+        List<String> entries = new LinkedList<>();
+        
+        for (String line : lines) {
+            String entry = line.trim();
+            
+            if (entry.isEmpty() || entry.charAt(0) == ARGUMENT_FILE_COMMENT) { continue; }
+            
+            entries.add(entry);
         }
+        
+        return entries;
+    }
+    
+    /**
+     * Tells whether a name ends with one of the three proper extensions: .ch,
+     * .ry, or .cherry. This is a plain suffix check; it neither scans the whole
+     * name nor allocates, since it runs once for every file found while walking
+     * a directory.
+     * 
+     * @param name A string representing the name of a file.
+     * @return {@code true} if the name ends with a proper extension.
+     */
+    public static final boolean hasProperExtension (String name) {
+        return name.endsWith(".ch") || name.endsWith(".ry") || name.endsWith(".cherry");
     }
     
     /**
@@ -124,5 +202,57 @@ public final class FileHandler {
      * 
      * @return The registered files.
      */
-    public static final File[] getRegisteredFiles () { return registeredFiles; }
+    public File[] getRegisteredFiles () { return registeredFiles; }
+    
+    /**
+     * A task that collects the proper files of one directory and forks a new
+     * task for each of its sub directories, so that a large source tree is
+     * walked by every worker of the pool at once. Entries are visited in name
+     * order and the results of sub directories are joined in that same order,
+     * which keeps the registered files in a stable order between runs. Hidden
+     * entries (such as ".git") and symbolic links to directories are skipped.
+     */
+    private static final class DirectoryWalk extends RecursiveTask<List<File>> {
+        private static final long serialVersionUID = 1L;
+        
+        /** The directory this task is walking. */
+        private final File directory;
+        
+        /**
+         * @param directory The directory to walk.
+         */
+        DirectoryWalk (File directory) { this.directory = directory; }
+        
+        @Override
+        protected List<File> compute () {
+            String[] names = directory.list();
+            List<File> found = new ArrayList<>();
+            
+            if (names == null) { return found; }
+            
+            Arrays.sort(names);
+            
+            List<DirectoryWalk> walks = new ArrayList<>();
+            
+            for (String name : names) {
+                if (name.charAt(0) == '.') { continue; }
+                
+                File child = new File(directory, name);
+                
+                // Only a properly named entry can be a source, but a directory
+                // may carry a proper name too, and is walked like any other.
+                if (hasProperExtension(name) && child.isFile()) {
+                    found.add(child);
+                } else if (Files.isDirectory(child.toPath(), LinkOption.NOFOLLOW_LINKS)) {
+                    DirectoryWalk walk = new DirectoryWalk(child);
+                    walk.fork();
+                    walks.add(walk);
+                }
+            }
+            
+            for (DirectoryWalk walk : walks) { found.addAll(walk.join()); }
+            
+            return found;
+        }
+    }
 }
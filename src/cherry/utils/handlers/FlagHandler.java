@@ -23,10 +23,10 @@
  */
 package cherry.utils.handlers;
 
-import cherry.utils.exceptions.FailureToRaiseException;
+import cherry.utils.Diagnostic;
+import cherry.utils.Diagnostics;
 import cherry.utils.exceptions.FlagDoesNotExistException;
-import cherry.utils.exceptions.RaiseIncapabilityException;
-import cherry.utils.exceptions.UnknownFlagException;
+import java.util.EnumMap;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.LinkedList;
@@ -43,6 +43,14 @@ import java.util.Map;
  * conditions or sub-flags to raise. The latter is a short flag, used to raise
  * full flags as default and or convenience.
  * </p>
+ * <p>
+ * Some full flags carry a value, and must be given one in the form
+ * "--flag=value". The value of such a flag can be looked up once it is raised.
+ * </p>
+ * <p>
+ * A flag that does not exist, or cannot be raised, is reported as a
+ * {@code Diagnostic} and left down; the other flags are raised regardless.
+ * </p>
  * 
  * @author SoraKatadzuma
  * @version Alpha 0.0.1
@@ -53,25 +61,65 @@ public final class FlagHandler {
      * Every flag placed on the command line, if it exists, will be turned into
      * a runtime flag. A runtime flag is essentially the compiler's version of
      * the command line flag. Any raised runtime flag can be seen by any part of
-     * compiler. We do this so that the individual processes that have a role in
+     * the compilation it was given to. We do this so that the individual processes that have a role in
      * producing some kind of diagnostics, or that need to pass data to the
      * FlagHandler, can do so when that process is ready to, rather than having
      * the FlagHandler request the information and risk having a hold up in
      * execution so that the FlagHandler can get it's data.
      */
     public enum RuntimeFlag {
-        FLAG("--flag");
+        FLAG("--flag"),
+        /** The files or namespaces to compile, with everything they use. */
+        ENTRY("--entry", true),
+        /** The directory interface summaries are read from and written to. */
+        SUMMARIES("--summaries", true),
+        /** The heap files may take while being parsed, as in "512m". */
+        MEMORY_BUDGET("--memory-budget", true),
+        /** Dumps the tokens of each file into a file beside it; they are not dumped otherwise. */
+        DUMP_TOKENS("--dump-tokens"),
+        /** The directory class files are written into, the working directory if not given. */
+        OUTPUT("--output", true),
+        /** The optimization passes not to run, separated by commas, as in "inline,cse". */
+        DISABLE_PASSES("--disable-passes", true),
+        /** Reports how long each optimization pass took, over every function. */
+        TIME_PASSES("--time-passes"),
+        /** Runs the program through the interpreter, rather than writing class files. */
+        RUN("--run"),
+        /** The workers files are parsed by, separated by commas, as in "build1:7000,build2:7000". */
+        WORKERS("--workers", true),
+        /** The number of workers to start on this machine and parse files by. */
+        SPAWN_WORKERS("--spawn-workers", true);
 
         /** This is the command line string that represents this flag. */
         private final String name;
-        /** This is a map of the name of the flag to the actual flag. */
-        private static final Map<String, RuntimeFlag> mappedFlags = generateMappedFlags();
+        /** Whether this flag must be given a value. */
+        private final boolean valued;
 
         /**
          * Constructs the values of this enum.
          * @param name The command line string that represents this flag.
          */
-        RuntimeFlag (String name) { this.name = name; }
+        RuntimeFlag (String name) { this(name, false); }
+        
+        /**
+         * Constructs the values of this enum.
+         * @param name The command line string that represents this flag.
+         * @param valued Whether the flag must be given a value.
+         */
+        RuntimeFlag (String name, boolean valued) {
+            this.name = name;
+            this.valued = valued;
+        }
+        
+        /**
+         * @param argument A command line flag, with or without a value.
+         * @return The name of the flag, without its value.
+         */
+        private static String nameOf (String argument) {
+            int equals = argument.indexOf('=');
+            
+            return equals < 0 ? argument : argument.substring(0, equals);
+        }
 
         /**
          * Generates the map containing the name of a flag to the flag itself.
@@ -85,23 +133,33 @@ public final class FlagHandler {
 
             return result;
         }
+        
+        /**
+         * Holds the flags by their names, mapped only once a flag is looked
+         * up, since a compilation given no flags never looks one up.
+         */
+        private static final class Names {
+            /** This is a map of the name of the flag to the actual flag. */
+            static final Map<String, RuntimeFlag> mapped = generateMappedFlags();
+        }
 
         /**
          * Checks if a particular flag exists, or in other words, RuntimeFlag
          * contains a value with the name of the command line argument in
          * question.
          * 
-         * @param name The name of the command line argument being checked.
+         * @param argument The command line argument being checked.
          * @throws FlagDoesNotExistException If the flag is not contained inside
-         *			of {@code mappedFlags}.
+         *			of {@code Names.mapped}.
          */
-        private static void exists (String name)
+        private static void exists (String argument)
         throws FlagDoesNotExistException {
+            String name = nameOf(argument);
             // We have this prepared in case of failure.
             String reason = "Flag: \"" + name + "\" does not exist.";
 
             // Check if the map even contains the key.
-            if (!mappedFlags.containsKey(name)) {
+            if (!Names.mapped.containsKey(name)) {
                 // An extended resoning.
                 String augmentedReason = reason +
                     " No key matching this flag\'s name was found.";
@@ -110,13 +168,22 @@ public final class FlagHandler {
             }
 
             // Check if the map contains a value at that key.
-            if (mappedFlags.get(name) == null) {
+            if (Names.mapped.get(name) == null) {
                 // An extended reasoning.
                 String augmentedReason = reason +
                     " No value for this flag name was found.";
 
                 throw new FlagDoesNotExistException(augmentedReason);
             }
+            
+            // Check that the flag was given a value if, and only if, it takes one.
+            if (Names.mapped.get(name).valued != (argument.length() > name.length())) {
+                String augmentedReason = reason + (Names.mapped.get(name).valued
+                        ? " This flag must be given a value, as in \"" + name + "=value\"."
+                        : " This flag does not take a value.");
+
+                throw new FlagDoesNotExistException(augmentedReason);
+            }
         }
     }
     
@@ -126,79 +193,78 @@ public final class FlagHandler {
      * enum format. It actually is quite similar to the Java equivalent an array
      * of bit flags called the BitSet. Since we decided to go with the Enum
      * {@code RuntimeFlag} for convenience and flexibility, we will use the
-     * EnumSet to store our raised flags.
+     * EnumSet to store our raised flags. Each compilation has a handler of its
+     * own, so compilations in one process can be given different flags.
      */
-    private static final EnumSet<RuntimeFlag> RAISEDFLAGS = EnumSet.noneOf(RuntimeFlag.class);
+    private final EnumSet<RuntimeFlag> raisedFlags = EnumSet.noneOf(RuntimeFlag.class);
+    /** The values given to the raised flags that take one. */
+    private final EnumMap<RuntimeFlag, String> values = new EnumMap<>(RuntimeFlag.class);
+    /** Where flags that cannot be raised are reported. */
+    private final Diagnostics diagnostics;
     
     /**
      * Constructs the FlagHandler with the command line flags that should be
-     * raised if they so exist.
+     * raised if they so exist. Flags that do not exist are reported and left
+     * down.
      * 
      * @param flags The command line flag strings that assumably represent
      *      a runtime flag.
-     * @throws UnknownFlagException If the flag cannot be found in the mappedFlags.
-     * @throws FailureToRaiseException If a flag was did not make it into the
-     *      {@code raisedFlags} EnumSet.
+     * @param diagnostics Where flags that cannot be raised are reported.
      *
      * @see RuntimeFlag#exists(String)
      * @see this#raiseFlags(String[])
      */
-    public FlagHandler (String[] flags)
-    throws UnknownFlagException, FailureToRaiseException {
+    public FlagHandler (String[] flags, Diagnostics diagnostics) {
+        this.diagnostics = diagnostics;
+
         // A list of name marked as unknown flags, helps us raise flags that do
         // exist according to the RuntimeFlag enum.
         List<String> acceptedNames = new LinkedList<>();
 
         // Iterate over all flag names and check if they exist as a RuntimeFlag.
         for (String name : flags) {
-            // If the name does not exist as a RuntimeFlag, throw a new
-            // {@code UnknownFlagException}.
+            // If the name does not exist as a RuntimeFlag, report it and
+            // carry on with the others.
             try {
                 RuntimeFlag.exists(name);
 
                 // If this succeded then this next part will happen.
                 acceptedNames.add(name);
             } catch (FlagDoesNotExistException cause) {
-                // A reason why this exception was thrown.
-                String reason = "A flag was marked as unknown.";
-
-                throw new UnknownFlagException(reason, cause);
+                diagnostics.error(Diagnostic.Code.UNKNOWN_FLAG, null, cause.getMessage());
             }
         }
 
         // Now that we know all the existing flags that we can raise, we will do
         // so.
-        try {
-            raiseFlags(acceptedNames.toArray(new String[0]));
-        } catch (RaiseIncapabilityException cause) {
-            String reason = "Failed to while attempting to raise flags.";
-
-            throw new FailureToRaiseException(reason, cause);
-        }
+        raiseFlags(acceptedNames.toArray(new String[0]));
     }
     
     /**
      * An encapsulation method, useful for raising an array of flags. All
      * flags should be checked for their existence before they are raised.
-     * This method will not be responsible for that however.
+     * This method will not be responsible for that however. A flag that could
+     * not be raised is reported.
      * 
      * @param flagsToRaise Is the array of flags to raise, denoted by their
      *			name.
-     * @throws RaiseIncapabilityException if a flag was not added to
-     *			{@code raisedFlags}.
      */
-    private static void raiseFlags (String[] flagsToRaise)
-    throws RaiseIncapabilityException {
+    private void raiseFlags (String[] flagsToRaise) {
         // Iterate over all strings, getting their RuntimeFlag value and
-        // attempt to raise them. Throw an new
-        // {@code RaiseIncapabilityException} if the the flag wasn't raised.
+        // attempt to raise them, reporting the flags that weren't raised.
         for (String flag : flagsToRaise) {
-            try {
-                raiseFlag(RuntimeFlag.mappedFlags.get(flag));
-            } catch (Throwable cause) {
-                String reason = "Incapable of raising flag: \"" + flag + "\".";
-                throw new RaiseIncapabilityException(reason, cause);
+            String name = RuntimeFlag.nameOf(flag);
+            RuntimeFlag runtimeFlag = RuntimeFlag.Names.mapped.get(name);
+            
+            if (runtimeFlag == null) {
+                diagnostics.error(Diagnostic.Code.UNKNOWN_FLAG, null,
+                        "Incapable of raising flag: \"" + flag + "\".");
+                continue;
             }
+            
+            if (runtimeFlag.valued) { values.put(runtimeFlag, flag.substring(name.length() + 1)); }
+            
+            raiseFlag(runtimeFlag);
         }
     }
     
@@ -212,16 +278,29 @@ public final class FlagHandler {
      * @return {@code true} if the flag was placed into the EnumSet
      *			{@code raisedFlags}.
      */
-    private static boolean raiseFlag (RuntimeFlag flagToRaise) {
+    private boolean raiseFlag (RuntimeFlag flagToRaise) {
         // Make sure the flag was added, returning false if it wasn't.
         // Return true if it was.
-        return RAISEDFLAGS.add(flagToRaise);
+        return raisedFlags.add(flagToRaise);
     }
     
     /**
      * This provides a way for individual processes to see if a flag that they
      * are supposed to respond to, has been raised.
-     * @return The {@code raisedFlags} EnumSet.
+     * @param flag The flag.
+     * @return {@code true} if the flag was raised.
+     */
+    public boolean isRaised (RuntimeFlag flag) { return raisedFlags.contains(flag); }
+    
+    /**
+     * @return A copy of the {@code raisedFlags} EnumSet.
+     */
+    public EnumSet<RuntimeFlag> getRaisedFlags () { return EnumSet.copyOf(raisedFlags); }
+    
+    /**
+     * Provides the value a flag was given on the command line.
+     * @param flag A flag that takes a value.
+     * @return The value of the flag, or {@code null} if it was not raised.
      */
-    public static EnumSet<RuntimeFlag> getRaisedFlags () { return RAISEDFLAGS; };
+    public String getValue (RuntimeFlag flag) { return values.get(flag); }
 }
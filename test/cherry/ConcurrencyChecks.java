@@ -0,0 +1,560 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 SoraKatadzuma.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package cherry;
+
+import cherry.frontend.lexer.Lexer;
+import cherry.frontend.parser.StemParser;
+import cherry.frontend.semantics.Analysis;
+import cherry.frontend.semantics.Builtins;
+import cherry.frontend.semantics.Declaration;
+import cherry.frontend.semantics.SemanticAnalyzer;
+import cherry.frontend.semantics.SymbolTable;
+import cherry.utils.Diagnostic;
+import cherry.utils.Diagnostics;
+import cherry.utils.MemoryGovernor;
+import cherry.utils.SearchTree;
+import cherry.utils.SymbolPool;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * The {@code ConcurrencyChecks} hammer the parts of the compiler that many
+ * threads share, and check that what comes out is the same however the
+ * threads were scheduled: the striped {@code SymbolTable} and its freezing,
+ * the barrier between the two phases of the {@code SemanticAnalyzer}, the
+ * blocking of the {@code MemoryGovernor}, and {@code CompilationSession}s
+ * compiling side by side on one pool.
+ * <p>
+ * The files are many namespaces shared by several files each, which all
+ * declare the same types, so that most declarations clash, and each file
+ * uses a type only another file declares, so that a file resolved before
+ * every file was declared would not find it.
+ * </p>
+ * <p>
+ * These are plain checks rather than JUnit tests, because the project has no
+ * test framework on its classpath. The process exits with 1 when any check
+ * fails.
+ * </p>
+ * 
+ * @author SoraKatadzuma
+ * @version Alpha 0.0.1
+ * @since 10/18/2026
+ */
+public final class ConcurrencyChecks {
+    /** The number of files. */
+    private static final int FILES = 64;
+    /** The number of namespaces the files are spread over. */
+    private static final int NAMESPACES = 8;
+    /** The number of types every file of a namespace declares alike. */
+    private static final int SHARED = 20;
+    /** The number of threads that hammer at once. */
+    private static final int THREADS = 16;
+    /** The number of times each hammering is repeated. */
+    private static final int ROUNDS = 20;
+    /** The pool the names of every file are placed in. */
+    private static final SymbolPool NAMES = Builtins.pool();
+    /** What every failed check reported. */
+    private static final List<String> failures = new ArrayList<>();
+    
+    private ConcurrencyChecks () {}
+    
+    /**
+     * @param args Unused.
+     * @throws Exception If the files could not be written, or a thread failed.
+     */
+    public static void main (String[] args) throws Exception {
+        Path directory = Files.createTempDirectory("cherry-concurrency");
+        
+        try {
+            List<File> files = write(directory.resolve("src"));
+            List<SearchTree> trees = parse(files);
+            
+            symbolTable(trees);
+            analyzer(trees);
+            memoryGovernor();
+            sharedPool(directory, files);
+        } finally {
+            try (Stream<Path> paths = Files.walk(directory)) {
+                paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+            }
+        }
+        
+        for (String failure : failures) { System.out.println("FAILED: " + failure); }
+        
+        System.out.println(failures.isEmpty() ? "All concurrency checks passed." : failures.size() + " checks failed.");
+        System.exit(failures.isEmpty() ? 0 : 1);
+    }
+    
+    /**
+     * Every tree is declared into one table by many threads at once, which
+     * then all freeze it. The same declarations are kept, the same refused,
+     * and one snapshot answered to every thread, round after round.
+     */
+    private static void symbolTable (List<SearchTree> trees) throws Exception {
+        List<String> first = null;
+        
+        for (int round = 0; round < ROUNDS; round++) {
+            SymbolTable table = new SymbolTable(NAMES);
+            List<SearchTree> shuffled = new ArrayList<>(trees);
+            
+            Collections.shuffle(shuffled, new Random(round));
+            
+            List<SymbolTable.Snapshot> snapshots = hammer(thread -> {
+                for (int i = thread; i < shuffled.size(); i += THREADS) { table.declareAll(shuffled.get(i)); }
+            }, table::freeze);
+            
+            boolean same = true;
+            
+            for (SymbolTable.Snapshot snapshot : snapshots) { same &= snapshot == snapshots.get(0); }
+            
+            expect("round " + round + ": every thread freezes the same snapshot", same);
+            
+            List<String> described = describe(snapshots.get(0), table.clashes());
+            
+            if (first == null) {
+                first = described;
+                checkKept(table.clashes());
+            } else if (!described.equals(first)) {
+                failures.add("round " + round + ": the table differs from the first round");
+            }
+        }
+        
+        expect("every type is kept once", first != null
+                && first.indexOf("clashes") == NAMESPACES + NAMESPACES * (SHARED * 2) + FILES);
+        expect("every repeated type is refused", first != null
+                && first.size() - first.indexOf("clashes") - 1 == 2 * (FILES - NAMESPACES) * SHARED * 2);
+        
+        SymbolTable frozen = new SymbolTable(NAMES);
+        
+        frozen.freeze();
+        
+        try {
+            frozen.declareAll(trees.get(0));
+            failures.add("a frozen table refuses declarations");
+        } catch (IllegalStateException ex) {
+            // As it should.
+        }
+    }
+    
+    /**
+     * Of each clash, the declaration kept is the one first in the sources.
+     */
+    private static void checkKept (List<Declaration> clashes) {
+        for (int i = 0; i < clashes.size(); i += 2) {
+            Declaration refused = clashes.get(i);
+            Declaration kept = clashes.get(i + 1);
+            int byFile = kept.tree().file().getPath().compareTo(refused.tree().file().getPath());
+            
+            if (byFile > 0 || byFile == 0 && kept.node() > refused.node()) {
+                failures.add("the later " + NAMES.name(kept.name()) + " of " + kept.tree().file().getName() + " is kept");
+                return;
+            }
+        }
+    }
+    
+    private static List<String> describe (SymbolTable.Snapshot snapshot, List<Declaration> clashes) {
+        List<String> described = new ArrayList<>();
+        
+        for (Declaration declaration : snapshot.declarations()) { described.add(describe(declaration)); }
+        
+        Collections.sort(described);
+        described.add("clashes");
+        
+        for (Declaration declaration : clashes) { described.add(describe(declaration)); }
+        
+        return described;
+    }
+    
+    private static String describe (Declaration declaration) {
+        return declaration.kind() + " " + declaration.scope() + " " + NAMES.name(declaration.name()) + " "
+                + (declaration.tree() == null ? "-" : declaration.tree().file().getName()) + " " + declaration.node();
+    }
+    
+    /**
+     * The trees are analyzed on pools of one thread and of many, again and
+     * again. Every file finds the type it uses in another file, so none was
+     * resolved before every file was declared, and the same problems are
+     * reported, the clashes in the same order.
+     */
+    private static void analyzer (List<SearchTree> trees) throws Exception {
+        List<String> first = null;
+        int firstErrors = -1;
+        
+        for (int round = 0; round < ROUNDS / 2; round++) {
+            ExecutorService pool = round == 0 ? new ForkJoinPool(1) : new ForkJoinPool(THREADS);
+            Diagnostics diagnostics = new Diagnostics();
+            Analysis analysis;
+            
+            try {
+                analysis = new SemanticAnalyzer(pool, NAMES, diagnostics).analyze(trees);
+            } finally {
+                pool.shutdown();
+            }
+            
+            List<String> clashes = new ArrayList<>();
+            List<String> others = new ArrayList<>();
+            
+            for (Diagnostic diagnostic : diagnostics.all()) {
+                String described = diagnostic.fileName() + ":" + diagnostic.line() + ":" + diagnostic.column() + " "
+                        + diagnostic.code() + " " + diagnostic.message();
+                
+                if (diagnostic.code() == Diagnostic.Code.DUPLICATE_DECLARATION) { clashes.add(described); }
+                else { others.add(described); }
+            }
+            
+            // Files are resolved in any order, while clashes are reported in one.
+            Collections.sort(others);
+            clashes.addAll(others);
+            
+            if (first == null) {
+                first = clashes;
+                firstErrors = analysis.errors();
+                
+                expect("only the clashes are errors", others.isEmpty()
+                        && clashes.size() == (FILES - NAMESPACES) * SHARED * 2);
+            } else {
+                expect("round " + round + ": the same problems in the same order", clashes.equals(first));
+                expect("round " + round + ": the same number of errors", analysis.errors() == firstErrors);
+            }
+        }
+    }
+    
+    /**
+     * Many tasks of a work-stealing pool take and give back shares of a
+     * budget, which is never overdrawn and is all given back; a share that
+     * does not fit waits until one that does is given back, and a share
+     * larger than the budget gets in once nothing else is in flight.
+     */
+    private static void memoryGovernor () throws Exception {
+        long budget = 1000;
+        MemoryGovernor governor = new MemoryGovernor(budget);
+        AtomicLong inFlight = new AtomicLong();
+        AtomicLong most = new AtomicLong();
+        ForkJoinPool pool = new ForkJoinPool(THREADS);
+        List<Callable<Boolean>> tasks = new ArrayList<>();
+        
+        for (int task = 0; task < THREADS * 4; task++) {
+            Random random = new Random(task);
+            
+            tasks.add(() -> {
+                for (int i = 0; i < 200; i++) {
+                    long share = 50 + random.nextInt(350);
+                    
+                    governor.acquire(share);
+                    most.accumulateAndGet(inFlight.addAndGet(share), Math::max);
+                    inFlight.addAndGet(-share);
+                    governor.release(share);
+                }
+                
+                return true;
+            });
+        }
+        
+        try {
+            for (Future<Boolean> done : pool.invokeAll(tasks, 60, TimeUnit.SECONDS)) {
+                expect("every task takes its shares", !done.isCancelled());
+            }
+        } finally {
+            pool.shutdown();
+        }
+        
+        expect("the budget is never overdrawn", most.get() <= budget && governor.peak() <= budget);
+        expect("the budget is used at once", most.get() > budget / 2);
+        
+        // Once everything is given back, the whole budget can be taken.
+        governor.acquire(900);
+        
+        CountDownLatch taken = new CountDownLatch(1);
+        Thread waiting = new Thread(() -> {
+            try {
+                governor.acquire(200);
+                taken.countDown();
+                governor.release(200);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        
+        waiting.start();
+        expect("a share that does not fit waits", !taken.await(200, TimeUnit.MILLISECONDS));
+        governor.release(900);
+        expect("a share that fits once another is given back gets in", taken.await(10, TimeUnit.SECONDS));
+        waiting.join();
+        
+        governor.acquire(5 * budget);
+        governor.release(5 * budget);
+        expect("a share larger than the budget gets in alone", governor.peak() == 5 * budget);
+    }
+    
+    /**
+     * Sessions compiling different files side by side, on one pool and at
+     * once, each write what they write when compiled one at a time, and
+     * report only their own problems. The pool outlives them.
+     */
+    private static void sharedPool (Path directory, List<File> files) throws Exception {
+        ExecutorService pool = Executors.newWorkStealingPool(THREADS);
+        List<List<String>> sources = new ArrayList<>();
+        
+        // One namespace with every file of it, which clash, and the others
+        // each in a single file of their own.
+        List<String> clashing = new ArrayList<>();
+        
+        for (int f = 0; f < FILES; f += NAMESPACES) { clashing.add(files.get(f).getPath()); }
+        
+        sources.add(clashing);
+        
+        for (int n = 1; n < NAMESPACES; n++) {
+            File single = directory.resolve("single").resolve("Single" + n + ".cherry").toFile();
+            
+            Files.createDirectories(single.toPath().getParent());
+            write(single, n, n, n);
+            sources.add(Collections.singletonList(single.getPath()));
+        }
+        
+        try {
+            List<Map<String, byte[]>> alone = new ArrayList<>();
+            List<List<String>> aloneProblems = new ArrayList<>();
+            
+            for (int s = 0; s < sources.size(); s++) {
+                Diagnostics diagnostics = new Diagnostics();
+                
+                alone.add(compile(sources.get(s), directory.resolve("alone" + s), pool, diagnostics));
+                aloneProblems.add(problems(diagnostics));
+            }
+            
+            for (int round = 0; round < 3; round++) {
+                List<Diagnostics> found = new ArrayList<>();
+                List<Map<String, byte[]>> written = Collections.synchronizedList(new ArrayList<>());
+                final int r = round;
+                
+                for (int s = 0; s < sources.size(); s++) {
+                    found.add(new Diagnostics());
+                    written.add(null);
+                }
+                
+                hammer(session -> {
+                    if (session >= sources.size()) { return; }
+                    
+                    try {
+                        written.set(session, compile(sources.get(session),
+                                directory.resolve("together" + r + "-" + session), pool, found.get(session)));
+                    } catch (IOException ex) {
+                        throw new IllegalStateException(ex);
+                    }
+                }, () -> null);
+                
+                for (int s = 0; s < sources.size(); s++) {
+                    expect("round " + round + ", session " + s + ": the same problems",
+                            problems(found.get(s)).equals(aloneProblems.get(s)));
+                    expect("round " + round + ", session " + s + ": the same class files",
+                            sameClasses(alone.get(s), written.get(s)));
+                }
+            }
+            
+            expect("the namespace with clashes fails", !aloneProblems.get(0).isEmpty());
+            expect("the namespaces without clashes compile", alone.get(1).size() == SHARED * 2 + 1);
+            expect("the shared pool outlives the sessions", !pool.isShutdown());
+        } finally {
+            pool.shutdown();
+        }
+    }
+    
+    /**
+     * @return The class files written, by their path in the output directory.
+     */
+    private static Map<String, byte[]> compile (List<String> sources, Path output, ExecutorService pool,
+            Diagnostics diagnostics) throws IOException {
+        String[] flags = { "--output=" + output };
+        
+        try (CompilationSession session = new CompilationSession(sources.toArray(new String[0]), flags, pool,
+                diagnostics)) {
+            session.compile();
+        }
+        
+        Map<String, byte[]> classes = new TreeMap<>();
+        
+        if (!Files.isDirectory(output)) { return classes; }
+        
+        try (Stream<Path> paths = Files.walk(output)) {
+            for (Path path : (Iterable<Path>) paths.filter(Files::isRegularFile)::iterator) {
+                classes.put(output.relativize(path).toString(), Files.readAllBytes(path));
+            }
+        }
+        
+        return classes;
+    }
+    
+    private static List<String> problems (Diagnostics diagnostics) {
+        List<String> problems = new ArrayList<>();
+        
+        for (Diagnostic diagnostic : diagnostics.all()) { problems.add(diagnostic.toString()); }
+        
+        Collections.sort(problems);
+        return problems;
+    }
+    
+    private static boolean sameClasses (Map<String, byte[]> expected, Map<String, byte[]> actual) {
+        if (actual == null || !expected.keySet().equals(actual.keySet())) { return false; }
+        
+        for (Map.Entry<String, byte[]> entry : expected.entrySet()) {
+            if (!Arrays.equals(entry.getValue(), actual.get(entry.getKey()))) { return false; }
+        }
+        
+        return true;
+    }
+    
+    /* ---------------------------------------------------------------------- */
+    /* Threads.                                                               */
+    /* ---------------------------------------------------------------------- */
+    
+    /**
+     * Work a thread does, given its number.
+     */
+    private interface Work {
+        void run (int thread) throws Exception;
+    }
+    
+    /**
+     * Starts every thread at once on some work, then has each of them finish
+     * with something else once all of them are done.
+     * 
+     * @return What each thread finished with, in the order of the threads.
+     */
+    private static <T> List<T> hammer (Work work, Callable<T> then) throws Exception {
+        ExecutorService threads = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        CyclicBarrier finished = new CyclicBarrier(THREADS);
+        List<Future<T>> done = new ArrayList<>();
+        
+        try {
+            for (int thread = 0; thread < THREADS; thread++) {
+                final int number = thread;
+                
+                done.add(threads.submit(() -> {
+                    start.await();
+                    work.run(number);
+                    finished.await();
+                    return then.call();
+                }));
+            }
+            
+            start.countDown();
+            
+            List<T> results = new ArrayList<>();
+            
+            for (Future<T> result : done) { results.add(result.get(60, TimeUnit.SECONDS)); }
+            
+            return results;
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+    
+    private static void expect (String check, boolean passed) {
+        if (!passed) { failures.add(check); }
+    }
+    
+    /* ---------------------------------------------------------------------- */
+    /* Files.                                                                 */
+    /* ---------------------------------------------------------------------- */
+    
+    private static List<SearchTree> parse (List<File> files) {
+        List<SearchTree> trees = new ArrayList<>();
+        
+        for (File file : files) {
+            Diagnostics diagnostics = new Diagnostics();
+            Lexer lexer = new Lexer(file, NAMES, diagnostics);
+            
+            lexer.lex();
+            trees.add(new StemParser(NAMES, diagnostics).parse(file, lexer.getTokens()));
+            expect(file.getName() + " parses", diagnostics.all().isEmpty());
+        }
+        
+        return trees;
+    }
+    
+    /**
+     * Writes the files. Every file of a namespace declares the same shared
+     * types, each with a nested type, and one type of its own, which uses the
+     * type of the next file of its namespace.
+     */
+    private static List<File> write (Path directory) throws IOException {
+        List<File> files = new ArrayList<>();
+        
+        Files.createDirectories(directory);
+        
+        for (int f = 0; f < FILES; f++) {
+            File file = directory.resolve(String.format("Part%02d.cherry", f)).toFile();
+            
+            write(file, f % NAMESPACES, f, (f + NAMESPACES) % FILES);
+            files.add(file);
+        }
+        
+        return files;
+    }
+    
+    /**
+     * Writes one file of a namespace, whose own type uses the own type of
+     * another file, or its own when the file is compiled alone.
+     */
+    private static void write (File file, int namespace, int own, int next) throws IOException {
+        try (Writer out = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            out.write("namespace Space" + namespace + ";\n\n");
+            
+            for (int i = 0; i < SHARED; i++) {
+                out.write("public class C" + i + " {\n");
+                out.write("    public class Inner { int v = " + i + "; }\n");
+                out.write("    static int f(int x) { return x + " + i + "; }\n");
+                out.write("}\n\n");
+            }
+            
+            out.write("public class Own" + own + " {\n");
+            out.write("    Own" + next + " next;\n");
+            out.write("    static int g() { Own" + next + " other = new Own" + next + "(); return C1.f(2); }\n");
+            out.write("}\n");
+        }
+    }
+}
@@ -0,0 +1,240 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 SoraKatadzuma.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package cherry.backend;
+
+import cherry.CompilationSession;
+import cherry.utils.Diagnostics;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+/**
+ * The {@code BackendChecks} check the class files the compiler writes. The
+ * same sources are compiled on one thread and on many, and must come out
+ * byte for byte the same; every class written is then loaded through a class
+ * loader of its own and initialized, which has the JVM verify it.
+ * <p>
+ * The sources are those of the directory given, and a set of namespaces
+ * written here with nested types, enums, interfaces and loops, enough classes
+ * for the threads to finish them in any order. The checks are meant to run
+ * with {@code -Xverify:all}, and fail if they are not.
+ * </p>
+ * <p>
+ * These are plain checks rather than JUnit tests, because the project has no
+ * test framework on its classpath. The process exits with 1 when any check
+ * fails.
+ * </p>
+ * 
+ * @author SoraKatadzuma
+ * @version Alpha 0.0.1
+ * @since 10/18/2026
+ */
+public final class BackendChecks {
+    /** The number of namespaces written. */
+    private static final int NAMESPACES = 8;
+    /** The number of classes in each namespace written. */
+    private static final int CLASSES = 20;
+    /** The number of threads of the parallel compilation. */
+    private static final int THREADS = 8;
+    /** What every failed check reported. */
+    private static final List<String> failures = new ArrayList<>();
+    
+    private BackendChecks () {}
+    
+    /**
+     * @param args The directory of the sample sources.
+     * @throws Exception If the sources could not be written or compiled.
+     */
+    public static void main (String[] args) throws Exception {
+        if (args.length != 1) {
+            System.err.println("Usage: BackendChecks <samples>");
+            System.exit(2);
+        }
+        
+        Path directory = Files.createTempDirectory("cherry-backend");
+        
+        try {
+            List<String> sources = new ArrayList<>();
+            
+            for (File sample : new File(args[0]).listFiles((dir, name) -> name.endsWith(".cherry"))) {
+                sources.add(sample.getPath());
+            }
+            
+            sources.addAll(write(directory.resolve("src")));
+            
+            Map<String, byte[]> serial = compile(sources, directory.resolve("serial"), 1);
+            Map<String, byte[]> parallel = compile(sources, directory.resolve("parallel"), THREADS);
+            
+            expect("every class is written", serial.size() >= NAMESPACES * (CLASSES * 2 + 2));
+            sameClasses(serial, parallel);
+            
+            expect("classes are verified", ManagementFactory.getRuntimeMXBean().getInputArguments().contains("-Xverify:all"));
+            loadsAndVerifies(directory.resolve("parallel"), parallel);
+        } finally {
+            try (Stream<Path> paths = Files.walk(directory)) {
+                paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+            }
+        }
+        
+        for (String failure : failures) { System.out.println("FAILED: " + failure); }
+        
+        System.out.println(failures.isEmpty() ? "All backend checks passed." : failures.size() + " checks failed.");
+        System.exit(failures.isEmpty() ? 0 : 1);
+    }
+    
+    /**
+     * The class files written on one thread are those written on many, with
+     * the same names and the same bytes.
+     */
+    private static void sameClasses (Map<String, byte[]> serial, Map<String, byte[]> parallel) {
+        expect("the same class files are written on " + THREADS + " threads", serial.keySet().equals(parallel.keySet()));
+        
+        for (Map.Entry<String, byte[]> entry : serial.entrySet()) {
+            if (!Arrays.equals(entry.getValue(), parallel.get(entry.getKey()))) {
+                failures.add("class file " + entry.getKey() + " differs on " + THREADS + " threads");
+            }
+        }
+    }
+    
+    /**
+     * Every class written loads, verifies and initializes in a class loader
+     * of its own, which sees nothing but the classes written and those of
+     * the JVM.
+     */
+    private static void loadsAndVerifies (Path output, Map<String, byte[]> classes) throws IOException {
+        try (URLClassLoader loader = new URLClassLoader(new URL[] { output.toUri().toURL() }, null)) {
+            for (String path : classes.keySet()) {
+                String name = path.substring(0, path.length() - ".class".length()).replace(File.separatorChar, '.');
+                
+                try {
+                    Class<?> loaded = Class.forName(name, true, loader);
+                    
+                    expect(name + " is loaded from the output", loaded.getClassLoader() == loader);
+                } catch (ClassNotFoundException | LinkageError ex) {
+                    failures.add(name + " does not load: " + ex);
+                }
+            }
+        }
+    }
+    
+    /**
+     * @return The class files written, by their path in the output directory.
+     */
+    private static Map<String, byte[]> compile (List<String> sources, Path output, int threads) throws Exception {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        String[] flags = { "--output=" + output };
+        
+        try (CompilationSession session = new CompilationSession(sources.toArray(new String[0]), flags, pool,
+                new Diagnostics())) {
+            expect("compilation on " + threads + " threads succeeds", session.compile());
+        } finally {
+            pool.shutdown();
+        }
+        
+        Map<String, byte[]> classes = new TreeMap<>();
+        
+        if (!Files.isDirectory(output)) { return classes; }
+        
+        try (Stream<Path> paths = Files.walk(output)) {
+            for (Path path : (Iterable<Path>) paths.filter(Files::isRegularFile)::iterator) {
+                classes.put(output.relativize(path).toString(), Files.readAllBytes(path));
+            }
+        }
+        
+        return classes;
+    }
+    
+    private static void expect (String check, boolean passed) {
+        if (!passed) { failures.add(check); }
+    }
+    
+    /**
+     * Writes a file for each namespace, each with an interface, an enum, and
+     * classes with a nested class of their own.
+     * 
+     * @return The paths of the files.
+     */
+    private static List<String> write (Path directory) throws IOException {
+        List<String> files = new ArrayList<>();
+        
+        Files.createDirectories(directory);
+        
+        for (int n = 0; n < NAMESPACES; n++) {
+            Path file = directory.resolve("Space" + n + ".cherry");
+            
+            try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                out.write("use System;\nnamespace Space" + n + ";\n\n");
+                out.write("public interface Named {\n");
+                out.write("    string name() { return \"named\"; }\n");
+                out.write("}\n\n");
+                out.write("public enum Mode { ON, OFF, IDLE }\n\n");
+                
+                for (int i = 0; i < CLASSES; i++) {
+                    out.write("public class C" + i + " inherits Named {\n");
+                    out.write("    public class Inner {\n");
+                    out.write("        public int v = " + i + ";\n");
+                    out.write("        public int twice() { return v * 2; }\n");
+                    out.write("    }\n");
+                    out.write("    static long total;\n");
+                    out.write("    string label = \"c" + i + "\";\n");
+                    out.write("    static double mix(bool c, int a, double b) { return c ? a : b; }\n");
+                    out.write("    static int scan(long limit) {\n");
+                    out.write("        int hits = 0;\n");
+                    out.write("        for (long j = 0; j < limit; j += 1) {\n");
+                    out.write("            if (j % 3 == 0) { continue; }\n");
+                    out.write("            hits += " + (n + i) + ";\n");
+                    out.write("            if (hits > 100) { break; }\n");
+                    out.write("        }\n");
+                    out.write("        return hits;\n");
+                    out.write("    }\n");
+                    out.write("    static void main() {\n");
+                    out.write("        Inner inner = new Inner();\n");
+                    out.write("        Mode m = Mode.IDLE;\n");
+                    out.write("        System.println(inner.twice() + scan(10));\n");
+                    out.write("        System.println(m);\n");
+                    out.write("    }\n");
+                    out.write("}\n\n");
+                }
+            }
+            
+            files.add(file.toString());
+        }
+        
+        return files;
+    }
+}
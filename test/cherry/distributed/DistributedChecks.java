@@ -0,0 +1,410 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 SoraKatadzuma.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package cherry.distributed;
+
+import cherry.CompilationSession;
+import cherry.frontend.parser.Parser;
+import cherry.frontend.semantics.Builtins;
+import cherry.utils.Diagnostic;
+import cherry.utils.Diagnostics;
+import cherry.utils.OutputSink;
+import cherry.utils.SearchTree;
+import cherry.utils.SymbolPool;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * The {@code DistributedChecks} check that files parsed by worker processes
+ * come out as they do when parsed here, even when a worker dies in the middle
+ * of a file. Two workers are started the way a compiler starts them, and one
+ * of them is reached through a relay that kills it as soon as it is sent its
+ * first file, so that file has to be given back and parsed by the other.
+ * <p>
+ * A whole compilation on spawned workers is also checked to write the same
+ * class files as one parsed here.
+ * </p>
+ * <p>
+ * These are plain checks rather than JUnit tests, because the project has no
+ * test framework on its classpath. The process exits with 1 when any check
+ * fails.
+ * </p>
+ * 
+ * @author SoraKatadzuma
+ * @version Alpha 0.0.1
+ * @since 10/18/2026
+ */
+public final class DistributedChecks {
+    /** The number of files compiled. */
+    private static final int FILES = 24;
+    /** The number of classes in each file. */
+    private static final int CLASSES = 60;
+    /** The pool the names of every file are placed in, by every parse. */
+    private static final SymbolPool NAMES = Builtins.pool();
+    /** What every failed check reported. */
+    private static final List<String> failures = new ArrayList<>();
+    
+    private DistributedChecks () {}
+    
+    /**
+     * @param args Unused.
+     * @throws Exception If the files could not be written, or a worker
+     *      started.
+     */
+    public static void main (String[] args) throws Exception {
+        Path directory = Files.createTempDirectory("cherry-distributed");
+        
+        try {
+            List<File> files = write(directory.resolve("src"));
+            
+            survivesAKilledWorker(files);
+            compilesAsLocally(directory, files);
+        } finally {
+            try (Stream<Path> paths = Files.walk(directory)) {
+                paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+            }
+        }
+        
+        for (String failure : failures) { System.out.println("FAILED: " + failure); }
+        
+        System.out.println(failures.isEmpty() ? "All distributed checks passed." : failures.size() + " checks failed.");
+        System.exit(failures.isEmpty() ? 0 : 1);
+    }
+    
+    /**
+     * Parses the files on two workers, one of which is killed while it has
+     * its first file, then checks that every tree, and every problem found,
+     * is what parsing the files here gives.
+     */
+    private static void survivesAKilledWorker (List<File> files) throws Exception {
+        Process doomed = spawn();
+        Process survivor = spawn();
+        AtomicBoolean killed = new AtomicBoolean();
+        
+        try (ServerSocket relay = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            relay(relay, port(doomed), doomed, killed);
+            
+            Diagnostics diagnostics = new Diagnostics();
+            OutputSink sink = new OutputSink();
+            List<InetSocketAddress> workers = Arrays.asList(
+                    new InetSocketAddress(InetAddress.getLoopbackAddress(), relay.getLocalPort()),
+                    new InetSocketAddress(InetAddress.getLoopbackAddress(), port(survivor)));
+            List<SearchTree> remote = new Coordinator(workers, NAMES, diagnostics, sink).parseAll(files, false);
+            
+            expect("a worker was killed in the middle of a file", killed.get() && !doomed.isAlive());
+            expect("the killed worker was given up on", warned(diagnostics, "failed, and is given up on"));
+            expect("the other worker is still running", survivor.isAlive());
+            
+            Diagnostics found = new Diagnostics();
+            
+            for (int i = 0; i < files.size(); i++) {
+                Parser parser = new Parser(files.get(i), NAMES, found, sink, false);
+                
+                parser.parse();
+                sameTree(files.get(i).getName(), parser.parseTree(), remote.get(i));
+            }
+            
+            expect("the same problems are found", codes(diagnostics).equals(codes(found)));
+            expect("an unexpected input is found", !codes(found).isEmpty());
+            sink.shutdown();
+        } finally {
+            doomed.destroyForcibly();
+            survivor.destroy();
+        }
+    }
+    
+    /**
+     * Compiles the files on spawned workers and here, and checks that the
+     * same class files are written, byte for byte.
+     */
+    private static void compilesAsLocally (Path directory, List<File> files) throws Exception {
+        List<String> sources = new ArrayList<>();
+        
+        // The file with an unexpected input would stop either compilation.
+        for (File file : files) {
+            if (!file.getName().equals("Broken.cherry")) { sources.add(file.getPath()); }
+        }
+        
+        Map<String, byte[]> spawned = compile(sources, directory.resolve("spawned"), "--spawn-workers=2");
+        Map<String, byte[]> local = compile(sources, directory.resolve("local"));
+        
+        expect("class files are written", local.size() == (FILES - 1) * CLASSES);
+        expect("the same class files are written", spawned.keySet().equals(local.keySet()));
+        
+        for (Map.Entry<String, byte[]> entry : local.entrySet()) {
+            if (!Arrays.equals(entry.getValue(), spawned.get(entry.getKey()))) {
+                failures.add("class file " + entry.getKey() + " differs when parsed on workers");
+                break;
+            }
+        }
+    }
+    
+    /**
+     * @return The class files written, by their path in the output directory.
+     */
+    private static Map<String, byte[]> compile (List<String> sources, Path output, String... flags) throws IOException {
+        ExecutorService pool = Executors.newWorkStealingPool();
+        Diagnostics diagnostics = new Diagnostics();
+        List<String> all = new ArrayList<>(Arrays.asList(flags));
+        
+        all.add("--output=" + output);
+        
+        try (CompilationSession session = new CompilationSession(sources.toArray(new String[0]),
+                all.toArray(new String[0]), pool, diagnostics)) {
+            expect(output.getFileName() + " compilation succeeds", session.compile());
+        } finally {
+            pool.shutdown();
+        }
+        
+        Map<String, byte[]> classes = new TreeMap<>();
+        
+        if (!Files.isDirectory(output)) { return classes; }
+        
+        try (Stream<Path> paths = Files.walk(output)) {
+            for (Path path : (Iterable<Path>) paths.filter(Files::isRegularFile)::iterator) {
+                classes.put(output.relativize(path).toString(), Files.readAllBytes(path));
+            }
+        }
+        
+        return classes;
+    }
+    
+    /* ---------------------------------------------------------------------- */
+    /* Workers.                                                               */
+    /* ---------------------------------------------------------------------- */
+    
+    /**
+     * Starts a worker as a compiler does, attached to this process.
+     */
+    private static Process spawn () throws IOException {
+        String java = new File(new File(System.getProperty("java.home"), "bin"), "java").getPath();
+        
+        return new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                "cherry.CherryWorker", "0", "--attached")
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+    }
+    
+    /**
+     * @return The port a worker listens on, as it printed once it started.
+     */
+    private static int port (Process worker) throws IOException {
+        BufferedReader out = new BufferedReader(new InputStreamReader(worker.getInputStream(), StandardCharsets.UTF_8));
+        String line = out.readLine();
+        
+        if (line == null || !line.startsWith(Worker.READY)) {
+            throw new IOException("A worker did not start: it printed \"" + line + "\".");
+        }
+        
+        return Integer.parseInt(line.substring(Worker.READY.length()).trim());
+    }
+    
+    /**
+     * Relays every connection to a worker, and kills the worker as soon as a
+     * file has been sent to it, before it can answer. Connections made once
+     * it is dead are closed straight away.
+     */
+    private static void relay (ServerSocket relay, int port, Process worker, AtomicBoolean killed) {
+        Thread accept = new Thread(() -> {
+            while (!relay.isClosed()) {
+                try {
+                    Socket coordinator = relay.accept();
+                    Socket target;
+                    
+                    try {
+                        target = new Socket(InetAddress.getLoopbackAddress(), port);
+                    } catch (IOException ex) {
+                        coordinator.close();
+                        continue;
+                    }
+                    
+                    pump(target.getInputStream(), coordinator.getOutputStream(), coordinator, target, null);
+                    pump(coordinator.getInputStream(), target.getOutputStream(), coordinator, target, () -> {
+                        if (killed.compareAndSet(false, true)) {
+                            try {
+                                worker.destroyForcibly().waitFor();
+                            } catch (InterruptedException ex) {
+                                Thread.currentThread().interrupt();
+                            }
+                        }
+                    });
+                } catch (IOException ex) {
+                    return;
+                }
+            }
+        }, "Relay");
+        
+        accept.setDaemon(true);
+        accept.start();
+    }
+    
+    /**
+     * Copies one way of a relayed connection, closing both ends once either
+     * is done.
+     * 
+     * @param sent Run after the first bytes are copied, or {@code null}.
+     */
+    private static void pump (InputStream in, OutputStream out, Socket one, Socket other, Runnable sent) {
+        Thread pump = new Thread(() -> {
+            byte[] buffer = new byte[8192];
+            
+            try {
+                for (int read = in.read(buffer); read >= 0; read = in.read(buffer)) {
+                    out.write(buffer, 0, read);
+                    out.flush();
+                    
+                    if (sent != null) { sent.run(); }
+                }
+            } catch (IOException ex) {
+                // Either end went away, so the connection is over.
+            }
+            
+            try {
+                one.close();
+                other.close();
+            } catch (IOException ex) {
+                // Closed either way.
+            }
+        }, "Relay-Pump");
+        
+        pump.setDaemon(true);
+        pump.start();
+    }
+    
+    /* ---------------------------------------------------------------------- */
+    /* Comparing.                                                             */
+    /* ---------------------------------------------------------------------- */
+    
+    private static void sameTree (String name, SearchTree expected, SearchTree actual) {
+        if (actual == null) {
+            failures.add(name + ": no tree");
+            return;
+        }
+        
+        expect(name + ": node count", expected.size() == actual.size());
+        
+        for (int node = 0; node < Math.min(expected.size(), actual.size()); node++) {
+            String wanted = describe(expected, node);
+            String got = describe(actual, node);
+            
+            if (!wanted.equals(got)) {
+                failures.add(name + " node " + node + ": expected " + wanted + " but was " + got);
+                return;
+            }
+        }
+    }
+    
+    private static String describe (SearchTree tree, int node) {
+        return tree.kind(node) + " " + tree.name(node) + " " + tree.flags(node) + " " + tree.parent(node)
+                + " " + tree.tokenOf(node).type() + " '" + tree.tokenOf(node).value() + "' at " + tree.tokenOf(node).offset()
+                + " from " + tree.tokens()[tree.first(node)].offset()
+                + " to " + tree.tokens()[tree.last(node)].offset();
+    }
+    
+    /**
+     * @return The problems found in the files, leaving out those of workers,
+     *      in a set order, since files are parsed in any order.
+     */
+    private static List<String> codes (Diagnostics diagnostics) {
+        List<String> codes = new ArrayList<>();
+        
+        for (Diagnostic diagnostic : diagnostics.all()) {
+            if (diagnostic.code() == Diagnostic.Code.UNAVAILABLE_WORKER) { continue; }
+            
+            codes.add(diagnostic.fileName() + " " + diagnostic.code() + " " + diagnostic.line() + ":"
+                    + diagnostic.column() + " " + diagnostic.message());
+        }
+        
+        codes.sort(null);
+        return codes;
+    }
+    
+    private static boolean warned (Diagnostics diagnostics, String message) {
+        for (Diagnostic diagnostic : diagnostics.all()) {
+            if (diagnostic.code() == Diagnostic.Code.UNAVAILABLE_WORKER && diagnostic.message().contains(message)) {
+                return true;
+            }
+        }
+        
+        return false;
+    }
+    
+    private static void expect (String check, boolean passed) {
+        if (!passed) { failures.add(check); }
+    }
+    
+    /**
+     * Writes the files, each a namespace of many classes, one of them with an
+     * input that cannot be lexed.
+     */
+    private static List<File> write (Path directory) throws IOException {
+        List<File> files = new ArrayList<>();
+        
+        Files.createDirectories(directory);
+        
+        for (int f = 0; f < FILES; f++) {
+            File file = directory.resolve(f == FILES - 1 ? "Broken.cherry" : "Part" + f + ".cherry").toFile();
+            
+            try (Writer out = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+                out.write("namespace Part" + f + ";\n\n");
+                
+                for (int i = 0; i < CLASSES; i++) {
+                    out.write("public class C" + i + " {\n");
+                    out.write("    static int scale = " + i + ";\n");
+                    out.write("    static int f(int x) {\n");
+                    out.write("        int y = x * scale + " + f + ";\n");
+                    out.write("        if (y > 100) { return y - 100; }\n");
+                    out.write("        return y" + (f == FILES - 1 && i == CLASSES / 2 ? " # 1" : "") + ";\n");
+                    out.write("    }\n");
+                    out.write("}\n\n");
+                }
+            }
+            
+            files.add(file);
+        }
+        
+        return files;
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 SoraKatadzuma.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package cherry.frontend.lexer;
+
+import cherry.frontend.grammar.Token;
+import cherry.frontend.parser.StemParser;
+import cherry.frontend.semantics.Builtins;
+import cherry.utils.Diagnostic;
+import cherry.utils.Diagnostics;
+import cherry.utils.SearchTree;
+import cherry.utils.SymbolPool;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The {@code StreamingChecks} check that a file streamed through a window
+ * much smaller than itself is lexed and parsed as it is when read whole: the
+ * same tokens, at the same places, and the same tree, while the streamed
+ * parse only holds a handful of tokens at a time and only keeps those its
+ * tree refers to.
+ * <p>
+ * These are plain checks rather than JUnit tests, because the project has no
+ * test framework on its classpath. The process exits with 1 when any check
+ * fails.
+ * </p>
+ * 
+ * @author SoraKatadzuma
+ * @version Alpha 0.0.1
+ * @since 10/18/2026
+ */
+public final class StreamingChecks {
+    /** The window the file is streamed through. */
+    private static final int WINDOW = 4096;
+    /** The number of classes in the file, about 600 bytes each. */
+    private static final int CLASSES = 4000;
+    /** The pool the names of the file are placed in, by every lexer. */
+    private static final SymbolPool NAMES = Builtins.pool();
+    /** What every failed check reported. */
+    private static final List<String> failures = new ArrayList<>();
+    
+    private StreamingChecks () {}
+    
+    /**
+     * @param args Unused.
+     * @throws IOException If the file could not be written.
+     */
+    public static void main (String[] args) throws IOException {
+        File file = Files.createTempFile("cherry-streaming", ".cherry").toFile();
+        
+        try {
+            write(file);
+            
+            Diagnostics diagnostics = new Diagnostics();
+            Lexer whole = new Lexer(file, NAMES, diagnostics);
+            
+            whole.lex();
+            
+            Token[] tokens = whole.getTokens();
+            
+            expect("file is streamed", new Lexer(file, WINDOW, NAMES, new Diagnostics()).isStreamed());
+            expect("file is much larger than the window", file.length() > 256L * WINDOW);
+            
+            lexesTheSameTokens(file, tokens, diagnostics);
+            parsesTheSameTree(file, tokens);
+        } finally {
+            Files.deleteIfExists(file.toPath());
+        }
+        
+        for (String failure : failures) { System.out.println("FAILED: " + failure); }
+        
+        System.out.println(failures.isEmpty() ? "All streaming checks passed." : failures.size() + " checks failed.");
+        System.exit(failures.isEmpty() ? 0 : 1);
+    }
+    
+    /**
+     * The tokens pulled one at a time from a streamed file are those lexed
+     * from the whole file, with the same values at the same lines and
+     * columns, and the same inputs are reported as unexpected.
+     */
+    private static void lexesTheSameTokens (File file, Token[] tokens, Diagnostics found) {
+        Diagnostics diagnostics = new Diagnostics();
+        Lexer lexer = new Lexer(file, WINDOW, NAMES, diagnostics);
+        int count = 0;
+        Token token;
+        
+        do {
+            token = lexer.next();
+            
+            if (count >= tokens.length) {
+                failures.add("streamed tokens: more than the " + tokens.length + " lexed whole");
+                return;
+            }
+            
+            String expected = describe(tokens[count]);
+            String actual = describe(token);
+            
+            if (!expected.equals(actual)) {
+                failures.add("streamed token " + count + ": expected " + expected + " but was " + actual);
+                return;
+            }
+            
+            count++;
+        } while (token.type() != Token.Type.EOTS);
+        
+        expect("streamed token count", count == tokens.length);
+        expect("streamed diagnostics", codes(diagnostics).equals(codes(found)));
+        expect("unexpected inputs are reported", !diagnostics.all().isEmpty());
+    }
+    
+    /**
+     * The tree parsed as a file is streamed is the tree of the whole file,
+     * node for node, while the cursor holds a handful of tokens and the tree
+     * keeps fewer tokens than the file has.
+     */
+    private static void parsesTheSameTree (File file, Token[] tokens) {
+        SearchTree expected = new StemParser(NAMES, new Diagnostics()).parse(file, tokens);
+        TokenCursor cursor = new TokenCursor(new Lexer(file, WINDOW, NAMES, new Diagnostics()), null);
+        SearchTree actual = new StemParser(NAMES, new Diagnostics()).parse(file, cursor);
+        
+        expect("streamed node count", expected.size() == actual.size());
+        
+        for (int node = 0; node < Math.min(expected.size(), actual.size()); node++) {
+            String wanted = describe(expected, node);
+            String got = describe(actual, node);
+            
+            if (!wanted.equals(got)) {
+                failures.add("streamed node " + node + ": expected " + wanted + " but was " + got);
+                break;
+            }
+        }
+        
+        expect("the cursor holds a handful of tokens", cursor.capacity() <= 64);
+        expect("the streamed tree keeps fewer tokens", actual.tokens().length < tokens.length);
+        expect("innermost node at a token", expected.nodeAt(file.length() / 2) == actual.nodeAt(file.length() / 2));
+    }
+    
+    private static String describe (Token token) {
+        return token.type() + " '" + token.value() + "' at " + token.offset()
+                + " (" + token.line() + ":" + token.column() + ")";
+    }
+    
+    private static String describe (SearchTree tree, int node) {
+        return tree.kind(node) + " " + tree.name(node) + " " + tree.flags(node) + " " + tree.parent(node)
+                + " " + describe(tree.tokenOf(node))
+                + " from " + tree.tokens()[tree.first(node)].offset()
+                + " to " + tree.tokens()[tree.last(node)].offset();
+    }
+    
+    private static List<String> codes (Diagnostics diagnostics) {
+        List<String> codes = new ArrayList<>();
+        
+        for (Diagnostic diagnostic : diagnostics.all()) {
+            codes.add(diagnostic.code() + " " + diagnostic.line() + ":" + diagnostic.column() + " " + diagnostic.message());
+        }
+        
+        return codes;
+    }
+    
+    private static void expect (String check, boolean passed) {
+        if (!passed) { failures.add(check); }
+    }
+    
+    /**
+     * Writes a file of many classes, with comments, literals and names that
+     * are not ASCII, and now and then an input that cannot be lexed.
+     */
+    private static void write (File file) throws IOException {
+        try (Writer out = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            out.write("use System;\nnamespace Streaming;\n\n");
+            
+            for (int i = 0; i < CLASSES; i++) {
+                out.write("// Klasse über alles ✓ " + i + "\n");
+                out.write("/* A block comment\n   across lines éè */\n");
+                out.write("public class C" + i + " inherits Shape {\n");
+                out.write("    private long big" + i + " = 0x1FL + " + i + " * 3.5e2;\n");
+                out.write("    string label = \"héllo ✓ \\\"" + i + "\\\"\";\n");
+                out.write("    int[] data = new int[" + (i % 7 + 1) + "];\n");
+                out.write("    static int für(int n, int[] b) {\n");
+                out.write("        if (n >= 2) { b[0] = n++ - --n; } else { while (n < 3) { n += 1; } }\n");
+                out.write("        return n % 2 == 0 ? fib(n - 1) : b.length;\n");
+                out.write("    }\n");
+                
+                if (i % 97 == 0) { out.write("    int broken = $ 4;\n"); }
+                
+                out.write("}\n\n");
+            }
+        }
+    }
+}
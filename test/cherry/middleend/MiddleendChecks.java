@@ -0,0 +1,509 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 SoraKatadzuma.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package cherry.middleend;
+
+import cherry.CompilationSession;
+import cherry.frontend.lexer.Lexer;
+import cherry.frontend.parser.StemParser;
+import cherry.frontend.semantics.Analysis;
+import cherry.frontend.semantics.Builtins;
+import cherry.frontend.semantics.Declaration;
+import cherry.frontend.semantics.Member;
+import cherry.frontend.semantics.SemanticAnalyzer;
+import cherry.interpreter.Interpreter;
+import cherry.utils.Diagnostics;
+import cherry.utils.SearchTree;
+import cherry.utils.SymbolPool;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+/**
+ * The {@code MiddleendChecks} check the optimization passes and the
+ * interpreter. Each pass is run alone on small functions, and the instructions
+ * it leaves are checked, as is what it leaves alone; the math keywords are
+ * checked to be computed while compiling when their argument is constant, and
+ * kept as intrinsics when it is not.
+ * <p>
+ * A program with virtual calls on objects of alternating classes, which
+ * every call site's cache of its last class has to follow, and with calls to
+ * inline, constants to fold and every math keyword, is then run by the
+ * interpreter, with every pass and with each disabled, and must print what
+ * its class files print.
+ * </p>
+ * <p>
+ * These are plain checks rather than JUnit tests, because the project has no
+ * test framework on its classpath. The process exits with 1 when any check
+ * fails.
+ * </p>
+ * 
+ * @author SoraKatadzuma
+ * @version Alpha 0.0.1
+ * @since 10/18/2026
+ */
+public final class MiddleendChecks {
+    /** The small functions each pass is run on. */
+    private static final String FUNCTIONS =
+              "namespace Passes;\n"
+            + "\n"
+            + "public class Small {\n"
+            + "    static int folded() { int a = 2 * 3; return a + 4; }\n"
+            + "    static int branch() { if (1 < 2) { return 1; } return 2; }\n"
+            + "    static int common(int x, int y) { return (x + y) * (x + y); }\n"
+            + "    static int dead(int x) { int unused = x * 7; return x; }\n"
+            + "    static int sq(int x) { return x * x; }\n"
+            + "    static int caller(int y) { return sq(y) + 1; }\n"
+            + "    static int recursive(int n) { return n < 1 ? 0 : recursive(n - 1); }\n"
+            + "    static double root() { return sqrt(16.0); }\n"
+            + "    static double rootOf(double x) { return sqrt(x); }\n"
+            + "    static double cotOf(double x) { return cot(x); }\n"
+            + "}\n";
+    /** The program run by the interpreter and from its class files. */
+    private static final String PROGRAM =
+              "use System;\n"
+            + "namespace Checks;\n"
+            + "\n"
+            + "public interface Shape {\n"
+            + "    double area();\n"
+            + "    string name() { return \"shape\"; }\n"
+            + "}\n"
+            + "\n"
+            + "public class Circle inherits Shape {\n"
+            + "    public double r = 1.0;\n"
+            + "    public double area() { return 3.0 * r * r; }\n"
+            + "    public string name() { return \"circle\"; }\n"
+            + "}\n"
+            + "\n"
+            + "public class Square inherits Shape {\n"
+            + "    public double side = 2.0;\n"
+            + "    public double area() { return side * side; }\n"
+            + "}\n"
+            + "\n"
+            + "public class Program {\n"
+            + "    static int square(int x) { return x * x; }\n"
+            + "    static int clamp(int x) {\n"
+            + "        if (x > 100) { return 100; }\n"
+            + "        return x;\n"
+            + "    }\n"
+            + "\n"
+            + "    static double total(int count) {\n"
+            + "        double sum = 0.0;\n"
+            + "        Circle c = new Circle();\n"
+            + "        Square s = new Square();\n"
+            + "        for (int i = 0; i < count; i++) {\n"
+            + "            Shape shape = c;\n"
+            + "            if (i % 3 == 0) { shape = s; }\n"
+            + "            sum += shape.area();\n"
+            + "        }\n"
+            + "        return sum;\n"
+            + "    }\n"
+            + "\n"
+            + "    static void main() {\n"
+            + "        int a = 6;\n"
+            + "        int unused = a * 41;\n"
+            + "        System.println(square(a) + clamp(a * 50));\n"
+            + "        System.println((a + 1) * (a + 1) - (a + 1));\n"
+            + "        System.println(2 * 3 + 4);\n"
+            + "        System.println(sqrt(16.0) + cos(0.0));\n"
+            + "        double x = 0.5;\n"
+            + "        System.println(sin(x) + cot(x) + sec(x) + csc(x));\n"
+            + "        System.println(exp(1.0) + ln(x) + log(1000.0) + tan(x));\n"
+            + "        System.println(total(10));\n"
+            + "        Shape first = new Circle();\n"
+            + "        Shape second = new Square();\n"
+            + "        System.println(first.name() + \" \" + second.name());\n"
+            + "        string text = \"n\";\n"
+            + "        for (int i = 0; i < 4; i++) { text += i; }\n"
+            + "        System.println(text);\n"
+            + "    }\n"
+            + "}\n";
+    /** The pool the names of every file are placed in. */
+    private static final SymbolPool NAMES = Builtins.pool();
+    /** The pool files are analyzed on. */
+    private static final ExecutorService POOL = Executors.newWorkStealingPool();
+    /** What every failed check reported. */
+    private static final List<String> failures = new ArrayList<>();
+    
+    private MiddleendChecks () {}
+    
+    /**
+     * @param args Unused.
+     * @throws Exception If the sources could not be written, compiled or run.
+     */
+    public static void main (String[] args) throws Exception {
+        Path directory = Files.createTempDirectory("cherry-middleend");
+        
+        try {
+            File functions = directory.resolve("Small.cherry").toFile();
+            File program = directory.resolve("Program.cherry").toFile();
+            
+            Files.write(functions.toPath(), FUNCTIONS.getBytes(StandardCharsets.UTF_8));
+            Files.write(program.toPath(), PROGRAM.getBytes(StandardCharsets.UTF_8));
+            
+            Small small = new Small(analyze(functions), "Small");
+            
+            passesAlone(small);
+            intrinsics(small);
+            passManager(small);
+            runsAsCompiled(program, directory);
+        } finally {
+            POOL.shutdown();
+            
+            try (Stream<Path> paths = Files.walk(directory)) {
+                paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+            }
+        }
+        
+        for (String failure : failures) { System.out.println("FAILED: " + failure); }
+        
+        System.out.println(failures.isEmpty() ? "All middle end checks passed." : failures.size() + " checks failed.");
+        System.exit(failures.isEmpty() ? 0 : 1);
+    }
+    
+    /**
+     * Each pass, run alone, does what it is for on the function made for it,
+     * and leaves the functions made for the others as they were lowered.
+     */
+    private static void passesAlone (Small small) {
+        Inliner inliner = new Inliner(small::callee);
+        ConstantFolding fold = new ConstantFolding();
+        CommonSubexpressions cse = new CommonSubexpressions();
+        DeadCodeElimination dce = new DeadCodeElimination();
+        
+        expectOps("folded, lowered", small.lower("folded"), "mul", "add", "return");
+        expectOps("folded, folded", small.run("folded", fold), "return");
+        expect("folded returns 10", Integer.valueOf(10).equals(returned(small.run("folded", fold))));
+        
+        expectOps("branch, lowered", small.lower("branch"), "lt", "branch", "return", "return");
+        expectOps("branch, folded", small.run("branch", fold), "jump", "return");
+        expect("branch returns 1", Integer.valueOf(1).equals(returned(small.run("branch", fold))));
+        
+        Function common = small.run("common", cse);
+        
+        expectOps("common, lowered", small.lower("common"), "add", "add", "mul", "return");
+        expectOps("common, merged", common, "add", "mul", "return");
+        expect("common multiplies the one sum by itself", common.entry().terminator().operand(0).operand(0)
+                == common.entry().terminator().operand(0).operand(1));
+        
+        expectOps("dead, lowered", small.lower("dead"), "mul", "return");
+        expectOps("dead, eliminated", small.run("dead", dce), "return");
+        
+        expectOps("caller, lowered", small.lower("caller"), "call", "add", "return");
+        expectOps("caller, inlined", small.run("caller", inliner), "jump", "add", "return", "mul", "jump");
+        expectOps("recursive, not inlined", small.run("recursive", inliner),
+                "lt", "branch", "jump", "sub", "call", "jump", "phi", "return");
+        
+        // What a pass is not for, it leaves alone.
+        for (Pass pass : new Pass[] { inliner, cse, dce }) {
+            expect(pass.name() + " leaves folded alone", ops(small.run("folded", pass)).equals(ops(small.lower("folded"))));
+        }
+        
+        for (Pass pass : new Pass[] { inliner, fold, dce }) {
+            expect(pass.name() + " leaves common alone", ops(small.run("common", pass)).equals(ops(small.lower("common"))));
+        }
+        
+        for (Pass pass : new Pass[] { inliner, fold, cse }) {
+            expect(pass.name() + " leaves dead alone", ops(small.run("dead", pass)).equals(ops(small.lower("dead"))));
+        }
+        
+        for (Pass pass : new Pass[] { fold, cse, dce }) {
+            expect(pass.name() + " leaves caller alone", ops(small.run("caller", pass)).equals(ops(small.lower("caller"))));
+        }
+    }
+    
+    /**
+     * A math keyword with a constant argument is computed while compiling,
+     * and with any other is kept as an intrinsic of the function it names.
+     */
+    private static void intrinsics (Small small) {
+        ConstantFolding fold = new ConstantFolding();
+        Function rootOf = small.run("rootOf", fold);
+        Function cotOf = small.run("cotOf", fold);
+        
+        expectOps("root, lowered", small.lower("root"), "intrinsic", "return");
+        expectOps("root, folded", small.run("root", fold), "return");
+        expect("root returns 4.0", Double.valueOf(4.0).equals(returned(small.run("root", fold))));
+        
+        expectOps("rootOf, folded", rootOf, "intrinsic", "return");
+        expect("rootOf is sqrt", rootOf.entry().terminator().operand(0).value() == Intrinsic.SQRT);
+        expect("cotOf is cot", cotOf.entry().terminator().operand(0).value() == Intrinsic.COT);
+        
+        expect("cot is one over tan", Intrinsic.COT.isReciprocal() && Intrinsic.COT.method().equals("tan"));
+        expect("log is log10", Intrinsic.LOG.method().equals("log10") && Intrinsic.LN.method().equals("log"));
+        
+        for (Intrinsic intrinsic : Intrinsic.values()) {
+            double x = 0.75;
+            double expected;
+            
+            try {
+                double plain = (double) Math.class.getMethod(intrinsic.method(), double.class).invoke(null, x);
+                
+                expected = intrinsic.isReciprocal() ? 1 / plain : plain;
+            } catch (ReflectiveOperationException ex) {
+                failures.add(intrinsic + " has no method " + intrinsic.method() + " in Math");
+                continue;
+            }
+            
+            expect(intrinsic + " computes what its method does", Double.compare(intrinsic.apply(x), expected) == 0);
+        }
+    }
+    
+    /**
+     * The pass manager runs every pass in order, skips those disabled, and
+     * tells which names are of no pass.
+     */
+    private static void passManager (Small small) {
+        PassManager all = new PassManager();
+        PassManager noFold = new PassManager();
+        Function caller = small.lower("caller");
+        Function folded = small.lower("folded");
+        
+        all.optimize(caller, small::callee);
+        expect("every pass inlines the caller", !ops(caller).contains("call") && ops(caller).contains("mul"));
+        
+        expect("fold is a pass", noFold.disable("fold").isEmpty() && !noFold.isEnabled(PassManager.Stage.FOLD));
+        expect("other passes stay enabled", noFold.isEnabled(PassManager.Stage.INLINE)
+                && noFold.isEnabled(PassManager.Stage.CSE) && noFold.isEnabled(PassManager.Stage.DCE));
+        
+        noFold.optimize(folded, small::callee);
+        expectOps("folded, without fold", folded, "mul", "add", "return");
+        
+        expect("unknown passes are told", new PassManager().disable("inline, loops,dce").equals(Arrays.asList("loops")));
+    }
+    
+    /**
+     * The program prints the same run by the interpreter, with every pass or
+     * with some disabled, as it does from its class files, with or without
+     * the passes.
+     */
+    private static void runsAsCompiled (File program, Path directory) throws Exception {
+        String compiled = runClasses(program, directory.resolve("optimized"));
+        String unoptimized = runClasses(program, directory.resolve("unoptimized"), "--disable-passes=inline,fold,cse,dce");
+        
+        expect("the class files print", compiled.startsWith("136" + System.lineSeparator()));
+        expect("the class files print the same without the passes", unoptimized.equals(compiled));
+        String classPath = System.getProperty("java.class.path");
+        
+        expect("--run prints what the class files do",
+                fork(classPath, "cherry.Cherry", program.getPath(), "--run").equals(compiled));
+        expect("--run without the passes prints what the class files do", fork(classPath, "cherry.Cherry",
+                program.getPath(), "--run", "--disable-passes=inline,fold,cse,dce").equals(compiled));
+        
+        Analysis analysis = analyze(program);
+        
+        for (PassManager.Stage stage : PassManager.Stage.values()) {
+            PassManager passes = new PassManager();
+            ByteArrayOutputStream printed = new ByteArrayOutputStream();
+            
+            passes.disable(stage.passName());
+            
+            try (PrintStream out = new PrintStream(printed, true, "UTF-8")) {
+                expect("runs without " + stage.passName(), new Interpreter(analysis, new Diagnostics(), passes, out).run());
+            }
+            
+            expect("prints the same without " + stage.passName(),
+                    printed.toString("UTF-8").replace("\n", System.lineSeparator()).equals(compiled));
+        }
+    }
+    
+    /**
+     * Compiles the program into class files, then runs them in a process of
+     * their own.
+     * 
+     * @return What the program printed.
+     */
+    private static String runClasses (File program, Path output, String... flags) throws Exception {
+        List<String> all = new ArrayList<>(Arrays.asList(flags));
+        
+        all.add("--output=" + output);
+        
+        try (CompilationSession session = new CompilationSession(new String[] { program.getPath() },
+                all.toArray(new String[0]), POOL, new Diagnostics())) {
+            expect(output.getFileName() + " compilation succeeds", session.compile());
+        }
+        
+        return fork(output.toString(), "Checks.Program");
+    }
+    
+    /**
+     * Runs a class in a process of its own.
+     * 
+     * @param classPath The class path of the process.
+     * @param arguments The class to run, and its arguments.
+     * @return What the process printed.
+     */
+    private static String fork (String classPath, String... arguments) throws IOException, InterruptedException {
+        String java = new File(new File(System.getProperty("java.home"), "bin"), "java").getPath();
+        List<String> command = new ArrayList<>(Arrays.asList(java, "-cp", classPath));
+        
+        command.addAll(Arrays.asList(arguments));
+        
+        Process process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+        ByteArrayOutputStream printed = new ByteArrayOutputStream();
+        
+        try (InputStream in = process.getInputStream()) {
+            byte[] buffer = new byte[8192];
+            
+            for (int read = in.read(buffer); read >= 0; read = in.read(buffer)) { printed.write(buffer, 0, read); }
+        }
+        
+        expect(String.join(" ", arguments) + " exits with 0", process.waitFor() == 0);
+        return printed.toString("UTF-8");
+    }
+    
+    /* ---------------------------------------------------------------------- */
+    /* Functions.                                                             */
+    /* ---------------------------------------------------------------------- */
+    
+    /**
+     * @return The analysis of a file, which must have no errors.
+     */
+    private static Analysis analyze (File file) throws InterruptedException {
+        Diagnostics diagnostics = new Diagnostics();
+        Lexer lexer = new Lexer(file, NAMES, diagnostics);
+        
+        lexer.lex();
+        
+        SearchTree tree = new StemParser(NAMES, diagnostics).parse(file, lexer.getTokens());
+        Analysis analysis = new SemanticAnalyzer(POOL, NAMES, diagnostics).analyze(Arrays.asList(tree));
+        
+        expect(file.getName() + " has no errors", diagnostics.all().isEmpty());
+        return analysis;
+    }
+    
+    /**
+     * @return The operations of the instructions of a function, other than
+     *      its parameters and constants, block after block.
+     */
+    private static List<String> ops (Function function) {
+        List<String> ops = new ArrayList<>();
+        
+        for (Block block : function.blocks()) {
+            for (Instruction phi : block.phis()) { ops.add(phi.op().name().toLowerCase()); }
+            
+            for (Instruction instruction : block.instructions()) {
+                if (instruction.op() == Instruction.Op.CONSTANT || instruction.op() == Instruction.Op.PARAMETER) { continue; }
+                
+                ops.add(instruction.op().name().toLowerCase());
+            }
+        }
+        
+        return ops;
+    }
+    
+    /**
+     * @return The constant a function of one return gives back, or {@code null}.
+     */
+    private static Object returned (Function function) {
+        Instruction value = null;
+        
+        for (Block block : function.blocks()) {
+            Instruction terminator = block.terminator();
+            
+            if (terminator.op() == Instruction.Op.RETURN) { value = terminator.operand(0); }
+        }
+        
+        return value != null && value.isConstant() ? value.value() : null;
+    }
+    
+    private static void expectOps (String check, Function function, String... ops) {
+        List<String> actual = ops(function);
+        
+        if (!actual.equals(Arrays.asList(ops))) {
+            failures.add(check + ": expected " + Arrays.asList(ops) + " but was " + actual + "\n" + function);
+        }
+    }
+    
+    private static void expect (String check, boolean passed) {
+        if (!passed) { failures.add(check); }
+    }
+    
+    /**
+     * The methods of a type, lowered afresh whenever asked for, so that every
+     * pass starts from the function as it was lowered.
+     */
+    private static final class Small {
+        /** The analysis the type is of. */
+        private final Analysis analysis;
+        /** The type. */
+        private final Declaration type;
+        
+        Small (Analysis analysis, String name) {
+            Declaration found = null;
+            
+            for (Declaration declaration : analysis.symbols().declarations()) {
+                if (declaration.kind().isType() && NAMES.name(declaration.name()).equals(name)) { found = declaration; }
+            }
+            
+            this.analysis = analysis;
+            this.type = found;
+        }
+        
+        /**
+         * @return The function of a method, as it is lowered.
+         */
+        Function lower (String method) {
+            SearchTree tree = type.tree();
+            
+            for (int child = tree.firstChild(type.node()); child != SearchTree.NONE; child = tree.nextSibling(child)) {
+                if (tree.kind(child) == SearchTree.Kind.METHOD && NAMES.name(tree.name(child)).equals(method)) {
+                    return new Lowering(analysis, type, new Diagnostics()).method(child);
+                }
+            }
+            
+            throw new IllegalArgumentException(method);
+        }
+        
+        /**
+         * @return The function of a method, once a pass has run on it alone.
+         */
+        Function run (String method, Pass pass) {
+            Function function = lower(method);
+            
+            pass.run(function);
+            return function;
+        }
+        
+        /**
+         * @return The function of a static method of the type, to inline.
+         */
+        Function callee (Member method) {
+            if (method.owner() != type || !method.isStatic()) { return null; }
+            
+            return new Lowering(analysis, type, new Diagnostics()).method(method.node());
+        }
+    }
+}
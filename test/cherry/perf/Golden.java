@@ -0,0 +1,145 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 SoraKatadzuma.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package cherry.perf;
+
+import cherry.frontend.grammar.Token;
+import cherry.utils.SearchTree;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+/**
+ * The {@code Golden} files hold the tokens and tree of a sample as they were
+ * when last known to be right, written out as text so that a change to either
+ * reads as a diff. A faster lexer or parser must find the same tokens and
+ * build the same tree, which is checked against them.
+ * 
+ * @author SoraKatadzuma
+ * @version Alpha 0.0.1
+ * @since 10/18/2026
+ */
+final class Golden {
+    /** The extension of the golden tokens of a sample. */
+    static final String TOKENS = ".tokens";
+    /** The extension of the golden tree of a sample. */
+    static final String TREE = ".tree";
+    
+    /** The directory of the golden files. */
+    private final File directory;
+    /** Whether the golden files are written rather than checked. */
+    private final boolean update;
+    
+    /**
+     * @param directory The directory of the golden files.
+     * @param update Whether the golden files are written rather than checked.
+     */
+    Golden (File directory, boolean update) {
+        this.directory = directory;
+        this.update = update;
+    }
+    
+    /**
+     * Checks the tokens and tree of a sample against its golden files, or
+     * writes them.
+     * 
+     * @param name The name of the sample.
+     * @param tree The tree of the sample.
+     * @return What differs, or {@code null} if nothing does.
+     * @throws IOException If a golden file could not be read or written.
+     */
+    String check (String name, SearchTree tree) throws IOException {
+        String tokens = check(new File(directory, name + TOKENS), tokens(tree.tokens()));
+        String nodes = check(new File(directory, name + TREE), tree(tree));
+        
+        return tokens != null ? tokens : nodes;
+    }
+    
+    private String check (File golden, String actual) throws IOException {
+        if (update) {
+            Files.createDirectories(directory.toPath());
+            Files.write(golden.toPath(), actual.getBytes(StandardCharsets.UTF_8));
+            return null;
+        }
+        
+        if (!golden.isFile()) { return golden + " does not exist; run with -Dperf.update=true to write it."; }
+        
+        List<String> expected = Files.readAllLines(golden.toPath(), StandardCharsets.UTF_8);
+        String[] lines = actual.split("\n", -1);
+        
+        for (int i = 0; i < Math.max(expected.size(), lines.length - 1); i++) {
+            String want = i < expected.size() ? expected.get(i) : "<end>";
+            String got = i < lines.length - 1 ? lines[i] : "<end>";
+            
+            if (!want.equals(got)) {
+                return golden + ", line " + (i + 1) + ": expected \"" + want + "\", found \"" + got + "\".";
+            }
+        }
+        
+        return null;
+    }
+    
+    /**
+     * @param tokens The tokens of a file.
+     * @return The tokens, one a line, with their place and type.
+     */
+    static String tokens (Token[] tokens) {
+        StringBuilder out = new StringBuilder();
+        
+        for (Token token : tokens) {
+            out.append(token.line()).append(':').append(token.column()).append(' ')
+                    .append(token.type().name()).append(' ').append(token.value()).append('\n');
+        }
+        
+        return out.toString();
+    }
+    
+    /**
+     * @param tree The tree of a file.
+     * @return The nodes of the tree, one a line, indented under their parent.
+     */
+    static String tree (SearchTree tree) {
+        StringBuilder out = new StringBuilder();
+        
+        node(tree, tree.root(), 0, out);
+        return out.toString();
+    }
+    
+    private static void node (SearchTree tree, int node, int depth, StringBuilder out) {
+        for (int i = 0; i < depth; i++) { out.append("  "); }
+        
+        out.append(tree.kind(node)).append(" [").append(tree.first(node)).append(", ").append(tree.last(node)).append(']');
+        
+        if (tree.token(node) < tree.tokens().length) { out.append(" '").append(tree.tokenOf(node).value()).append('\''); }
+        if (tree.name(node) != Token.NO_SYMBOL) { out.append(" name=").append(tree.names().name(tree.name(node))); }
+        if (tree.flags(node) != 0) { out.append(" flags=").append(Integer.toHexString(tree.flags(node))); }
+        
+        out.append('\n');
+        
+        for (int child = tree.firstChild(node); child != SearchTree.NONE; child = tree.nextSibling(child)) {
+            node(tree, child, depth + 1, out);
+        }
+    }
+}
@@ -0,0 +1,353 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 SoraKatadzuma.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package cherry.perf;
+
+import cherry.frontend.grammar.Token;
+import cherry.frontend.lexer.Lexer;
+import cherry.frontend.parser.StemParser;
+import cherry.frontend.semantics.Builtins;
+import cherry.utils.Diagnostics;
+import cherry.utils.SearchTree;
+import cherry.utils.SymbolPool;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+
+/**
+ * The {@code RegressionSuite} guards the speed of the front end before a
+ * release. It lexes and parses two corpora, the samples the repository keeps
+ * and a large corpus of made up programs, and:
+ * <ul>
+ * <li>checks the tokens and tree of every sample, and of one made up file,
+ * against their golden files, so that a faster front end is still right;</li>
+ * <li>measures the tokens lexed a second, reading every file from disk, which
+ * is the speed of the {@code LexicalReader} and {@code Lexer};</li>
+ * <li>measures the tokens parsed a second, of tokens already lexed, which is
+ * the speed of the parser alone;</li>
+ * <li>measures the files lexed and parsed a second, and the bytes allocated
+ * for each token while doing so.</li>
+ * </ul>
+ * <p>
+ * Each measurement is the best of several rounds, after rounds to warm up,
+ * and is compared with the baseline kept in the repository. Every round also
+ * times a fixed piece of work that is none of the front end, and the speeds
+ * kept in the baseline are scaled by how much faster or slower that work is
+ * than when the baseline was measured, so that a busy machine is not taken
+ * for a slow front end. The suite fails
+ * when any is worse than the baseline by more than the threshold, in percent,
+ * kept with the baseline, or given as {@code -Dperf.threshold}. Given
+ * {@code -Dperf.update=true}, it writes the golden files and the baseline
+ * instead, which is done on purpose, on the machine releases are measured on.
+ * </p>
+ * 
+ * @author SoraKatadzuma
+ * @version Alpha 0.0.1
+ * @since 10/18/2026
+ */
+public final class RegressionSuite {
+    /** The rounds not measured, for the JIT to compile the front end. */
+    private static final int WARMUP = 15;
+    /** The rounds measured, of which the best counts. */
+    private static final int ROUNDS = 15;
+    /** The files of the made up corpus. */
+    private static final int SYNTHETIC_FILES = 200;
+    /** The classes of each file of the made up corpus. */
+    private static final int SYNTHETIC_CLASSES = 12;
+    /** The made up file that is checked against golden files. */
+    private static final String SYNTHETIC_GOLDEN = "Synthetic0";
+    
+    /** The measure of the speed of the machine, rather than of the front end. */
+    private static final String CALIBRATION = "calibration.bytes.per.second";
+    /** The measures that are better when lower; all the others are better when higher. */
+    private static final List<String> LOWER_IS_BETTER = Arrays.asList("allocated.bytes.per.token");
+    /** The measures of time, which are scaled by the speed of the machine. */
+    private static final List<String> TIMED = Arrays.asList(
+            "lex.tokens.per.second", "parse.tokens.per.second", "files.per.second");
+    /** The times the calibration goes over its bytes. */
+    private static final int CALIBRATION_PASSES = 16;
+    /** The bytes the machine is calibrated on. */
+    private static final byte[] CALIBRATION_INPUT = new byte[1 << 20];
+    /** The pool the names of every file are placed in, as in one compilation. */
+    private static final SymbolPool NAMES = Builtins.pool();
+    /** What the calibration computes, kept so that it is not optimized away. */
+    private static long calibrated;
+    
+    private RegressionSuite () {}
+    
+    /**
+     * @param args The directory of the samples, the directory of the golden
+     * files, and the baseline file.
+     * @throws Exception If a file could not be read or written.
+     */
+    public static void main (String[] args) throws Exception {
+        if (args.length != 3) {
+            System.err.println("Usage: RegressionSuite <samples> <golden> <baseline>");
+            System.exit(2);
+        }
+        
+        File samples = new File(args[0]);
+        File baselineFile = new File(args[2]);
+        boolean update = Boolean.getBoolean("perf.update");
+        Golden golden = new Golden(new File(args[1]), update);
+        File synthetic = Files.createTempDirectory("cherry-perf").toFile();
+        List<String> failures = new ArrayList<>();
+        
+        try {
+            List<File> corpus = new ArrayList<>(samples(samples));
+            
+            // The samples are checked first, one at a time, as their goldens were written.
+            for (File sample : corpus) { check(golden, sample, sample.getName(), failures); }
+            
+            List<File> made = SyntheticCorpus.write(synthetic, SYNTHETIC_FILES, SYNTHETIC_CLASSES);
+            
+            check(golden, made.get(0), SYNTHETIC_GOLDEN, failures);
+            corpus.addAll(made);
+            
+            Map<String, Double> measured = measure(corpus);
+            Properties baseline = load(baselineFile);
+            double threshold = Double.parseDouble(System.getProperty("perf.threshold",
+                    baseline.getProperty("threshold", "15")));
+            
+            // A machine slower than when the baseline was measured, for as
+            // long as the suite runs, is expected to be slower at everything.
+            String keptSpeed = baseline.getProperty(CALIBRATION);
+            double speed = keptSpeed == null ? 1 : measured.get(CALIBRATION) / Double.parseDouble(keptSpeed);
+            
+            for (Map.Entry<String, Double> measure : measured.entrySet()) {
+                String name = measure.getKey();
+                String kept = baseline.getProperty(name);
+                
+                if (update || kept == null || name.equals(CALIBRATION)) {
+                    System.out.printf("%-28s %14.1f%n", name, measure.getValue());
+                    continue;
+                }
+                
+                double was = Double.parseDouble(kept) * (TIMED.contains(name) ? speed : 1);
+                double change = (measure.getValue() - was) / was * 100;
+                double worse = LOWER_IS_BETTER.contains(name) ? change : -change;
+                
+                System.out.printf("%-28s %14.1f  baseline %14.1f  %+6.1f%%%n", name, measure.getValue(), was, change);
+                
+                if (worse > threshold) {
+                    failures.add(String.format("%s is %.1f%% worse than the baseline, more than %.1f%%.", name, worse, threshold));
+                }
+            }
+            
+            if (update) {
+                write(baselineFile, baseline.getProperty("threshold", "15"), measured);
+                
+                System.out.println("Wrote the golden files and " + baselineFile + ".");
+            }
+        } finally {
+            for (File file : synthetic.listFiles()) { file.delete(); }
+            
+            synthetic.delete();
+        }
+        
+        for (String failure : failures) { System.out.println("FAILED: " + failure); }
+        
+        System.exit(failures.isEmpty() ? 0 : 1);
+    }
+    
+    private static List<File> samples (File directory) throws IOException {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(".cherry"));
+        
+        if (files == null || files.length == 0) { throw new IOException("There are no samples in " + directory + "."); }
+        
+        Arrays.sort(files);
+        return Arrays.asList(files);
+    }
+    
+    private static void check (Golden golden, File file, String name, List<String> failures) throws IOException {
+        Diagnostics found = new Diagnostics();
+        byte[] source = Files.readAllBytes(file.toPath());
+        Lexer lexer = new Lexer(file, source, source.length, NAMES, found);
+        
+        lexer.lex();
+        
+        SearchTree tree = new StemParser(NAMES, found).parse(file, lexer.getTokens());
+        
+        if (found.errors() > 0) {
+            failures.add(name + " has errors, the first being: " + found.all().get(0) + ".");
+        }
+        
+        String differs = golden.check(name, tree);
+        
+        if (differs != null) { failures.add(differs); }
+    }
+    
+    /**
+     * Measures the front end over a corpus.
+     * 
+     * @return The measures, by name.
+     */
+    private static Map<String, Double> measure (List<File> corpus) {
+        Token[][] lexed = new Token[corpus.size()][];
+        long tokens = 0;
+        long lexing = Long.MAX_VALUE;
+        long parsing = Long.MAX_VALUE;
+        long both = Long.MAX_VALUE;
+        long allocated = Long.MAX_VALUE;
+        long calibration = Long.MAX_VALUE;
+        
+        new Random(0).nextBytes(CALIBRATION_INPUT);
+        
+        // Each phase starts on a collected heap, so that no phase is timed
+        // collecting the garbage of the one before it.
+        for (int round = -WARMUP; round < ROUNDS; round++) {
+            settle();
+            
+            long start = System.nanoTime();
+            
+            for (int i = 0; i < lexed.length; i++) { lexed[i] = lex(corpus.get(i)); }
+            
+            long lexedAt = System.nanoTime();
+            
+            settle();
+            
+            long parseStart = System.nanoTime();
+            
+            for (int i = 0; i < lexed.length; i++) { new StemParser(NAMES, new Diagnostics()).parse(corpus.get(i), lexed[i]); }
+            
+            long parsedAt = System.nanoTime();
+            
+            settle();
+            
+            long bothStart = System.nanoTime();
+            long before = allocatedBytes();
+            
+            for (File file : corpus) { new StemParser(NAMES, new Diagnostics()).parse(file, lex(file)); }
+            
+            long after = allocatedBytes();
+            long bothEnd = System.nanoTime();
+            long calibrationTime = calibrate();
+            
+            if (round < 0) { continue; }
+            
+            calibration = Math.min(calibration, calibrationTime);
+            lexing = Math.min(lexing, lexedAt - start);
+            parsing = Math.min(parsing, parsedAt - parseStart);
+            both = Math.min(both, bothEnd - bothStart);
+            allocated = Math.min(allocated, after - before);
+        }
+        
+        for (Token[] each : lexed) { tokens += each.length; }
+        
+        Map<String, Double> measured = new LinkedHashMap<>();
+        
+        measured.put(CALIBRATION, CALIBRATION_PASSES * (double) CALIBRATION_INPUT.length / (calibration / 1e9));
+        measured.put("lex.tokens.per.second", tokens / (lexing / 1e9));
+        measured.put("parse.tokens.per.second", tokens / (parsing / 1e9));
+        measured.put("files.per.second", corpus.size() / (both / 1e9));
+        
+        if (allocatedBytes() >= 0) { measured.put("allocated.bytes.per.token", allocated / (double) tokens); }
+        
+        return measured;
+    }
+    
+    /**
+     * Times work of a fixed size that is like lexing, reading bytes and
+     * branching on them, but is none of the front end.
+     * 
+     * @return The time taken, in nanoseconds.
+     */
+    private static long calibrate () {
+        long start = System.nanoTime();
+        int hash = 0;
+        
+        for (int pass = 0; pass < CALIBRATION_PASSES; pass++) {
+            for (byte each : CALIBRATION_INPUT) {
+                hash = (each & 0x40) != 0 ? hash * 31 + each : hash ^ (each << pass);
+            }
+        }
+        
+        calibrated += hash;
+        return System.nanoTime() - start;
+    }
+    
+    private static void settle () {
+        System.gc();
+        System.gc();
+    }
+    
+    private static Token[] lex (File file) {
+        Lexer lexer = new Lexer(file, NAMES, new Diagnostics());
+        
+        lexer.lex();
+        return lexer.getTokens();
+    }
+    
+    /**
+     * @return The bytes allocated by this thread so far, or a negative number
+     * if the JVM does not count them.
+     */
+    private static long allocatedBytes () {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        
+        return -1;
+    }
+    
+    /**
+     * Writes the baseline, in the order of the measures, without the date
+     * {@code Properties} would write, so it only changes with the measures.
+     */
+    private static void write (File file, String threshold, Map<String, Double> measured) throws IOException {
+        StringBuilder out = new StringBuilder();
+        
+        out.append("# The front end, as measured by cherry.perf.RegressionSuite.\n");
+        out.append("# The suite fails when a measure is worse by more than the threshold, in percent.\n");
+        out.append("threshold=").append(threshold).append('\n');
+        
+        for (Map.Entry<String, Double> measure : measured.entrySet()) {
+            out.append(measure.getKey()).append('=').append(String.format(Locale.ROOT, "%.1f", measure.getValue())).append('\n');
+        }
+        
+        Files.write(file.toPath(), out.toString().getBytes(StandardCharsets.ISO_8859_1));
+    }
+    
+    private static Properties load (File file) throws IOException {
+        Properties properties = new Properties();
+        
+        if (file.isFile()) {
+            try (InputStream in = Files.newInputStream(file.toPath())) { properties.load(in); }
+        }
+        
+        return properties;
+    }
+}
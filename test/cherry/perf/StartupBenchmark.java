@@ -0,0 +1,148 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 SoraKatadzuma.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package cherry.perf;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The {@code StartupBenchmark} measures how soon the compiler starts working,
+ * which is most of the time taken by a small incremental build. It starts the
+ * compiler many times over the same files, without the class data archive and
+ * then with it, running them straight from their source, and reports the time
+ * to the first output: from starting the process until the program prints its
+ * first line, which it can only do once the compiler has lexed, parsed and
+ * analyzed it. The time until the process ends is reported beside it.
+ * <p>
+ * The compiler is started as the launcher would start it, from the jar, so
+ * the times include starting the JVM and loading the classes of the compiler,
+ * which is what the archive saves.
+ * </p>
+ * 
+ * @author SoraKatadzuma
+ * @version Alpha 0.0.1
+ * @since 10/18/2026
+ */
+public final class StartupBenchmark {
+    /** The runs of each kind not measured, made so the files are in the page cache. */
+    private static final int WARMUP = 2;
+    
+    private StartupBenchmark () {}
+    
+    /**
+     * @param args The jar of the compiler, its class data archive, the number
+     * of runs of each kind, and the files to compile.
+     * @throws Exception If the compiler could not be started.
+     */
+    public static void main (String[] args) throws Exception {
+        if (args.length < 4) {
+            System.err.println("Usage: StartupBenchmark <jar> <archive> <runs> <file>...");
+            System.exit(2);
+        }
+        
+        File jar = new File(args[0]);
+        File archive = new File(args[1]);
+        int runs = Integer.parseInt(args[2]);
+        List<String> files = Arrays.asList(args).subList(3, args.length);
+        
+        report("without archive", measure(command(jar, null, files), runs));
+        
+        if (archive.isFile()) {
+            report("with archive", measure(command(jar, archive, files), runs));
+        } else {
+            System.out.println("There is no archive at " + archive + ": run \"ant cds\" first.");
+        }
+    }
+    
+    private static List<String> command (File jar, File archive, List<String> files) {
+        List<String> command = new ArrayList<>();
+        
+        command.add(new File(new File(System.getProperty("java.home"), "bin"), "java").getPath());
+        
+        if (archive != null) { command.add("-XX:SharedArchiveFile=" + archive.getPath()); }
+        
+        command.add("-cp");
+        command.add(jar.getPath());
+        command.add("cherry.Cherry");
+        command.add("--run");
+        command.addAll(files);
+        return command;
+    }
+    
+    /**
+     * Runs the compiler.
+     * 
+     * @return The times to the first token, then the times to the end, in nanoseconds.
+     */
+    private static long[][] measure (List<String> command, int runs) throws IOException, InterruptedException {
+        long[][] times = new long[2][runs];
+        
+        for (int run = -WARMUP; run < runs; run++) {
+            long start = System.nanoTime();
+            Process process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+            InputStream out = process.getInputStream();
+            
+            // Nothing but the program prints to the standard output.
+            for (int ch = out.read(); ch != -1 && ch != '\n'; ch = out.read()) { }
+            
+            long first = System.nanoTime();
+            byte[] rest = new byte[8192];
+            
+            while (out.read(rest) != -1) { }
+            
+            if (process.waitFor() != 0) { throw new IOException("The compiler failed: " + command); }
+            
+            if (run >= 0) {
+                times[0][run] = first - start;
+                times[1][run] = System.nanoTime() - start;
+            }
+        }
+        
+        return times;
+    }
+    
+    private static void report (String kind, long[][] times) {
+        System.out.printf("%-16s first output: median %6.1f ms, best %6.1f ms; done: median %6.1f ms%n",
+                kind, median(times[0]), best(times[0]), median(times[1]));
+    }
+    
+    private static double median (long[] times) {
+        long[] sorted = times.clone();
+        
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2] / 1e6;
+    }
+    
+    private static double best (long[] times) {
+        long best = Long.MAX_VALUE;
+        
+        for (long time : times) { best = Math.min(best, time); }
+        
+        return best / 1e6;
+    }
+}
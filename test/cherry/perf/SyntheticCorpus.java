@@ -0,0 +1,182 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 SoraKatadzuma.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package cherry.perf;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The {@code SyntheticCorpus} writes programs made up for measuring the lexer
+ * and parser: many files of many classes, with every kind of declaration,
+ * statement and expression the grammar knows, in the proportions of ordinary
+ * code. The programs are made from a fixed seed, so the same corpus is written
+ * every time, and measurements of it can be compared between builds.
+ * 
+ * @author SoraKatadzuma
+ * @version Alpha 0.0.1
+ * @since 10/18/2026
+ */
+final class SyntheticCorpus {
+    /** The seed the programs are made from. */
+    private static final long SEED = 0x43686572L;
+    /** The operators of arithmetic expressions. */
+    private static final String[] OPERATORS = { "+", "-", "*", "/", "%", "<<", ">>", "&", "|", "^" };
+    /** The math keywords. */
+    private static final String[] INTRINSICS = { "sqrt", "exp", "log", "ln", "cos", "sin", "tan" };
+    
+    /** Where the programs are made from. */
+    private final Random random = new Random(SEED);
+    
+    /**
+     * Writes the corpus.
+     * 
+     * @param directory The directory to write the files into.
+     * @param files The number of files.
+     * @param classes The number of classes in each file.
+     * @return The files, in the order they were written.
+     * @throws IOException If a file could not be written.
+     */
+    static List<File> write (File directory, int files, int classes) throws IOException {
+        SyntheticCorpus corpus = new SyntheticCorpus();
+        List<File> written = new ArrayList<>(files);
+        
+        Files.createDirectories(directory.toPath());
+        
+        for (int i = 0; i < files; i++) {
+            File file = new File(directory, "Synthetic" + i + ".cherry");
+            
+            Files.write(file.toPath(), corpus.program(i, classes).getBytes(StandardCharsets.UTF_8));
+            written.add(file);
+        }
+        
+        return written;
+    }
+    
+    /**
+     * @param index The index of the file.
+     * @param classes The number of classes.
+     * @return The source of one file.
+     */
+    String program (int index, int classes) {
+        StringBuilder out = new StringBuilder();
+        
+        out.append("use System;\n\nnamespace Synthetic").append(index).append(";\n\n");
+        out.append("public interface Measured").append(index).append(" {\n    double measure();\n}\n\n");
+        out.append("public enum State").append(index).append(" { IDLE, BUSY, DONE }\n\n");
+        
+        for (int i = 0; i < classes; i++) { type(out, index, i); }
+        
+        return out.toString();
+    }
+    
+    private void type (StringBuilder out, int file, int index) {
+        out.append("public class Type").append(index).append(" inherits Measured").append(file).append(" {\n");
+        out.append("    static int instances = ").append(random.nextInt(100)).append(";\n");
+        out.append("    int count;\n");
+        out.append("    long total = 0x").append(Integer.toHexString(random.nextInt(1 << 20))).append("L;\n");
+        out.append("    double ratio = ").append(random.nextInt(1000)).append(".").append(random.nextInt(100)).append(";\n");
+        out.append("    string name = \"type ").append(index).append("\";\n");
+        out.append("    int[] cells = new int[").append(1 + random.nextInt(16)).append("];\n\n");
+        
+        int methods = 3 + random.nextInt(4);
+        
+        for (int i = 0; i < methods; i++) { method(out, i); }
+        
+        out.append("    public double measure() {\n");
+        out.append("        return ").append(INTRINSICS[random.nextInt(INTRINSICS.length)]).append("(ratio) * count;\n");
+        out.append("    }\n}\n\n");
+    }
+    
+    private void method (StringBuilder out, int index) {
+        out.append("    int step").append(index).append("(int a, int b) {\n");
+        out.append("        int s = a;\n");
+        
+        int statements = 2 + random.nextInt(5);
+        
+        for (int i = 0; i < statements; i++) { statement(out, index, "        "); }
+        
+        out.append("        return s;\n    }\n\n");
+    }
+    
+    private void statement (StringBuilder out, int method, String indent) {
+        switch (random.nextInt(7)) {
+            case 0:
+                out.append(indent).append("for (int i = 0; i < cells.length; i++) {\n");
+                out.append(indent).append("    cells[i] += ").append(expression(2)).append(";\n");
+                out.append(indent).append("    s += cells[i];\n");
+                out.append(indent).append("}\n");
+                break;
+            case 1:
+                out.append(indent).append("if (s > ").append(random.nextInt(50)).append(" && b != 0) {\n");
+                out.append(indent).append("    s = s / b;\n");
+                out.append(indent).append("} else {\n");
+                out.append(indent).append("    s = ").append(expression(3)).append(";\n");
+                out.append(indent).append("}\n");
+                break;
+            case 2:
+                out.append(indent).append("while (s < ").append(100 + random.nextInt(900)).append(") {\n");
+                out.append(indent).append("    s = s * 2 + 1;\n");
+                out.append(indent).append("    if (s % 7 == 0) { break; }\n");
+                out.append(indent).append("}\n");
+                break;
+            case 3:
+                out.append(indent).append("System.println(name + \": \" + s + ' ' + (s > b ? \"more\" : \"less\"));\n");
+                break;
+            case 4:
+                out.append(indent).append("count++;\n");
+                out.append(indent).append("total += s << ").append(1 + random.nextInt(8)).append(";\n");
+                break;
+            case 5:
+                out.append(indent).append("do { s -= ").append(1 + random.nextInt(9)).append("; } while (s > b);\n");
+                break;
+            default:
+                out.append(indent).append("s = ").append(method > 0 ? "step" + (method - 1) + "(s, b)" : "s").append(" + ")
+                        .append(expression(2)).append(";\n");
+                break;
+        }
+    }
+    
+    private String expression (int depth) {
+        if (depth == 0) {
+            switch (random.nextInt(4)) {
+                case 0: return "a";
+                case 1: return "b";
+                case 2: return "s";
+                default: return Integer.toString(random.nextInt(1000));
+            }
+        }
+        
+        String left = expression(depth - 1);
+        String right = expression(depth - 1);
+        
+        return random.nextInt(3) == 0
+                ? "(" + left + " " + OPERATORS[random.nextInt(OPERATORS.length)] + " " + right + ")"
+                : left + " " + OPERATORS[random.nextInt(OPERATORS.length)] + " " + right;
+    }
+}
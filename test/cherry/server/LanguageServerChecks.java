@@ -0,0 +1,372 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 SoraKatadzuma.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package cherry.server;
+
+import cherry.CherryLanguageServer;
+import cherry.frontend.grammar.Token;
+import cherry.frontend.semantics.Builtins;
+import cherry.utils.SearchTree;
+import cherry.utils.SymbolPool;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@code LanguageServerChecks} check the language server the way an
+ * editor talks to it: messages are written to it and read from it over piped
+ * streams while it runs on a thread of its own, from the initialization to
+ * the shutdown, and each answer is checked. An edit of a large document is
+ * also checked to lex again only the tokens around it, and to come out as
+ * the document would if it were opened anew.
+ * <p>
+ * These are plain checks rather than JUnit tests, because the project has no
+ * test framework on its classpath. The process exits with 1 when any check
+ * fails.
+ * </p>
+ * 
+ * @author SoraKatadzuma
+ * @version Alpha 0.0.1
+ * @since 10/18/2026
+ */
+public final class LanguageServerChecks {
+    /** The identifier of the document opened. */
+    private static final String URI = new File("Area.cherry").getAbsoluteFile().toURI().toString();
+    /** The document opened, whose lines are counted from zero by the protocol. */
+    private static final String TEXT =
+              "namespace Shapes;\n"
+            + "\n"
+            + "public class Area {\n"
+            + "    static int width = 4;\n"
+            + "    static int square(int side) { return side * side; }\n"
+            + "    static void main() {\n"
+            + "        int result = square(width);\n"
+            + "    }\n"
+            + "}\n";
+    /** The number of classes in the large document edited. */
+    private static final int CLASSES = 500;
+    /** What every failed check reported. */
+    private static final List<String> failures = new ArrayList<>();
+    
+    /** Where messages to the server are written. */
+    private final OutputStream toServer;
+    /** Where messages from the server are read. */
+    private final InputStream fromServer;
+    /** The identifier of the last request. */
+    private int id;
+    
+    private LanguageServerChecks (OutputStream toServer, InputStream fromServer) {
+        this.toServer = toServer;
+        this.fromServer = fromServer;
+    }
+    
+    /**
+     * @param args Unused.
+     * @throws Exception If the server could not be talked to.
+     */
+    public static void main (String[] args) throws Exception {
+        PipedOutputStream toServer = new PipedOutputStream();
+        PipedInputStream serverIn = new PipedInputStream(toServer, 1 << 16);
+        PipedOutputStream serverOut = new PipedOutputStream();
+        PipedInputStream fromServer = new PipedInputStream(serverOut, 1 << 16);
+        int[] exitCode = { -1 };
+        Thread server = new Thread(() -> exitCode[0] = new CherryLanguageServer(serverIn, serverOut).run(), "server");
+        
+        server.setDaemon(true);
+        server.start();
+        
+        new LanguageServerChecks(toServer, fromServer).session();
+        server.join(10000);
+        expect("server exits after the shutdown", !server.isAlive() && exitCode[0] == 0);
+        
+        editsLexOnlyAroundThem();
+        
+        for (String failure : failures) { System.out.println("FAILED: " + failure); }
+        
+        System.out.println(failures.isEmpty() ? "All language server checks passed." : failures.size() + " checks failed.");
+        System.exit(failures.isEmpty() ? 0 : 1);
+    }
+    
+    /**
+     * Opens a document, edits it into an error and out of it again, asks for
+     * its symbols and the definitions of two names, then shuts the server
+     * down.
+     */
+    private void session () throws IOException {
+        Object result = request("initialize", Json.object("processId", null, "capabilities", Json.object()));
+        
+        expect("incremental synchronization", Json.getInt(result, "capabilities", "textDocumentSync", "change") == 2);
+        expect("symbols are provided", Boolean.TRUE.equals(Json.get(result, "capabilities", "documentSymbolProvider")));
+        expect("definitions are provided", Boolean.TRUE.equals(Json.get(result, "capabilities", "definitionProvider")));
+        
+        notify("textDocument/didOpen", Json.object("textDocument",
+                Json.object("uri", URI, "languageId", "cherry", "version", 1, "text", TEXT)));
+        expectDiagnostics("opened document", 1);
+        
+        // "width" becomes "height", which names nothing.
+        change(2, 6, 28, 6, 33, "height");
+        
+        List<?> errors = expectDiagnostics("edited document", 2);
+        
+        expect("edit is an error", errors.size() == 1 && "S002".equals(Json.get(errors.get(0), "code")));
+        expect("error is at the edit", errors.size() == 1 && rangeIs(Json.get(errors.get(0), "range"), 6, 28, 6, 34));
+        
+        change(3, 6, 28, 6, 34, "width");
+        expect("error is fixed", expectDiagnostics("fixed document", 3).isEmpty());
+        
+        List<?> symbols = (List<?>) request("textDocument/documentSymbol",
+                Json.object("textDocument", Json.object("uri", URI)));
+        
+        expect("namespace and class symbols", symbols != null && symbols.size() == 2
+                && "Shapes".equals(Json.get(symbols.get(0), "name")) && Json.getInt(symbols.get(0), "kind") == 3
+                && "Area".equals(Json.get(symbols.get(1), "name")) && Json.getInt(symbols.get(1), "kind") == 5);
+        
+        if (symbols != null && symbols.size() == 2) {
+            List<?> members = (List<?>) Json.get(symbols.get(1), "children");
+            List<String> described = new ArrayList<>();
+            
+            for (Object member : members) { described.add(Json.get(member, "name") + ":" + Json.getInt(member, "kind")); }
+            
+            expect("member symbols", described.equals(Arrays.asList("width:8", "square:6", "main:6")));
+            expect("class range", rangeIs(Json.get(symbols.get(1), "range"), 2, 0, 8, 1));
+            expect("member name range", rangeIs(Json.get(members.get(1), "selectionRange"), 4, 15, 4, 21));
+        }
+        
+        Object square = definition(6, 22);
+        Object width = definition(6, 30);
+        
+        expect("definition of a method", URI.equals(Json.get(square, "uri")) && rangeIs(Json.get(square, "range"), 4, 15, 4, 21));
+        expect("definition of a field", URI.equals(Json.get(width, "uri")) && rangeIs(Json.get(width, "range"), 3, 15, 3, 20));
+        Object declared = definition(4, 17);
+        
+        expect("a declaration is its own definition", rangeIs(Json.get(declared, "range"), 4, 15, 4, 21));
+        expect("no definition of a literal", definition(3, 23) == null);
+        
+        request("shutdown", null);
+        notify("exit", null);
+    }
+    
+    /**
+     * Edits a document much larger than the edit, then checks that only the
+     * tokens around the edit were lexed again, and that the tokens and tree
+     * after it are those of the edited text opened anew. The tree is parsed
+     * again whole, as a {@code Document} does after every edit.
+     */
+    private static void editsLexOnlyAroundThem () {
+        SymbolPool names = Builtins.pool();
+        StringBuilder text = new StringBuilder("namespace Large;\n\n");
+        
+        for (int i = 0; i < CLASSES; i++) {
+            text.append("public class C").append(i).append(" {\n")
+                .append("    static int f(int x) { return x * ").append(i).append(" + 1; }\n")
+                .append("}\n");
+        }
+        
+        File file = new File("Large.cherry");
+        Document document = new Document("large", file, text.toString(), names, 1);
+        int opened = document.relexed();
+        int tokens = document.tokens().length;
+        String marker = "return x * " + (CLASSES / 2) + " + 1;";
+        long start = text.indexOf(marker) + "return x * ".length();
+        long end = start + String.valueOf(CLASSES / 2).length();
+        
+        document.edit(start, end, "(x - 7)", 2);
+        text.replace((int) start, (int) end, "(x - 7)");
+        
+        Document fresh = new Document("large", file, text.toString(), names, 2);
+        
+        expect("opening lexes every token", opened == tokens && tokens > CLASSES * 10);
+        expect("edit lexes a handful of tokens", document.relexed() > 0 && document.relexed() <= 8);
+        expect("edited text", document.text().equals(text.toString()));
+        expect("edited token count", document.tokens().length == fresh.tokens().length);
+        
+        for (int i = 0; i < Math.min(document.tokens().length, fresh.tokens().length); i++) {
+            String wanted = describe(fresh.tokens()[i]);
+            String got = describe(document.tokens()[i]);
+            
+            if (!wanted.equals(got)) {
+                failures.add("edited token " + i + ": expected " + wanted + " but was " + got);
+                break;
+            }
+        }
+        
+        SearchTree expected = fresh.tree();
+        SearchTree actual = document.tree();
+        
+        expect("edited node count", expected.size() == actual.size());
+        
+        for (int node = 0; node < Math.min(expected.size(), actual.size()); node++) {
+            if (expected.kind(node) != actual.kind(node) || expected.name(node) != actual.name(node)
+                    || expected.tokenOf(node).offset() != actual.tokenOf(node).offset()) {
+                failures.add("edited node " + node + ": expected " + expected.kind(node) + " but was " + actual.kind(node));
+                break;
+            }
+        }
+        
+        expect("edited document has no errors", document.syntaxErrors().isEmpty());
+    }
+    
+    private static String describe (Token token) {
+        return token.type() + " '" + token.value() + "' at " + token.offset()
+                + " (" + token.line() + ":" + token.column() + ")";
+    }
+    
+    /* ---------------------------------------------------------------------- */
+    /* Talking to the server.                                                 */
+    /* ---------------------------------------------------------------------- */
+    
+    /**
+     * Replaces a range of the document with some text.
+     */
+    private void change (int version, int fromLine, int fromCharacter, int toLine, int toCharacter, String text)
+            throws IOException {
+        Object range = Json.object(
+                "start", Json.object("line", fromLine, "character", fromCharacter),
+                "end", Json.object("line", toLine, "character", toCharacter));
+        
+        notify("textDocument/didChange", Json.object(
+                "textDocument", Json.object("uri", URI, "version", version),
+                "contentChanges", Arrays.asList(Json.object("range", range, "text", text))));
+    }
+    
+    /**
+     * @return The location of the definition of the name at a position.
+     */
+    private Object definition (int line, int character) throws IOException {
+        return request("textDocument/definition", Json.object(
+                "textDocument", Json.object("uri", URI),
+                "position", Json.object("line", line, "character", character)));
+    }
+    
+    /**
+     * Reads the diagnostics published for a version of the document, which
+     * every change is answered with.
+     * 
+     * @return The diagnostics, empty if none were published.
+     */
+    private List<?> expectDiagnostics (String check, int version) throws IOException {
+        Object message = read();
+        Object params = Json.get(message, "params");
+        boolean published = "textDocument/publishDiagnostics".equals(Json.get(message, "method"))
+                && URI.equals(Json.get(params, "uri")) && Json.getInt(params, "version") == version;
+        
+        expect(check + ": diagnostics are published", published);
+        
+        return published ? (List<?>) Json.get(params, "diagnostics") : new ArrayList<>();
+    }
+    
+    /**
+     * Sends a request, and reads messages until its answer.
+     * 
+     * @return The result of the answer.
+     */
+    private Object request (String method, Object params) throws IOException {
+        int sent = ++id;
+        
+        write(Json.object("jsonrpc", "2.0", "id", sent, "method", method, "params", params));
+        
+        while (true) {
+            Object message = read();
+            
+            if (message == null) {
+                failures.add(method + ": no answer");
+                return null;
+            }
+            
+            // Diagnostics published on the way are not what is waited for.
+            if (Json.get(message, "id") == null) { continue; }
+            
+            expect(method + ": answered in order", Json.getInt(message, "id") == sent);
+            expect(method + ": no error", Json.get(message, "error") == null);
+            
+            return Json.get(message, "result");
+        }
+    }
+    
+    private void notify (String method, Object params) throws IOException {
+        write(Json.object("jsonrpc", "2.0", "method", method, "params", params));
+    }
+    
+    private void write (Map<String, Object> message) throws IOException {
+        byte[] content = Json.write(message).getBytes(StandardCharsets.UTF_8);
+        
+        toServer.write(("Content-Length: " + content.length + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+        toServer.write(content);
+        toServer.flush();
+    }
+    
+    /**
+     * @return The next message from the server, or {@code null} if it ended.
+     */
+    private Object read () throws IOException {
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        int length = -1;
+        int ch;
+        
+        while ((ch = fromServer.read()) != -1) {
+            if (ch == '\r') { continue; }
+            if (ch != '\n') { header.write(ch); continue; }
+            
+            String line = header.toString("US-ASCII");
+            header.reset();
+            
+            if (line.isEmpty()) { break; }
+            if (line.startsWith("Content-Length:")) { length = Integer.parseInt(line.substring(15).trim()); }
+        }
+        
+        if (ch == -1 || length < 0) { return null; }
+        
+        byte[] content = new byte[length];
+        
+        for (int read = 0; read < length; ) {
+            int count = fromServer.read(content, read, length - read);
+            
+            if (count < 0) { return null; }
+            
+            read += count;
+        }
+        
+        return Json.parse(new String(content, StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * @return true if a range of the protocol is the one given.
+     */
+    private static boolean rangeIs (Object range, int fromLine, int fromCharacter, int toLine, int toCharacter) {
+        return Json.getInt(range, "start", "line") == fromLine && Json.getInt(range, "start", "character") == fromCharacter
+                && Json.getInt(range, "end", "line") == toLine && Json.getInt(range, "end", "character") == toCharacter;
+    }
+    
+    private static void expect (String check, boolean passed) {
+        if (!passed) { failures.add(check); }
+    }
+}
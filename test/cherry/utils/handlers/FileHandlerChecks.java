@@ -0,0 +1,184 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 SoraKatadzuma.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package cherry.utils.handlers;
+
+import cherry.utils.Diagnostic;
+import cherry.utils.Diagnostics;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The {@code FileHandlerChecks} check how the {@code FileHandler} expands its
+ * inputs: the recursive walk of a directory, and the entries of an argument
+ * file. Each check builds a small source tree in a temporary directory and
+ * compares the registered files, in order, and the diagnostics reported.
+ * <p>
+ * These are plain checks rather than JUnit tests, because the project has no
+ * test framework on its classpath. The process exits with 1 when any check
+ * fails.
+ * </p>
+ * 
+ * @author SoraKatadzuma
+ * @version Alpha 0.0.1
+ * @since 10/18/2026
+ */
+public final class FileHandlerChecks {
+    /** What every failed check reported. */
+    private static final List<String> failures = new ArrayList<>();
+    
+    private FileHandlerChecks () {}
+    
+    /**
+     * @param args Unused.
+     * @throws IOException If the source tree could not be written.
+     */
+    public static void main (String[] args) throws IOException {
+        File root = Files.createTempDirectory("cherry-files").toFile();
+        
+        try {
+            // root/
+            //   .hidden/h.cherry   hidden, skipped
+            //   a.cherry
+            //   b.ch
+            //   notes.txt          improper, skipped
+            //   sub/c.ry
+            //   sub/deeper/d.cherry
+            //   weird.ch/e.cherry  a directory with a proper name
+            write(root, ".hidden/h.cherry");
+            write(root, "a.cherry");
+            write(root, "b.ch");
+            write(root, "notes.txt");
+            write(root, "sub/c.ry");
+            write(root, "sub/deeper/d.cherry");
+            write(root, "weird.ch/e.cherry");
+            
+            walksDirectories(root);
+            expandsArgumentFiles(root);
+        } finally {
+            delete(root);
+        }
+        
+        for (String failure : failures) { System.out.println("FAILED: " + failure); }
+        
+        System.out.println(failures.isEmpty() ? "All file handler checks passed." : failures.size() + " checks failed.");
+        System.exit(failures.isEmpty() ? 0 : 1);
+    }
+    
+    /**
+     * A directory is walked recursively, in name order, for properly named
+     * files only.
+     */
+    private static void walksDirectories (File root) {
+        Diagnostics diagnostics = new Diagnostics();
+        FileHandler handler = new FileHandler(new String[] { root.getPath() }, diagnostics);
+        
+        expect("directory walk", names(root, handler.getRegisteredFiles()),
+                "a.cherry", "b.ch", "sub/c.ry", "sub/deeper/d.cherry", "weird.ch/e.cherry");
+        expect("directory walk diagnostics", codes(diagnostics));
+    }
+    
+    /**
+     * The entries of an argument file are registered as if they were given on
+     * the command line, skipping blank lines and comments, and the improper
+     * ones are reported without stopping the rest. An argument file may not
+     * name another argument file.
+     */
+    private static void expandsArgumentFiles (File root) throws IOException {
+        File list = new File(root, "inputs.txt");
+        
+        Files.write(list.toPath(), Arrays.asList(
+                "# The sources of this build.",
+                "",
+                "   " + new File(root, "b.ch").getPath() + "   ",
+                new File(root, "sub").getPath(),
+                new File(root, "missing.cherry").getPath(),
+                new File(root, "notes.txt").getPath(),
+                "@" + list.getPath()), StandardCharsets.UTF_8);
+        
+        Diagnostics diagnostics = new Diagnostics();
+        FileHandler handler = new FileHandler(new String[] {
+            new File(root, "a.cherry").getPath(), "@" + list.getPath(), "@" + new File(root, "absent.txt").getPath()
+        }, diagnostics);
+        
+        expect("argument file", names(root, handler.getRegisteredFiles()),
+                "a.cherry", "b.ch", "sub/c.ry", "sub/deeper/d.cherry");
+        expect("argument file diagnostics", codes(diagnostics),
+                Diagnostic.Code.FILE_NOT_FOUND.name(),
+                Diagnostic.Code.IMPROPER_FILE.name(),
+                Diagnostic.Code.IMPROPER_FILE.name(),
+                Diagnostic.Code.UNREADABLE_ARGUMENT_FILE.name());
+    }
+    
+    private static void expect (String check, List<String> actual, String... expected) {
+        if (!actual.equals(Arrays.asList(expected))) {
+            failures.add(check + ": expected " + Arrays.asList(expected) + " but was " + actual);
+        }
+    }
+    
+    private static List<String> names (File root, File[] files) {
+        List<String> names = new ArrayList<>();
+        String prefix = root.getPath() + File.separator;
+        
+        for (File file : files) {
+            String path = file.getPath();
+            
+            names.add((path.startsWith(prefix) ? path.substring(prefix.length()) : path).replace(File.separatorChar, '/'));
+        }
+        
+        return names;
+    }
+    
+    private static List<String> codes (Diagnostics diagnostics) {
+        List<String> codes = new ArrayList<>();
+        
+        for (Diagnostic diagnostic : diagnostics.all()) { codes.add(diagnostic.code().name()); }
+        
+        // Diagnostics are ordered by place, and the places are temporary.
+        Collections.sort(codes);
+        return codes;
+    }
+    
+    private static void write (File root, String name) throws IOException {
+        File file = new File(root, name);
+        
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), new byte[0]);
+    }
+    
+    private static void delete (File file) {
+        File[] children = file.listFiles();
+        
+        if (children != null) {
+            for (File child : children) { delete(child); }
+        }
+        
+        file.delete();
+    }
+}